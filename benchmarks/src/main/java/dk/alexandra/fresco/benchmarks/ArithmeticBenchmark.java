@@ -0,0 +1,90 @@
+package dk.alexandra.fresco.benchmarks;
+
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.tools.mascot.field.FieldElement;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the arithmetic of the element types of the arithmetic suites.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArithmeticBenchmark {
+
+  private BigInteger constant;
+  private SpdzSInt spdzLeft;
+  private SpdzSInt spdzRight;
+  private CompUInt128 uintLeft;
+  private CompUInt128 uintRight;
+  private FieldElement fieldLeft;
+  private FieldElement fieldRight;
+
+  /**
+   * Samples the operands.
+   */
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    BigInteger modulus = ModulusFinder.findSuitableModulus(128);
+    constant = new BigInteger(127, random);
+    spdzLeft = new SpdzSInt(new BigInteger(127, random), new BigInteger(127, random), modulus);
+    spdzRight = new SpdzSInt(new BigInteger(127, random), new BigInteger(127, random), modulus);
+    uintLeft = new CompUInt128(new BigInteger(128, random));
+    uintRight = new CompUInt128(new BigInteger(128, random));
+    fieldLeft = new FieldElement(new BigInteger(127, random), modulus);
+    fieldRight = new FieldElement(new BigInteger(127, random), modulus);
+  }
+
+  @Benchmark
+  public SpdzSInt spdzSIntAdd() {
+    return spdzLeft.add(spdzRight);
+  }
+
+  @Benchmark
+  public SpdzSInt spdzSIntSubtract() {
+    return spdzLeft.subtract(spdzRight);
+  }
+
+  @Benchmark
+  public SpdzSInt spdzSIntMultiplyByConstant() {
+    return spdzLeft.multiply(constant);
+  }
+
+  @Benchmark
+  public CompUInt128 compUInt128Add() {
+    return uintLeft.add(uintRight);
+  }
+
+  @Benchmark
+  public CompUInt128 compUInt128Multiply() {
+    return uintLeft.multiply(uintRight);
+  }
+
+  @Benchmark
+  public FieldElement fieldElementAdd() {
+    return fieldLeft.add(fieldRight);
+  }
+
+  @Benchmark
+  public FieldElement fieldElementMultiply() {
+    return fieldLeft.multiply(fieldRight);
+  }
+}
@@ -0,0 +1,96 @@
+package dk.alexandra.fresco.benchmarks;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import dk.alexandra.fresco.framework.sce.evaluator.ProtocolCollectionList;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the overhead of evaluating a batch with the {@link BatchedStrategy}, using native
+ * protocols that only exchange messages with the party itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchedStrategyBenchmark {
+
+  @Param({"128", "4096"})
+  public int batchSize;
+
+  @Param({"1", "3"})
+  public int rounds;
+
+  private BatchedStrategy<ResourcePool> strategy;
+  private ResourcePool resourcePool;
+  private NetworkBatchDecorator network;
+
+  /**
+   * Creates the strategy and a single party network.
+   */
+  @Setup
+  public void setup() {
+    strategy = new BatchedStrategy<>();
+    resourcePool = new ResourcePoolImpl(1, 1);
+    network = new NetworkBatchDecorator(1, LoopbackNetwork.create(1).get(0));
+  }
+
+  @Benchmark
+  public void processBatch() {
+    ProtocolCollectionList<ResourcePool> protocols = new ProtocolCollectionList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      protocols.addProtocol(new EchoProtocol(rounds));
+    }
+    strategy.processBatch(protocols, resourcePool, network);
+  }
+
+  /**
+   * Native protocol sending a short message to all parties in each round, and receiving it in the
+   * following round.
+   */
+  private static class EchoProtocol implements NativeProtocol<Integer, ResourcePool> {
+
+    private final int rounds;
+    private int received;
+
+    private EchoProtocol(int rounds) {
+      this.rounds = rounds;
+    }
+
+    @Override
+    public EvaluationStatus evaluate(int round, ResourcePool resourcePool, Network network) {
+      if (round > 0) {
+        for (byte[] message : network.receiveFromAll()) {
+          received += message.length;
+        }
+      }
+      if (round == rounds) {
+        return EvaluationStatus.IS_DONE;
+      }
+      network.sendToAll(new byte[]{(byte) round, 1, 2, 3});
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    }
+
+    @Override
+    public Integer out() {
+      return received;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package dk.alexandra.fresco.benchmarks;
+
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * In-process network passing messages between parties running in the same JVM through queues.
+ * Used to benchmark evaluation without the cost and noise of sockets.
+ */
+public class LoopbackNetwork implements CloseableNetwork {
+
+  private final int myId;
+  private final List<List<BlockingQueue<byte[]>>> queues;
+
+  private LoopbackNetwork(int myId, List<List<BlockingQueue<byte[]>>> queues) {
+    this.myId = myId;
+    this.queues = queues;
+  }
+
+  /**
+   * Creates a fully connected set of loopback networks.
+   *
+   * @param noOfParties the number of parties
+   * @return the networks of the parties, where the network of party 1 resides at index 0 and so
+   *     forth
+   */
+  public static List<LoopbackNetwork> create(int noOfParties) {
+    // queues.get(i).get(j) holds the messages from party i + 1 to party j + 1
+    List<List<BlockingQueue<byte[]>>> queues = new ArrayList<>(noOfParties);
+    for (int i = 0; i < noOfParties; i++) {
+      List<BlockingQueue<byte[]>> fromParty = new ArrayList<>(noOfParties);
+      for (int j = 0; j < noOfParties; j++) {
+        fromParty.add(new LinkedBlockingQueue<>());
+      }
+      queues.add(fromParty);
+    }
+    List<LoopbackNetwork> networks = new ArrayList<>(noOfParties);
+    for (int i = 1; i <= noOfParties; i++) {
+      networks.add(new LoopbackNetwork(i, queues));
+    }
+    return networks;
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    queues.get(myId - 1).get(partyId - 1).add(data);
+  }
+
+  @Override
+  public byte[] receive(int partyId) {
+    return ExceptionConverter.safe(() -> queues.get(partyId - 1).get(myId - 1).take(),
+        "Interrupted while receiving");
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return queues.size();
+  }
+
+  @Override
+  public void close() {
+    // Nothing to close
+  }
+}
@@ -0,0 +1,105 @@
+package dk.alexandra.fresco.benchmarks;
+
+import dk.alexandra.fresco.framework.network.serializers.BigIntegerWithFixedLengthSerializer;
+import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks framing of batches in {@link NetworkBatchDecorator} and serialization of field
+ * elements with {@link BigIntegerWithFixedLengthSerializer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkBatchDecoratorBenchmark {
+
+  @Param({"1", "16", "256"})
+  public int messageSize;
+
+  @Param({"4096"})
+  public int batchSize;
+
+  private NetworkBatchDecorator decorator;
+  private byte[][] messages;
+  private BigIntegerWithFixedLengthSerializer serializer;
+  private List<BigInteger> elements;
+  private byte[] serializedElements;
+
+  /**
+   * Creates the messages and elements to send and serialize.
+   */
+  @Setup
+  public void setup() {
+    decorator = new NetworkBatchDecorator(2, LoopbackNetwork.create(2).get(0));
+    Random random = new Random(42);
+    messages = new byte[batchSize][messageSize];
+    for (byte[] message : messages) {
+      random.nextBytes(message);
+    }
+    serializer = new BigIntegerWithFixedLengthSerializer(messageSize);
+    elements = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      elements.add(new BigInteger(messageSize * 8 - 1, random));
+    }
+    serializedElements = serializer.serialize(elements);
+  }
+
+  /**
+   * Frames and flushes a batch to self and receives all messages of the batch.
+   */
+  @Benchmark
+  public void sendAndReceiveBatch(Blackhole blackhole) {
+    for (byte[] message : messages) {
+      decorator.send(1, message);
+    }
+    decorator.flush();
+    for (int i = 0; i < batchSize; i++) {
+      blackhole.consume(decorator.receive(1));
+    }
+  }
+
+  /**
+   * Frames and flushes a batch to self and receives all messages of the batch as buffer views.
+   */
+  @Benchmark
+  public void sendAndReceiveBatchBuffers(Blackhole blackhole) {
+    for (byte[] message : messages) {
+      decorator.send(1, message);
+    }
+    decorator.flush();
+    for (int i = 0; i < batchSize; i++) {
+      ByteBuffer buffer = decorator.receiveBuffer(1);
+      blackhole.consume(buffer);
+    }
+  }
+
+  @Benchmark
+  public byte[] serializeList() {
+    return serializer.serialize(elements);
+  }
+
+  @Benchmark
+  public List<BigInteger> deserializeList() {
+    return serializer.deserializeList(serializedElements);
+  }
+}
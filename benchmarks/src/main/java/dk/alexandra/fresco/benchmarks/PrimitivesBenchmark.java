@@ -0,0 +1,86 @@
+package dk.alexandra.fresco.benchmarks;
+
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTable;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
+import dk.alexandra.fresco.tools.ot.otextension.Transpose;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the bit level primitives used by the OT extension and the TinyTables suite.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitivesBenchmark {
+
+  @Param({"128"})
+  public int rows;
+
+  @Param({"1024"})
+  public int columns;
+
+  @Param({"4096"})
+  public int drbgBytes;
+
+  private List<StrictBitVector> matrix;
+  private Drbg drbg;
+  private byte[] randomBytes;
+  private TinyTable table;
+  private TinyTablesElement left;
+  private TinyTablesElement right;
+
+  /**
+   * Samples the input matrix and table.
+   */
+  @Setup
+  public void setup() {
+    drbg = new AesCtrDrbg(new byte[32]);
+    randomBytes = new byte[drbgBytes];
+    matrix = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      matrix.add(new StrictBitVector(columns, drbg));
+    }
+    TinyTablesElement[] values = new TinyTablesElement[4];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = TinyTablesElement.getInstance(i % 3 == 0);
+    }
+    table = new TinyTable(values);
+    left = TinyTablesElement.getInstance(true);
+    right = TinyTablesElement.getInstance(false);
+  }
+
+  @Benchmark
+  public List<StrictBitVector> transpose() {
+    return Transpose.transpose(matrix);
+  }
+
+  @Benchmark
+  public byte[] drbgNextBytes() {
+    drbg.nextBytes(randomBytes);
+    return randomBytes;
+  }
+
+  @Benchmark
+  public TinyTablesElement tinyTableLookup() {
+    return table.getValue(left, right);
+  }
+}
@@ -0,0 +1,158 @@
+package dk.alexandra.fresco.benchmarks;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePoolImpl;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStoreImpl;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks full SPDZ computations between two parties running in separate threads and
+ * communicating over a {@link LoopbackNetwork}. Preprocessed material is supplied by the dummy
+ * data supplier, so only the online phase is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpdzCircuitBenchmark {
+
+  private static final int NO_OF_PARTIES = 2;
+  private static final int MOD_BIT_LENGTH = 128;
+  private static final int MAX_BIT_LENGTH = 64;
+
+  @Param({"256"})
+  public int size;
+
+  @Param({"4096"})
+  public int batchSize;
+
+  private List<SecureComputationEngine<SpdzResourcePool, ProtocolBuilderNumeric>> engines;
+  private List<SpdzResourcePool> resourcePools;
+  private List<LoopbackNetwork> networks;
+  private ExecutorService executor;
+
+  /**
+   * Creates an engine, resource pool and network for each party.
+   */
+  @Setup
+  public void setup() {
+    BigInteger modulus = ModulusFinder.findSuitableModulus(MOD_BIT_LENGTH);
+    engines = new ArrayList<>(NO_OF_PARTIES);
+    resourcePools = new ArrayList<>(NO_OF_PARTIES);
+    for (int myId = 1; myId <= NO_OF_PARTIES; myId++) {
+      SpdzProtocolSuite suite = new SpdzProtocolSuite(MAX_BIT_LENGTH);
+      engines.add(new SecureComputationEngineImpl<>(suite,
+          new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite, batchSize)));
+      resourcePools.add(new SpdzResourcePoolImpl(myId, NO_OF_PARTIES,
+          new SpdzOpenedValueStoreImpl(),
+          new SpdzDummyDataSupplier(myId, NO_OF_PARTIES, modulus),
+          new AesCtrDrbg(new byte[32])));
+    }
+    networks = LoopbackNetwork.create(NO_OF_PARTIES);
+    executor = Executors.newFixedThreadPool(NO_OF_PARTIES);
+  }
+
+  /**
+   * Shuts down the parties.
+   */
+  @TearDown
+  public void tearDown() {
+    executor.shutdownNow();
+    for (SecureComputationEngine<?, ?> engine : engines) {
+      engine.shutdownSCE();
+    }
+  }
+
+  @Benchmark
+  public List<BigInteger> multiply() {
+    return run(builder -> {
+      Numeric numeric = builder.numeric();
+      List<DRes<BigInteger>> opened = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        DRes<SInt> left = numeric.input(inputValue(builder, 1, i), 1);
+        DRes<SInt> right = numeric.input(inputValue(builder, 2, i), 2);
+        opened.add(numeric.open(numeric.mult(left, right)));
+      }
+      return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+    });
+  }
+
+  @Benchmark
+  public List<BigInteger> compareLessThanOrEquals() {
+    return run(builder -> {
+      Numeric numeric = builder.numeric();
+      List<DRes<BigInteger>> opened = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        DRes<SInt> left = numeric.input(inputValue(builder, 1, i), 1);
+        DRes<SInt> right = numeric.input(inputValue(builder, 2, i), 2);
+        opened.add(numeric.open(builder.comparison().compareLEQ(left, right)));
+      }
+      return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+    });
+  }
+
+  /**
+   * Returns the input of a party, or null if the builder belongs to another party.
+   */
+  private static BigInteger inputValue(ProtocolBuilderNumeric builder, int inputParty, int i) {
+    if (builder.getBasicNumericContext().getMyId() != inputParty) {
+      return null;
+    }
+    return BigInteger.valueOf(i * 31L + inputParty);
+  }
+
+  /**
+   * Runs the application at all parties and returns the output of the first party.
+   */
+  private List<BigInteger> run(Application<List<BigInteger>, ProtocolBuilderNumeric> app) {
+    List<Future<List<BigInteger>>> futures = new ArrayList<>(NO_OF_PARTIES);
+    for (int i = 0; i < NO_OF_PARTIES; i++) {
+      final int party = i;
+      futures.add(executor.submit(() -> engines.get(party)
+          .runApplication(app, resourcePools.get(party), networks.get(party))));
+    }
+    List<BigInteger> output = null;
+    for (Future<List<BigInteger>> future : futures) {
+      List<BigInteger> result = ExceptionConverter.safe(future::get, "Computation failed");
+      if (output == null) {
+        output = result;
+      }
+    }
+    return output;
+  }
+}
@@ -5,6 +5,7 @@ import dk.alexandra.fresco.framework.builder.ComputationDirectory;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -113,6 +114,28 @@ public interface AdvancedNumeric extends ComputationDirectory {
    */
   DRes<SInt> log(DRes<SInt> input, int maxInputLength);
 
+  /**
+   * Computes the element-wise products of two vectors, i.e. <code>(a[0]*b[0], ..., a[n]*b[n])</code>.
+   * Protocol suites may compute all the products using a single native protocol. By default each
+   * product is computed as the inner product of the two entries.
+   *
+   * @param vectorA The first vector
+   * @param vectorB The second vector, of the same length as the first
+   * @return A deferred result computing the products of the entries of the two given vectors
+   */
+  default DRes<List<DRes<SInt>>> mult(List<DRes<SInt>> vectorA, List<DRes<SInt>> vectorB) {
+    if (vectorA.size() != vectorB.size()) {
+      throw new IllegalArgumentException("Vectors must have same size");
+    }
+    List<DRes<SInt>> products = new ArrayList<>(vectorA.size());
+    for (int i = 0; i < vectorA.size(); i++) {
+      // java.util.Collections is shadowed by the Collections directory of this package
+      products.add(innerProduct(java.util.Collections.singletonList(vectorA.get(i)),
+          java.util.Collections.singletonList(vectorB.get(i))));
+    }
+    return () -> products;
+  }
+
   /**
    * Computes the inner product between two vectors.
    *
@@ -180,6 +203,20 @@ public interface AdvancedNumeric extends ComputationDirectory {
    */
   DRes<RightShiftResult> rightShiftWithRemainder(DRes<SInt> input, int shifts);
 
+  /**
+   * Calculating an approximation of right shifting the input by a given amount. The result will be
+   * one larger than the exact result with some non-negligible probability, but this is
+   * considerably cheaper than {@link #rightShift(DRes, int)}. By default the exact right shift is
+   * computed.
+   *
+   * @param input input
+   * @param shifts Number of shifts
+   * @return A deferred result computing input >> shifts or (input >> shifts) + 1
+   */
+  default DRes<SInt> truncate(DRes<SInt> input, int shifts) {
+    return rightShift(input, shifts);
+  }
+
   /**
    * Computes the bit length of the input.
    *
@@ -21,7 +21,10 @@ import dk.alexandra.fresco.lib.math.integer.linalg.InnerProduct;
 import dk.alexandra.fresco.lib.math.integer.linalg.InnerProductOpen;
 import dk.alexandra.fresco.lib.math.integer.log.Logarithm;
 import dk.alexandra.fresco.lib.math.integer.sqrt.SquareRoot;
+import dk.alexandra.fresco.lib.real.fixed.utils.Truncate;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -95,6 +98,22 @@ public class DefaultAdvancedNumeric implements AdvancedNumeric {
     return builder.seq(new Logarithm(input, maxInputLength));
   }
 
+  @Override
+  public DRes<List<DRes<SInt>>> mult(List<DRes<SInt>> vectorA, List<DRes<SInt>> vectorB) {
+    if (vectorA.size() != vectorB.size()) {
+      throw new IllegalArgumentException("Vectors must have same size");
+    }
+    return builder.par(par -> {
+      List<DRes<SInt>> products = new ArrayList<>(vectorA.size());
+      Numeric numeric = par.numeric();
+      Iterator<DRes<SInt>> iteratorB = vectorB.iterator();
+      for (DRes<SInt> a : vectorA) {
+        products.add(numeric.mult(a, iteratorB.next()));
+      }
+      return () -> products;
+    });
+  }
+
   @Override
   public DRes<SInt> innerProduct(List<DRes<SInt>> vectorA, List<DRes<SInt>> vectorB) {
     return builder.seq(new InnerProduct(vectorA, vectorB));
@@ -141,6 +160,11 @@ public class DefaultAdvancedNumeric implements AdvancedNumeric {
         input, shifts, true));
   }
 
+  @Override
+  public DRes<SInt> truncate(DRes<SInt> input, int shifts) {
+    return builder.seq(new Truncate(input, shifts));
+  }
+
   @Override
   public DRes<SInt> bitLength(DRes<SInt> input, int maxBitLength) {
     return builder.seq(new BitLength(input, maxBitLength));
@@ -1,13 +1,9 @@
 package dk.alexandra.fresco.framework.network;
 
-import dk.alexandra.fresco.framework.Party;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.util.ExceptionConverter;
 import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.SocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.time.Duration;
 import java.util.Collection;
@@ -17,15 +13,12 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,7 +33,6 @@ import org.slf4j.LoggerFactory;
 public class AsyncNetwork implements CloseableNetwork {
 
   public static final Duration DEFAULT_CONNECTION_TIMEOUT = Duration.ofMinutes(1);
-  private static final int PARTY_ID_BYTES = 1;
   private static final Duration RECEIVE_TIMEOUT = Duration.ofMillis(100);
   private static final Logger logger = LoggerFactory.getLogger(AsyncNetwork.class);
   private final BlockingQueue<byte[]> selfQueue;
@@ -78,132 +70,13 @@ public class AsyncNetwork implements CloseableNetwork {
     this.alive = true;
     this.selfQueue = new LinkedBlockingQueue<>();
     if (conf.noOfParties() > 1) {
-      Map<Integer, SocketChannel> channelMap = connectNetwork(timeout);
+      Map<Integer, SocketChannel> channelMap = new ChannelConnector(conf).connectNetwork(timeout);
       channels = channelMap.values();
       startCommunication(channelMap);
     }
     logger.info("P{}: successfully connected network", conf.getMyId());
   }
 
-  /**
-   * Fully connects the network.
-   * <p>
-   * Connects a channels to each external party (i.e., parties other than this party).
-   * </p>
-   *
-   * @param conf the configuration defining the network to connect
-   * @param timeout duration to wait until timeout
-   * @return a map from party ids to the associated communication channel
-   */
-  private Map<Integer, SocketChannel> connectNetwork(Duration timeout) {
-    Map<Integer, SocketChannel> channelMap = new HashMap<>(conf.noOfParties());
-    ExecutorService es = Executors.newFixedThreadPool(2);
-    CompletionService<Map<Integer, SocketChannel>> cs = new ExecutorCompletionService<>(es);
-    cs.submit(() -> {
-      return connectClient();
-    });
-    cs.submit(() -> {
-      return connectServer(bindServer());
-    });
-    try {
-      for (int i = 0; i < 2; i++) {
-        Future<Map<Integer, SocketChannel>> f = cs.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
-        if (f == null) {
-          throw new TimeoutException("Timed out");
-        } else {
-          channelMap.putAll(f.get());
-        }
-      }
-    } catch (InterruptedException e) {
-      throw new RuntimeException("Interrupted while connecting network", e);
-    } catch (ExecutionException e) {
-      throw new RuntimeException("Failed to connect network", e.getCause());
-    } catch (TimeoutException e) {
-      throw new RuntimeException("Timed out connecting network", e);
-    } finally {
-      es.shutdownNow();
-    }
-    return channelMap;
-  }
-
-
-
-  /**
-   * Makes connections to the opposing parties with higher id's.
-   *
-   * @throws InterruptedException thrown if interrupted while waiting to do a connection attempt
-   */
-  private Map<Integer, SocketChannel> connectClient() throws InterruptedException {
-    Map<Integer, SocketChannel> channelMap = new HashMap<>(conf.noOfParties() - conf.getMyId());
-    for (int i = conf.getMyId() + 1; i <= conf.noOfParties(); i++) {
-      Party p = conf.getParty(i);
-      SocketAddress addr = new InetSocketAddress(p.getHostname(), p.getPort());
-      boolean connectionMade = false;
-      int attempts = 0;
-      while (!connectionMade) {
-        try {
-          SocketChannel channel = SocketChannel.open();
-          channel.connect(addr);
-          channel.configureBlocking(true);
-          ByteBuffer b = ByteBuffer.allocate(PARTY_ID_BYTES);
-          b.put((byte) conf.getMyId());
-          b.position(0);
-          while (b.hasRemaining()) {
-            channel.write(b);
-          }
-          connectionMade = true;
-          channelMap.put(i, channel);
-          logger.info("P{}: connected to {}", conf.getMyId(), p);
-        } catch (IOException e) {
-          Thread.sleep(1 << ++attempts);
-        }
-      }
-    }
-    return channelMap;
-  }
-
-  /**
-   * Binds the server to the port of this party.
-   */
-  private ServerSocketChannel bindServer() {
-    SocketAddress sock = new InetSocketAddress(conf.getMe().getPort());
-    try {
-      ServerSocketChannel server = ServerSocketChannel.open();
-      server.bind(sock);
-      logger.info("P{}: bound at {}", conf.getMyId(), sock);
-      return server;
-    } catch (IOException e) {
-      throw new RuntimeException("Failed to bind to " + sock, e);
-    }
-  }
-
-  /**
-   * Listens for connections from the opposing parties with lower id's.
-   *
-   * @throws IOException thrown if an {@link IOException} occurs while listening.
-   */
-  private Map<Integer, SocketChannel> connectServer(ServerSocketChannel server) throws IOException {
-    Map<Integer, SocketChannel> channelMap = new HashMap<>(conf.getMyId() - 1);
-    try {
-      for (int i = 1; i < conf.getMyId(); i++) {
-        SocketChannel channel = server.accept();
-        channel.configureBlocking(true);
-        ByteBuffer buf = ByteBuffer.allocate(PARTY_ID_BYTES);
-        while (buf.hasRemaining()) {
-          channel.read(buf);
-        }
-        buf.position(0);
-        final int id = buf.get();
-        channelMap.put(id, channel);
-        logger.info("P{}: accepted connection from {}", conf.getMyId(), conf.getParty(id));
-        channelMap.put(id, channel);
-      }
-    } finally {
-      server.close();
-    }
-    return channelMap;
-  }
-
   /**
    * Starts communication threads to handle incoming and outgoing messages.
    * @param channels a map from party ids to the associated communication channels
@@ -0,0 +1,84 @@
+package dk.alexandra.fresco.framework.network;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A simple pool of direct byte buffers.
+ * <p>
+ * Buffers are handed out in capacities that are powers of two between a minimum and a maximum
+ * capacity. Requests for buffers larger than the maximum capacity are served by allocating heap
+ * buffers, which are not retained by the pool when released.
+ * </p>
+ */
+class ByteBufferPool {
+
+  private final int minCapacity;
+  private final int maxCapacity;
+  private final Queue<ByteBuffer>[] pools;
+
+  /**
+   * Creates a new pool.
+   *
+   * @param minCapacity the smallest capacity to hand out, must be a power of two
+   * @param maxCapacity the largest capacity to pool, must be a power of two
+   */
+  @SuppressWarnings("unchecked")
+  ByteBufferPool(int minCapacity, int maxCapacity) {
+    if (Integer.bitCount(minCapacity) != 1 || Integer.bitCount(maxCapacity) != 1
+        || minCapacity > maxCapacity) {
+      throw new IllegalArgumentException(
+          "Capacities must be powers of two with min <= max, but were " + minCapacity + " and "
+              + maxCapacity);
+    }
+    this.minCapacity = minCapacity;
+    this.maxCapacity = maxCapacity;
+    int classes = Integer.numberOfTrailingZeros(maxCapacity)
+        - Integer.numberOfTrailingZeros(minCapacity) + 1;
+    this.pools = new Queue[classes];
+    for (int i = 0; i < classes; i++) {
+      pools[i] = new ConcurrentLinkedQueue<>();
+    }
+  }
+
+  /**
+   * Gets a cleared buffer with at least the given capacity.
+   *
+   * @param capacity the minimal capacity of the buffer
+   * @return a cleared buffer
+   */
+  ByteBuffer acquire(int capacity) {
+    if (capacity > maxCapacity) {
+      return ByteBuffer.allocate(capacity);
+    }
+    int index = sizeClass(capacity);
+    ByteBuffer buffer = pools[index].poll();
+    if (buffer == null) {
+      buffer = ByteBuffer.allocateDirect(minCapacity << index);
+    }
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Returns a buffer to the pool. The buffer must not be used by the caller afterwards.
+   *
+   * @param buffer the buffer to return
+   */
+  void release(ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (buffer.isDirect() && Integer.bitCount(capacity) == 1 && capacity >= minCapacity
+        && capacity <= maxCapacity) {
+      pools[sizeClass(capacity)].add(buffer);
+    }
+  }
+
+  private int sizeClass(int capacity) {
+    if (capacity <= minCapacity) {
+      return 0;
+    }
+    int rounded = Integer.highestOneBit(capacity - 1) << 1;
+    return Integer.numberOfTrailingZeros(rounded) - Integer.numberOfTrailingZeros(minCapacity);
+  }
+}
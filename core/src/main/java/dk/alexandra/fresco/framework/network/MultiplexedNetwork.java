@@ -0,0 +1,379 @@
+package dk.alexandra.fresco.framework.network;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Multiplexes a number of logical channels over a single underlying network.
+ * <p>
+ * Each channel is a {@link CloseableNetwork} identified by an integer channel id. Messages sent
+ * on a channel are tagged with the channel id and delivered to the channel with the same id at the
+ * receiving party. This allows several applications to be evaluated concurrently over one set of
+ * connections, e.g., by starting each application on a {@link
+ * dk.alexandra.fresco.framework.sce.SecureComputationEngine} with its own channel. The parties must
+ * agree on which channel id is used for which application, but need not open channels in the same
+ * order. Alternatively, channels can be opened with automatically allocated ids using {@link
+ * #openChannel()}, in which case the parties must open these channels in the same order.
+ * </p>
+ * <p>
+ * Messages received for a channel which is not yet opened are kept until it is opened. The total
+ * number of bytes kept for channels which are not opened is bounded, and exceeding the bound fails
+ * the multiplexed network, so a party sending on channels which are never opened cannot exhaust
+ * the memory.
+ * </p>
+ * <p>
+ * A channel id can be reused after the channel is closed. Each message is tagged with the
+ * incarnation of the channel as well, i.e., the number of times the channel id has been closed
+ * before, so messages arriving late for a closed channel are dropped rather than delivered to a
+ * later channel with the same id. For this, the number of incarnations is kept for each channel id
+ * that has been used. Automatically allocated ids are never reused, so for these only the ids which
+ * are closed out of order are kept.
+ * </p>
+ * <p>
+ * Each message is sent on the underlying network as a fixed size header holding the channel id and
+ * incarnation, followed by the message itself, so messages are neither copied when sent nor when
+ * received. Received messages are dispatched to the channels by a thread per opposing party. The
+ * underlying network is owned by the multiplexed network and is closed when the multiplexed network is
+ * closed.
+ * </p>
+ */
+public class MultiplexedNetwork implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(MultiplexedNetwork.class);
+  private static final int HEADER_BYTES = 2 * Integer.BYTES;
+  private static final Duration RECEIVE_TIMEOUT = Duration.ofMillis(100);
+  private static final long DEFAULT_MAX_PENDING_BYTES = 64L << 20;
+
+  private final NetworkConfiguration conf;
+  private final CloseableNetwork network;
+  private final Map<Long, Inbox> inboxes;
+  private final Map<Integer, Integer> closedIncarnations;
+  private final List<Thread> dispatchers;
+  private final long maxPendingBytes;
+  private final AtomicLong pendingBytes;
+  private final AtomicInteger nextAllocatedId;
+  private final ClosedAllocatedIds closedAllocatedIds;
+  private volatile boolean open;
+  private volatile RuntimeException failure;
+
+  /**
+   * Creates a new multiplexed network on top of a connected network.
+   *
+   * @param conf the configuration of the underlying network
+   * @param network the underlying network
+   */
+  public MultiplexedNetwork(NetworkConfiguration conf, CloseableNetwork network) {
+    this(conf, network, DEFAULT_MAX_PENDING_BYTES);
+  }
+
+  /**
+   * Creates a new multiplexed network on top of a connected network.
+   *
+   * @param conf the configuration of the underlying network
+   * @param network the underlying network
+   * @param maxPendingBytes the maximum number of bytes to keep for channels which are not opened
+   */
+  public MultiplexedNetwork(NetworkConfiguration conf, CloseableNetwork network,
+      long maxPendingBytes) {
+    if (maxPendingBytes < 0) {
+      throw new IllegalArgumentException(
+          "Maximum number of pending bytes must be non-negative, but was " + maxPendingBytes);
+    }
+    this.conf = Objects.requireNonNull(conf);
+    this.network = Objects.requireNonNull(network);
+    this.inboxes = new ConcurrentHashMap<>();
+    this.closedIncarnations = new ConcurrentHashMap<>();
+    this.maxPendingBytes = maxPendingBytes;
+    this.pendingBytes = new AtomicLong();
+    this.nextAllocatedId = new AtomicInteger(-1);
+    this.closedAllocatedIds = new ClosedAllocatedIds();
+    this.dispatchers = new ArrayList<>(conf.noOfParties() - 1);
+    this.open = true;
+    for (int i = 1; i <= conf.noOfParties(); i++) {
+      if (i != conf.getMyId()) {
+        final int partyId = i;
+        Thread dispatcher = new Thread(() -> dispatch(partyId),
+            "Multiplexer-P" + conf.getMyId() + "-P" + partyId);
+        dispatcher.setDaemon(true);
+        dispatchers.add(dispatcher);
+        dispatcher.start();
+      }
+    }
+  }
+
+  /**
+   * Opens a channel with the given id. Only one channel with a given id can be open at a time.
+   *
+   * @param channelId the id of the channel. Must be non-negative, as negative ids are reserved for
+   *     {@link #openChannel()}
+   * @return the channel
+   */
+  public CloseableNetwork openChannel(int channelId) {
+    if (channelId < 0) {
+      throw new IllegalArgumentException("Channel id must be non-negative, but was " + channelId);
+    }
+    return openWithId(channelId);
+  }
+
+  /**
+   * Opens a channel with an automatically allocated id. The ids are allocated in the order the
+   * channels are opened, so all parties must open these channels in the same order. The allocated
+   * ids never collide with the ids given to {@link #openChannel(int)}.
+   *
+   * @return the channel
+   */
+  public CloseableNetwork openChannel() {
+    return openWithId(nextAllocatedId.getAndDecrement());
+  }
+
+  private CloseableNetwork openWithId(int channelId) {
+    if (!open) {
+      throw new IllegalStateException("Network is closed");
+    }
+    Channel[] channel = new Channel[1];
+    closedIncarnations.compute(channelId, (id, closed) -> {
+      int incarnation = closed == null ? 0 : closed;
+      Inbox inbox = inboxes.computeIfAbsent(key(channelId, incarnation),
+          key -> new Inbox(conf.noOfParties()));
+      if (inbox.opened) {
+        throw new IllegalStateException("Channel " + channelId + " is already open");
+      }
+      inbox.opened = true;
+      pendingBytes.addAndGet(-inbox.pendingBytes);
+      channel[0] = new Channel(channelId, incarnation, inbox);
+      return closed;
+    });
+    return channel[0];
+  }
+
+  /**
+   * Delivers a received message to the inbox of a channel, unless the incarnation of the channel
+   * it was sent on has already been closed.
+   *
+   * @param channelId the id of the channel
+   * @param incarnation the incarnation of the channel
+   * @param partyId the party the message was received from
+   * @param data the message
+   * @throws IllegalStateException if the channel is not opened and keeping the message would exceed
+   *     the maximum number of pending bytes
+   */
+  private void deliver(int channelId, int incarnation, int partyId, byte[] data) {
+    closedIncarnations.compute(channelId, (id, closed) -> {
+      if (closedAllocatedIds.isClosed(channelId)) {
+        return closed;
+      }
+      if (closed == null || incarnation >= closed) {
+        Inbox inbox = inboxes.computeIfAbsent(key(channelId, incarnation),
+            key -> new Inbox(conf.noOfParties()));
+        if (!inbox.opened) {
+          long size = HEADER_BYTES + data.length;
+          if (pendingBytes.addAndGet(size) > maxPendingBytes) {
+            throw new IllegalStateException("Received more than " + maxPendingBytes
+                + " bytes for channels which are not opened, latest for channel " + channelId);
+          }
+          inbox.pendingBytes += size;
+        }
+        inbox.queues.get(partyId - 1).add(data);
+      }
+      return closed;
+    });
+  }
+
+  /**
+   * Marks the current incarnation of a channel as closed and removes its inbox.
+   *
+   * @param channelId the id of the channel
+   * @param incarnation the incarnation of the channel
+   */
+  private void closeChannel(int channelId, int incarnation) {
+    closedIncarnations.compute(channelId, (id, closed) -> {
+      Inbox inbox = inboxes.remove(key(channelId, incarnation));
+      if (inbox != null && !inbox.opened) {
+        pendingBytes.addAndGet(-inbox.pendingBytes);
+      }
+      if (channelId < 0) {
+        closedAllocatedIds.close(channelId);
+        return null;
+      }
+      return incarnation + 1;
+    });
+  }
+
+  private static long key(int channelId, int incarnation) {
+    return ((long) channelId << Integer.SIZE) | (incarnation & 0xffffffffL);
+  }
+
+  /**
+   * Continuously receives messages from a party and dispatches them to the inboxes of the
+   * channels.
+   *
+   * @param partyId the party to receive from
+   */
+  private void dispatch(int partyId) {
+    try {
+      while (open) {
+        ByteBuffer header = network.receiveBuffer(partyId);
+        if (header.remaining() != HEADER_BYTES) {
+          throw new IllegalStateException(
+              "Expected a header of " + HEADER_BYTES + " bytes but got " + header.remaining());
+        }
+        int channelId = header.getInt();
+        int incarnation = header.getInt();
+        deliver(channelId, incarnation, partyId, network.receive(partyId));
+      }
+    } catch (RuntimeException e) {
+      if (open) {
+        logger.error("P{}: Failed to receive from P{}", conf.getMyId(), partyId, e);
+        failure = e;
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    if (open) {
+      open = false;
+      for (Thread dispatcher : dispatchers) {
+        dispatcher.interrupt();
+      }
+      ExceptionConverter.safe(() -> {
+        network.close();
+        return null;
+      }, "Unable to close the underlying network");
+    }
+  }
+
+  /**
+   * The automatically allocated channel ids which have been closed. Since the ids are allocated as
+   * -1, -2, ..., this keeps the number of ids which have all been closed, and the ids closed out of
+   * order.
+   */
+  private static class ClosedAllocatedIds {
+
+    private final Set<Integer> closedOutOfOrder = new HashSet<>();
+    private int closedPrefix;
+
+    private synchronized void close(int channelId) {
+      int index = -channelId;
+      if (index == closedPrefix + 1) {
+        closedPrefix++;
+        while (closedOutOfOrder.remove(closedPrefix + 1)) {
+          closedPrefix++;
+        }
+      } else {
+        closedOutOfOrder.add(index);
+      }
+    }
+
+    private synchronized boolean isClosed(int channelId) {
+      int index = -channelId;
+      return channelId < 0 && (index <= closedPrefix || closedOutOfOrder.contains(index));
+    }
+  }
+
+  /**
+   * The queues of messages received for a channel.
+   */
+  private static class Inbox {
+
+    private final List<BlockingQueue<byte[]>> queues;
+    private boolean opened;
+    private long pendingBytes;
+
+    private Inbox(int noOfParties) {
+      this.queues = new ArrayList<>(noOfParties);
+      for (int i = 0; i < noOfParties; i++) {
+        queues.add(new LinkedBlockingQueue<>());
+      }
+    }
+  }
+
+  /**
+   * A logical channel of the multiplexed network.
+   */
+  private class Channel implements CloseableNetwork {
+
+    private final int channelId;
+    private final int incarnation;
+    private final Inbox inbox;
+    private boolean closed;
+
+    private Channel(int channelId, int incarnation, Inbox inbox) {
+      this.channelId = channelId;
+      this.incarnation = incarnation;
+      this.inbox = inbox;
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      checkUsable();
+      if (partyId == conf.getMyId()) {
+        inbox.queues.get(partyId - 1).add(data);
+      } else {
+        byte[] header = ByteBuffer.allocate(HEADER_BYTES)
+            .putInt(channelId)
+            .putInt(incarnation)
+            .array();
+        synchronized (network) {
+          network.send(partyId, header);
+          network.send(partyId, data);
+        }
+      }
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      BlockingQueue<byte[]> queue = inbox.queues.get(partyId - 1);
+      byte[] data = null;
+      while (data == null) {
+        checkUsable();
+        try {
+          data = queue.poll(RECEIVE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Receive interrupted", e);
+        }
+      }
+      return data;
+    }
+
+    private void checkUsable() {
+      if (closed || !open) {
+        throw new IllegalStateException("Channel " + channelId + " is closed");
+      }
+      if (failure != null) {
+        throw new RuntimeException("Underlying network failed", failure);
+      }
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return conf.noOfParties();
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        closeChannel(channelId, incarnation);
+      }
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package dk.alexandra.fresco.framework.network;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -31,6 +32,24 @@ public interface Network {
    */
   byte[] receive(int partyId);
 
+  /**
+   * Blocking call that only returns once the data has been fully received. The data is returned
+   * as a read-only view, positioned at the start of the message and limited to its end.
+   * <p>
+   * Implementations that buffer several messages per party, may return views directly into the
+   * buffered data, saving a copy and an allocation per message compared to {@link #receive(int)}.
+   * Such a view may only be valid until the next message is received from the same party, so the
+   * caller should read the data before receiving again. The default implementation simply wraps the
+   * result of {@link #receive(int)}.
+   * </p>
+   *
+   * @param partyId the party to receive from
+   * @return a read-only view of the data send by the given party
+   */
+  default ByteBuffer receiveBuffer(int partyId) {
+    return ByteBuffer.wrap(receive(partyId)).asReadOnlyBuffer();
+  }
+
   /**
    * Gets the total amount of players. Used for building the default methods.
    *
@@ -52,6 +71,21 @@ public interface Network {
     return res;
   }
 
+  /**
+   * Retrieves input from all players (including yourself) as read-only views.
+   *
+   * @return A list of byte buffers where the data from party 1 resides at
+   *     index 0 and so forth.
+   * @see #receiveBuffer(int)
+   */
+  default List<ByteBuffer> receiveBuffersFromAll() {
+    List<ByteBuffer> res = new ArrayList<>();
+    for (int i = 1; i <= getNoOfParties(); i++) {
+      res.add(receiveBuffer(i));
+    }
+    return res;
+  }
+
   /**
    * Queues up a value to be send to all parties (yourself included).
    *
@@ -0,0 +1,568 @@
+package dk.alexandra.fresco.framework.network;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A network implementation based on a single {@link Selector}.
+ * <p>
+ * As opposed to {@link AsyncNetwork}, which uses two threads per opposing party, all channels are
+ * served by a single I/O thread. Outgoing messages are queued by the sending thread and coalesced
+ * into a per party direct buffer by the I/O thread, such that several small messages are written
+ * with a single system call. Incoming bytes are read into a per party direct buffer, from which
+ * receiving threads extract messages directly, i.e., without handing off messages through a queue.
+ * Buffers are taken from a pool shared by all instances.
+ * </p>
+ * <p>
+ * Messages received using {@link #receiveBuffer(int)} are returned as read-only views into the
+ * input buffer, i.e., without allocating and copying a byte array per message. Such a view is only
+ * valid until the next message is received from the same party, after which the buffer space may
+ * be reused. {@link #receive(int)} returns a copy of the message.
+ * </p>
+ * <p>
+ * The wire format is the same as used by {@link AsyncNetwork}, i.e., each message is prefixed by
+ * an integer indicating the byte length of the message.
+ * </p>
+ */
+public class SelectorNetwork implements CloseableNetwork {
+
+  public static final Duration DEFAULT_CONNECTION_TIMEOUT = Duration.ofMinutes(1);
+  private static final Duration RECEIVE_TIMEOUT = Duration.ofMillis(100);
+  private static final Duration CLOSE_TIMEOUT = Duration.ofMinutes(1);
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final ByteBufferPool BUFFER_POOL = new ByteBufferPool(BUFFER_SIZE, 1 << 22);
+  private static final Logger logger = LoggerFactory.getLogger(SelectorNetwork.class);
+  private final BlockingQueue<byte[]> selfQueue;
+  private final NetworkConfiguration conf;
+  private final Map<Integer, Peer> peers;
+  private final AtomicBoolean closing;
+  private volatile boolean alive;
+  private volatile Exception failure;
+  private Selector selector;
+  private Thread ioThread;
+
+  /**
+   * Creates a network with the given configuration and a default timeout of
+   * {@link #DEFAULT_CONNECTION_TIMEOUT}. Calling the constructor will automatically trigger an
+   * attempt to connect to the other parties. If this fails a {@link RuntimeException} is thrown.
+   *
+   * @param conf the network configuration
+   */
+  public SelectorNetwork(NetworkConfiguration conf) {
+    this(conf, DEFAULT_CONNECTION_TIMEOUT);
+  }
+
+  /**
+   * Creates a network with the given configuration and a timeout of <code>timeout</code>. Calling
+   * the constructor will automatically trigger an attempt to connect to the other parties. If this
+   * fails a {@link RuntimeException} is thrown.
+   *
+   * @param conf The network configuration
+   * @param timeout the time to wait until timeout
+   */
+  public SelectorNetwork(NetworkConfiguration conf, Duration timeout) {
+    this.conf = conf;
+    this.peers = new HashMap<>(conf.noOfParties() - 1);
+    this.selfQueue = new LinkedBlockingQueue<>();
+    this.closing = new AtomicBoolean(false);
+    this.alive = true;
+    if (conf.noOfParties() > 1) {
+      Map<Integer, SocketChannel> channelMap = new ChannelConnector(conf).connectNetwork(timeout);
+      startCommunication(channelMap);
+    }
+    logger.info("P{}: successfully connected network", conf.getMyId());
+  }
+
+  /**
+   * Registers the channels with a new selector and starts the I/O thread.
+   *
+   * @param channels a map from party ids to the associated communication channels
+   */
+  private void startCommunication(Map<Integer, SocketChannel> channels) {
+    this.selector = ExceptionConverter.safe(Selector::open, "Unable to open selector");
+    for (Entry<Integer, SocketChannel> entry : channels.entrySet()) {
+      SocketChannel channel = entry.getValue();
+      Peer peer = new Peer(channel);
+      ExceptionConverter.safe(() -> {
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        peer.key = channel.register(selector, SelectionKey.OP_READ, peer);
+        return null;
+      }, "Unable to register channel of P" + entry.getKey());
+      peers.put(entry.getKey(), peer);
+    }
+    this.ioThread = new Thread(this::run);
+    this.ioThread.setDaemon(true);
+    this.ioThread.setName("SelectorNetwork-P" + conf.getMyId() + "-" + ioThread.getId());
+    this.ioThread.start();
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    if (!alive) {
+      throw new RuntimeException("P" + conf.getMyId() + ": Unable to send to P" + partyId
+          + ". Network closed");
+    }
+    if (partyId == conf.getMyId()) {
+      this.selfQueue.add(data);
+    } else {
+      inRange(partyId);
+      checkFailure(partyId);
+      Peer peer = peers.get(partyId);
+      peer.outgoing.add(data);
+      if (!peer.writePending.getAndSet(true)) {
+        selector.wakeup();
+      }
+    }
+  }
+
+  @Override
+  public byte[] receive(final int partyId) {
+    if (partyId == conf.getMyId()) {
+      checkAlive(partyId);
+      return ExceptionConverter.safe(() -> selfQueue.take(), "Receiving from self interrupted");
+    }
+    return receiveMessage(partyId, false).array();
+  }
+
+  @Override
+  public ByteBuffer receiveBuffer(final int partyId) {
+    if (partyId == conf.getMyId()) {
+      return ByteBuffer.wrap(receive(partyId)).asReadOnlyBuffer();
+    }
+    return receiveMessage(partyId, true);
+  }
+
+  private void checkAlive(int partyId) {
+    if (!alive) {
+      throw new RuntimeException("P" + conf.getMyId() + ": Unable to receive from P" + partyId
+          + ". Network closed");
+    }
+  }
+
+  /**
+   * Receives the next message from an opposing party.
+   *
+   * @param partyId the party to receive from
+   * @param view if true a read-only view into the input buffer is returned, otherwise a buffer
+   *     wrapping a copy of the message
+   * @return the message
+   */
+  private ByteBuffer receiveMessage(int partyId, boolean view) {
+    checkAlive(partyId);
+    inRange(partyId);
+    Peer peer = peers.get(partyId);
+    peer.lock.lock();
+    try {
+      peer.releaseView();
+      ByteBuffer data = peer.nextMessage(view);
+      while (data == null) {
+        if (!alive || peer.endOfStream) {
+          throw new RuntimeException("P" + conf.getMyId() + ": Unable to receive from P"
+              + partyId + ". Connection closed");
+        }
+        checkFailure(partyId);
+        ExceptionConverter.safe(
+            () -> peer.available.await(RECEIVE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS),
+            "Receive interrupted");
+        data = peer.nextMessage(view);
+      }
+      if (peer.readSuspended) {
+        peer.readSuspended = false;
+        peer.resumeRead = true;
+        selector.wakeup();
+      }
+      return data;
+    } finally {
+      peer.lock.unlock();
+    }
+  }
+
+  private void checkFailure(int partyId) {
+    if (failure != null) {
+      throw new RuntimeException(
+          "P" + conf.getMyId() + ": Unable to communicate with P" + partyId, failure);
+    }
+  }
+
+  /**
+   * The main loop of the I/O thread.
+   */
+  private void run() {
+    try {
+      while (!closing.get() || hasPendingOutput()) {
+        selector.select(RECEIVE_TIMEOUT.toMillis());
+        for (Peer peer : peers.values()) {
+          if (peer.writePending.getAndSet(false)) {
+            write(peer);
+          }
+          if (peer.resumeRead) {
+            peer.lock.lock();
+            try {
+              peer.resumeRead = false;
+              read(peer);
+            } finally {
+              peer.lock.unlock();
+            }
+          }
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          Peer peer = (Peer) key.attachment();
+          if (key.isValid() && key.isReadable()) {
+            peer.lock.lock();
+            try {
+              read(peer);
+            } finally {
+              peer.lock.unlock();
+            }
+          }
+          if (key.isValid() && key.isWritable()) {
+            write(peer);
+          }
+        }
+      }
+    } catch (Exception e) {
+      if (alive) {
+        logger.error("P{}: I/O thread failed unexpectedly", conf.getMyId(), e);
+      }
+      failure = e;
+    } finally {
+      for (Peer peer : peers.values()) {
+        peer.lock.lock();
+        try {
+          peer.endOfStream = true;
+          peer.available.signalAll();
+        } finally {
+          peer.lock.unlock();
+        }
+      }
+    }
+  }
+
+  private boolean hasPendingOutput() {
+    for (Peer peer : peers.values()) {
+      if (peer.hasPendingOutput()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reads available bytes from the channel of a peer. Must be called holding the lock of the peer.
+   */
+  private void read(Peer peer) throws IOException {
+    if (peer.endOfStream) {
+      return;
+    }
+    int interestOps = peer.key.interestOps();
+    if (!peer.makeRoom()) {
+      peer.readSuspended = true;
+      peer.key.interestOps(interestOps & ~SelectionKey.OP_READ);
+      return;
+    }
+    if ((interestOps & SelectionKey.OP_READ) == 0) {
+      peer.key.interestOps(interestOps | SelectionKey.OP_READ);
+    }
+    int read = peer.channel.read(peer.in);
+    if (read < 0) {
+      peer.endOfStream = true;
+      peer.key.interestOps(peer.key.interestOps() & ~SelectionKey.OP_READ);
+      peer.available.signalAll();
+    } else if (read > 0) {
+      peer.available.signalAll();
+    }
+  }
+
+  /**
+   * Writes as much queued output to the channel of a peer as possible.
+   */
+  private void write(Peer peer) throws IOException {
+    ByteBuffer out = peer.out;
+    boolean blocked = false;
+    while (!blocked && peer.fill()) {
+      out.flip();
+      peer.channel.write(out);
+      blocked = out.hasRemaining();
+      out.compact();
+    }
+    if (blocked) {
+      peer.key.interestOps(peer.key.interestOps() | SelectionKey.OP_WRITE);
+    } else {
+      peer.key.interestOps(peer.key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+  }
+
+  /**
+   * Check if a party ID is in the range of known parties.
+   *
+   * @param partyId an ID for a party
+   */
+  private void inRange(final int partyId) {
+    if (!(0 < partyId && partyId < getNoOfParties() + 1)) {
+      throw new IllegalArgumentException(
+          "Party id " + partyId + " not in range 1 ... " + getNoOfParties());
+    }
+  }
+
+  /**
+   * Flushes any pending output, stops the I/O thread and closes the channels.
+   */
+  private void closeCommunication() throws InterruptedException {
+    closing.set(true);
+    selector.wakeup();
+    ioThread.join(CLOSE_TIMEOUT.toMillis());
+    if (ioThread.isAlive()) {
+      logger.warn("P{}: Timed out flushing output while closing network", conf.getMyId());
+    }
+    for (Peer peer : peers.values()) {
+      ExceptionConverter.safe(() -> {
+        peer.channel.close();
+        return null;
+      }, "Unable to properly close channel");
+    }
+    ExceptionConverter.safe(() -> {
+      selector.close();
+      return null;
+    }, "Unable to properly close selector");
+    if (!ioThread.isAlive()) {
+      for (Peer peer : peers.values()) {
+        peer.releaseBuffers();
+      }
+    }
+  }
+
+  /**
+   * Closes the network down and releases held resources.
+   */
+  @Override
+  public void close() {
+    if (alive) {
+      alive = false;
+      if (conf.noOfParties() < 2) {
+        logger.info("P{}: Network closed", conf.getMyId());
+        return;
+      }
+      ExceptionConverter.safe(() -> {
+        closeCommunication();
+        logger.info("P{}: Network closed", conf.getMyId());
+        return null;
+      }, "Unable to properly close the network.");
+    } else {
+      logger.info("P{}: Network already closed", conf.getMyId());
+    }
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return this.conf.noOfParties();
+  }
+
+  /**
+   * The state of the connection to a single opposing party.
+   */
+  private static final class Peer {
+
+    private final SocketChannel channel;
+    private SelectionKey key;
+
+    // Outgoing messages queued by the sending thread, written by the I/O thread
+    private final Queue<byte[]> outgoing;
+    private final AtomicBoolean writePending;
+    private ByteBuffer out;
+    private byte[] current;
+    private int currentOffset;
+    private boolean headerWritten;
+
+    // Incoming bytes in [readPosition, in.position()), guarded by lock
+    private final ReentrantLock lock;
+    private final Condition available;
+    private ByteBuffer in;
+    private int readPosition;
+    // Set while a view of a message in the input buffer is held by the receiver
+    private boolean viewOutstanding;
+    // An input buffer replaced while a view into it was outstanding, released with the view
+    private ByteBuffer retired;
+    private boolean endOfStream;
+    private boolean readSuspended;
+    private volatile boolean resumeRead;
+
+    private Peer(SocketChannel channel) {
+      this.channel = channel;
+      this.outgoing = new ConcurrentLinkedQueue<>();
+      this.writePending = new AtomicBoolean(false);
+      this.out = BUFFER_POOL.acquire(BUFFER_SIZE);
+      this.lock = new ReentrantLock();
+      this.available = lock.newCondition();
+      this.in = BUFFER_POOL.acquire(BUFFER_SIZE);
+    }
+
+    /**
+     * Copies queued messages into the output buffer.
+     *
+     * @return true if the output buffer holds data to be written
+     */
+    private boolean fill() {
+      while (out.hasRemaining()) {
+        if (current == null) {
+          current = outgoing.poll();
+          if (current == null) {
+            break;
+          }
+          currentOffset = 0;
+          headerWritten = false;
+        }
+        if (!headerWritten) {
+          if (out.remaining() < Integer.BYTES) {
+            break;
+          }
+          out.putInt(current.length);
+          headerWritten = true;
+        }
+        int length = Math.min(out.remaining(), current.length - currentOffset);
+        out.put(current, currentOffset, length);
+        currentOffset += length;
+        if (currentOffset == current.length) {
+          current = null;
+        }
+      }
+      return out.position() > 0;
+    }
+
+    private boolean hasPendingOutput() {
+      return out.position() > 0 || current != null || !outgoing.isEmpty();
+    }
+
+    /**
+     * Extracts the next complete message from the input buffer if available. Must be called
+     * holding the lock.
+     *
+     * @param view if true a read-only view into the input buffer is returned, which stays valid
+     *     until {@link #releaseView()} is called, otherwise a buffer wrapping a copy
+     * @return the next message or null if no complete message has been received
+     */
+    private ByteBuffer nextMessage(boolean view) {
+      int available = in.position() - readPosition;
+      if (available < Integer.BYTES) {
+        return null;
+      }
+      int length = in.getInt(readPosition);
+      if (available < Integer.BYTES + length) {
+        return null;
+      }
+      ByteBuffer message = in.duplicate();
+      message.limit(readPosition + Integer.BYTES + length);
+      message.position(readPosition + Integer.BYTES);
+      readPosition += Integer.BYTES + length;
+      if (view) {
+        viewOutstanding = true;
+        return message.slice().asReadOnlyBuffer();
+      }
+      byte[] data = new byte[length];
+      message.get(data);
+      resetIfEmpty();
+      return ByteBuffer.wrap(data);
+    }
+
+    /**
+     * Marks the view returned by the last call to {@link #nextMessage(boolean)} as no longer used,
+     * such that its space in the input buffer can be reused. Must be called holding the lock.
+     */
+    private void releaseView() {
+      if (viewOutstanding) {
+        viewOutstanding = false;
+        resetIfEmpty();
+      }
+      if (retired != null) {
+        BUFFER_POOL.release(retired);
+        retired = null;
+      }
+    }
+
+    /**
+     * Resets the input buffer if all received bytes have been extracted.
+     */
+    private void resetIfEmpty() {
+      if (readPosition == in.position()) {
+        if (in.capacity() > BUFFER_SIZE) {
+          BUFFER_POOL.release(in);
+          in = BUFFER_POOL.acquire(BUFFER_SIZE);
+        } else {
+          in.clear();
+        }
+        readPosition = 0;
+      }
+    }
+
+    /**
+     * Makes room for more incoming bytes in the input buffer by compacting or growing the buffer.
+     * Must be called holding the lock.
+     *
+     * @return false if the buffer is full of complete messages not yet received
+     */
+    private boolean makeRoom() {
+      if (in.hasRemaining()) {
+        return true;
+      }
+      if (readPosition > 0) {
+        in.flip();
+        in.position(readPosition);
+        if (viewOutstanding) {
+          // move the unread bytes to a new buffer rather than overwriting the outstanding view
+          ByteBuffer fresh = BUFFER_POOL.acquire(in.capacity());
+          fresh.put(in);
+          retired = in;
+          in = fresh;
+          viewOutstanding = false;
+        } else {
+          in.compact();
+        }
+        readPosition = 0;
+        return true;
+      }
+      int length = in.getInt(0);
+      if (Integer.BYTES + length > in.capacity()) {
+        ByteBuffer larger = BUFFER_POOL.acquire(Integer.BYTES + length);
+        in.flip();
+        larger.put(in);
+        BUFFER_POOL.release(in);
+        in = larger;
+        return true;
+      }
+      return false;
+    }
+
+    private void releaseBuffers() {
+      if (!viewOutstanding) {
+        BUFFER_POOL.release(in);
+      }
+      if (retired != null) {
+        BUFFER_POOL.release(retired);
+      }
+      BUFFER_POOL.release(out);
+    }
+  }
+}
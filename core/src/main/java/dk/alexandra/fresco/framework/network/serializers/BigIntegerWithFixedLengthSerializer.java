@@ -1,6 +1,7 @@
 package dk.alexandra.fresco.framework.network.serializers;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -45,6 +46,7 @@ public class BigIntegerWithFixedLengthSerializer implements ByteSerializer<BigIn
 
   @Override
   public List<BigInteger> deserializeList(byte[] data) {
+    checkLength(data.length);
     int offset = 0;
     List<BigInteger> result = new ArrayList<>();
     while (offset < data.length) {
@@ -56,6 +58,25 @@ public class BigIntegerWithFixedLengthSerializer implements ByteSerializer<BigIn
     return result;
   }
 
+  @Override
+  public List<BigInteger> deserializeList(ByteBuffer buffer) {
+    checkLength(buffer.remaining());
+    List<BigInteger> result = new ArrayList<>(buffer.remaining() / byteLength);
+    while (buffer.hasRemaining()) {
+      byte[] subArray = new byte[byteLength];
+      buffer.get(subArray);
+      result.add(new BigInteger(subArray));
+    }
+    return result;
+  }
+
+  private void checkLength(int length) {
+    if (length % byteLength != 0) {
+      throw new IllegalArgumentException(
+          "Length " + length + " is not a multiple of the element length " + byteLength);
+    }
+  }
+
   private byte[] produceBytes(BigInteger bigInteger, byte[] bytes, int offset) {
     byte[] bb = bigInteger.toByteArray();
     System.arraycopy(bb, 0, bytes, byteLength - bb.length + offset, bb.length);
@@ -1,5 +1,6 @@
 package dk.alexandra.fresco.framework.network.serializers;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -45,6 +46,38 @@ public interface ByteSerializer<T> {
    */
   List<T> deserializeList(byte[] bytes);
 
+  /**
+   * Reads an element of type T from the remaining bytes of a buffer. The position of the buffer is
+   * advanced to its limit.
+   * <p>
+   * The default implementation copies the remaining bytes to an array and calls {@link
+   * #deserialize(byte[])}. Serializers which can read directly from the buffer should override
+   * this.
+   * </p>
+   *
+   * @param buffer the data
+   * @return the converted element.
+   */
+  default T deserialize(ByteBuffer buffer) {
+    return deserialize(toByteArray(buffer));
+  }
+
+  /**
+   * Reads a list of elements of type T from the remaining bytes of a buffer. The position of the
+   * buffer is advanced to its limit.
+   * <p>
+   * The default implementation copies the remaining bytes to an array and calls {@link
+   * #deserializeList(byte[])}. Serializers which can read directly from the buffer should override
+   * this.
+   * </p>
+   *
+   * @param buffer the data
+   * @return the converted elements.
+   */
+  default List<T> deserializeList(ByteBuffer buffer) {
+    return deserializeList(toByteArray(buffer));
+  }
+
   /**
    * Call {@link #deserialize(byte[])} for each byte array in input.
    */
@@ -56,4 +89,17 @@ public interface ByteSerializer<T> {
     return elements;
   }
 
+  /**
+   * Copies the remaining bytes of a buffer to a new array, advancing the position of the buffer to
+   * its limit.
+   *
+   * @param buffer the buffer to read from
+   * @return the remaining bytes of the buffer
+   */
+  static byte[] toByteArray(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
 }
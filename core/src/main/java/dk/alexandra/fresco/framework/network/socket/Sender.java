@@ -4,23 +4,39 @@ import dk.alexandra.fresco.framework.util.ExceptionConverter;
 import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * The sender sending messages.
+ *
+ * <p>
+ * On each wake-up the sender drains all queued messages and writes them to the socket with a single
+ * flush. Optionally, the sender can wait a bounded amount of time for more messages to arrive
+ * before flushing, trading latency for fewer system calls and TCP segments.
+ * </p>
  */
 class Sender {
 
   private static final Logger logger = LoggerFactory.getLogger(Sender.class);
+  private static final int BUFFER_SIZE = 1 << 16;
+  /**
+   * Sentinel queued to wake up the sender when stopping. Matched by identity so that it is never
+   * confused with an empty message.
+   */
+  private static final byte[] STOP = new byte[0];
   private final DataOutputStream out;
   private final BlockingQueue<byte[]> queue;
+  private final long maxCoalescingDelayNanos;
   private final AtomicBoolean flushAndStop;
-  private final AtomicBoolean ignoreNext;
   private final Thread thread;
 
   /**
@@ -30,13 +46,29 @@ class Sender {
    * @param sock the socket to send over
    */
   Sender(Socket sock) {
+    this(sock, Duration.ZERO);
+  }
+
+  /**
+   * Creates a new sender on a given socket, which waits up to a given delay for more messages to
+   * be queued before flushing. This starts a separate thread for sending queued messages.
+   *
+   * @param sock the socket to send over
+   * @param maxCoalescingDelay the maximal time to wait for more messages before flushing
+   */
+  Sender(Socket sock, Duration maxCoalescingDelay) {
     Objects.requireNonNull(sock);
+    Objects.requireNonNull(maxCoalescingDelay);
+    if (maxCoalescingDelay.isNegative()) {
+      throw new IllegalArgumentException("Coalescing delay must be non-negative");
+    }
+    this.maxCoalescingDelayNanos = maxCoalescingDelay.toNanos();
     this.out = ExceptionConverter.safe(
-        () -> new DataOutputStream(new BufferedOutputStream(sock.getOutputStream())),
+        () -> new DataOutputStream(
+            new BufferedOutputStream(sock.getOutputStream(), BUFFER_SIZE)),
         "Unable to get output stream from socket");
     this.queue = new LinkedBlockingQueue<>();
     this.flushAndStop = new AtomicBoolean(false);
-    this.ignoreNext = new AtomicBoolean(false);
     this.thread = new Thread(this::run);
     this.thread.setDaemon(true);
     this.thread.setName("sender-" + this.thread.getId());
@@ -71,10 +103,7 @@ class Sender {
   void stop() {
     flushAndStop.set(true);
     if (isRunning()) {
-      if (queue.isEmpty()) {
-        this.ignoreNext.set(true);
-        queue.add(new byte[] {});
-      }
+      queue.add(STOP);
       ExceptionConverter.safe(() -> {
         this.thread.join();
         return null;
@@ -83,14 +112,22 @@ class Sender {
   }
 
   private void run() {
+    List<byte[]> batch = new ArrayList<>();
     try {
       while (shouldRun()) {
-        byte[] data = queue.take();
-        if (!ignoreNext.get()) {
-          out.writeInt(data.length);
-          out.write(data);
-          out.flush();
+        batch.add(queue.take());
+        queue.drainTo(batch);
+        if (maxCoalescingDelayNanos > 0) {
+          awaitMore(batch);
         }
+        for (byte[] data : batch) {
+          if (data != STOP) {
+            out.writeInt(data.length);
+            out.write(data);
+          }
+        }
+        out.flush();
+        batch.clear();
       }
       out.writeInt(-1);
       out.flush();
@@ -101,6 +138,34 @@ class Sender {
     }
   }
 
+  /**
+   * Waits for more messages to be queued until either the coalescing delay has passed, a full
+   * buffer of data is ready or the sender is stopped.
+   *
+   * @param batch the messages to send
+   */
+  private void awaitMore(List<byte[]> batch) throws InterruptedException {
+    long deadline = System.nanoTime() + maxCoalescingDelayNanos;
+    long bytes = 0;
+    for (byte[] data : batch) {
+      bytes += Integer.BYTES + data.length;
+    }
+    long remaining = maxCoalescingDelayNanos;
+    while (bytes < BUFFER_SIZE && remaining > 0 && !flushAndStop.get()) {
+      byte[] data = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (data == null) {
+        return;
+      }
+      int size = batch.size();
+      batch.add(data);
+      queue.drainTo(batch);
+      for (int i = size; i < batch.size(); i++) {
+        bytes += Integer.BYTES + batch.get(i).length;
+      }
+      remaining = deadline - System.nanoTime();
+    }
+  }
+
   private boolean shouldRun() {
     return !(flushAndStop.get() && queue.isEmpty());
   }
@@ -63,8 +63,36 @@ public class SocketNetwork implements CloseableNetwork {
    *         sockets are not open and connected.
    */
   public SocketNetwork(NetworkConfiguration conf, Map<Integer, Socket> socketMap) {
+    this(conf, socketMap, Duration.ZERO);
+  }
+
+  /**
+   * Creates a network with the given a configuration and a mapping from party ids to sockets,
+   * where outgoing messages are coalesced for up to a given delay before being flushed.
+   *
+   * <p>
+   * Without a delay, the messages queued for a party at the time the sender wakes up are sent
+   * with a single flush. With a positive delay, the sender additionally waits for up to the given
+   * delay for more messages, which reduces the number of system calls and TCP segments in
+   * protocols that send many small messages, at the cost of added latency.
+   * </p>
+   *
+   * @param conf the network configuration
+   * @param socketMap a mapping from party ids to the socket to be used for communicating with the
+   *        given party.
+   * @param maxCoalescingDelay the maximal time to wait for more messages before flushing
+   *
+   * @throws IllegalArgumentException if {@code socketMap} and {@code conf} are inconsistent, the
+   *         sockets are not open and connected or the delay is negative.
+   */
+  public SocketNetwork(NetworkConfiguration conf, Map<Integer, Socket> socketMap,
+      Duration maxCoalescingDelay) {
     Objects.requireNonNull(conf);
     Objects.requireNonNull(socketMap);
+    Objects.requireNonNull(maxCoalescingDelay);
+    if (maxCoalescingDelay.isNegative()) {
+      throw new IllegalArgumentException("Coalescing delay must be non-negative");
+    }
     for (int i = 1; i < conf.noOfParties() + 1; i++) {
       if (i == conf.getMyId()) {
         continue;
@@ -88,7 +116,7 @@ public class SocketNetwork implements CloseableNetwork {
     this.selfQueue = new LinkedBlockingQueue<>();
     if (conf.noOfParties() > 1) {
       this.sockets = Collections.unmodifiableCollection(new ArrayList<>(socketMap.values()));
-      startCommunication(socketMap);
+      startCommunication(socketMap, maxCoalescingDelay);
     } else {
       this.sockets = Collections.emptyList();
     }
@@ -97,16 +125,17 @@ public class SocketNetwork implements CloseableNetwork {
   /**
    * Starts communication threads to handle incoming and outgoing messages.
    *
-   * @param channels a map from party ids to the associated communication channels
+   * @param sockets a map from party ids to the associated sockets
+   * @param maxCoalescingDelay the maximal time senders wait for more messages before flushing
    */
-  private void startCommunication(Map<Integer, Socket> sockets) {
+  private void startCommunication(Map<Integer, Socket> sockets, Duration maxCoalescingDelay) {
     for (Entry<Integer, Socket> entry : sockets.entrySet()) {
       final int id = entry.getKey();
       inRange(id);
       Socket socket = entry.getValue();
       Receiver receiver = new Receiver(socket);
       this.receivers.put(id, receiver);
-      Sender sender = new Sender(socket);
+      Sender sender = new Sender(socket, maxCoalescingDelay);
       this.senders.put(id, sender);
     }
   }
@@ -1,9 +1,14 @@
 package dk.alexandra.fresco.framework.sce;
 
 import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.ProtocolBuilder;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.network.MultiplexedNetwork;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.concurrent.Future;
 
@@ -64,6 +69,54 @@ public interface SecureComputationEngine<ResourcePoolT extends ResourcePool,
   <OutputT> Future<OutputT> startApplication(Application<OutputT, BuilderT> application,
       ResourcePoolT resources, Network network);
 
+  /**
+   * Starts an application on its own channel of a multiplexed network. The channel is opened with
+   * an automatically allocated id when the application is started, and closed when its evaluation
+   * ends, so all parties must start the applications they run on the multiplexed network in the
+   * same order.
+   * <p>
+   * By default the application is started on the channel with
+   * {@link #startApplication(Application, ResourcePool, Network)}, and the channel is closed
+   * together with the application. Implementations should override this to also close the channel
+   * if the evaluation fails.
+   * </p>
+   *
+   * @param application The application to evaluate.
+   * @param resources the resource pool used in evaluation. Applications running concurrently must
+   *     use separate resource pools
+   * @param network the multiplexed network to open the channel on
+   * @return the future holding the result
+   */
+  default <OutputT> Future<OutputT> startApplication(Application<OutputT, BuilderT> application,
+      ResourcePoolT resources, MultiplexedNetwork network) {
+    CloseableNetwork channel = network.openChannel();
+    Application<OutputT, BuilderT> closingApplication = new Application<OutputT, BuilderT>() {
+      @Override
+      public DRes<OutputT> buildComputation(BuilderT builder) {
+        return application.buildComputation(builder);
+      }
+
+      @Override
+      public void close() {
+        try {
+          application.close();
+        } finally {
+          try {
+            channel.close();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+      }
+
+      @Override
+      public String toString() {
+        return application.toString();
+      }
+    };
+    return startApplication(closingApplication, resources, channel);
+  }
+
 
   /**
    * Initializes the SecureComputationEngine. This method is idempotent - and sets up the proces
@@ -6,6 +6,8 @@ import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
 import dk.alexandra.fresco.framework.ProtocolEvaluator.EvaluationStatistics;
 import dk.alexandra.fresco.framework.builder.ProtocolBuilder;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.network.MultiplexedNetwork;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.ProtocolSuite;
@@ -15,6 +17,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -24,6 +27,12 @@ import org.slf4j.LoggerFactory;
 /**
  * Secure Computation Engine - responsible for having the overview of things and setting everything
  * up, e.g., based on properties.
+ * <p>
+ * Applications started on the engine are evaluated concurrently, by default without any bound on
+ * the number of concurrently running applications. Note that concurrently running applications
+ * must each use their own resource pool and network. Applications started on a {@link
+ * MultiplexedNetwork} are each given their own channel of the network.
+ * </p>
  */
 public class SecureComputationEngineImpl
     <ResourcePoolT extends ResourcePool, BuilderT extends ProtocolBuilder>
@@ -33,6 +42,7 @@ public class SecureComputationEngineImpl
   private ExecutorService executorService;
   private boolean setup;
   private ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite;
+  private final int maxConcurrentApplications;
   private static final AtomicInteger threadCounter = new AtomicInteger(1);
   private static final Logger logger = LoggerFactory.getLogger(SecureComputationEngineImpl.class);
 
@@ -44,8 +54,29 @@ public class SecureComputationEngineImpl
    */
   public SecureComputationEngineImpl(ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite,
       ProtocolEvaluator<ResourcePoolT> evaluator) {
+    this(protocolSuite, evaluator, 0);
+  }
+
+  /**
+   * Creates a new {@link SecureComputationEngineImpl} which evaluates at most a given number of
+   * applications concurrently. Applications started while the maximum number of applications are
+   * running are queued and evaluated in the order they were started. Since running applications
+   * may wait for the other parties, all parties must start the applications in the same order.
+   *
+   * @param protocolSuite the {@link ProtocolSuite} to use to evaluate the secure computation
+   * @param evaluator the {@link ProtocolEvaluator} to run secure evaluation.
+   * @param maxConcurrentApplications the maximum number of applications to evaluate concurrently,
+   *     or 0 for no bound
+   */
+  public SecureComputationEngineImpl(ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite,
+      ProtocolEvaluator<ResourcePoolT> evaluator, int maxConcurrentApplications) {
+    if (maxConcurrentApplications < 0) {
+      throw new IllegalArgumentException(
+          "Maximum number of concurrent applications must be non-negative");
+    }
     this.protocolSuite = protocolSuite;
     this.evaluator = evaluator;
+    this.maxConcurrentApplications = maxConcurrentApplications;
     this.setup = false;
   }
 
@@ -70,6 +101,23 @@ public class SecureComputationEngineImpl
     return executorService.submit(callable);
   }
 
+  @Override
+  public <OutputT> Future<OutputT> startApplication(Application<OutputT, BuilderT> application,
+      ResourcePoolT resourcePool, MultiplexedNetwork network) {
+    setup();
+    // the channel is opened here so that the channel ids follow the order the applications are
+    // started in, rather than the order they are evaluated in
+    CloseableNetwork channel = network.openChannel();
+    Callable<OutputT> callable = () -> {
+      try {
+        return evalApplication(application, resourcePool, channel).out();
+      } finally {
+        channel.close();
+      }
+    };
+    return executorService.submit(callable);
+  }
+
   private <OutputT> DRes<OutputT> evalApplication(Application<OutputT, BuilderT> application,
       ResourcePoolT resourcePool, Network network) {
     logger.info(
@@ -94,11 +142,17 @@ public class SecureComputationEngineImpl
   @Override
   public synchronized void setup() {
     if (!this.setup) {
-      this.executorService = Executors.newCachedThreadPool(r -> {
+      ThreadFactory threadFactory = r -> {
         Thread thread = new Thread(r, "SCE-" + threadCounter.getAndIncrement());
         thread.setDaemon(true);
         return thread;
-      });
+      };
+      if (maxConcurrentApplications > 0) {
+        this.executorService =
+            Executors.newFixedThreadPool(maxConcurrentApplications, threadFactory);
+      } else {
+        this.executorService = Executors.newCachedThreadPool(threadFactory);
+      }
       this.setup = true;
     }
   }
@@ -0,0 +1,229 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.framework.network.Network;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Configuration of an adaptive batch size for the {@link BatchedProtocolEvaluator}.
+ * <p>
+ * During evaluation the evaluator measures the number of bytes sent per round and per native
+ * protocol, the time spent per round and the time spent producing the batches. Every given number
+ * of batches, each party proposes a new batch size aiming at sending a target number of bytes per
+ * round, and the parties agree on the smallest of the proposals. The proposal is only allowed to
+ * grow while evaluation is dominated by latency, i.e., while the time spent per round is close to
+ * the round trip time measured when agreeing on the batch size. The batch size at most doubles or
+ * halves in each adjustment.
+ * </p>
+ * <p>
+ * Since the batches determine how messages are framed, all parties must agree on the batch size.
+ * The agreement is an extra exchange on the network, so all parties must use the same
+ * configuration.
+ * </p>
+ */
+public class AdaptiveBatchSize {
+
+  private static final int DEFAULT_MIN_BATCH_SIZE = 128;
+  private static final int DEFAULT_MAX_BATCH_SIZE = 1 << 16;
+  private static final int DEFAULT_INITIAL_BATCH_SIZE = 4096;
+  private static final int DEFAULT_TARGET_BYTES_PER_ROUND = 1 << 16;
+  private static final int DEFAULT_ADJUSTMENT_INTERVAL = 16;
+  private static final int LATENCY_BOUND_FACTOR = 4;
+
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final int initialBatchSize;
+  private final int targetBytesPerRound;
+  private final int adjustmentInterval;
+
+  /**
+   * Creates an adaptive batch size with default parameters.
+   */
+  public AdaptiveBatchSize() {
+    this(DEFAULT_MIN_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE, DEFAULT_INITIAL_BATCH_SIZE,
+        DEFAULT_TARGET_BYTES_PER_ROUND, DEFAULT_ADJUSTMENT_INTERVAL);
+  }
+
+  /**
+   * Creates an adaptive batch size.
+   *
+   * @param minBatchSize the smallest batch size to use
+   * @param maxBatchSize the largest batch size to use
+   * @param initialBatchSize the batch size to start evaluation with
+   * @param targetBytesPerRound the number of bytes to aim at sending in total per round
+   * @param adjustmentInterval the number of batches between adjustments of the batch size
+   */
+  public AdaptiveBatchSize(int minBatchSize, int maxBatchSize, int initialBatchSize,
+      int targetBytesPerRound, int adjustmentInterval) {
+    if (minBatchSize < 1 || maxBatchSize < minBatchSize || initialBatchSize < minBatchSize
+        || initialBatchSize > maxBatchSize) {
+      throw new IllegalArgumentException("Batch sizes must satisfy 0 < min <= initial <= max, "
+          + "but were " + minBatchSize + ", " + initialBatchSize + " and " + maxBatchSize);
+    }
+    if (targetBytesPerRound < 1 || adjustmentInterval < 1) {
+      throw new IllegalArgumentException(
+          "Target bytes per round and adjustment interval must be positive");
+    }
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.initialBatchSize = initialBatchSize;
+    this.targetBytesPerRound = targetBytesPerRound;
+    this.adjustmentInterval = adjustmentInterval;
+  }
+
+  /**
+   * Creates the state of the batch size for a single evaluation.
+   *
+   * @param network the network of the evaluation
+   * @return a new controller
+   */
+  Controller newController(Network network) {
+    return new Controller(network);
+  }
+
+  /**
+   * Tracks the measurements of a single evaluation and adjusts the batch size. Outgoing messages
+   * of the evaluation must be sent through the controller to be measured.
+   */
+  class Controller implements Network {
+
+    private final Logger logger = LoggerFactory.getLogger(AdaptiveBatchSize.class);
+    private final Network network;
+    private final int[] sends;
+    private int batchSize;
+    private long batchBytes;
+    private long batchStart;
+    private long productionStart;
+    private int batches;
+    private double bytesPerRound;
+    private long protocols;
+    private long roundNanos;
+    private long rounds;
+    private long productionNanos;
+    private long roundTripNanos;
+
+    private Controller(Network network) {
+      this.network = network;
+      this.sends = new int[network.getNoOfParties()];
+      this.batchSize = initialBatchSize;
+    }
+
+    int getBatchSize() {
+      return batchSize;
+    }
+
+    /**
+     * Marks the start of the production of a batch.
+     */
+    void startProduction() {
+      productionStart = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of the production of a batch and the start of its evaluation.
+     */
+    void startBatch() {
+      batchStart = System.nanoTime();
+      productionNanos += batchStart - productionStart;
+      batchBytes = 0;
+      for (int i = 0; i < sends.length; i++) {
+        sends[i] = 0;
+      }
+    }
+
+    /**
+     * Marks the end of the evaluation of a batch. Every adjustment interval, this agrees on a new
+     * batch size with the other parties.
+     *
+     * @param size the number of native protocols in the batch
+     */
+    void finishBatch(int size) {
+      int batchRounds = 0;
+      for (int count : sends) {
+        batchRounds = Math.max(batchRounds, count);
+      }
+      if (size > 0 && batchRounds > 0 && batchBytes > 0) {
+        bytesPerRound += (double) batchBytes / batchRounds;
+        protocols += size;
+        roundNanos += System.nanoTime() - batchStart;
+        rounds += batchRounds;
+      }
+      batches++;
+      if (batches % adjustmentInterval == 0) {
+        adjust();
+      }
+    }
+
+    private void adjust() {
+      int proposal = propose();
+      long then = System.nanoTime();
+      network.sendToAll(ByteBuffer.allocate(Integer.BYTES).putInt(proposal).array());
+      int agreed = proposal;
+      for (byte[] received : network.receiveFromAll()) {
+        agreed = Math.min(agreed, ByteBuffer.wrap(received).getInt());
+      }
+      roundTripNanos = System.nanoTime() - then;
+      logger.debug("Adjusted batch size from {} to {}. Measured {} bytes per protocol and round, "
+              + "{} us per round, {} us producing batches and {} us round trip time.",
+          batchSize, agreed, protocols == 0 ? 0 : bytesPerRound / protocols,
+          rounds == 0 ? 0 : roundNanos / rounds / 1000, productionNanos / 1000,
+          roundTripNanos / 1000);
+      batchSize = Math.max(minBatchSize, Math.min(maxBatchSize, agreed));
+      bytesPerRound = 0;
+      protocols = 0;
+      roundNanos = 0;
+      rounds = 0;
+      productionNanos = 0;
+    }
+
+    /**
+     * Computes the batch size this party would prefer based on the measurements since the last
+     * adjustment.
+     *
+     * @return the proposed batch size
+     */
+    int propose() {
+      if (protocols == 0) {
+        return batchSize;
+      }
+      double bytesPerProtocol = bytesPerRound / protocols;
+      long desired = (long) Math.ceil(targetBytesPerRound / bytesPerProtocol);
+      boolean latencyBound = roundTripNanos == 0
+          || roundNanos / rounds <= LATENCY_BOUND_FACTOR * roundTripNanos;
+      if (!latencyBound) {
+        desired = Math.min(desired, batchSize);
+      }
+      desired = Math.max(batchSize / 2, Math.min(2L * batchSize, desired));
+      return (int) Math.max(minBatchSize, Math.min(maxBatchSize, desired));
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      batchBytes += data.length;
+      sends[partyId - 1]++;
+      network.send(partyId, data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      return network.receive(partyId);
+    }
+
+    @Override
+    public ByteBuffer receiveBuffer(int partyId) {
+      return network.receiveBuffer(partyId);
+    }
+
+    @Override
+    public List<ByteBuffer> receiveBuffersFromAll() {
+      return network.receiveBuffersFromAll();
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return network.getNoOfParties();
+    }
+  }
+}
@@ -5,6 +5,7 @@ import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.ProtocolSuite;
+import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +25,8 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
   private final BatchEvaluationStrategy<ResourcePoolT> batchEvaluator;
   private final ProtocolSuite<ResourcePoolT, ?> protocolSuite;
   private final int maxBatchSize;
+  private final boolean compressBatches;
+  private final AdaptiveBatchSize adaptiveBatchSize;
 
   public BatchedProtocolEvaluator(
       BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
@@ -34,9 +37,48 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
   public BatchedProtocolEvaluator(
       BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
       ProtocolSuite<ResourcePoolT, ?> protocolSuite, int maxBatchSize) {
+    this(batchEvaluator, protocolSuite, maxBatchSize, false);
+  }
+
+  /**
+   * Creates a new evaluator.
+   *
+   * @param batchEvaluator the strategy used to evaluate each batch
+   * @param protocolSuite the protocol suite
+   * @param maxBatchSize the maximum number of native protocols in a batch
+   * @param compressBatches whether batches of equal length messages should be sent in a compact
+   *     encoding. This mostly benefits suites sending many single bit messages, such as the boolean
+   *     suites. See {@link NetworkBatchDecorator}
+   */
+  public BatchedProtocolEvaluator(
+      BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, ?> protocolSuite, int maxBatchSize, boolean compressBatches) {
     this.batchEvaluator = batchEvaluator;
     this.maxBatchSize = maxBatchSize;
     this.protocolSuite = protocolSuite;
+    this.compressBatches = compressBatches;
+    this.adaptiveBatchSize = null;
+  }
+
+  /**
+   * Creates a new evaluator which adapts the batch size during evaluation.
+   *
+   * @param batchEvaluator the strategy used to evaluate each batch
+   * @param protocolSuite the protocol suite
+   * @param adaptiveBatchSize the configuration of the batch size. Must be the same for all parties
+   * @param compressBatches whether batches of equal length messages should be sent in a compact
+   *     encoding, see {@link #BatchedProtocolEvaluator(BatchEvaluationStrategy, ProtocolSuite, int,
+   *     boolean)}
+   */
+  public BatchedProtocolEvaluator(
+      BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, ?> protocolSuite, AdaptiveBatchSize adaptiveBatchSize,
+      boolean compressBatches) {
+    this.batchEvaluator = batchEvaluator;
+    this.maxBatchSize = 0;
+    this.protocolSuite = protocolSuite;
+    this.compressBatches = compressBatches;
+    this.adaptiveBatchSize = Objects.requireNonNull(adaptiveBatchSize);
   }
 
   @Override
@@ -46,16 +88,30 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
     int totalProtocols = 0;
     int totalBatches = 0;
 
-    NetworkBatchDecorator networkBatchDecorator = createSceNetwork(resourcePool, network);
+    AdaptiveBatchSize.Controller controller =
+        adaptiveBatchSize == null ? null : adaptiveBatchSize.newController(network);
+    NetworkBatchDecorator networkBatchDecorator =
+        createSceNetwork(resourcePool, controller == null ? network : controller);
     ProtocolSuite.RoundSynchronization<ResourcePoolT> roundSynchronization =
         protocolSuite.createRoundSynchronization();
     do {
-      ProtocolCollectionList<ResourcePoolT> protocols = new ProtocolCollectionList<>(maxBatchSize);
-      protocolProducer.getNextProtocols(protocols);
+      ProtocolCollectionList<ResourcePoolT> protocols;
+      if (controller == null) {
+        protocols = new ProtocolCollectionList<>(maxBatchSize);
+        protocolProducer.getNextProtocols(protocols);
+      } else {
+        controller.startProduction();
+        protocols = new ProtocolCollectionList<>(controller.getBatchSize());
+        protocolProducer.getNextProtocols(protocols);
+        controller.startBatch();
+      }
       int size = protocols.size();
 
       roundSynchronization.beforeBatch(protocols, resourcePool, network);
       batchEvaluator.processBatch(protocols, resourcePool, networkBatchDecorator);
+      if (controller != null) {
+        controller.finishBatch(size);
+      }
       logger.trace("Done evaluating batch: " + batch++ + " with " + size + " native protocols");
       if (size == 0) {
         logger.debug("Batch " + batch + " is empty");
@@ -70,6 +126,6 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
   }
 
   private NetworkBatchDecorator createSceNetwork(ResourcePool resourcePool, Network network) {
-    return new NetworkBatchDecorator(resourcePool.getNoOfParties(), network);
+    return new NetworkBatchDecorator(resourcePool.getNoOfParties(), network, compressBatches);
   }
 }
@@ -0,0 +1,156 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact encodings of the batches sent by {@link NetworkBatchDecorator}.
+ * <p>
+ * A batch is normally sent as the concatenation of its varint framed messages. When all messages
+ * of a batch have the same length, the framing is redundant and the batch can instead be sent as
+ * a single length and count followed by the payloads. When all messages are moreover single bytes
+ * holding either 0 or 1 (as is the case for the openings of the boolean suites), the payloads can
+ * be packed eight to a byte.
+ * </p>
+ * <p>
+ * Encoded batches start with the bytes <code>0x80 0x00</code>, which is a non-minimal varint
+ * encoding of zero that is never produced by the framing of {@link NetworkBatchDecorator}. This
+ * lets the receiver tell encoded batches from plain ones, so a party may decide per batch whether
+ * to encode and the receiving party will decode correctly regardless of its own settings.
+ * </p>
+ */
+final class FrameEncoder {
+
+  private static final int MARKER_FIRST = 0x80;
+  private static final int MARKER_SECOND = 0x00;
+  private static final int UNIFORM = 1;
+  private static final int BITS = 2;
+
+  private int count;
+  private int length;
+  private boolean uniform;
+  private boolean bits;
+
+  FrameEncoder() {
+    reset();
+  }
+
+  /**
+   * Records a message written to the batch.
+   *
+   * @param data the message
+   */
+  void add(byte[] data) {
+    if (count == 0) {
+      length = data.length;
+    }
+    uniform &= data.length == length;
+    bits &= data.length == 1 && (data[0] == 0 || data[0] == 1);
+    count++;
+  }
+
+  /**
+   * Encodes the batch of the recorded messages if the encoding is smaller than the plain batch and
+   * resets the recorded state.
+   *
+   * @param batch the plain batch of framed messages
+   * @return the batch to send
+   */
+  byte[] encode(byte[] batch) {
+    try {
+      if (count < 2 || !uniform) {
+        return batch;
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      out.write(MARKER_FIRST);
+      out.write(MARKER_SECOND);
+      int header = batch.length / count - length;
+      if (bits) {
+        out.write(BITS);
+        NetworkBatchDecorator.writeLength(out, count);
+        int current = 0;
+        for (int i = 0; i < count; i++) {
+          current |= batch[i * (header + 1) + header] << (i & 7);
+          if ((i & 7) == 7 || i == count - 1) {
+            out.write(current);
+            current = 0;
+          }
+        }
+      } else {
+        out.write(UNIFORM);
+        NetworkBatchDecorator.writeLength(out, length);
+        NetworkBatchDecorator.writeLength(out, count);
+        for (int i = 0; i < count; i++) {
+          out.write(batch, i * (header + length) + header, length);
+        }
+      }
+      return out.size() < batch.length ? out.toByteArray() : batch;
+    } finally {
+      reset();
+    }
+  }
+
+  /**
+   * Decodes a received batch into the plain batch of framed messages. Batches which are not
+   * encoded are returned as is.
+   *
+   * @param batch the received batch
+   * @return the plain batch
+   */
+  static byte[] decode(byte[] batch) {
+    if (batch.length < 3 || (batch[0] & 0xFF) != MARKER_FIRST || batch[1] != MARKER_SECOND) {
+      return batch;
+    }
+    ByteBuffer in = ByteBuffer.wrap(batch, 3, batch.length - 3);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int type = batch[2];
+    if (type == BITS) {
+      int count = NetworkBatchDecorator.readVarint(in);
+      if (in.remaining() != (count + 7) / 8) {
+        throw new IllegalStateException("Malformed bit packed batch");
+      }
+      for (int i = 0; i < count; i++) {
+        out.write(1);
+        out.write((in.get(in.position() + i / 8) >>> (i & 7)) & 1);
+      }
+    } else if (type == UNIFORM) {
+      int length = NetworkBatchDecorator.readVarint(in);
+      int count = NetworkBatchDecorator.readVarint(in);
+      if ((long) length * count != in.remaining()) {
+        throw new IllegalStateException("Malformed uniform batch");
+      }
+      for (int i = 0; i < count; i++) {
+        NetworkBatchDecorator.writeLength(out, length);
+        out.write(batch, in.position() + i * length, length);
+      }
+    } else {
+      throw new IllegalStateException("Unknown batch encoding " + type);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes a received batch given as a buffer, positioned at the start of the batch. Batches
+   * which are not encoded are returned as is, without copying.
+   *
+   * @param batch the received batch
+   * @return the plain batch, positioned at its start
+   */
+  static ByteBuffer decode(ByteBuffer batch) {
+    int start = batch.position();
+    if (batch.remaining() < 3 || (batch.get(start) & 0xFF) != MARKER_FIRST
+        || batch.get(start + 1) != MARKER_SECOND) {
+      return batch;
+    }
+    byte[] bytes = new byte[batch.remaining()];
+    batch.duplicate().get(bytes);
+    return ByteBuffer.wrap(decode(bytes)).asReadOnlyBuffer();
+  }
+
+  private void reset() {
+    count = 0;
+    length = 0;
+    uniform = true;
+    bits = true;
+  }
+}
@@ -1,8 +1,8 @@
 package dk.alexandra.fresco.framework.sce.evaluator;
 
 import dk.alexandra.fresco.framework.network.Network;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -13,36 +13,78 @@ import java.util.Map;
  * on the network.
  * <br/>
  * It is important to call flush to empty all buffers after sending and before receiving data
+ * <br/>
+ * Each message is framed with its length encoded as a varint, i.e., seven bits per byte with the
+ * most significant bit signalling that more bytes follow. Messages shorter than 128 bytes are
+ * thus framed by a single length byte, while larger messages (e.g., the output of vectorized
+ * protocols) can be sent through the same batch without splitting them up.
+ * <br/>
+ * Received messages can be read either as copies using {@link #receive(int)} or as read-only views
+ * into the received batch using {@link #receiveBuffer(int)}. Batches are received from the
+ * underlying network using {@link Network#receiveBuffer(int)}, so a network which can return views
+ * into its input buffers, such as {@link dk.alexandra.fresco.framework.network.SelectorNetwork},
+ * delivers messages without copying. Views are only valid until the next batch is received, i.e.,
+ * until after the next call to {@link #flush()}.
+ * <br/>
+ * Optionally, batches of equal length messages can be sent in a compact encoding, see {@link
+ * FrameEncoder}. Encoded batches are recognized by the receiver, so this only needs to be enabled
+ * by the sending party.
  */
 public class NetworkBatchDecorator implements Network {
 
   private int noOfParties;
   private final Network network;
   private Map<Integer, ByteArrayOutputStream> output;
-  private Map<Integer, ByteArrayInputStream> input;
+  private Map<Integer, ByteBuffer> input;
+  private final Map<Integer, FrameEncoder> encoders;
 
   public NetworkBatchDecorator(int noOfParties, Network network) {
+    this(noOfParties, network, false);
+  }
+
+  /**
+   * Creates a new batch decorator.
+   *
+   * @param noOfParties the number of parties
+   * @param network the network to send batches over
+   * @param compress whether batches of equal length messages should be sent in a compact encoding
+   */
+  public NetworkBatchDecorator(int noOfParties, Network network, boolean compress) {
     this.noOfParties = noOfParties;
     this.network = network;
     this.output = new HashMap<>();
     this.input = new HashMap<>();
+    this.encoders = compress ? new HashMap<>() : null;
   }
 
   @Override
   public byte[] receive(int id) {
-    ByteArrayInputStream byteInputStream = input.get(id);
-    if (byteInputStream == null) {
-      byte[] partyData = network.receive(id);
-      byteInputStream = new ByteArrayInputStream(partyData);
-      input.put(id, byteInputStream);
-    }
-
-    int count = byteInputStream.read();
+    ByteBuffer batch = getBatch(id);
+    int count = readLength(batch);
     byte[] bytes = new byte[count];
-    byteInputStream.read(bytes, 0, count);
+    batch.get(bytes);
     return bytes;
   }
 
+  @Override
+  public ByteBuffer receiveBuffer(int id) {
+    ByteBuffer batch = getBatch(id);
+    int count = readLength(batch);
+    ByteBuffer message = batch.slice();
+    message.limit(count);
+    batch.position(batch.position() + count);
+    return message;
+  }
+
+  private ByteBuffer getBatch(int id) {
+    ByteBuffer batch = input.get(id);
+    if (batch == null) {
+      batch = FrameEncoder.decode(network.receiveBuffer(id));
+      input.put(id, batch);
+    }
+    return batch;
+  }
+
   @Override
   public int getNoOfParties() {
     return noOfParties;
@@ -52,12 +94,71 @@ public class NetworkBatchDecorator implements Network {
   public void send(int id, byte[] data) {
     ByteArrayOutputStream buffer = this.output
         .computeIfAbsent(id, (i) -> new ByteArrayOutputStream());
-    if (data.length > Byte.MAX_VALUE) {
-      throw new IllegalStateException(
-          "Current implementation only supports small packages, data.length=" + data.length);
-    }
-    buffer.write(data.length);
+    writeLength(buffer, data.length);
     buffer.write(data, 0, data.length);
+    if (encoders != null) {
+      encoders.computeIfAbsent(id, (i) -> new FrameEncoder()).add(data);
+    }
+  }
+
+  /**
+   * Writes the length of a message to the buffer as a varint.
+   *
+   * @param buffer the buffer to write to
+   * @param length the non-negative length to write
+   */
+  static void writeLength(ByteArrayOutputStream buffer, int length) {
+    while (length > Byte.MAX_VALUE) {
+      buffer.write((length & 0x7F) | 0x80);
+      length >>>= 7;
+    }
+    buffer.write(length);
+  }
+
+  /**
+   * Reads a varint encoded message length from the batch and checks that the message is fully
+   * contained in the batch.
+   *
+   * @param batch the batch to read from
+   * @return the length read
+   */
+  static int readLength(ByteBuffer batch) {
+    if (!batch.hasRemaining()) {
+      throw new IllegalStateException("No more messages in received batch");
+    }
+    int length = readVarint(batch);
+    if (length > batch.remaining()) {
+      throw new IllegalStateException("Unexpected end of batch while reading message");
+    }
+    return length;
+  }
+
+  /**
+   * Reads a varint from the batch.
+   *
+   * @param batch the batch to read from
+   * @return the value read
+   */
+  static int readVarint(ByteBuffer batch) {
+    int value = 0;
+    int shift = 0;
+    int next;
+    do {
+      if (shift > 28) {
+        throw new IllegalStateException("Malformed message length in received batch");
+      }
+      if (!batch.hasRemaining()) {
+        throw new IllegalStateException("Unexpected end of batch while reading message length");
+      }
+      next = batch.get() & 0xFF;
+      if (shift == 28 && next > 0x07) {
+        // only three bits are left for a non-negative int
+        throw new IllegalStateException("Malformed message length in received batch");
+      }
+      value |= (next & 0x7F) << shift;
+      shift += 7;
+    } while (next > Byte.MAX_VALUE);
+    return value;
   }
 
   /**
@@ -68,6 +169,9 @@ public class NetworkBatchDecorator implements Network {
       if (output.containsKey(i)) {
         ByteArrayOutputStream byteArrayOutputStream = output.get(i);
         byte[] data = byteArrayOutputStream.toByteArray();
+        if (encoders != null) {
+          data = encoders.get(i).encode(data);
+        }
         network.send(i, data);
       }
       output.remove(i);
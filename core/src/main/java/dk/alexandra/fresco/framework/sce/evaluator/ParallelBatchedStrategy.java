@@ -0,0 +1,252 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.NativeProtocol.EvaluationStatus;
+import dk.alexandra.fresco.framework.ProtocolCollection;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.PartitionableResourcePool;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Batched evaluation strategy which evaluates the native protocols of a round in parallel.
+ * <p>
+ * The batch is split into a fixed number of partitions which are evaluated round by round on a
+ * {@link ForkJoinPool}. Each partition writes its messages to its own buffer. Once all partitions
+ * are done with a round, the buffers are sent to each party as one batch in partition order, and
+ * in the next round each partition reads its own part of the received batch. Since the partitions
+ * only depend on the size of the batch, the number of partitions must be configured identically
+ * for all parties, whereas the size of the pool may differ.
+ * </p>
+ * <p>
+ * The order of evaluation between partitions is not deterministic. Side effects on the resource
+ * pool which depend on the order of evaluation are nevertheless kept in partition order: the first
+ * round of the batch, in which pre-processed material is fetched, is evaluated sequentially in
+ * partition order, and the following rounds are evaluated on partitions of the resource pool,
+ * which are merged back into the resource pool in partition order after each round. This requires
+ * the resource pool to be a {@link PartitionableResourcePool}; batches evaluated on any other
+ * resource pool are evaluated sequentially, as by {@link BatchedStrategy}.
+ * </p>
+ */
+public class ParallelBatchedStrategy<ResourcePoolT extends ResourcePool>
+    implements BatchEvaluationStrategy<ResourcePoolT> {
+
+  private static final int DEFAULT_PARTITIONS = 8;
+  private static final int DEFAULT_MIN_PARTITION_SIZE = 256;
+
+  private final ForkJoinPool pool;
+  private final int partitions;
+  private final int minPartitionSize;
+  private final BatchedStrategy<ResourcePoolT> sequentialStrategy;
+
+  /**
+   * Creates a new parallel strategy using the common pool and default partitioning.
+   */
+  public ParallelBatchedStrategy() {
+    this(ForkJoinPool.commonPool(), DEFAULT_PARTITIONS, DEFAULT_MIN_PARTITION_SIZE);
+  }
+
+  /**
+   * Creates a new parallel strategy.
+   *
+   * @param pool the pool to evaluate partitions on
+   * @param partitions the maximum number of partitions a batch is split into
+   * @param minPartitionSize the minimum number of native protocols in a partition. Batches too
+   *     small to be split are evaluated sequentially
+   */
+  public ParallelBatchedStrategy(ForkJoinPool pool, int partitions, int minPartitionSize) {
+    if (partitions < 1 || minPartitionSize < 1) {
+      throw new IllegalArgumentException(
+          "Number of partitions and minimum partition size must be positive");
+    }
+    this.pool = pool;
+    this.partitions = partitions;
+    this.minPartitionSize = minPartitionSize;
+    this.sequentialStrategy = new BatchedStrategy<>();
+  }
+
+  @Override
+  public void processBatch(ProtocolCollection<ResourcePoolT> protocols,
+      ResourcePoolT resourcePool, NetworkBatchDecorator networkBatchDecorator) {
+    int size = protocols.size();
+    int noOfPartitions = Math.min(partitions, size / minPartitionSize);
+    PartitionableResourcePool<ResourcePoolT> partitionable = asPartitionable(resourcePool);
+    if (noOfPartitions < 2 || partitionable == null) {
+      sequentialStrategy.processBatch(protocols, resourcePool, networkBatchDecorator);
+      return;
+    }
+    PartitionedBatch batch =
+        new PartitionedBatch(networkBatchDecorator, resourcePool.getNoOfParties(), noOfPartitions);
+    List<Partition> partitionList = new ArrayList<>(noOfPartitions);
+    int partitionSize = (size + noOfPartitions - 1) / noOfPartitions;
+    Partition current = null;
+    for (NativeProtocol<?, ResourcePoolT> protocol : protocols) {
+      if (current == null || !current.protocols.hasFreeCapacity()) {
+        current = new Partition(batch, partitionList.size(), partitionSize,
+            partitionable.createPartition());
+        partitionList.add(current);
+      }
+      current.protocols.addProtocol(protocol);
+    }
+    for (Partition partition : partitionList) {
+      partition.evaluateRound(0, resourcePool);
+    }
+    batch.flush();
+    int round = 1;
+    while (true) {
+      List<Callable<Void>> tasks = new ArrayList<>(noOfPartitions);
+      for (Partition partition : partitionList) {
+        if (partition.protocols.size() > 0) {
+          final int currentRound = round;
+          tasks.add(() -> {
+            partition.evaluateRound(currentRound, partition.resourcePool);
+            return null;
+          });
+        }
+      }
+      if (tasks.isEmpty()) {
+        break;
+      }
+      invokeAll(tasks);
+      for (Partition partition : partitionList) {
+        partitionable.mergePartition(partition.resourcePool);
+      }
+      batch.flush();
+      round++;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private PartitionableResourcePool<ResourcePoolT> asPartitionable(ResourcePoolT resourcePool) {
+    if (resourcePool instanceof PartitionableResourcePool) {
+      return (PartitionableResourcePool<ResourcePoolT>) resourcePool;
+    }
+    return null;
+  }
+
+  private void invokeAll(List<Callable<Void>> tasks) {
+    List<Future<Void>> futures = pool.invokeAll(tasks);
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while evaluating batch", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new RuntimeException("Evaluation of batch failed", e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Bridges the buffers of the partitions and the network of the batch. Outgoing messages of each
+   * partition are sent as a single message of the batch, and incoming batches are split into the
+   * messages of each partition.
+   */
+  private static class PartitionedBatch {
+
+    private final NetworkBatchDecorator network;
+    private final int noOfPartitions;
+    private final byte[][][] outgoing;
+    private final byte[][][] incoming;
+
+    private PartitionedBatch(NetworkBatchDecorator network, int noOfParties, int noOfPartitions) {
+      this.network = network;
+      this.noOfPartitions = noOfPartitions;
+      this.outgoing = new byte[noOfParties][noOfPartitions][];
+      this.incoming = new byte[noOfParties][][];
+    }
+
+    private void send(int partition, int partyId, byte[] data) {
+      outgoing[partyId - 1][partition] = data;
+    }
+
+    private synchronized byte[] receive(int partition, int partyId) {
+      byte[][] received = incoming[partyId - 1];
+      if (received == null) {
+        received = new byte[noOfPartitions][];
+        for (int i = 0; i < noOfPartitions; i++) {
+          received[i] = network.receive(partyId);
+        }
+        incoming[partyId - 1] = received;
+      }
+      return received[partition];
+    }
+
+    private void flush() {
+      for (int i = 0; i < outgoing.length; i++) {
+        byte[][] messages = outgoing[i];
+        boolean hasData = false;
+        for (byte[] message : messages) {
+          hasData |= message != null;
+        }
+        if (hasData) {
+          for (int j = 0; j < noOfPartitions; j++) {
+            network.send(i + 1, messages[j] == null ? new byte[0] : messages[j]);
+            messages[j] = null;
+          }
+        }
+        incoming[i] = null;
+      }
+      network.flush();
+    }
+  }
+
+  /**
+   * A partition of the batch with its own buffered network and its own partition of the resource
+   * pool.
+   */
+  private class Partition implements Network {
+
+    private final PartitionedBatch batch;
+    private final int index;
+    private final ProtocolCollectionList<ResourcePoolT> protocols;
+    private final ResourcePoolT resourcePool;
+    private final NetworkBatchDecorator buffer;
+
+    private Partition(PartitionedBatch batch, int index, int capacity,
+        ResourcePoolT resourcePool) {
+      this.batch = batch;
+      this.index = index;
+      this.protocols = new ProtocolCollectionList<>(capacity);
+      this.resourcePool = resourcePool;
+      this.buffer = new NetworkBatchDecorator(resourcePool.getNoOfParties(), this);
+    }
+
+    private void evaluateRound(int round, ResourcePoolT pool) {
+      Iterator<NativeProtocol<?, ResourcePoolT>> iterator = protocols.iterator();
+      while (iterator.hasNext()) {
+        NativeProtocol<?, ResourcePoolT> protocol = iterator.next();
+        EvaluationStatus status = protocol.evaluate(round, pool, buffer);
+        if (status.equals(EvaluationStatus.IS_DONE)) {
+          iterator.remove();
+        }
+      }
+      buffer.flush();
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      batch.send(index, partyId, data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      return batch.receive(index, partyId);
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return resourcePool.getNoOfParties();
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.NativeProtocol.EvaluationStatus;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Protocol evaluator which overlaps the local computation of native protocols with network I/O.
+ * <p>
+ * Each batch fetched from the protocol producer is split into a number of stages which are
+ * evaluated in an interleaved fashion: round <i>r</i> of the first stage is evaluated and flushed,
+ * then round <i>r</i> of the second stage is evaluated while the messages of the first stage are
+ * in transit, and so on. When round <i>r + 1</i> of the first stage is evaluated, the messages it
+ * waits for have thus (ideally) already arrived.
+ * </p>
+ * <p>
+ * Note that the protocol producer itself cannot be run ahead of evaluation, since lambdas in the
+ * producer may read the output of any native protocol handed out earlier. The overlap is
+ * therefore obtained within a batch, where all native protocols are functionally independent. All
+ * parties must use the same evaluator configuration, since the stages are flushed as individual
+ * messages.
+ * </p>
+ *
+ * @param <ResourcePoolT> The resource pool type to use
+ */
+public class PipelinedProtocolEvaluator<ResourcePoolT extends ResourcePool>
+    implements ProtocolEvaluator<ResourcePoolT> {
+
+  private static final Logger logger = LoggerFactory.getLogger(PipelinedProtocolEvaluator.class);
+  private static final int DEFAULT_MAX_BATCH_SIZE = 4096;
+  private static final int DEFAULT_PIPELINE_DEPTH = 2;
+  private static final int DEFAULT_MIN_STAGE_SIZE = 64;
+
+  private final ProtocolSuite<ResourcePoolT, ?> protocolSuite;
+  private final int maxBatchSize;
+  private final int pipelineDepth;
+  private final int minStageSize;
+
+  /**
+   * Creates a new pipelined evaluator with a default batch size and pipeline depth.
+   *
+   * @param protocolSuite the protocol suite used for round synchronization
+   */
+  public PipelinedProtocolEvaluator(ProtocolSuite<ResourcePoolT, ?> protocolSuite) {
+    this(protocolSuite, DEFAULT_MAX_BATCH_SIZE, DEFAULT_PIPELINE_DEPTH, DEFAULT_MIN_STAGE_SIZE);
+  }
+
+  /**
+   * Creates a new pipelined evaluator.
+   *
+   * @param protocolSuite the protocol suite used for round synchronization
+   * @param maxBatchSize the maximum number of native protocols in a batch
+   * @param pipelineDepth the maximum number of stages a batch is split into
+   * @param minStageSize the minimum number of native protocols in a stage, smaller batches are
+   *     split into fewer stages
+   */
+  public PipelinedProtocolEvaluator(ProtocolSuite<ResourcePoolT, ?> protocolSuite,
+      int maxBatchSize, int pipelineDepth, int minStageSize) {
+    if (maxBatchSize < 1 || pipelineDepth < 1 || minStageSize < 1) {
+      throw new IllegalArgumentException(
+          "Batch size, pipeline depth and minimum stage size must be positive");
+    }
+    this.protocolSuite = protocolSuite;
+    this.maxBatchSize = maxBatchSize;
+    this.pipelineDepth = pipelineDepth;
+    this.minStageSize = minStageSize;
+  }
+
+  @Override
+  public EvaluationStatistics eval(ProtocolProducer protocolProducer, ResourcePoolT resourcePool,
+      Network network) {
+    int batch = 0;
+    int totalProtocols = 0;
+    int totalBatches = 0;
+
+    NetworkBatchDecorator networkBatchDecorator =
+        new NetworkBatchDecorator(resourcePool.getNoOfParties(), network);
+    ProtocolSuite.RoundSynchronization<ResourcePoolT> roundSynchronization =
+        protocolSuite.createRoundSynchronization();
+    do {
+      ProtocolCollectionList<ResourcePoolT> protocols = new ProtocolCollectionList<>(maxBatchSize);
+      protocolProducer.getNextProtocols(protocols);
+      int size = protocols.size();
+
+      roundSynchronization.beforeBatch(protocols, resourcePool, network);
+      processBatch(split(protocols), resourcePool, networkBatchDecorator);
+      logger.trace("Done evaluating batch: " + batch++ + " with " + size + " native protocols");
+      if (size == 0) {
+        logger.debug("Batch " + batch + " is empty");
+      }
+      totalProtocols += size;
+      totalBatches += 1;
+      roundSynchronization.finishedBatch(size, resourcePool, network);
+    } while (protocolProducer.hasNextProtocols());
+
+    roundSynchronization.finishedEval(resourcePool, network);
+    return new EvaluationStatistics(totalProtocols, totalBatches);
+  }
+
+  /**
+   * Splits a batch into consecutive stages. The split only depends on the size of the batch, so
+   * all parties will split the batch in the same way.
+   */
+  List<ProtocolCollectionList<ResourcePoolT>> split(
+      ProtocolCollectionList<ResourcePoolT> protocols) {
+    int size = protocols.size();
+    int stages = Math.max(1, Math.min(pipelineDepth, size / minStageSize));
+    int stageSize = (size + stages - 1) / stages;
+    List<ProtocolCollectionList<ResourcePoolT>> result = new ArrayList<>(stages);
+    ProtocolCollectionList<ResourcePoolT> current = null;
+    for (NativeProtocol<?, ResourcePoolT> protocol : protocols) {
+      if (current == null || !current.hasFreeCapacity()) {
+        current = new ProtocolCollectionList<>(stageSize);
+        result.add(current);
+      }
+      current.addProtocol(protocol);
+    }
+    return result;
+  }
+
+  private void processBatch(List<ProtocolCollectionList<ResourcePoolT>> stages,
+      ResourcePoolT resourcePool, NetworkBatchDecorator networkBatchDecorator) {
+    int round = 0;
+    boolean hasMoreRounds = true;
+    while (hasMoreRounds) {
+      hasMoreRounds = false;
+      for (ProtocolCollectionList<ResourcePoolT> stage : stages) {
+        if (stage.size() > 0) {
+          evaluateCurrentRound(stage, networkBatchDecorator, resourcePool, round);
+          networkBatchDecorator.flush();
+          hasMoreRounds |= stage.size() > 0;
+        }
+      }
+      round++;
+    }
+  }
+
+  private void evaluateCurrentRound(ProtocolCollectionList<ResourcePoolT> protocols,
+      Network sceNetwork, ResourcePoolT rp, int round) {
+    Iterator<NativeProtocol<?, ResourcePoolT>> iterator = protocols.iterator();
+    while (iterator.hasNext()) {
+      NativeProtocol<?, ResourcePoolT> protocol = iterator.next();
+      EvaluationStatus status = protocol.evaluate(round, rp, sceNetwork);
+      if (status.equals(EvaluationStatus.IS_DONE)) {
+        iterator.remove();
+      }
+    }
+  }
+}
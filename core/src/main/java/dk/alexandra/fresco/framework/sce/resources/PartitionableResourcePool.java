@@ -0,0 +1,43 @@
+package dk.alexandra.fresco.framework.sce.resources;
+
+/**
+ * A resource pool which supports evaluating the native protocols of a batch in parallel
+ * partitions, as done by {@link dk.alexandra.fresco.framework.sce.evaluator.ParallelBatchedStrategy}.
+ * <p>
+ * Evaluating a native protocol may have side effects on the resource pool which depend on the order
+ * of evaluation, such as storing opened values for a later mac check. All parties must see these
+ * side effects in the same order. Therefore, each partition is evaluated on its own partition of the
+ * resource pool, which collects such side effects, and the partitions are merged back into the
+ * resource pool in partition order after each round.
+ * </p>
+ * <p>
+ * Pre-processed material is fetched from the resource pool itself: the first round of a batch is
+ * evaluated sequentially in partition order, so native protocols of suites implementing this
+ * interface must fetch all pre-processed material, and draw any joint randomness, in their first
+ * round.
+ * </p>
+ *
+ * @param <ResourcePoolT> the type of the partitions
+ */
+public interface PartitionableResourcePool<ResourcePoolT extends ResourcePool>
+    extends ResourcePool {
+
+  /**
+   * Creates a partition of this resource pool. The partition shares all resources which are safe
+   * to use concurrently with this resource pool, and has its own copy of all resources which are
+   * not. Resources which must be used in the same order by all parties, such as a joint random
+   * generator, should not be usable from the partition.
+   *
+   * @return a new partition
+   */
+  ResourcePoolT createPartition();
+
+  /**
+   * Merges the side effects collected by a partition into this resource pool, and clears them from
+   * the partition.
+   *
+   * @param partition a partition created by {@link #createPartition()}
+   */
+  void mergePartition(ResourcePoolT partition);
+
+}
@@ -2,6 +2,8 @@ package dk.alexandra.fresco.framework.sce.resources.storage;
 
 import dk.alexandra.fresco.framework.sce.resources.storage.exceptions.NoMoreElementsException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 public interface StreamedStorage extends Storage {
 
@@ -14,6 +16,24 @@ public interface StreamedStorage extends Storage {
    */
   public <T extends Serializable> T getNext(String name) throws NoMoreElementsException;
 
+  /**
+   * Returns the next objects from the storage with the given name. Storages which can read many
+   * objects at once should override this, the default implementation calls {@link
+   * #getNext(String)} repeatedly.
+   *
+   * @param name The name of the storage to get from. This could e.g. be a filename.
+   * @param count The number of objects to get
+   * @return the next objects in line
+   */
+  public default <T extends Serializable> List<T> getNext(String name, int count)
+      throws NoMoreElementsException {
+    List<T> objects = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      objects.add(getNext(name));
+    }
+    return objects;
+  }
+
   /**
    * Inserts an object into the storage with the given name. This could be e.g. append to a file
    * with the filename as 'name'.
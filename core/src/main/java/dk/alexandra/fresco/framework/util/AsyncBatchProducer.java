@@ -0,0 +1,412 @@
+package dk.alexandra.fresco.framework.util;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.logging.PerformanceLogger;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Produces batches of pre-processed material ahead of demand in a background thread, for data
+ * suppliers based on an interactive pre-processing protocol.
+ * <p>
+ * The producer keeps a {@link Buffer} for each type of material and runs the pre-processing
+ * protocol, created by a generator factory, in a separate producer thread on its own network. Once
+ * the number of elements in a buffer drops below a low watermark, the producer refills it in
+ * batches until it holds at least a high watermark of elements. The consuming thread only blocks
+ * if a buffer runs empty.
+ * </p>
+ * <p>
+ * Since the pre-processing is interactive, all parties must produce the same types of material in
+ * the same order. Therefore the producers agree on which buffers to refill in each round, by
+ * exchanging the buffers each party wants refilled and refilling the union. Such an exchange is
+ * only started once some party needs a buffer refilled: while idle, the producer waits both for
+ * local demand and for a request from another party, and a party receiving a request answers
+ * with its own, even if it has nothing to refill. Consequently, the network supplied to this class
+ * must not be used for anything else, and all parties must add the same buffers in the same
+ * order.
+ * </p>
+ * <p>
+ * The number of elements produced per buffer and the number and duration of stalls of the
+ * consuming thread can be read through {@link #getLoggedValues()}.
+ * </p>
+ *
+ * @param <GeneratorT> the type of the pre-processing protocol producing the batches
+ */
+public class AsyncBatchProducer<GeneratorT> implements PerformanceLogger, Closeable {
+
+  public static final String PRODUCER_ROUNDS = "PRODUCER_ROUNDS";
+  public static final String PRODUCED_SUFFIX = "_PRODUCED";
+  public static final String STALLS_SUFFIX = "_STALLS";
+  public static final String STALL_MILLIS_SUFFIX = "_STALL_MILLIS";
+  private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+  private static final Logger logger = LoggerFactory.getLogger(AsyncBatchProducer.class);
+
+  private final int myId;
+  private final int noOfParties;
+  private final String threadName;
+  private final Supplier<Network> network;
+  private final Function<Network, GeneratorT> generatorFactory;
+  private final List<Buffer<GeneratorT, ?>> buffers;
+  private Thread producer;
+  private boolean closed;
+  private boolean stopped;
+  private RuntimeException failure;
+  private long rounds;
+
+  /**
+   * Creates {@link AsyncBatchProducer}. Buffers are added using {@link #addBuffer(String, Function,
+   * int, int, boolean)}, and the producer is started by {@link #start()} or when the first element
+   * is taken.
+   *
+   * @param myId this party's id
+   * @param noOfParties number of parties
+   * @param threadName name of the producer thread
+   * @param network supplier for the network to be used by the producer
+   * @param generatorFactory creates the pre-processing protocol given the network of the producer
+   */
+  public AsyncBatchProducer(int myId, int noOfParties, String threadName,
+      Supplier<Network> network, Function<Network, GeneratorT> generatorFactory) {
+    this.myId = myId;
+    this.noOfParties = noOfParties;
+    this.threadName = threadName;
+    this.network = network;
+    this.generatorFactory = generatorFactory;
+    this.buffers = new ArrayList<>();
+  }
+
+  /**
+   * Adds a buffer for a type of material. All buffers must be added before the producer is started.
+   *
+   * @param name name of the material, used for logging
+   * @param batchProducer produces a batch of the material using the pre-processing protocol
+   * @param lowWatermark the number of elements below which the buffer is refilled
+   * @param highWatermark the number of elements at which the refilling of the buffer stops
+   * @param refill whether to fill the buffer before the first element is taken
+   * @return the buffer
+   */
+  public synchronized <T> Buffer<GeneratorT, T> addBuffer(String name,
+      Function<GeneratorT, List<T>> batchProducer, int lowWatermark, int highWatermark,
+      boolean refill) {
+    if (producer != null) {
+      throw new IllegalStateException("Buffers must be added before the producer is started");
+    }
+    if (lowWatermark < 0 || highWatermark < lowWatermark) {
+      throw new IllegalArgumentException("Watermarks must satisfy 0 <= low <= high, but were "
+          + lowWatermark + " and " + highWatermark);
+    }
+    Buffer<GeneratorT, T> buffer =
+        new Buffer<>(name, batchProducer, lowWatermark, highWatermark, refill);
+    buffers.add(buffer);
+    return buffer;
+  }
+
+  /**
+   * Starts producing pre-processed material, if not already started. All parties should start
+   * their producers at around the same time.
+   */
+  public synchronized void start() {
+    if (producer == null) {
+      producer = new Thread(this::produce, threadName);
+      producer.setDaemon(true);
+      producer.start();
+    }
+  }
+
+  /**
+   * Takes the next element from a buffer, blocking until it is available.
+   *
+   * @param buffer a buffer added to this producer
+   * @return the next element of the buffer
+   */
+  public <T> T take(Buffer<GeneratorT, T> buffer) {
+    start();
+    synchronized (this) {
+      if (buffer.elements.isEmpty()) {
+        logger.trace("Waiting for {}", buffer.name);
+        long then = System.nanoTime();
+        buffer.stalls++;
+        requestRefill(buffer);
+        while (buffer.elements.isEmpty()) {
+          checkRunning();
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for pre-processed material", e);
+          }
+        }
+        buffer.stallNanos += System.nanoTime() - then;
+      }
+      T element = buffer.elements.pop();
+      if (buffer.elements.size() < buffer.lowWatermark) {
+        requestRefill(buffer);
+      }
+      return element;
+    }
+  }
+
+  private void requestRefill(Buffer<GeneratorT, ?> buffer) {
+    if (!buffer.refill) {
+      buffer.refill = true;
+      notifyAll();
+    }
+  }
+
+  private void checkRunning() {
+    if (failure != null) {
+      throw new RuntimeException("Pre-processing failed", failure);
+    }
+    if (closed) {
+      throw new IllegalStateException("Supplier is closed");
+    }
+    if (stopped) {
+      throw new IllegalStateException("Pre-processing was stopped by another party");
+    }
+  }
+
+  /**
+   * The main loop of the producer thread.
+   */
+  private void produce() {
+    ExecutorService listeners = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, threadName + "-Listener");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      Network network = this.network.get();
+      GeneratorT generator = generatorFactory.apply(network);
+      while (true) {
+        Map<Integer, Future<byte[]>> requests = listen(network, listeners);
+        byte[] requested = exchange(network, awaitRequest(requests), requests);
+        if (requested[0] != 0) {
+          break;
+        }
+        for (int i = 0; i < buffers.size(); i++) {
+          if (requested[i + 1] != 0) {
+            produceBatch(buffers.get(i), generator);
+          }
+        }
+      }
+      logger.debug("P{}: Stopped producing pre-processed material", myId);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        if (!closed) {
+          logger.error("P{}: Failed to produce pre-processed material", myId, e);
+          failure = e;
+        }
+      }
+    } finally {
+      listeners.shutdownNow();
+      synchronized (this) {
+        stopped = true;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Starts receiving the request of each of the other parties for the next round. Since the
+   * pre-processing protocol of the previous round has completed, the next message from each party
+   * is its request, and the network is not used by the producer until the requests are received.
+   */
+  private Map<Integer, Future<byte[]>> listen(Network network, ExecutorService listeners) {
+    Map<Integer, Future<byte[]>> requests = new HashMap<>();
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      if (partyId != myId) {
+        final int otherId = partyId;
+        CompletableFuture<byte[]> request =
+            CompletableFuture.supplyAsync(() -> network.receive(otherId), listeners);
+        request.whenComplete((data, e) -> wakeUp());
+        requests.put(partyId, request);
+      }
+    }
+    return requests;
+  }
+
+  private synchronized void wakeUp() {
+    notifyAll();
+  }
+
+  /**
+   * Waits until a buffer needs refilling, the producer is closed or another party sends its
+   * request, and returns the request of this party. The first byte of the request signals that
+   * this party stops producing, the remaining bytes signal which buffers should be refilled.
+   */
+  private synchronized byte[] awaitRequest(Map<Integer, Future<byte[]>> requests)
+      throws InterruptedException {
+    while (!closed && !refillRequested() && !anyReceived(requests)) {
+      wait();
+    }
+    byte[] request = new byte[buffers.size() + 1];
+    request[0] = (byte) (closed ? 1 : 0);
+    for (int i = 0; i < buffers.size(); i++) {
+      request[i + 1] = (byte) (buffers.get(i).refill ? 1 : 0);
+    }
+    rounds++;
+    return request;
+  }
+
+  private boolean refillRequested() {
+    for (Buffer<GeneratorT, ?> buffer : buffers) {
+      if (buffer.refill) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean anyReceived(Map<Integer, Future<byte[]>> requests) {
+    for (Future<byte[]> request : requests.values()) {
+      if (request.isDone()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sends the request of this party to the other parties, and returns the union of all requests.
+   */
+  private byte[] exchange(Network network, byte[] request, Map<Integer, Future<byte[]>> requests)
+      throws InterruptedException {
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      if (partyId != myId) {
+        network.send(partyId, request);
+      }
+    }
+    byte[] combined = request.clone();
+    for (Map.Entry<Integer, Future<byte[]>> entry : requests.entrySet()) {
+      byte[] other = receiveRequest(entry.getValue());
+      if (other.length != combined.length) {
+        throw new IllegalStateException("Received malformed request from P" + entry.getKey());
+      }
+      for (int i = 0; i < combined.length; i++) {
+        combined[i] |= other[i];
+      }
+    }
+    return combined;
+  }
+
+  private byte[] receiveRequest(Future<byte[]> request) throws InterruptedException {
+    try {
+      return request.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new RuntimeException("Failed to receive request", cause);
+    }
+  }
+
+  private <T> void produceBatch(Buffer<GeneratorT, T> buffer, GeneratorT generator) {
+    logger.trace("Producing another {} batch", buffer.name);
+    List<T> batch = buffer.batchProducer.apply(generator);
+    synchronized (this) {
+      buffer.elements.addAll(batch);
+      buffer.produced += batch.size();
+      if (buffer.elements.size() >= buffer.highWatermark) {
+        buffer.refill = false;
+      }
+      notifyAll();
+    }
+  }
+
+  /**
+   * Stops the producer. The producers of the other parties stop as well, after which they can no
+   * longer supply pre-processed material which is not already buffered.
+   */
+  @Override
+  public void close() {
+    Thread thread;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      notifyAll();
+      thread = producer;
+    }
+    if (thread != null) {
+      try {
+        thread.join(CLOSE_TIMEOUT.toMillis());
+        if (thread.isAlive()) {
+          logger.warn("P{}: Producer did not stop in time, interrupting it", myId);
+          thread.interrupt();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public synchronized void reset() {
+    rounds = 0;
+    for (Buffer<GeneratorT, ?> buffer : buffers) {
+      buffer.produced = 0;
+      buffer.stalls = 0;
+      buffer.stallNanos = 0;
+    }
+  }
+
+  @Override
+  public synchronized Map<String, Long> getLoggedValues() {
+    Map<String, Long> values = new HashMap<>();
+    values.put(PRODUCER_ROUNDS, rounds);
+    for (Buffer<GeneratorT, ?> buffer : buffers) {
+      values.put(buffer.name + PRODUCED_SUFFIX, buffer.produced);
+      values.put(buffer.name + STALLS_SUFFIX, buffer.stalls);
+      values.put(buffer.name + STALL_MILLIS_SUFFIX,
+          TimeUnit.NANOSECONDS.toMillis(buffer.stallNanos));
+    }
+    return values;
+  }
+
+  /**
+   * A buffer of a single type of pre-processed material. Guarded by the producer it was added to.
+   *
+   * @param <GeneratorT> the type of the pre-processing protocol producing the batches
+   * @param <T> the type of the material
+   */
+  public static final class Buffer<GeneratorT, T> {
+
+    private final String name;
+    private final Function<GeneratorT, List<T>> batchProducer;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final ArrayDeque<T> elements;
+    private boolean refill;
+    private long produced;
+    private long stalls;
+    private long stallNanos;
+
+    private Buffer(String name, Function<GeneratorT, List<T>> batchProducer, int lowWatermark,
+        int highWatermark, boolean refill) {
+      this.name = name;
+      this.batchProducer = batchProducer;
+      this.lowWatermark = lowWatermark;
+      this.highWatermark = highWatermark;
+      this.elements = new ArrayDeque<>();
+      this.refill = refill;
+    }
+  }
+}
@@ -2,7 +2,6 @@ package dk.alexandra.fresco.lib.math.integer.linalg;
 
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
-import dk.alexandra.fresco.framework.builder.numeric.Numeric;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.value.SInt;
 import java.util.ArrayList;
@@ -11,7 +10,8 @@ import java.util.RandomAccess;
 
 /**
  * Computes the inner product - i.e. <code>Sum(a[0]*b[1], ..., a[n]*b[n])</code> by first computing
- * all the multiplications in parallel, then summing up.
+ * all the multiplications in parallel using {@link
+ * dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric#mult(List, List)}, then summing up.
  */
 public class InnerProduct implements Computation<SInt, ProtocolBuilderNumeric> {
 
@@ -36,16 +36,7 @@ public class InnerProduct implements Computation<SInt, ProtocolBuilderNumeric> {
   @Override
   public DRes<SInt> buildComputation(ProtocolBuilderNumeric builder) {
     return builder
-        .par(parallel -> {
-          List<DRes<SInt>> products = new ArrayList<>(vectorA.size());
-          Numeric numericBuilder = parallel.numeric();
-          for (int i = 0; i < vectorA.size(); i++) {
-            DRes<SInt> nextA = vectorA.get(i);
-            DRes<SInt> nextB = vectorB.get(i);
-            products.add(numericBuilder.mult(nextA, nextB));
-          }
-          return () -> products;
-        })
+        .seq(seq -> seq.advancedNumeric().mult(vectorA, vectorB))
         .seq((seq, list) -> seq.advancedNumeric().sum(list)
         );
   }
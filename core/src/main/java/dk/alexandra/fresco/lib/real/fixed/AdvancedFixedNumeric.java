@@ -3,10 +3,14 @@ package dk.alexandra.fresco.lib.real.fixed;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RandomAdditiveMask;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.real.DefaultAdvancedRealNumeric;
 import dk.alexandra.fresco.lib.real.SReal;
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AdvancedFixedNumeric extends DefaultAdvancedRealNumeric {
 
@@ -14,6 +18,51 @@ public class AdvancedFixedNumeric extends DefaultAdvancedRealNumeric {
     super(builder);
   }
 
+  /**
+   * Computes the inner product of two fixed point vectors by multiplying the unscaled values using
+   * a single call to {@link dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric#mult(List,
+   * List)}, summing the products and truncating the sum once, instead of truncating each product.
+   * Before multiplying, the entries of the first vector are scaled up so that all products have
+   * the same precision.
+   */
+  @Override
+  public DRes<SReal> innerProduct(List<DRes<SReal>> a, List<DRes<SReal>> b) {
+    return builder.seq(seq -> {
+      if (a.size() != b.size()) {
+        throw new IllegalArgumentException("Vectors must have same size");
+      }
+      int precision = 0;
+      for (int i = 0; i < a.size(); i++) {
+        precision = Math.max(precision,
+            ((SFixed) a.get(i).out()).getPrecision() + ((SFixed) b.get(i).out()).getPrecision());
+      }
+      List<DRes<SInt>> unscaledA = new ArrayList<>(a.size());
+      List<DRes<SInt>> unscaledB = new ArrayList<>(b.size());
+      for (int i = 0; i < a.size(); i++) {
+        SFixed fixedA = (SFixed) a.get(i).out();
+        SFixed fixedB = (SFixed) b.get(i).out();
+        int missing = precision - fixedA.getPrecision() - fixedB.getPrecision();
+        unscaledA.add(missing > 0
+            ? seq.numeric().mult(BigInteger.ONE.shiftLeft(missing), fixedA.getSInt())
+            : fixedA.getSInt());
+        unscaledB.add(fixedB.getSInt());
+      }
+      final int productPrecision = precision;
+      DRes<List<DRes<SInt>>> products = seq.advancedNumeric().mult(unscaledA, unscaledB);
+      return () -> new Pair<>(products.out(), productPrecision);
+    }).seq((seq, products) -> {
+      DRes<SInt> sum = seq.advancedNumeric().sum(products.getFirst());
+      int precision = products.getSecond();
+      int defaultPrecision = seq.getRealNumericContext().getPrecision();
+      int maxPrecision = seq.getBasicNumericContext().getMaxBitLength() / 4;
+      if (precision > maxPrecision) {
+        sum = seq.advancedNumeric().truncate(sum, precision - defaultPrecision);
+        precision = defaultPrecision;
+      }
+      return new SFixed(sum, precision);
+    });
+  }
+
   @Override
   public DRes<SReal> sqrt(DRes<SReal> x) {
     return builder.seq(seq -> {
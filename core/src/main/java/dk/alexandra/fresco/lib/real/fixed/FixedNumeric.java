@@ -5,7 +5,6 @@ import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.real.RealNumeric;
 import dk.alexandra.fresco.lib.real.SReal;
-import dk.alexandra.fresco.lib.real.fixed.utils.Truncate;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
@@ -67,6 +66,11 @@ public class FixedNumeric implements RealNumeric {
    * @return the value <i>unscaled * 2<sup>-scale</sup></i>.
    */
   private BigDecimal scaled(BigInteger unscaled, int scale) {
+    // suites over rings open values as non-negative residues, so map them to the signed range
+    BigInteger modulus = builder.getBasicNumericContext().getModulus();
+    if (unscaled.compareTo(modulus.shiftRight(1)) > 0) {
+      unscaled = unscaled.subtract(modulus);
+    }
     return new BigDecimal(unscaled).setScale(scale).divide(new BigDecimal(BASE.pow(scale)),
         RoundingMode.HALF_UP);
   }
@@ -84,7 +88,7 @@ public class FixedNumeric implements RealNumeric {
     if (scale > 0) {
       n = scope.numeric().mult(BigInteger.ONE.shiftLeft(scale), n);
     } else if (scale < 0) {
-      n = scope.seq(new Truncate(n, -scale));
+      n = scope.advancedNumeric().truncate(n, -scale);
     }
     return n;
   }
@@ -160,7 +164,7 @@ public class FixedNumeric implements RealNumeric {
          * is motly effective when the precision was chosen small compared to the max bit length in
          * the underlying field.
          *
-         * For performance reasons, we use the Truncate algorithm instead of RightShift when
+         * For performance reasons, we use the approximate truncate instead of rightShift when
          * truncating numbers, so every time this is done to the SInt used to represent a fixed
          * number, eg. after multiplication, there is a propability (p ~ 0.5) that the result will
          * be one larger than the expected value which will make the corresponding fixed point
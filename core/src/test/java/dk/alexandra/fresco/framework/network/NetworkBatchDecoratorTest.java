@@ -1,6 +1,7 @@
 package dk.alexandra.fresco.framework.network;
 
 import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +29,28 @@ public class NetworkBatchDecoratorTest {
     Assert.assertArrayEquals(new byte[]{22, 0, 0}, networkBatchDecorator.receive(1));
   }
 
+  @Test
+  public void receiveBuffer() throws Exception {
+    transmissions.put(1, new byte[]{4, 2, 2, 23, 3, 3, 22, 0, 0});
+    ByteBuffer first = networkBatchDecorator.receiveBuffer(1);
+    Assert.assertTrue(first.isReadOnly());
+    Assert.assertEquals(ByteBuffer.wrap(new byte[]{2, 2, 23, 3}), first);
+    Assert.assertArrayEquals(new byte[]{22, 0, 0}, networkBatchDecorator.receive(1));
+    Assert.assertEquals(4, first.remaining());
+  }
+
+  @Test
+  public void receiveBuffersFromAll() throws Exception {
+    transmissions.put(1, new byte[]{2, 2, 23});
+    transmissions.put(2, new byte[]{0});
+    transmissions.put(3, new byte[]{1, 5, 1, 6});
+    List<ByteBuffer> received = networkBatchDecorator.receiveBuffersFromAll();
+    Assert.assertEquals(ByteBuffer.wrap(new byte[]{2, 23}), received.get(0));
+    Assert.assertEquals(0, received.get(1).remaining());
+    Assert.assertEquals(ByteBuffer.wrap(new byte[]{5}), received.get(2));
+    Assert.assertEquals(ByteBuffer.wrap(new byte[]{6}), networkBatchDecorator.receiveBuffer(3));
+  }
+
   @Test
   public void receiveFromAll() throws Exception {
     transmissions.put(1, new byte[]{4, 2, 2, 23, 3, 42});
@@ -65,25 +88,48 @@ public class NetworkBatchDecoratorTest {
     Assert.assertArrayEquals(new byte[]{1, 123}, transmissions.get(3));
   }
 
-  @Test(expected = RuntimeException.class)
-  public void errorOnBigPackets() throws Exception {
-    networkBatchDecorator.sendToAll(
-        new byte[]{
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-        });
+  @Test
+  public void sendAndReceiveLargePackets() throws Exception {
+    byte[] medium = new byte[200];
+    byte[] large = new byte[100000];
+    for (int i = 0; i < large.length; i++) {
+      large[i] = (byte) i;
+    }
+    networkBatchDecorator.send(1, medium);
+    networkBatchDecorator.send(1, new byte[]{42});
+    networkBatchDecorator.send(1, large);
+    networkBatchDecorator.flush();
+    byte[] transmitted = transmissions.get(1);
+    Assert.assertEquals(2 + 200 + 2 + 3 + 100000, transmitted.length);
+    Assert.assertArrayEquals(new byte[]{(byte) 0xC8, 0x01}, new byte[]{transmitted[0],
+        transmitted[1]});
+    Assert.assertArrayEquals(medium, networkBatchDecorator.receive(1));
+    Assert.assertArrayEquals(new byte[]{42}, networkBatchDecorator.receive(1));
+    Assert.assertArrayEquals(large, networkBatchDecorator.receive(1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void receiveTruncatedLength() throws Exception {
+    transmissions.put(1, new byte[]{(byte) 0x80});
+    networkBatchDecorator.receive(1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void receiveTruncatedMessage() throws Exception {
+    transmissions.put(1, new byte[]{3, 1, 2});
+    networkBatchDecorator.receiveBuffer(1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void receiveOverflowingLength() throws Exception {
+    transmissions.put(1, new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08});
+    networkBatchDecorator.receive(1);
+  }
 
+  @Test(expected = IllegalStateException.class)
+  public void receiveOverflowingLengthBuffer() throws Exception {
+    transmissions.put(1, new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+    networkBatchDecorator.receiveBuffer(1);
   }
 
   private class DummyNetwork implements Network {
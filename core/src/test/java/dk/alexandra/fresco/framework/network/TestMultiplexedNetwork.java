@@ -0,0 +1,336 @@
+package dk.alexandra.fresco.framework.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.ProtocolBuilder;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkTestUtils;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePool;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePoolImpl;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestMultiplexedNetwork {
+
+  private static final BigInteger MODULUS = BigInteger.valueOf(1000003);
+  private static final int NO_OF_PARTIES = 2;
+  private Map<Integer, NetworkConfiguration> confs;
+  private List<MultiplexedNetwork> networks;
+
+  /**
+   * Connects a multiplexed network for each party.
+   */
+  @Before
+  public void setUp() throws Exception {
+    connect(64L << 20);
+  }
+
+  /**
+   * Connects a multiplexed network for each party, keeping at most a given number of bytes for
+   * channels which are not opened.
+   */
+  private void connect(long maxPendingBytes) throws Exception {
+    confs = NetworkTestUtils.getNetworkConfigurations(NO_OF_PARTIES,
+        NetworkTestUtils.getFreePorts(NO_OF_PARTIES));
+    ExecutorService es = Executors.newFixedThreadPool(NO_OF_PARTIES);
+    List<Future<MultiplexedNetwork>> futures = new ArrayList<>(NO_OF_PARTIES);
+    for (int i = 1; i <= NO_OF_PARTIES; i++) {
+      NetworkConfiguration conf = confs.get(i);
+      futures.add(es.submit(
+          () -> new MultiplexedNetwork(conf, new AsyncNetwork(conf), maxPendingBytes)));
+    }
+    networks = new ArrayList<>(NO_OF_PARTIES);
+    for (Future<MultiplexedNetwork> future : futures) {
+      networks.add(future.get());
+    }
+    es.shutdown();
+  }
+
+  @After
+  public void tearDown() {
+    for (MultiplexedNetwork network : networks) {
+      network.close();
+    }
+  }
+
+  @Test
+  public void testChannelsAreSeparated() {
+    CloseableNetwork first = networks.get(0).openChannel(1);
+    CloseableNetwork second = networks.get(0).openChannel(2);
+    first.send(2, new byte[]{1});
+    second.send(2, new byte[]{2});
+    first.send(2, new byte[]{3});
+    assertArrayEquals(new byte[]{2}, networks.get(1).openChannel(2).receive(1));
+    CloseableNetwork other = networks.get(1).openChannel(1);
+    assertArrayEquals(new byte[]{1}, other.receive(1));
+    assertArrayEquals(new byte[]{3}, other.receive(1));
+    other.send(1, new byte[]{4, 5});
+    assertArrayEquals(new byte[]{4, 5}, first.receive(2));
+  }
+
+  @Test
+  public void testSendToSelf() {
+    CloseableNetwork channel = networks.get(0).openChannel(7);
+    channel.send(1, new byte[]{1, 2, 3});
+    assertArrayEquals(new byte[]{1, 2, 3}, channel.receive(1));
+  }
+
+  @Test
+  public void testReopenChannel() throws IOException {
+    CloseableNetwork channel = networks.get(0).openChannel(1);
+    channel.close();
+    networks.get(0).openChannel(1);
+  }
+
+  @Test
+  public void testReopenChannelDropsLateMessages() throws IOException {
+    CloseableNetwork sender = networks.get(0).openChannel(1);
+    CloseableNetwork receiver = networks.get(1).openChannel(1);
+    sender.send(2, new byte[]{1});
+    assertArrayEquals(new byte[]{1}, receiver.receive(1));
+    receiver.close();
+    sender.send(2, new byte[]{2});
+    sender.close();
+    sender = networks.get(0).openChannel(1);
+    receiver = networks.get(1).openChannel(1);
+    sender.send(2, new byte[]{3});
+    assertArrayEquals(new byte[]{3}, receiver.receive(1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testOpenChannelTwice() {
+    networks.get(0).openChannel(1);
+    networks.get(0).openChannel(1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSendOnClosedChannel() throws IOException {
+    CloseableNetwork channel = networks.get(0).openChannel(1);
+    channel.close();
+    channel.send(2, new byte[]{1});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeChannelId() {
+    networks.get(0).openChannel(-1);
+  }
+
+  @Test
+  public void testAllocatedChannels() {
+    CloseableNetwork first = networks.get(0).openChannel();
+    CloseableNetwork second = networks.get(0).openChannel();
+    second.send(2, new byte[]{2});
+    first.send(2, new byte[]{1});
+    CloseableNetwork otherFirst = networks.get(1).openChannel();
+    CloseableNetwork otherSecond = networks.get(1).openChannel();
+    assertArrayEquals(new byte[]{1}, otherFirst.receive(1));
+    assertArrayEquals(new byte[]{2}, otherSecond.receive(1));
+  }
+
+  @Test
+  public void testPendingBytesAreReleasedWhenOpened() throws Exception {
+    tearDown();
+    connect(100);
+    CloseableNetwork first = networks.get(0).openChannel(1);
+    CloseableNetwork second = networks.get(0).openChannel(2);
+    first.send(2, new byte[60]);
+    assertArrayEquals(new byte[60], networks.get(1).openChannel(1).receive(1));
+    second.send(2, new byte[60]);
+    assertArrayEquals(new byte[60], networks.get(1).openChannel(2).receive(1));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testTooManyPendingBytes() throws Exception {
+    tearDown();
+    connect(100);
+    networks.get(0).openChannel(1).send(2, new byte[60]);
+    networks.get(0).openChannel(2).send(2, new byte[60]);
+    // blocks until the network fails, since channels 1 and 2 are never opened
+    networks.get(1).openChannel(3).receive(1);
+  }
+
+  @Test
+  public void testConcurrentApplications() throws Exception {
+    runConcurrentApplications(0, true);
+  }
+
+  @Test
+  public void testBoundedConcurrentApplications() throws Exception {
+    runConcurrentApplications(3, false);
+  }
+
+  @Test
+  public void testApplicationsOnAllocatedChannels() throws Exception {
+    runApplicationsOnAllocatedChannels(false);
+  }
+
+  @Test
+  public void testApplicationsOnAllocatedChannelsByDefault() throws Exception {
+    runApplicationsOnAllocatedChannels(true);
+  }
+
+  /**
+   * Starts a number of applications on allocated channels of the multiplexed networks.
+   *
+   * @param useDefault if true the engine only implements the abstract methods of {@link
+   *     SecureComputationEngine}, so the applications are started by the default method
+   */
+  private void runApplicationsOnAllocatedChannels(boolean useDefault) throws Exception {
+    final int noOfApplications = 6;
+    ExecutorService es = Executors.newFixedThreadPool(NO_OF_PARTIES);
+    List<Future<List<BigInteger>>> results = new ArrayList<>(NO_OF_PARTIES);
+    for (int i = 1; i <= NO_OF_PARTIES; i++) {
+      final int myId = i;
+      results.add(es.submit(() -> {
+        DummyArithmeticProtocolSuite suite = new DummyArithmeticProtocolSuite(MODULUS, 20, 0);
+        SecureComputationEngine<DummyArithmeticResourcePool, ProtocolBuilderNumeric> sce =
+            new SecureComputationEngineImpl<>(suite,
+                new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite), 2);
+        if (useDefault) {
+          sce = new DelegatingEngine<>(sce);
+        }
+        List<Future<BigInteger>> futures = new ArrayList<>(noOfApplications);
+        for (int j = 0; j < noOfApplications; j++) {
+          futures.add(sce.startApplication(multiply(j),
+              new DummyArithmeticResourcePoolImpl(myId, NO_OF_PARTIES, MODULUS),
+              networks.get(myId - 1)));
+        }
+        List<BigInteger> outputs = new ArrayList<>(noOfApplications);
+        for (Future<BigInteger> future : futures) {
+          outputs.add(future.get());
+        }
+        sce.shutdownSCE();
+        return outputs;
+      }));
+    }
+    for (Future<List<BigInteger>> result : results) {
+      List<BigInteger> outputs = result.get();
+      for (int j = 0; j < noOfApplications; j++) {
+        assertEquals(BigInteger.valueOf(j * (j + 1)), outputs.get(j));
+      }
+    }
+    es.shutdown();
+  }
+
+  /**
+   * Runs a number of applications concurrently on separate channels of the multiplexed networks.
+   *
+   * @param maxConcurrent the maximum number of applications running concurrently at each party
+   * @param reverse if true the second party starts the applications in reverse order. Note that
+   *     this is only possible when the number of concurrent applications is unbounded, as the
+   *     parties would otherwise wait for different applications
+   */
+  private void runConcurrentApplications(int maxConcurrent, boolean reverse) throws Exception {
+    final int noOfApplications = 6;
+    ExecutorService es = Executors.newFixedThreadPool(NO_OF_PARTIES);
+    List<Future<List<BigInteger>>> results = new ArrayList<>(NO_OF_PARTIES);
+    for (int i = 1; i <= NO_OF_PARTIES; i++) {
+      final int myId = i;
+      final boolean reversed = reverse && myId == 2;
+      results.add(
+          es.submit(() -> runApplications(myId, noOfApplications, maxConcurrent, reversed)));
+    }
+    for (Future<List<BigInteger>> result : results) {
+      List<BigInteger> outputs = result.get();
+      for (int j = 0; j < noOfApplications; j++) {
+        assertEquals(BigInteger.valueOf(j * (j + 1)), outputs.get(j));
+      }
+    }
+    es.shutdown();
+  }
+
+  private List<BigInteger> runApplications(int myId, int noOfApplications, int maxConcurrent,
+      boolean reverse) throws Exception {
+    DummyArithmeticProtocolSuite suite = new DummyArithmeticProtocolSuite(MODULUS, 20, 0);
+    SecureComputationEngine<DummyArithmeticResourcePool, ProtocolBuilderNumeric> sce =
+        new SecureComputationEngineImpl<>(suite,
+            new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite), maxConcurrent);
+    List<Future<BigInteger>> futures = new ArrayList<>(noOfApplications);
+    List<CloseableNetwork> channels = new ArrayList<>(noOfApplications);
+    for (int j = 0; j < noOfApplications; j++) {
+      int channelId = reverse ? noOfApplications - 1 - j : j;
+      CloseableNetwork channel = networks.get(myId - 1).openChannel(channelId);
+      channels.add(channel);
+      futures.add(sce.startApplication(multiply(channelId),
+          new DummyArithmeticResourcePoolImpl(myId, NO_OF_PARTIES, MODULUS), channel));
+    }
+    BigInteger[] outputs = new BigInteger[noOfApplications];
+    for (int j = 0; j < noOfApplications; j++) {
+      int channelId = reverse ? noOfApplications - 1 - j : j;
+      outputs[channelId] = futures.get(j).get();
+      channels.get(j).close();
+    }
+    sce.shutdownSCE();
+    List<BigInteger> result = new ArrayList<>(noOfApplications);
+    for (BigInteger output : outputs) {
+      result.add(output);
+    }
+    return result;
+  }
+
+  private Application<BigInteger, ProtocolBuilderNumeric> multiply(int value) {
+    return builder -> {
+      DRes<SInt> a = builder.numeric().input(BigInteger.valueOf(value), 1);
+      DRes<SInt> b = builder.numeric().input(BigInteger.valueOf(value + 1), 2);
+      return builder.numeric().open(builder.numeric().mult(a, b));
+    };
+  }
+
+  /**
+   * Engine implementing only the abstract methods of {@link SecureComputationEngine} by delegating
+   * to another engine.
+   */
+  private static class DelegatingEngine<ResourcePoolT extends ResourcePool,
+      BuilderT extends ProtocolBuilder> implements
+      SecureComputationEngine<ResourcePoolT, BuilderT> {
+
+    private final SecureComputationEngine<ResourcePoolT, BuilderT> delegate;
+
+    private DelegatingEngine(SecureComputationEngine<ResourcePoolT, BuilderT> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public <OutputT> OutputT runApplication(Application<OutputT, BuilderT> application,
+        ResourcePoolT resources, Network network, Duration timeout) {
+      return delegate.runApplication(application, resources, network, timeout);
+    }
+
+    @Override
+    public <OutputT> Future<OutputT> startApplication(Application<OutputT, BuilderT> application,
+        ResourcePoolT resources, Network network) {
+      return delegate.startApplication(application, resources, network);
+    }
+
+    @Override
+    public void setup() {
+      delegate.setup();
+    }
+
+    @Override
+    public void shutdownSCE() {
+      delegate.shutdownSCE();
+    }
+  }
+}
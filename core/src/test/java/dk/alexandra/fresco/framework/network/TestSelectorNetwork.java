@@ -0,0 +1,74 @@
+package dk.alexandra.fresco.framework.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Random;
+import org.junit.Test;
+
+public class TestSelectorNetwork extends AbstractCloseableNetworkTest {
+
+  @Override
+  protected CloseableNetwork newCloseableNetwork(NetworkConfiguration conf) {
+    return new SelectorNetwork(conf);
+  }
+
+  @Override
+  protected CloseableNetwork newCloseableNetwork(NetworkConfiguration conf, Duration timeout) {
+    return new SelectorNetwork(conf, timeout);
+  }
+
+  @Test(timeout = TWO_MINUTE_TIMEOUT_MILLIS)
+  public void testSendMixedSizesBothWays() {
+    networks = createNetworks(2);
+    Random random = new Random(42);
+    byte[][] messages = new byte[500][];
+    for (int i = 0; i < messages.length; i++) {
+      messages[i] = new byte[random.nextInt(i % 50 == 0 ? 200000 : 100)];
+      random.nextBytes(messages[i]);
+    }
+    for (byte[] message : messages) {
+      networks.get(1).send(2, message.clone());
+      networks.get(2).send(1, message.clone());
+    }
+    for (byte[] message : messages) {
+      assertArrayEquals(message, networks.get(2).receive(1));
+      assertArrayEquals(message, networks.get(1).receive(2));
+    }
+  }
+
+  @Test(timeout = TWO_MINUTE_TIMEOUT_MILLIS)
+  public void testReceiveBuffersMixedWithCopies() {
+    networks = createNetworks(2);
+    Random random = new Random(42);
+    byte[][] messages = new byte[500][];
+    for (int i = 0; i < messages.length; i++) {
+      messages[i] = new byte[random.nextInt(i % 50 == 0 ? 200000 : 100)];
+      random.nextBytes(messages[i]);
+    }
+    for (byte[] message : messages) {
+      networks.get(1).send(2, message.clone());
+    }
+    for (int i = 0; i < messages.length; i++) {
+      if (i % 3 == 0) {
+        assertArrayEquals(messages[i], networks.get(2).receive(1));
+      } else {
+        ByteBuffer buffer = networks.get(2).receiveBuffer(1);
+        assertTrue(buffer.isReadOnly());
+        byte[] received = new byte[buffer.remaining()];
+        buffer.get(received);
+        assertArrayEquals(messages[i], received);
+      }
+    }
+  }
+
+  @Test(timeout = TWO_MINUTE_TIMEOUT_MILLIS, expected = RuntimeException.class)
+  public void testReceiveAfterOtherPartyClosed() throws Exception {
+    networks = createNetworks(2);
+    networks.get(2).close();
+    networks.get(1).receive(2);
+  }
+}
@@ -1,6 +1,7 @@
 package dk.alexandra.fresco.framework.network.serializers;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.junit.Assert;
@@ -23,4 +24,40 @@ public class TestByteSerializer {
     Assert.assertEquals(expected, actual);
   }
 
+  @Test
+  public void testDeserializeBuffer() {
+    ByteSerializer<BigInteger> serializer = new BigIntegerWithFixedLengthSerializer(2);
+    ByteBuffer buffer = ByteBuffer.wrap(new byte[]{9, 1, 1, 2, 2, 9}).asReadOnlyBuffer();
+    buffer.position(1).limit(3);
+    Assert.assertEquals(BigInteger.valueOf(257), serializer.deserialize(buffer));
+    Assert.assertFalse(buffer.hasRemaining());
+    buffer.limit(5);
+    Assert.assertEquals(BigInteger.valueOf(514), serializer.deserialize(buffer.slice()));
+  }
+
+  @Test
+  public void testDeserializeListBuffer() {
+    ByteSerializer<BigInteger> serializer = new BigIntegerWithFixedLengthSerializer(2);
+    ByteBuffer buffer = ByteBuffer.wrap(new byte[]{9, 1, 1, 2, 2, 3, 3}).asReadOnlyBuffer();
+    buffer.position(1);
+    List<BigInteger> expected = new ArrayList<>();
+    expected.add(BigInteger.valueOf(257));
+    expected.add(BigInteger.valueOf(514));
+    expected.add(BigInteger.valueOf(771));
+    Assert.assertEquals(expected, serializer.deserializeList(buffer));
+    Assert.assertFalse(buffer.hasRemaining());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDeserializeListBufferPartialElement() {
+    ByteSerializer<BigInteger> serializer = new BigIntegerWithFixedLengthSerializer(2);
+    serializer.deserializeList(ByteBuffer.wrap(new byte[]{1, 1, 2}));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDeserializeListArrayPartialElement() {
+    ByteSerializer<BigInteger> serializer = new BigIntegerWithFixedLengthSerializer(2);
+    serializer.deserializeList(new byte[]{1, 1, 2});
+  }
+
 }
@@ -0,0 +1,72 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import static dk.alexandra.fresco.framework.network.socket.Connector.DEFAULT_CONNECTION_TIMEOUT;
+import static org.junit.Assert.assertArrayEquals;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+/**
+ * Runs the socket network tests with senders coalescing outgoing messages.
+ */
+public class TestCoalescingSocketNetwork extends TestSocketNetwork {
+
+  private static final Duration COALESCING_DELAY = Duration.ofMillis(1);
+
+  @Override
+  protected CloseableNetwork newCloseableNetwork(NetworkConfiguration conf, Duration timeout) {
+    return new SocketNetwork(conf, new Connector(conf, timeout).getSocketMap(), COALESCING_DELAY);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeCoalescingDelay() {
+    new SocketNetwork(getNetConfs(1).get(0), new HashMap<>(), Duration.ofMillis(-1));
+  }
+
+  @Test
+  public void testStopFlushesPendingMessages() throws Exception {
+    final int numParties = 2;
+    final int numMessages = 100;
+    List<NetworkConfiguration> confs = getNetConfs(numParties);
+    ExecutorService es = Executors.newFixedThreadPool(numParties);
+    List<Future<NetworkConnector>> fs = new ArrayList<>(numParties);
+    try {
+      for (int i = 0; i < numParties; i++) {
+        final int id = i;
+        fs.add(es.submit(() -> new Connector(confs.get(id), DEFAULT_CONNECTION_TIMEOUT)));
+      }
+      Socket sendSocket = fs.get(0).get().getSocketMap().get(2);
+      Socket receiveSocket = fs.get(1).get().getSocketMap().get(1);
+      Receiver receiver = new Receiver(receiveSocket);
+      Sender sender = new Sender(sendSocket, Duration.ofSeconds(1));
+      for (int i = 0; i < numMessages; i++) {
+        sender.queueMessage(new byte[] { (byte) i });
+      }
+      sender.queueMessage(new byte[0]);
+      // let the sender drain the queue and start waiting for more messages before stopping
+      Thread.sleep(100);
+      sender.stop();
+      for (int i = 0; i < numMessages; i++) {
+        assertArrayEquals(new byte[] { (byte) i }, receiver.pollMessage(Duration.ofSeconds(5)));
+      }
+      assertArrayEquals(new byte[0], receiver.pollMessage(Duration.ofSeconds(5)));
+      receiver.stop();
+    } finally {
+      for (Future<NetworkConnector> futureConn : fs) {
+        for (Socket s : futureConn.get().getSocketMap().values()) {
+          s.close();
+        }
+      }
+      es.shutdownNow();
+    }
+  }
+}
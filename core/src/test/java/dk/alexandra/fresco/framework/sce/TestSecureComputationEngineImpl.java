@@ -85,6 +85,14 @@ public class TestSecureComputationEngineImpl {
     fail("Should not be reachable");
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeConcurrentApplications() {
+    DummyArithmeticProtocolSuite suite =
+        new DummyArithmeticProtocolSuite(BigInteger.valueOf(101), 2, 0);
+    new SecureComputationEngineImpl<>(suite,
+        new BatchedProtocolEvaluator<>(new SequentialStrategy<>(), suite), -1);
+  }
+
   /**
    * Shuts down the SCE.
    */
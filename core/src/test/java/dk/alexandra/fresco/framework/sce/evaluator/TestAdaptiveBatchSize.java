@@ -0,0 +1,181 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkTestUtils;
+import dk.alexandra.fresco.framework.network.AsyncNetwork;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.collections.io.CloseListTests;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePool;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePoolImpl;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import org.junit.Test;
+
+public class TestAdaptiveBatchSize {
+
+  private static final BigInteger MODULUS =
+      new BigInteger("340282366920938463463374607431768211297");
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalBatchSizes() {
+    new AdaptiveBatchSize(10, 100, 5, 1024, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalInterval() {
+    new AdaptiveBatchSize(10, 100, 50, 1024, 0);
+  }
+
+  @Test
+  public void testGrowsTowardsTarget() {
+    AdaptiveBatchSize.Controller controller =
+        new AdaptiveBatchSize(1, 1000, 10, 1000, 1).newController(new SelfNetwork());
+    // Each protocol sends 10 bytes in a single round, so the target is reached at 100 protocols
+    runBatch(controller, 10, 10);
+    assertEquals(20, controller.getBatchSize());
+    runBatch(controller, 20, 10);
+    assertEquals(40, controller.getBatchSize());
+    runBatch(controller, 40, 10);
+    assertEquals(80, controller.getBatchSize());
+    runBatch(controller, 80, 10);
+    assertEquals(100, controller.getBatchSize());
+    runBatch(controller, 100, 10);
+    assertEquals(100, controller.getBatchSize());
+  }
+
+  @Test
+  public void testShrinksTowardsTarget() {
+    AdaptiveBatchSize.Controller controller =
+        new AdaptiveBatchSize(30, 1000, 1000, 1000, 1).newController(new SelfNetwork());
+    runBatch(controller, 1000, 100);
+    assertEquals(500, controller.getBatchSize());
+    runBatch(controller, 500, 100);
+    assertEquals(250, controller.getBatchSize());
+    for (int i = 0; i < 5; i++) {
+      runBatch(controller, controller.getBatchSize(), 100);
+    }
+    assertEquals(30, controller.getBatchSize());
+  }
+
+  @Test
+  public void testKeepsSizeWithoutCommunication() {
+    AdaptiveBatchSize.Controller controller =
+        new AdaptiveBatchSize(1, 1000, 10, 1000, 1).newController(new SelfNetwork());
+    runBatch(controller, 10, 0);
+    assertEquals(10, controller.getBatchSize());
+  }
+
+  @Test
+  public void testDelegatesReceiveBuffer() {
+    SelfNetwork network = new SelfNetwork();
+    AdaptiveBatchSize.Controller controller =
+        new AdaptiveBatchSize(1, 1000, 10, 1000, 1).newController(network);
+    controller.send(1, new byte[] {1, 2});
+    ByteBuffer received = controller.receiveBuffer(1);
+    assertSame(network.lastBuffer, received);
+    controller.send(1, new byte[] {3});
+    received = controller.receiveBuffersFromAll().get(0);
+    assertSame(network.lastBuffer, received);
+  }
+
+  @Test
+  public void testLotsMult() {
+    runTest(new BasicArithmeticTests.TestLotsMult<>(), 2, false);
+  }
+
+  @Test
+  public void testCloseAndOpenList() {
+    runTest(new CloseListTests.TestCloseAndOpenList<>(), 3, false);
+  }
+
+  @Test
+  public void testCloseAndOpenListCompressed() {
+    runTest(new CloseListTests.TestCloseAndOpenList<>(), 3, true);
+  }
+
+  private void runBatch(AdaptiveBatchSize.Controller controller, int size, int bytesPerProtocol) {
+    controller.startProduction();
+    controller.startBatch();
+    if (bytesPerProtocol > 0) {
+      controller.send(1, new byte[size * bytesPerProtocol]);
+      controller.receive(1);
+    }
+    controller.finishBatch(size);
+  }
+
+  private void runTest(
+      TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f,
+      int noOfParties, boolean compressBatches) {
+    List<Integer> ports = new ArrayList<>(noOfParties);
+    for (int i = 1; i <= noOfParties; i++) {
+      ports.add(9000 + i * (noOfParties - 1));
+    }
+    Map<Integer, NetworkConfiguration> netConf =
+        NetworkTestUtils.getNetworkConfigurations(noOfParties, ports);
+    Map<Integer, TestThreadConfiguration<DummyArithmeticResourcePool, ProtocolBuilderNumeric>>
+        conf = new HashMap<>();
+    for (int playerId : netConf.keySet()) {
+      DummyArithmeticProtocolSuite ps = new DummyArithmeticProtocolSuite(MODULUS, 100, 0);
+      SecureComputationEngine<DummyArithmeticResourcePool, ProtocolBuilderNumeric> sce =
+          new SecureComputationEngineImpl<>(ps, new BatchedProtocolEvaluator<>(
+              new BatchedStrategy<>(), ps, new AdaptiveBatchSize(1, 512, 4, 256, 1),
+              compressBatches));
+      NetworkConfiguration partyNetConf = netConf.get(playerId);
+      conf.put(playerId, new TestThreadConfiguration<>(sce,
+          () -> new DummyArithmeticResourcePoolImpl(playerId, noOfParties, MODULUS),
+          () -> new AsyncNetwork(partyNetConf)));
+    }
+    TestThreadRunner.run(f, conf);
+  }
+
+  /**
+   * Network sending to self, with a fixed delay on receiving to make all rounds latency bound.
+   */
+  private static class SelfNetwork implements Network {
+
+    private final Queue<byte[]> messages = new LinkedList<>();
+    private ByteBuffer lastBuffer;
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      messages.add(data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      ExceptionConverter.safe(() -> {
+        Thread.sleep(2);
+        return null;
+      }, "Interrupted while receiving");
+      return messages.remove();
+    }
+
+    @Override
+    public ByteBuffer receiveBuffer(int partyId) {
+      lastBuffer = ByteBuffer.wrap(receive(partyId)).asReadOnlyBuffer();
+      return lastBuffer;
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return 1;
+    }
+  }
+}
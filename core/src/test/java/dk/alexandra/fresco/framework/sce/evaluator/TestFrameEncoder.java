@@ -0,0 +1,113 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import dk.alexandra.fresco.framework.network.Network;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class TestFrameEncoder {
+
+  @Test
+  public void testBitsRoundTrip() {
+    Map<Integer, byte[]> sent = new HashMap<>();
+    NetworkBatchDecorator sender = new NetworkBatchDecorator(2, new MapNetwork(sent), true);
+    byte[] bits = new byte[1001];
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] = (byte) ((i * 7 + i / 3) % 2);
+      sender.send(2, new byte[]{bits[i]});
+    }
+    sender.flush();
+    assertEquals(3 + 2 + 126, sent.get(2).length);
+    NetworkBatchDecorator receiver = new NetworkBatchDecorator(2, new MapNetwork(sent));
+    for (int i = 0; i < bits.length; i++) {
+      assertArrayEquals(new byte[]{bits[i]}, receiver.receive(2));
+    }
+  }
+
+  @Test
+  public void testUniformRoundTrip() {
+    Map<Integer, byte[]> sent = new HashMap<>();
+    NetworkBatchDecorator sender = new NetworkBatchDecorator(2, new MapNetwork(sent), true);
+    for (int i = 0; i < 10; i++) {
+      sender.send(1, new byte[]{(byte) i, 2, 3});
+    }
+    sender.flush();
+    assertEquals(3 + 1 + 1 + 30, sent.get(1).length);
+    NetworkBatchDecorator receiver = new NetworkBatchDecorator(2, new MapNetwork(sent));
+    for (int i = 0; i < 10; i++) {
+      assertArrayEquals(new byte[]{(byte) i, 2, 3}, receiver.receive(1));
+    }
+  }
+
+  @Test
+  public void testEncoderIsReset() {
+    Map<Integer, byte[]> sent = new HashMap<>();
+    NetworkBatchDecorator sender = new NetworkBatchDecorator(2, new MapNetwork(sent), true);
+    for (int i = 0; i < 10; i++) {
+      sender.send(1, new byte[]{1, 2});
+    }
+    sender.flush();
+    sender.send(1, new byte[]{1});
+    sender.send(1, new byte[]{1, 2});
+    sender.flush();
+    assertArrayEquals(new byte[]{1, 1, 2, 1, 2}, sent.get(1));
+  }
+
+  @Test
+  public void testPlainWhenNotSmaller() {
+    FrameEncoder encoder = new FrameEncoder();
+    byte[] batch = new byte[]{1, 0, 1, 1};
+    encoder.add(new byte[]{0});
+    encoder.add(new byte[]{1});
+    assertSame(batch, encoder.encode(batch));
+    batch = new byte[]{1, 2, 1, 3, 1, 4};
+    encoder.add(new byte[]{2});
+    encoder.add(new byte[]{3});
+    encoder.add(new byte[]{4});
+    assertSame(batch, encoder.encode(batch));
+  }
+
+  @Test
+  public void testDecodePlain() {
+    byte[] batch = new byte[]{(byte) 0x80, 0x01, 0x00};
+    assertSame(batch, FrameEncoder.decode(batch));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDecodeUnknownEncoding() {
+    FrameEncoder.decode(new byte[]{(byte) 0x80, 0x00, 0x7F});
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDecodeTruncatedBits() {
+    FrameEncoder.decode(new byte[]{(byte) 0x80, 0x00, 0x02, 0x10, 0x01});
+  }
+
+  private static class MapNetwork implements Network {
+
+    private final Map<Integer, byte[]> messages;
+
+    private MapNetwork(Map<Integer, byte[]> messages) {
+      this.messages = messages;
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      messages.put(partyId, data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      return messages.get(partyId);
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return 2;
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkTestUtils;
+import dk.alexandra.fresco.framework.network.AsyncNetwork;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.resources.PartitionableResourcePool;
+import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.collections.io.CloseListTests;
+import dk.alexandra.fresco.lib.math.integer.linalg.LinAlgTests;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePool;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePoolImpl;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestParallelBatchedStrategy {
+
+  private static final BigInteger MODULUS =
+      new BigInteger("340282366920938463463374607431768211297");
+  private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+  @AfterClass
+  public static void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalPartitions() {
+    new ParallelBatchedStrategy<>(pool, 0, 1);
+  }
+
+  @Test
+  public void testInputFromAll() {
+    runTest(new BasicArithmeticTests.TestInputFromAll<>(), 3);
+  }
+
+  @Test
+  public void testCloseAndOpenList() {
+    runTest(new CloseListTests.TestCloseAndOpenList<>(), 2);
+  }
+
+  @Test
+  public void testInnerProduct() {
+    runTest(new LinAlgTests.TestInnerProductClosed<>(), 2);
+  }
+
+  @Test
+  public void testLotsMult() {
+    runTest(new BasicArithmeticTests.TestLotsMult<>(), 2);
+  }
+
+  @Test
+  public void testNotPartitionable() {
+    ForkJoinPool unused = new ForkJoinPool(1);
+    runTest(new BasicArithmeticTests.TestLotsMult<>(), 2, unused, false);
+    // batches on resource pools which are not partitionable are evaluated sequentially
+    Assert.assertEquals(0, unused.getPoolSize());
+    unused.shutdown();
+  }
+
+  private void runTest(
+      TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f,
+      int noOfParties) {
+    runTest(f, noOfParties, pool, true);
+  }
+
+  private void runTest(
+      TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f,
+      int noOfParties, ForkJoinPool pool, boolean partitionable) {
+    List<Integer> ports = new ArrayList<>(noOfParties);
+    for (int i = 1; i <= noOfParties; i++) {
+      ports.add(9000 + i * (noOfParties - 1));
+    }
+    Map<Integer, NetworkConfiguration> netConf =
+        NetworkTestUtils.getNetworkConfigurations(noOfParties, ports);
+    Map<Integer, TestThreadConfiguration<DummyArithmeticResourcePool, ProtocolBuilderNumeric>>
+        conf = new HashMap<>();
+    for (int playerId : netConf.keySet()) {
+      DummyArithmeticProtocolSuite ps = new DummyArithmeticProtocolSuite(MODULUS, 100, 0);
+      SecureComputationEngine<DummyArithmeticResourcePool, ProtocolBuilderNumeric> sce =
+          new SecureComputationEngineImpl<>(ps,
+              new BatchedProtocolEvaluator<>(new ParallelBatchedStrategy<>(pool, 3, 1), ps));
+      NetworkConfiguration partyNetConf = netConf.get(playerId);
+      conf.put(playerId, new TestThreadConfiguration<>(sce,
+          () -> partitionable
+              ? new PartitionableDummyResourcePool(playerId, noOfParties)
+              : new DummyArithmeticResourcePoolImpl(playerId, noOfParties, MODULUS),
+          () -> new AsyncNetwork(partyNetConf)));
+    }
+    TestThreadRunner.run(f, conf);
+  }
+
+  /**
+   * Dummy resource pool with stateless partitions, since the dummy suite has no side effects on
+   * the resource pool.
+   */
+  private static class PartitionableDummyResourcePool extends DummyArithmeticResourcePoolImpl
+      implements PartitionableResourcePool<DummyArithmeticResourcePool> {
+
+    private PartitionableDummyResourcePool(int myId, int noOfParties) {
+      super(myId, noOfParties, MODULUS);
+    }
+
+    @Override
+    public DummyArithmeticResourcePool createPartition() {
+      return new DummyArithmeticResourcePoolImpl(getMyId(), getNoOfParties(), MODULUS);
+    }
+
+    @Override
+    public void mergePartition(DummyArithmeticResourcePool partition) {
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkTestUtils;
+import dk.alexandra.fresco.framework.network.AsyncNetwork;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.collections.io.CloseListTests;
+import dk.alexandra.fresco.lib.math.integer.linalg.LinAlgTests;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticOpenToAllProtocol;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePool;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePoolImpl;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticSInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class TestPipelinedProtocolEvaluator {
+
+  private static final BigInteger MODULUS =
+      new BigInteger("340282366920938463463374607431768211297");
+
+  @Test
+  public void testSplitIsBalanced() {
+    DummyArithmeticProtocolSuite suite = new DummyArithmeticProtocolSuite(MODULUS, 100, 0);
+    PipelinedProtocolEvaluator<DummyArithmeticResourcePool> evaluator =
+        new PipelinedProtocolEvaluator<>(suite, 4096, 3, 10);
+    List<ProtocolCollectionList<DummyArithmeticResourcePool>> stages =
+        evaluator.split(collectionOfSize(100));
+    assertThat(stages.size(), is(3));
+    assertThat(stages.get(0).size(), is(34));
+    assertThat(stages.get(1).size(), is(34));
+    assertThat(stages.get(2).size(), is(32));
+  }
+
+  @Test
+  public void testSplitRespectsMinimumStageSize() {
+    DummyArithmeticProtocolSuite suite = new DummyArithmeticProtocolSuite(MODULUS, 100, 0);
+    PipelinedProtocolEvaluator<DummyArithmeticResourcePool> evaluator =
+        new PipelinedProtocolEvaluator<>(suite, 4096, 4, 10);
+    assertThat(evaluator.split(collectionOfSize(25)).size(), is(2));
+    assertThat(evaluator.split(collectionOfSize(5)).size(), is(1));
+    assertThat(evaluator.split(collectionOfSize(0)).size(), is(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalPipelineDepth() {
+    new PipelinedProtocolEvaluator<>(new DummyArithmeticProtocolSuite(MODULUS, 100, 0), 4096, 0,
+        1);
+  }
+
+  @Test
+  public void testInputFromAll() {
+    runTest(new BasicArithmeticTests.TestInputFromAll<>(), 3);
+  }
+
+  @Test
+  public void testCloseAndOpenList() {
+    runTest(new CloseListTests.TestCloseAndOpenList<>(), 2);
+  }
+
+  @Test
+  public void testInnerProduct() {
+    runTest(new LinAlgTests.TestInnerProductClosed<>(), 2);
+  }
+
+  @Test
+  public void testLotsMult() {
+    runTest(new BasicArithmeticTests.TestLotsMult<>(), 2);
+  }
+
+  private ProtocolCollectionList<DummyArithmeticResourcePool> collectionOfSize(int size) {
+    ProtocolCollectionList<DummyArithmeticResourcePool> protocols =
+        new ProtocolCollectionList<>(size);
+    DummyArithmeticSInt value = new DummyArithmeticSInt(BigInteger.ONE);
+    for (int i = 0; i < size; i++) {
+      protocols.addProtocol(new DummyArithmeticOpenToAllProtocol(value));
+    }
+    return protocols;
+  }
+
+  private void runTest(
+      TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f,
+      int noOfParties) {
+    List<Integer> ports = new ArrayList<>(noOfParties);
+    for (int i = 1; i <= noOfParties; i++) {
+      ports.add(9000 + i * (noOfParties - 1));
+    }
+    Map<Integer, NetworkConfiguration> netConf =
+        NetworkTestUtils.getNetworkConfigurations(noOfParties, ports);
+    Map<Integer, TestThreadConfiguration<DummyArithmeticResourcePool, ProtocolBuilderNumeric>>
+        conf = new HashMap<>();
+    for (int playerId : netConf.keySet()) {
+      DummyArithmeticProtocolSuite ps = new DummyArithmeticProtocolSuite(MODULUS, 100, 0);
+      SecureComputationEngine<DummyArithmeticResourcePool, ProtocolBuilderNumeric> sce =
+          new SecureComputationEngineImpl<>(ps,
+              new PipelinedProtocolEvaluator<>(ps, 4096, 3, 1));
+      NetworkConfiguration partyNetConf = netConf.get(playerId);
+      conf.put(playerId, new TestThreadConfiguration<>(sce,
+          () -> new DummyArithmeticResourcePoolImpl(playerId, noOfParties, MODULUS),
+          () -> new AsyncNetwork(partyNetConf)));
+    }
+    TestThreadRunner.run(f, conf);
+  }
+}
@@ -0,0 +1,111 @@
+package dk.alexandra.fresco.framework.util;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AsyncBatchProducer.Buffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAsyncBatchProducer {
+
+  private static final int BATCH_SIZE = 4;
+  private static final long IDLE_MILLIS = 100;
+
+  private final AsyncBatchProducer<AtomicInteger> producer = new AsyncBatchProducer<>(1, 1,
+      "TestProducer", TestAsyncBatchProducer::unusedNetwork, network -> new AtomicInteger());
+
+  @After
+  public void tearDown() {
+    producer.close();
+  }
+
+  @Test
+  public void testTakeInOrder() {
+    Buffer<AtomicInteger, Integer> buffer = addBuffer("NUMBERS", 2, 8, true);
+    for (int i = 0; i < 5 * BATCH_SIZE; i++) {
+      Assert.assertEquals(i, (int) producer.take(buffer));
+    }
+    Map<String, Long> values = producer.getLoggedValues();
+    Assert.assertTrue(values.get("NUMBERS" + AsyncBatchProducer.PRODUCED_SUFFIX)
+        >= 5 * BATCH_SIZE);
+    Assert.assertTrue(values.get(AsyncBatchProducer.PRODUCER_ROUNDS) > 0);
+  }
+
+  @Test
+  public void testLazyBuffer() throws InterruptedException {
+    Buffer<AtomicInteger, Integer> eager = addBuffer("EAGER", 0, 1, true);
+    Buffer<AtomicInteger, Integer> lazy = addBuffer("LAZY", 0, 1, false);
+    Assert.assertEquals(0, (int) producer.take(eager));
+    Thread.sleep(IDLE_MILLIS);
+    Map<String, Long> values = producer.getLoggedValues();
+    Assert.assertEquals(0, (long) values.get("LAZY" + AsyncBatchProducer.PRODUCED_SUFFIX));
+    Assert.assertEquals(BATCH_SIZE, (int) producer.take(lazy));
+    values = producer.getLoggedValues();
+    Assert.assertEquals(1, (long) values.get("LAZY" + AsyncBatchProducer.STALLS_SUFFIX));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTakeAfterClose() {
+    Buffer<AtomicInteger, Integer> buffer = addBuffer("NUMBERS", 0, 1, false);
+    producer.close();
+    producer.take(buffer);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAddBufferAfterStart() {
+    producer.start();
+    addBuffer("NUMBERS", 0, 1, true);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalWatermarks() {
+    addBuffer("NUMBERS", 2, 1, true);
+  }
+
+  @Test
+  public void testFailure() {
+    Buffer<AtomicInteger, Integer> buffer = producer.addBuffer("FAILING", counter -> {
+      throw new IllegalArgumentException("Failed");
+    }, 0, 1, true);
+    try {
+      producer.take(buffer);
+      Assert.fail("Expected failure of the producer");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+  }
+
+  private Buffer<AtomicInteger, Integer> addBuffer(String name, int lowWatermark,
+      int highWatermark, boolean refill) {
+    return producer.addBuffer(name, counter -> {
+      List<Integer> batch = new ArrayList<>(BATCH_SIZE);
+      for (int i = 0; i < BATCH_SIZE; i++) {
+        batch.add(counter.getAndIncrement());
+      }
+      return batch;
+    }, lowWatermark, highWatermark, refill);
+  }
+
+  private static Network unusedNetwork() {
+    return new Network() {
+      @Override
+      public void send(int partyId, byte[] data) {
+        throw new IllegalStateException("Single party producer should not send");
+      }
+
+      @Override
+      public byte[] receive(int partyId) {
+        throw new IllegalStateException("Single party producer should not receive");
+      }
+
+      @Override
+      public int getNoOfParties() {
+        return 1;
+      }
+    };
+  }
+}
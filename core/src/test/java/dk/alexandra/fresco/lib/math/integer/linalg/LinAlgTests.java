@@ -10,6 +10,7 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.SInt;
 import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.junit.Assert;
@@ -81,4 +82,45 @@ public class LinAlgTests {
       };
     }
   }
+
+  public static class TestElementWiseProduct<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        private final List<Integer> data1 = Arrays.asList(200, 144, 99, 211, 0);
+        private final List<Integer> data2 = Arrays.asList(87, 14, 11, 21, 5);
+        private final List<BigInteger> expected = Arrays.asList(BigInteger.valueOf(17400),
+            BigInteger.valueOf(2016), BigInteger.valueOf(1089), BigInteger.valueOf(4431),
+            BigInteger.ZERO);
+
+        @Override
+        public void test() throws Exception {
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app = builder -> {
+            Numeric sIntFactory = builder.numeric();
+
+            List<DRes<SInt>> input1 = data1.stream().map(BigInteger::valueOf)
+                .map(sIntFactory::known).collect(Collectors.toList());
+            List<DRes<SInt>> input2 = data2.stream().map(BigInteger::valueOf)
+                .map(value -> sIntFactory.input(value, 1)).collect(Collectors.toList());
+            DRes<List<DRes<SInt>>> products = builder.advancedNumeric().mult(input1, input2);
+            DRes<List<DRes<SInt>>> empty = builder.advancedNumeric()
+                .mult(Collections.emptyList(), Collections.emptyList());
+            return builder.seq(seq -> {
+              Assert.assertTrue(empty.out().isEmpty());
+              List<DRes<BigInteger>> opened = products.out().stream()
+                  .map(seq.numeric()::open).collect(Collectors.toList());
+              return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+            });
+          };
+
+          List<BigInteger> result = runApplication(app);
+
+          Assert.assertEquals(expected, result);
+        }
+      };
+    }
+  }
 }
@@ -227,6 +227,46 @@ public class MathTests {
     }
   }
 
+  public static class TestInnerProductMixedPrecision<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      List<BigDecimal> openInputs1 = Stream.of(3.0, 0.5, -2.0)
+          .map(BigDecimal::valueOf)
+          .collect(Collectors.toList());
+      List<BigDecimal> openInputs2 = Stream.of(0.25, 6.0, 1.5)
+          .map(BigDecimal::valueOf)
+          .collect(Collectors.toList());
+      BigDecimal expectedOutput = BigDecimal.valueOf(0.75);
+
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() throws Exception {
+          Application<BigDecimal, ProtocolBuilderNumeric> app = producer -> {
+            return producer.par(par ->  {
+              // multiplying the first entry by one gives it a higher precision than the others
+              List<DRes<SReal>> closed1 = openInputs1.stream()
+                  .map(par.realNumeric()::known)
+                  .collect(Collectors.toList());
+              closed1.set(0, par.realNumeric().mult(BigDecimal.ONE, closed1.get(0)));
+              List<DRes<SReal>> closed2 = openInputs2.stream()
+                  .map(par.realNumeric()::known)
+                  .collect(Collectors.toList());
+              return () -> new Pair<>(closed1, closed2);
+            }).seq((seq, closedPair) -> {
+              DRes<SReal> result = seq.realAdvanced()
+                  .innerProduct(closedPair.getFirst(), closedPair.getSecond());
+              return seq.realNumeric().open(result);
+            });
+          };
+          BigDecimal output = runApplication(app);
+          RealTestUtils.assertEqual(expectedOutput, output, DEFAULT_PRECISION);
+        }
+      };
+    }
+  }
+
   public static class TestInnerProductUnmatchedDimensions<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
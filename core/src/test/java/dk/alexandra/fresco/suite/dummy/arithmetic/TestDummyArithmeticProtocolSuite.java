@@ -525,6 +525,11 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new LinAlgTests.TestInnerProductClosed<>(), new TestParameters().numParties(2));
   }
 
+  @Test
+  public void test_ElementWiseProduct() {
+    runTest(new LinAlgTests.TestElementWiseProduct<>(), new TestParameters().numParties(2));
+  }
+
   @Test
   public void test_InnerProductOpen() {
     runTest(new LinAlgTests.TestInnerProductOpen<>(), new TestParameters().numParties(2));
@@ -753,6 +758,11 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new MathTests.TestInnerProduct<>(), new TestParameters());
   }
 
+  @Test
+  public void test_inner_product_mixed_precision() {
+    runTest(new MathTests.TestInnerProductMixedPrecision<>(), new TestParameters());
+  }
+
   @Test
   public void test_inner_product_known_part() {
     runTest(new MathTests.TestInnerProductPublicPart<>(), new TestParameters());
@@ -111,7 +111,8 @@ public class AggregationDemo<ResourcePoolT extends ResourcePool> {
     
     util.startNetwork();
     demo.runApplication(sce, resourcePool, util.getNetwork());
-    
+    util.writePreprocessingDemand();
+
     util.closeNetwork();
     sce.shutdownSCE();
   }
@@ -1,10 +1,16 @@
 package dk.alexandra.fresco.demo.cli;
 
+import dk.alexandra.fresco.framework.Party;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkConfigurationImpl;
+import dk.alexandra.fresco.framework.network.AsyncNetwork;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
-import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
 import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
 import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
 import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePoolImpl;
@@ -13,19 +19,33 @@ import dk.alexandra.fresco.suite.spdz.SpdzProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
 import dk.alexandra.fresco.suite.spdz.SpdzResourcePoolImpl;
 import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzBinaryStreamedStorage;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzCountingDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMascotAsyncDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMascotDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStoreImpl;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzPreprocessingDemand;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageDataSupplier;
 import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproResourcePool;
+import dk.alexandra.fresco.tools.mascot.field.FieldElement;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Utility for reading all configuration from command line. <p> A set of default configurations are
@@ -33,20 +53,29 @@ import org.apache.commons.cli.ParseException;
  */
 public class CmdLineProtocolSuite {
 
+  private static final Logger logger = LoggerFactory.getLogger(CmdLineProtocolSuite.class);
+  private static final int ASYNC_BATCH_SIZE = 256;
+
+  private final NetworkConfiguration networkConfiguration;
   private final int myId;
   private final int noOfPlayers;
   private final ProtocolSuite<?, ?> protocolSuite;
   private final ResourcePool resourcePool;
+  private SpdzCountingDataSupplier countingSupplier;
+  private String demandFile;
+  private SpdzMascotAsyncDataSupplier asyncSupplier;
+  private volatile CloseableNetwork preprocessingNetwork;
 
   static String getSupportedProtocolSuites() {
     String[] strings = {"dummybool", "dummyarithmetic", "spdz", "tinytables", "tinytablesprepro"};
     return Arrays.toString(strings);
   }
 
-  CmdLineProtocolSuite(String protocolSuiteName, Properties properties, int myId,
-      int noOfPlayers) throws ParseException, NoSuchAlgorithmException {
-    this.myId = myId;
-    this.noOfPlayers = noOfPlayers;
+  CmdLineProtocolSuite(String protocolSuiteName, Properties properties,
+      NetworkConfiguration networkConfiguration) throws ParseException, NoSuchAlgorithmException {
+    this.networkConfiguration = networkConfiguration;
+    this.myId = networkConfiguration.getMyId();
+    this.noOfPlayers = networkConfiguration.noOfParties();
     if (protocolSuiteName.equals("dummybool")) {
       this.protocolSuite = new DummyBooleanProtocolSuite();
       this.resourcePool =
@@ -83,6 +112,24 @@ public class CmdLineProtocolSuite {
     return this.protocolSuite;
   }
 
+  /**
+   * Writes the pre-processed material used so far to the file given by the property
+   * <code>spdz.preprocessingDemandFile</code>, if the SPDZ suite is used with the DUMMY strategy
+   * and this property is set. The file can be used to generate the material for the STATIC
+   * strategy, see {@link SpdzPreprocessingCmdLine}.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  void writePreprocessingDemand() throws IOException {
+    if (countingSupplier != null) {
+      SpdzPreprocessingDemand demand = countingSupplier.getDemand();
+      logger.info("P{} used {}", myId, demand);
+      try (OutputStream out = new FileOutputStream(demandFile)) {
+        demand.toProperties().store(out, "Pre-processed material used by P" + myId);
+      }
+    }
+  }
+
 
   private ProtocolSuite<?, ?> dummyArithmeticFromCmdLine(Properties properties) {
     BigInteger mod = new BigInteger(properties.getProperty("modulus",
@@ -113,6 +160,14 @@ public class CmdLineProtocolSuite {
     SpdzDataSupplier supplier = null;
     if (strategy == PreprocessingStrategy.DUMMY) {
       supplier = new SpdzDummyDataSupplier(myId, noOfPlayers);
+      demandFile = properties.getProperty("spdz.preprocessingDemandFile");
+      if (demandFile != null) {
+        countingSupplier = new SpdzCountingDataSupplier(supplier, noOfPlayers);
+        supplier = countingSupplier;
+      }
+    }
+    if (strategy == PreprocessingStrategy.MASCOT_ASYNC) {
+      supplier = createMascotAsyncSupplier(properties);
     }
     if (strategy == PreprocessingStrategy.STATIC) {
       int noOfThreadsUsed = 1;
@@ -121,12 +176,61 @@ public class CmdLineProtocolSuite {
           SpdzStorageDataSupplier.STORAGE_NAME_PREFIX + noOfThreadsUsed + "_" + myId + "_" + 0
               + "_";
       supplier = new SpdzStorageDataSupplier(
-          new FilebasedStreamedStorageImpl(new InMemoryStorage()), storageName, noOfPlayers);
+          new SpdzBinaryStreamedStorage(new InMemoryStorage()), storageName, noOfPlayers);
     }
     return new SpdzResourcePoolImpl(myId, noOfPlayers, new SpdzOpenedValueStoreImpl(), supplier,
         new AesCtrDrbg(new byte[32]));
   }
 
+  /**
+   * Creates a MASCOT supplier producing the pre-processed material in a background thread. The
+   * producer runs on its own network, using the ports of the parties shifted by the property
+   * <code>spdz.preprocessingPortOffset</code>. The network is only created, and the seed OTs only
+   * run, once the producer starts.
+   */
+  private SpdzDataSupplier createMascotAsyncSupplier(Properties properties) {
+    int modBitLength = Integer.parseInt(properties.getProperty("spdz.modBitLength",
+        Integer.toString(SpdzPreprocessingCmdLine.MASCOT_MOD_BIT_LENGTH)));
+    int portOffset =
+        Integer.parseInt(properties.getProperty("spdz.preprocessingPortOffset", "100"));
+    BigInteger modulus = ModulusFinder.findSuitableModulus(modBitLength);
+    Drbg drbg = new AesCtrDrbg();
+    FieldElement ssk =
+        SpdzMascotDataSupplier.createRandomSsk(modulus, SpdzPreprocessingCmdLine.PRG_SEED_LENGTH);
+    Map<Integer, RotList> seedOts = new HashMap<>();
+    asyncSupplier = new SpdzMascotAsyncDataSupplier(myId, noOfPlayers, 1, () -> {
+      preprocessingNetwork = new AsyncNetwork(shiftPorts(portOffset));
+      seedOts.putAll(
+          SpdzPreprocessingCmdLine.setupSeedOts(myId, noOfPlayers, preprocessingNetwork, drbg));
+      return preprocessingNetwork;
+    }, modulus, modBitLength, SpdzPreprocessingCmdLine.PRG_SEED_LENGTH, ASYNC_BATCH_SIZE,
+        ASYNC_BATCH_SIZE, 4 * ASYNC_BATCH_SIZE, ssk, seedOts, drbg);
+    return asyncSupplier;
+  }
+
+  private NetworkConfiguration shiftPorts(int portOffset) {
+    Map<Integer, Party> parties = new HashMap<>();
+    for (int id = 1; id <= noOfPlayers; id++) {
+      Party party = networkConfiguration.getParty(id);
+      parties.put(id, new Party(id, party.getHostname(), party.getPort() + portOffset));
+    }
+    return new NetworkConfigurationImpl(myId, parties);
+  }
+
+  /**
+   * Stops the background pre-processing, if any, and closes its network.
+   *
+   * @throws IOException if the network fails to close
+   */
+  void closePreprocessing() throws IOException {
+    if (asyncSupplier != null) {
+      asyncSupplier.close();
+    }
+    if (preprocessingNetwork != null) {
+      preprocessingNetwork.close();
+    }
+  }
+
   private ProtocolSuite<?, ?> tinyTablesPreProFromCmdLine(Properties properties) {
     return new TinyTablesPreproProtocolSuite();
   }
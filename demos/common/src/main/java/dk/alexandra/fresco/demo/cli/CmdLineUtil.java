@@ -49,6 +49,7 @@ public class CmdLineUtil<ResourcePoolT extends ResourcePool, BuilderT extends Pr
   private boolean logPerformance;
   private ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite;
   private ProtocolEvaluator<ResourcePoolT> evaluator;
+  private CmdLineProtocolSuite protocolSuiteParser;
 
   private ResourcePoolT resourcePool;
   private SecureComputationEngine<ResourcePoolT, BuilderT> sce;
@@ -159,12 +160,24 @@ public class CmdLineUtil<ResourcePoolT extends ResourcePool, BuilderT extends Pr
 
   private void parseAndSetupNetwork() throws ParseException {
     int myId = parseNonzeroInt("i");
+    this.networkConfiguration = parseNetworkConfiguration(myId, this.cmd.getOptionValues("p"));
+  }
+
+  /**
+   * Parses the connection data of the parties.
+   *
+   * @param myId the id of this party
+   * @param partyOptions the connection data of each party on the form [id]:[hostname]:[port]
+   * @return the network configuration
+   */
+  static NetworkConfiguration parseNetworkConfiguration(int myId, String[] partyOptions)
+      throws ParseException {
     final Map<Integer, Party> parties = new HashMap<>();
 
-    for (String partyOptions : this.cmd.getOptionValues("p")) {
-      String[] p = partyOptions.split(":");
+    for (String partyOption : partyOptions) {
+      String[] p = partyOption.split(":");
       if (p.length != 3) {
-        throw new ParseException("Could not parse '" + partyOptions
+        throw new ParseException("Could not parse '" + partyOption
             + "' as [id]:[host]:[port]");
       }
       try {
@@ -178,7 +191,7 @@ public class CmdLineUtil<ResourcePoolT extends ResourcePool, BuilderT extends Pr
         }
         parties.put(id, party);
       } catch (NumberFormatException | UnknownHostException e) {
-        throw new ParseException("Could not parse '" + partyOptions + "': " + e.getMessage());
+        throw new ParseException("Could not parse '" + partyOption + "': " + e.getMessage());
       }
     }
     if (!parties.containsKey(myId)) {
@@ -186,7 +199,7 @@ public class CmdLineUtil<ResourcePoolT extends ResourcePool, BuilderT extends Pr
           + " but this id is not present in the list of parties: " + parties.keySet());
     }
 
-    this.networkConfiguration = new NetworkConfigurationImpl(myId, parties);
+    return new NetworkConfigurationImpl(myId, parties);
   }
 
   /**
@@ -244,9 +257,8 @@ public class CmdLineUtil<ResourcePoolT extends ResourcePool, BuilderT extends Pr
       String protocolSuiteName = validateAndGetProtocolSuite();
       parseAndSetupNetwork();
 
-      CmdLineProtocolSuite protocolSuiteParser = new CmdLineProtocolSuite(protocolSuiteName,
-          cmd.getOptionProperties("D"), this.networkConfiguration.getMyId(),
-          this.networkConfiguration.noOfParties());
+      protocolSuiteParser = new CmdLineProtocolSuite(protocolSuiteName,
+          cmd.getOptionProperties("D"), this.networkConfiguration);
       protocolSuite = (ProtocolSuite<ResourcePoolT, BuilderT>)
           protocolSuiteParser.getProtocolSuite();
       resourcePool = (ResourcePoolT) protocolSuiteParser.getResourcePool();
@@ -315,12 +327,27 @@ public class CmdLineUtil<ResourcePoolT extends ResourcePool, BuilderT extends Pr
   }
 
   /**
-   * Attempts to close the network.
+   * Writes the pre-processed material used by the computation to the demand file, if the SPDZ
+   * suite is used with the DUMMY strategy and the property <code>spdz.preprocessingDemandFile</code>
+   * is set. Should be called once the application has finished.
+   * @throws IOException If the file cannot be written
+   */
+  public void writePreprocessingDemand() throws IOException {
+    if (this.protocolSuiteParser != null) {
+      this.protocolSuiteParser.writePreprocessingDemand();
+    }
+  }
+
+  /**
+   * Attempts to close the network, and the network of the background pre-processing if used.
    * @throws IOException If the networks fails to close
    */
   public void closeNetwork() throws IOException {
     if (this.network != null) {
       ((Closeable) this.network).close();
     }
+    if (this.protocolSuiteParser != null) {
+      this.protocolSuiteParser.closePreprocessing();
+    }
   }
 }
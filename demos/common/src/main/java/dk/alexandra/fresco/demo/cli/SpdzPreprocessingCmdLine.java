@@ -0,0 +1,184 @@
+package dk.alexandra.fresco.demo.cli;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.network.AsyncNetwork;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzBinaryStreamedStorage;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMascotDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzPreprocessingDemand;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzPreprocessingGenerator;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageDataSupplier;
+import dk.alexandra.fresco.tools.mascot.field.FieldElement;
+import dk.alexandra.fresco.tools.ot.base.DhParameters;
+import dk.alexandra.fresco.tools.ot.base.NaorPinkasOt;
+import dk.alexandra.fresco.tools.ot.base.Ot;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * Command line tool generating the pre-processed material used by the STATIC pre-processing
+ * strategy of the SPDZ suite.
+ * <p>
+ * The amount of material to generate is read from a demand file. Such a file is written by running
+ * an application with the SPDZ suite, the DUMMY pre-processing strategy and the property
+ * <code>spdz.preprocessingDemandFile</code> set to the name of the file. The material is either
+ * generated using dummy pre-processing, which needs no interaction, or using MASCOT, in which case
+ * all parties must run the tool at the same time.
+ * </p>
+ */
+public class SpdzPreprocessingCmdLine {
+
+  private static final int DUMMY_MOD_BIT_LENGTH = 512;
+  static final int MASCOT_MOD_BIT_LENGTH = 128;
+  static final int PRG_SEED_LENGTH = 256;
+
+  private SpdzPreprocessingCmdLine() {
+  }
+
+  private static Options buildOptions() {
+    Options options = new Options();
+    options.addOption(
+        Option.builder("i").desc("The id of this player. Must be a unique positive integer.")
+            .longOpt("id").required(true).hasArg().build());
+    options.addOption(Option.builder("p")
+        .desc("Connection data for a party on the form [id]:[hostname]:[port]. Use -p multiple "
+            + "times to specify all players, including yourself.")
+        .longOpt("party").required(true).hasArgs().build());
+    options.addOption(Option.builder("d")
+        .desc("The demand file listing the amount of material to generate.")
+        .longOpt("demand").required(true).hasArg().build());
+    options.addOption(Option.builder("src")
+        .desc("The source of the material. Must be one of: [dummy, mascot]. Defaults to dummy")
+        .longOpt("source").required(false).hasArg().build());
+    options.addOption(Option.builder("m")
+        .desc("The bit length of the modulus. Defaults to " + DUMMY_MOD_BIT_LENGTH
+            + " for dummy and " + MASCOT_MOD_BIT_LENGTH + " for mascot")
+        .longOpt("mod-bit-length").required(false).hasArg().build());
+    return options;
+  }
+
+  /**
+   * Generates the pre-processed material of a party.
+   *
+   * @param args the command line arguments, see {@link #buildOptions()}
+   */
+  public static void main(String[] args) throws IOException {
+    Options options = buildOptions();
+    CommandLine cmd;
+    NetworkConfiguration conf;
+    SpdzPreprocessingDemand demand;
+    boolean mascot;
+    int modBitLength;
+    try {
+      cmd = new DefaultParser().parse(options, args);
+      int myId = Integer.parseInt(cmd.getOptionValue("i"));
+      conf = CmdLineUtil.parseNetworkConfiguration(myId, cmd.getOptionValues("p"));
+      demand = readDemand(cmd.getOptionValue("d"));
+      if (demand.getNoOfParties() != conf.noOfParties()) {
+        throw new ParseException("The demand is for " + demand.getNoOfParties()
+            + " parties, but " + conf.noOfParties() + " parties are given");
+      }
+      String source = cmd.getOptionValue("src", "dummy").toLowerCase();
+      if (!source.equals("dummy") && !source.equals("mascot")) {
+        throw new ParseException("Unknown source: " + source);
+      }
+      mascot = source.equals("mascot");
+      modBitLength = Integer.parseInt(cmd.getOptionValue("m",
+          Integer.toString(mascot ? MASCOT_MOD_BIT_LENGTH : DUMMY_MOD_BIT_LENGTH)));
+    } catch (ParseException | NumberFormatException e) {
+      System.err.println("Error while parsing arguments: " + e.getLocalizedMessage());
+      new HelpFormatter().printHelp("SpdzPreprocessingCmdLine", options);
+      throw new IllegalArgumentException("Error while parsing arguments: "
+          + e.getLocalizedMessage(), e);
+    }
+    new File(SpdzStorageDataSupplier.STORAGE_FOLDER).mkdirs();
+    String storageName = SpdzStorageDataSupplier.STORAGE_NAME_PREFIX + 1 + "_" + conf.getMyId()
+        + "_" + 0 + "_";
+    StreamedStorage storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    BigInteger modulus = ModulusFinder.findSuitableModulus(modBitLength);
+    try {
+      if (mascot) {
+        try (CloseableNetwork network = new AsyncNetwork(conf)) {
+          SpdzPreprocessingGenerator.generate(createMascotSupplier(conf, network, modBitLength,
+              modulus), storage, storageName, demand);
+        }
+      } else {
+        SpdzDataSupplier supplier =
+            new SpdzDummyDataSupplier(conf.getMyId(), conf.noOfParties(), modulus);
+        SpdzPreprocessingGenerator.generate(supplier, storage, storageName, demand);
+      }
+    } finally {
+      storage.shutdown();
+    }
+  }
+
+  private static SpdzPreprocessingDemand readDemand(String fileName) throws ParseException {
+    Properties properties = new Properties();
+    try (InputStream in = new FileInputStream(fileName)) {
+      properties.load(in);
+    } catch (IOException e) {
+      throw new ParseException("Could not read demand file " + fileName + ": " + e.getMessage());
+    }
+    return SpdzPreprocessingDemand.fromProperties(properties);
+  }
+
+  private static SpdzDataSupplier createMascotSupplier(NetworkConfiguration conf,
+      CloseableNetwork network, int modBitLength, BigInteger modulus) {
+    int myId = conf.getMyId();
+    Drbg drbg = new AesCtrDrbg();
+    Map<Integer, RotList> seedOts = setupSeedOts(myId, conf.noOfParties(), network, drbg);
+    FieldElement ssk = SpdzMascotDataSupplier.createRandomSsk(modulus, PRG_SEED_LENGTH);
+    return SpdzMascotDataSupplier.createSimpleSupplier(myId, conf.noOfParties(), () -> network,
+        modBitLength, modulus, seedOts, drbg, ssk);
+  }
+
+  /**
+   * Runs the base OTs used to seed the OT extension of MASCOT, using Naor-Pinkas OT.
+   *
+   * @param myId this party's id
+   * @param noOfParties number of parties
+   * @param network network to run the base OTs on
+   * @param drbg source of randomness
+   * @return the base OTs with each of the other parties
+   */
+  static Map<Integer, RotList> setupSeedOts(int myId, int noOfParties, Network network,
+      Drbg drbg) {
+    Map<Integer, RotList> seedOts = new HashMap<>();
+    for (int otherId = 1; otherId <= noOfParties; otherId++) {
+      if (otherId != myId) {
+        Ot ot = new NaorPinkasOt(otherId, drbg, network, DhParameters.getStaticDhParams());
+        RotList currentSeedOts = new RotList(drbg, PRG_SEED_LENGTH);
+        if (myId < otherId) {
+          currentSeedOts.send(ot);
+          currentSeedOts.receive(ot);
+        } else {
+          currentSeedOts.receive(ot);
+          currentSeedOts.send(ot);
+        }
+        seedOts.put(otherId, currentSeedOts);
+      }
+    }
+    return seedOts;
+  }
+}
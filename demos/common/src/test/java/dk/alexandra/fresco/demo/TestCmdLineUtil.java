@@ -1,10 +1,12 @@
 package dk.alexandra.fresco.demo;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import dk.alexandra.fresco.demo.cli.CmdLineUtil;
+import dk.alexandra.fresco.demo.cli.SpdzPreprocessingCmdLine;
 import dk.alexandra.fresco.framework.builder.ProtocolBuilder;
 import dk.alexandra.fresco.framework.builder.binary.ProtocolBuilderBinary;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
@@ -14,6 +16,7 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
 import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
 import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
 import dk.alexandra.fresco.logging.EvaluatorLoggingDecorator;
 import dk.alexandra.fresco.logging.NetworkLoggingDecorator;
 import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
@@ -22,12 +25,24 @@ import dk.alexandra.fresco.suite.dummy.bool.DummyBooleanProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.SpdzProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
 import dk.alexandra.fresco.suite.spdz.storage.InitializeStorage;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzBinaryStorageConverter;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzBinaryStreamedStorage;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMascotAsyncDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzPreprocessingDemand;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageDataSupplier;
 import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproProtocolSuite;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Properties;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.junit.Test;
@@ -79,6 +94,52 @@ public class TestCmdLineUtil {
     assertTrue(cmd.getSce() instanceof SecureComputationEngineImpl);
   }
 
+  @Test
+  public void testSpdzAritmeticMascotAsyncFromCmdLine() throws IOException {
+    CmdLineUtil<SpdzResourcePool, ProtocolBuilderNumeric> cmd = parseAndCloseNetwork(getArgs(1,
+        "spdz", "-D", "spdz.preprocessingStrategy=MASCOT_ASYNC", "-D", "spdz.modBitLength=64"));
+    assertTrue(cmd.getProtocolSuite() instanceof SpdzProtocolSuite);
+    SpdzDataSupplier supplier = cmd.getResourcePool().getDataSupplier();
+    assertTrue(supplier instanceof SpdzMascotAsyncDataSupplier);
+    assertEquals(64, supplier.getModulus().bitLength());
+  }
+
+  @Test
+  public void testSpdzPreprocessingDemandAndGeneration() throws IOException {
+    File demandFile = new File("spdz-demand.properties");
+    try {
+      CmdLineUtil<SpdzResourcePool, ProtocolBuilderNumeric> dryRun =
+          parseAndCloseNetwork(getArgs(1, "spdz", "-D", "spdz.preprocessingStrategy=DUMMY", "-D",
+              "spdz.preprocessingDemandFile=" + demandFile.getPath()));
+      assertFalse(demandFile.exists());
+      dryRun.writePreprocessingDemand();
+      Properties properties = new Properties();
+      try (InputStream in = new FileInputStream(demandFile)) {
+        properties.load(in);
+      }
+      assertEquals(new SpdzPreprocessingDemand(0, 0, 0, 0, new long[2]),
+          SpdzPreprocessingDemand.fromProperties(properties));
+
+      SpdzPreprocessingDemand demand = new SpdzPreprocessingDemand(5, 2, 1, 1, new long[]{3, 0});
+      try (OutputStream out = new FileOutputStream(demandFile)) {
+        demand.toProperties().store(out, null);
+      }
+      SpdzPreprocessingCmdLine.main(new String[] {"-i", "1", "-p", "1:localhost:8081", "-p",
+          "2:localhost:8082", "-d", demandFile.getPath(), "-m", "128"});
+      CmdLineUtil<SpdzResourcePool, ProtocolBuilderNumeric> cmd =
+          parseAndCloseNetwork(getArgs(1, "spdz", "-D", "spdz.preprocessingStrategy=STATIC"));
+      SpdzDataSupplier supplier = cmd.getResourcePool().getDataSupplier();
+      assertEquals(128, supplier.getModulus().bitLength());
+      supplier.getNextTriples(5);
+      supplier.getNextRandomFieldElement();
+      supplier.getNextExpPipe();
+      supplier.getNextInputMask(1);
+    } finally {
+      demandFile.delete();
+      InitializeStorage.cleanup();
+    }
+  }
+
   @Test(expected=IllegalArgumentException.class)
   public void testSpdzBadBitLength() throws InterruptedException {
     parseAndCloseNetwork(getArgs(1, "spdz", "-b", "4048", "-D", "spdz.preprocessingStrategy=DUMMY", "-D", "spdz.maxBitLength=1"));
@@ -87,6 +148,10 @@ public class TestCmdLineUtil {
   @Test
   public void testSpdzAritmeticStaticFromCmdLine() throws InterruptedException, IOException {
     InitializeStorage.initStreamedStorage(new FilebasedStreamedStorageImpl(new InMemoryStorage()), 2, 1, 1, 1, 1, 1);
+    StreamedStorage binaryStorage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    SpdzBinaryStorageConverter.convert(new FilebasedStreamedStorageImpl(new InMemoryStorage()),
+        binaryStorage, SpdzStorageDataSupplier.STORAGE_NAME_PREFIX + "1_1_0_", 2);
+    binaryStorage.shutdown();
     CmdLineUtil<SpdzResourcePool, ProtocolBuilderNumeric> cmd =
         parseAndCloseNetwork(getArgs(1, "spdz", "-b", "4048", "-D", "spdz.preprocessingStrategy=STATIC"));
     assertTrue(cmd.getEvaluator() instanceof BatchedProtocolEvaluator);
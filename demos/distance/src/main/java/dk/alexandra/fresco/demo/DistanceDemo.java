@@ -110,6 +110,7 @@ public class DistanceDemo implements Application<BigInteger, ProtocolBuilderNume
     BigInteger bigInteger = sce.runApplication(distDemo, resourcePool, cmdUtil.getNetwork());
     double dist = Math.sqrt(bigInteger.doubleValue());
     log.info("Distance between party 1 and 2 is: " + dist);
+    cmdUtil.writePreprocessingDemand();
     cmdUtil.closeNetwork();
     sce.shutdownSCE();
 
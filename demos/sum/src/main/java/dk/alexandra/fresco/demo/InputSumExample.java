@@ -63,7 +63,8 @@ public class InputSumExample {
     ResourcePoolT resourcePool = util.getResourcePool();
     util.startNetwork();
     new InputSumExample().runApplication(sce, resourcePool, util.getNetwork());
-    
+    util.writePreprocessingDemand();
+
     util.closeNetwork();
     sce.shutdownSCE();
   }
@@ -0,0 +1,76 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+/**
+ * A running digest of the values received through broadcasts which have not yet been validated.
+ * <p>
+ * Rather than validating each broadcast separately, protocols add the values they receive to this
+ * digest. The digests of all parties are then compared once, before any output is revealed, by
+ * {@link dk.alexandra.fresco.suite.spdz.gates.SpdzBroadcastValidationProtocol}. Since all parties
+ * add the same values in the same order, the digests match if and only if all parties received
+ * the same values (except with negligible probability).
+ * </p>
+ */
+public class SpdzBroadcastDigest {
+
+  private final MessageDigest digest;
+  private long count;
+
+  /**
+   * Creates a new empty digest.
+   */
+  public SpdzBroadcastDigest() {
+    this.digest = ExceptionConverter.safe(
+        () -> MessageDigest.getInstance("SHA-256"),
+        "Configuration error, SHA-256 is needed for Spdz");
+  }
+
+  /**
+   * Adds a received value to the digest. The value is prefixed by its length, so that different
+   * sequences of values with the same concatenated encoding give different digests.
+   *
+   * @param value the value
+   */
+  public void update(BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+    digest.update(bytes);
+    count++;
+  }
+
+  /**
+   * Adds the values of another digest, such as the digest of a partition of the resource pool, and
+   * resets the other digest. The values are added as the single value of their digest, if any.
+   *
+   * @param other the other digest
+   */
+  public void merge(SpdzBroadcastDigest other) {
+    if (other.hasPendingValues()) {
+      update(new BigInteger(1, other.digestAndReset()));
+    }
+  }
+
+  /**
+   * Checks if any values are awaiting validation.
+   *
+   * @return true if values have been added since the digest was last computed
+   */
+  public boolean hasPendingValues() {
+    return count > 0;
+  }
+
+  /**
+   * Computes the digest of all values added since the last call and resets the digest.
+   *
+   * @return the digest
+   */
+  public byte[] digestAndReset() {
+    count = 0;
+    return digest.digest();
+  }
+
+}
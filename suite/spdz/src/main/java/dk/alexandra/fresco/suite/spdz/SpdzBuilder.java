@@ -1,11 +1,16 @@
 package dk.alexandra.fresco.suite.spdz;
 
 import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric;
 import dk.alexandra.fresco.framework.builder.numeric.BuilderFactoryNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.Collections;
+import dk.alexandra.fresco.framework.builder.numeric.DefaultAdvancedNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.DefaultCollections;
 import dk.alexandra.fresco.framework.builder.numeric.Numeric;
 import dk.alexandra.fresco.framework.builder.numeric.PreprocessedValues;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.collections.Matrix;
 import dk.alexandra.fresco.lib.compare.MiscBigIntegerGenerators;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
 import dk.alexandra.fresco.lib.real.RealNumericContext;
@@ -15,13 +20,17 @@ import dk.alexandra.fresco.suite.spdz.gates.SpdzInputProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzKnownSIntProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMultProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMultProtocolKnownLeft;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzMultVectorProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputSingleProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputToAllListProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputToAllProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzRandomProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzSubtractProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzSubtractProtocolKnownLeft;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzSubtractProtocolKnownRight;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Basic native builder for the SPDZ protocol suite.
@@ -56,6 +65,52 @@ class SpdzBuilder implements BuilderFactoryNumeric {
     };
   }
 
+  @Override
+  public AdvancedNumeric createAdvancedNumeric(ProtocolBuilderNumeric builder) {
+    return new DefaultAdvancedNumeric(this, builder) {
+      @Override
+      public DRes<List<DRes<SInt>>> mult(List<DRes<SInt>> vectorA, List<DRes<SInt>> vectorB) {
+        return builder.append(new SpdzMultVectorProtocol(vectorA, vectorB));
+      }
+    };
+  }
+
+  @Override
+  public Collections createCollections(ProtocolBuilderNumeric builder) {
+    return new DefaultCollections(builder) {
+      @Override
+      public <T extends DRes<SInt>> DRes<List<DRes<BigInteger>>> openList(
+          DRes<List<T>> closedList) {
+        return builder.append(new SpdzOutputToAllListProtocol(closedList));
+      }
+
+      @Override
+      public <T extends DRes<SInt>> DRes<Matrix<DRes<BigInteger>>> openMatrix(
+          DRes<Matrix<T>> closedMatrix) {
+        return builder.seq(seq -> {
+          Matrix<T> matrix = closedMatrix.out();
+          // open all entries at once and split the result into rows afterwards
+          List<T> entries = new ArrayList<>();
+          for (List<T> row : matrix.getRows()) {
+            entries.addAll(row);
+          }
+          DRes<List<DRes<BigInteger>>> opened =
+              seq.append(new SpdzOutputToAllListProtocol(() -> entries));
+          return () -> {
+            List<DRes<BigInteger>> openedEntries = opened.out();
+            ArrayList<ArrayList<DRes<BigInteger>>> rows = new ArrayList<>(matrix.getHeight());
+            int offset = 0;
+            for (List<T> row : matrix.getRows()) {
+              rows.add(new ArrayList<>(openedEntries.subList(offset, offset + row.size())));
+              offset += row.size();
+            }
+            return new Matrix<>(matrix.getHeight(), matrix.getWidth(), rows);
+          };
+        });
+      }
+    };
+  }
+
   @Override
   public Numeric createNumeric(ProtocolBuilderNumeric protocolBuilder) {
     return new Numeric() {
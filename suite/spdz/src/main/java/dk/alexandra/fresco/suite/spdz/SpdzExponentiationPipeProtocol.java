@@ -4,7 +4,8 @@ import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzNativeProtocol;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class SpdzExponentiationPipeProtocol extends SpdzNativeProtocol<List<DRes<SInt>>> {
@@ -25,11 +26,9 @@ public class SpdzExponentiationPipeProtocol extends SpdzNativeProtocol<List<DRes
               + " Create an exp pipe which has the required length of " + (pipeLength + 1)
               + ", or use the default protocol for generating the exponentiation pipes online");
     }
-    this.result = new LinkedList<>();
-    for (int i = 0; i < pipeLength + 1; i++) {
-      SInt r = pipe[i];
-      this.result.add(() -> r);
-    }
+    // an SInt is its own result, so the pipe can be exposed as a list without copying
+    this.result = Collections.unmodifiableList(
+        Arrays.<DRes<SInt>>asList(pipe).subList(0, pipeLength + 1));
     return EvaluationStatus.IS_DONE;
   }
 
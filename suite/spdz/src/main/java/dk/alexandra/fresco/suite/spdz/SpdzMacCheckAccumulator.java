@@ -0,0 +1,119 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.suite.spdz.datatypes.MontgomeryField;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Running random linear combinations of opened values and their macs for the SPDZ mac check.
+ * <p>
+ * Each opened value <i>a<sub>j</sub></i> with mac share <i>m<sub>j</sub></i> is folded into the
+ * sums <i>a = sum r<sub>j</sub> a<sub>j</sub></i> and <i>gamma = sum r<sub>j</sub>
+ * m<sub>j</sub></i> as soon as it is added, where the coefficients <i>r<sub>j</sub></i> are taken
+ * from a jointly seeded {@link Drbg}. The values themselves are not kept, so the memory used does
+ * not depend on the number of values awaiting the check. Since all parties fold the same values in
+ * the same order, they use the same coefficients, and the check only needs to commit to and open
+ * the single element <i>gamma - alpha a</i>, see {@link #computeDelta(BigInteger)}.
+ * </p>
+ */
+public class SpdzMacCheckAccumulator {
+
+  private final MontgomeryField field;
+  private final byte[] coefficientBytes;
+  private long[] openedSum;
+  private long[] macSum;
+  private long count;
+
+  /**
+   * Creates a new empty accumulator.
+   *
+   * @param modulus the modulus of the SPDZ computation
+   */
+  public SpdzMacCheckAccumulator(BigInteger modulus) {
+    this.field = MontgomeryField.forModulus(modulus);
+    this.coefficientBytes = new byte[modulus.bitLength() / Byte.SIZE];
+    this.openedSum = field.newAccumulator();
+    this.macSum = field.newAccumulator();
+  }
+
+  /**
+   * Folds a list of opened values into the running sums and clears the lists.
+   *
+   * @param values the authenticated values and the corresponding open values as returned by
+   *     {@link dk.alexandra.fresco.framework.util.OpenedValueStore#popValues()}
+   * @param jointDrbg the jointly seeded randomness used to sample the coefficients
+   */
+  public void add(Pair<List<SpdzSInt>, List<BigInteger>> values, Drbg jointDrbg) {
+    List<SpdzSInt> closedValues = values.getFirst();
+    List<BigInteger> openedValues = values.getSecond();
+    for (int i = 0; i < openedValues.size(); i++) {
+      add(closedValues.get(i), openedValues.get(i), jointDrbg);
+    }
+    closedValues.clear();
+    openedValues.clear();
+  }
+
+  /**
+   * Folds a single opened value into the running sums.
+   *
+   * @param closedValue the authenticated value holding the mac share
+   * @param openedValue the open value
+   * @param jointDrbg the jointly seeded randomness used to sample the coefficient
+   */
+  public void add(SpdzSInt closedValue, BigInteger openedValue, Drbg jointDrbg) {
+    long[] r = field.toMontgomery(field.fromBigInteger(sampleCoefficient(jointDrbg)));
+    field.multiplyAccumulate(openedSum, field.fromBigInteger(openedValue), r);
+    field.multiplyAccumulate(macSum, macLimbs(closedValue), r);
+    count++;
+  }
+
+  /**
+   * Gets the number of values folded in since the accumulator was last emptied.
+   *
+   * @return the number of unchecked values
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Checks if any values are awaiting the check.
+   *
+   * @return true if no values have been added since the accumulator was last emptied
+   */
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  /**
+   * Computes this party's share <i>gamma - alpha a</i> of the check value and empties the
+   * accumulator. If all values were opened correctly, the shares of all parties sum to zero.
+   *
+   * @param alpha this party's share of the mac key
+   * @return the share of the check value
+   */
+  public BigInteger computeDelta(BigInteger alpha) {
+    BigInteger delta = field.toBigInteger(field.subtract(field.reduce(macSum),
+        field.multiply(field.fromBigInteger(alpha), field.reduce(openedSum))));
+    openedSum = field.newAccumulator();
+    macSum = field.newAccumulator();
+    count = 0;
+    return delta;
+  }
+
+  private long[] macLimbs(SpdzSInt value) {
+    if (value.getField() == field) {
+      return value.getMacLimbs();
+    }
+    return field.fromBigInteger(value.getMac());
+  }
+
+  private BigInteger sampleCoefficient(Drbg jointDrbg) {
+    jointDrbg.nextBytes(coefficientBytes);
+    return new BigInteger(coefficientBytes).mod(field.getModulus());
+  }
+
+}
@@ -2,18 +2,37 @@ package dk.alexandra.fresco.suite.spdz;
 
 import dk.alexandra.fresco.framework.builder.numeric.BuilderFactoryNumeric;
 import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.AdaptiveBatchSize;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
 import dk.alexandra.fresco.lib.real.RealNumericContext;
 import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+import java.util.Objects;
 
 public class SpdzProtocolSuite implements ProtocolSuiteNumeric<SpdzResourcePool> {
 
   private final int maxBitLength;
   private final int fixedPointPrecision;
+  private final AdaptiveBatchSize macCheckBatchSize;
 
   public SpdzProtocolSuite(int maxBitLength, int fixedPointPrecision) {
     this.maxBitLength = maxBitLength;
     this.fixedPointPrecision = fixedPointPrecision;
+    this.macCheckBatchSize = null;
+  }
+
+  /**
+   * Creates a protocol suite which evaluates the mac-checks with an adaptive batch size.
+   *
+   * @param maxBitLength the maximum bit length of the numbers
+   * @param fixedPointPrecision the precision of fixed point numbers
+   * @param macCheckBatchSize the batch size configuration of the mac-check evaluator. Must be the
+   *     same for all parties
+   */
+  public SpdzProtocolSuite(int maxBitLength, int fixedPointPrecision,
+      AdaptiveBatchSize macCheckBatchSize) {
+    this.maxBitLength = maxBitLength;
+    this.fixedPointPrecision = fixedPointPrecision;
+    this.macCheckBatchSize = Objects.requireNonNull(macCheckBatchSize);
   }
 
   public SpdzProtocolSuite(int maxBitLength) {
@@ -38,7 +57,12 @@ public class SpdzProtocolSuite implements ProtocolSuiteNumeric<SpdzResourcePool>
 
   @Override
   public RoundSynchronization<SpdzResourcePool> createRoundSynchronization() {
-    return new SpdzRoundSynchronization(this);
+    if (macCheckBatchSize == null) {
+      return new SpdzRoundSynchronization(this);
+    } else {
+      return new SpdzRoundSynchronization(this, SpdzRoundSynchronization.DEFAULT_VALUE_THRESHOLD,
+          macCheckBatchSize);
+    }
   }
 
 }
@@ -35,6 +35,12 @@ public interface SpdzResourcePool extends NumericResourcePool {
    */
   OpenedValueStore<SpdzSInt, BigInteger> getOpenedValueStore();
 
+  /**
+   * Returns instance of {@link SpdzBroadcastDigest} which tracks all broadcast values that have not
+   * yet been validated.
+   */
+  SpdzBroadcastDigest getBroadcastDigest();
+
   /**
    * Returns instance of {@link SpdzDataSupplier} which provides pre-processed material such as
    * multiplication triples.
@@ -2,23 +2,30 @@ package dk.alexandra.fresco.suite.spdz;
 
 import dk.alexandra.fresco.framework.network.serializers.BigIntegerWithFixedLengthSerializer;
 import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
+import dk.alexandra.fresco.framework.sce.resources.PartitionableResourcePool;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
 import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.ExceptionConverter;
 import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStoreImpl;
 import java.math.BigInteger;
 import java.security.MessageDigest;
+import java.util.List;
 
-public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResourcePool {
+public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResourcePool,
+    PartitionableResourcePool<SpdzResourcePool> {
 
   private final MessageDigest messageDigest;
   private final int modulusSize;
   private final BigInteger modulus;
   private final BigInteger modulusHalf;
   private final OpenedValueStore<SpdzSInt, BigInteger> openedValueStore;
+  private final SpdzBroadcastDigest broadcastDigest;
   private final SpdzDataSupplier dataSupplier;
+  private final boolean isPartition;
   private Drbg drbg;
 
   /**
@@ -32,9 +39,16 @@ public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResour
   public SpdzResourcePoolImpl(int myId, int noOfPlayers,
       OpenedValueStore<SpdzSInt, BigInteger> openedValueStore, SpdzDataSupplier dataSupplier,
       Drbg drbg) {
+    this(myId, noOfPlayers, openedValueStore, dataSupplier, drbg, false);
+  }
+
+  private SpdzResourcePoolImpl(int myId, int noOfPlayers,
+      OpenedValueStore<SpdzSInt, BigInteger> openedValueStore, SpdzDataSupplier dataSupplier,
+      Drbg drbg, boolean isPartition) {
     super(myId, noOfPlayers);
     this.dataSupplier = dataSupplier;
     this.openedValueStore = openedValueStore;
+    this.broadcastDigest = new SpdzBroadcastDigest();
     this.messageDigest = ExceptionConverter.safe(
         () -> MessageDigest.getInstance("SHA-256"),
         "Configuration error, SHA-256 is needed for Spdz");
@@ -43,6 +57,7 @@ public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResour
     this.modulusHalf = this.modulus.divide(BigInteger.valueOf(2));
     this.modulusSize = this.modulus.toByteArray().length;
     this.drbg = drbg;
+    this.isPartition = isPartition;
   }
 
   @Override
@@ -60,6 +75,11 @@ public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResour
     return openedValueStore;
   }
 
+  @Override
+  public SpdzBroadcastDigest getBroadcastDigest() {
+    return broadcastDigest;
+  }
+
   @Override
   public SpdzDataSupplier getDataSupplier() {
     return dataSupplier;
@@ -72,12 +92,35 @@ public class SpdzResourcePoolImpl extends ResourcePoolImpl implements SpdzResour
 
   @Override
   public Drbg getRandomGenerator() {
+    if (isPartition) {
+      throw new IllegalStateException("Joint drbg cannot be used in a partition");
+    }
     if (drbg == null) {
       throw new IllegalStateException("Joint drbg must be initialized before use");
     }
     return drbg;
   }
 
+  /**
+   * Creates a partition sharing the data supplier of this resource pool, with its own opened value
+   * store, broadcast digest and message digest. The joint random generator is not shared, since
+   * partitions are evaluated concurrently and the parties must draw from it in the same order, so
+   * {@link #getRandomGenerator()} throws an {@link IllegalStateException} on the partition.
+   */
+  @Override
+  public SpdzResourcePool createPartition() {
+    return new SpdzResourcePoolImpl(getMyId(), getNoOfParties(), new SpdzOpenedValueStoreImpl(),
+        dataSupplier, null, true);
+  }
+
+  @Override
+  public void mergePartition(SpdzResourcePool partition) {
+    Pair<List<SpdzSInt>, List<BigInteger>> opened =
+        partition.getOpenedValueStore().popValues();
+    openedValueStore.pushOpenedValues(opened.getFirst(), opened.getSecond());
+    broadcastDigest.merge(partition.getBroadcastDigest());
+  }
+
   @Override
   public BigInteger convertRepresentation(BigInteger bigInteger) {
     BigInteger actual = bigInteger.mod(modulus);
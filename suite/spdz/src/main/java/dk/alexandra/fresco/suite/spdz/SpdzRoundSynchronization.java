@@ -3,12 +3,14 @@ package dk.alexandra.fresco.suite.spdz;
 import dk.alexandra.fresco.framework.ProtocolCollection;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.network.Network;
-import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.AdaptiveBatchSize;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
 import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.lib.helper.SingleProtocolProducer;
 import dk.alexandra.fresco.suite.ProtocolSuite.RoundSynchronization;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzBroadcastValidationProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMacCheckProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputProtocol;
 import java.math.BigInteger;
@@ -18,14 +20,26 @@ import java.util.stream.StreamSupport;
 /**
  * A default implementation of the round synchronization for spdz - mostly doing the MAC check if
  * needed.
+ * <p>
+ * The values opened in a batch are folded into a {@link SpdzMacCheckAccumulator} when the batch is
+ * finished, so the opened values are not kept until the MAC check is run. The MAC check itself
+ * then only commits to and opens a single element.
+ * </p>
+ * <p>
+ * Likewise, broadcasts are not validated by the protocols receiving them, but through a running
+ * {@link SpdzBroadcastDigest} which is validated once before the next output, see {@link
+ * SpdzBroadcastValidationProtocol}.
+ * </p>
  */
 public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResourcePool> {
 
-  private static final int DEFAULT_VALUE_THRESHOLD = 1000000;
-  private static final int DEFAULT_BATCH_SIZE = 128;
+  static final int DEFAULT_VALUE_THRESHOLD = 1000000;
+  static final int DEFAULT_BATCH_SIZE = 128;
   private final int openValueThreshold;
   private final SpdzProtocolSuite spdzProtocolSuite;
   private final SecureRandom secRand;
+  private final BatchedProtocolEvaluator<SpdzResourcePool> evaluator;
+  private SpdzMacCheckAccumulator accumulator;
   private boolean isCheckRequired = false;
   private final int batchSize;
 
@@ -34,17 +48,42 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
    *
    * @param spdzProtocolSuite the spdz protocol suite which we will use for the mac-check
    * computation
-   * @param openValueThreshold number of open values we accumulating before forcing mac-check (the
-   * mac-check will always run if there are output gates but in order to reduce memory usage we will
-   * run the mac-check even when there are no output gates yet but the threshold is exceeded)
+   * @param openValueThreshold number of opened values we accumulate before forcing mac-check (the
+   * mac-check will always run if there are output gates but in order to bound the number of values
+   * that are not yet checked we will run the mac-check even when there are no output gates yet but
+   * the threshold is exceeded)
    * @param batchSize batch size for mac-check protocol
    */
   public SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite, int openValueThreshold,
       int batchSize) {
+    this(spdzProtocolSuite, openValueThreshold, batchSize,
+        new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), spdzProtocolSuite, batchSize));
+  }
+
+  /**
+   * Creates new {@link SpdzRoundSynchronization} which evaluates the mac-check with an adaptive
+   * batch size.
+   *
+   * @param spdzProtocolSuite the spdz protocol suite which we will use for the mac-check
+   * computation
+   * @param openValueThreshold number of opened values we accumulate before forcing mac-check, see
+   * {@link #SpdzRoundSynchronization(SpdzProtocolSuite, int, int)}
+   * @param adaptiveBatchSize the batch size configuration of the mac-check evaluator
+   */
+  public SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite, int openValueThreshold,
+      AdaptiveBatchSize adaptiveBatchSize) {
+    this(spdzProtocolSuite, openValueThreshold, DEFAULT_BATCH_SIZE,
+        new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), spdzProtocolSuite,
+            adaptiveBatchSize, false));
+  }
+
+  private SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite, int openValueThreshold,
+      int batchSize, BatchedProtocolEvaluator<SpdzResourcePool> evaluator) {
     this.spdzProtocolSuite = spdzProtocolSuite;
     this.secRand = new SecureRandom();
     this.openValueThreshold = openValueThreshold;
     this.batchSize = batchSize;
+    this.evaluator = evaluator;
   }
 
   public SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite) {
@@ -52,31 +91,50 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
   }
 
   protected void doMacCheck(SpdzResourcePool resourcePool, Network network) {
+    accumulate(resourcePool);
     SpdzBuilder spdzBuilder = new SpdzBuilder(
         spdzProtocolSuite.createNumericContext(resourcePool),
         spdzProtocolSuite.createRealNumericContext());
-    BatchEvaluationStrategy<SpdzResourcePool> batchStrategy = new BatchedStrategy<>();
-    BatchedProtocolEvaluator<SpdzResourcePool> evaluator =
-        new BatchedProtocolEvaluator<>(batchStrategy, spdzProtocolSuite, batchSize);
-    OpenedValueStore<SpdzSInt, BigInteger> store = resourcePool.getOpenedValueStore();
     SpdzMacCheckProtocol macCheck = new SpdzMacCheckProtocol(secRand,
         resourcePool.getMessageDigest(),
-        store.popValues(),
+        accumulator,
         resourcePool.getModulus(),
-        resourcePool.getRandomGenerator(),
         resourcePool.getDataSupplier().getSecretSharedKey());
     ProtocolBuilderNumeric sequential = spdzBuilder.createSequential();
     macCheck.buildComputation(sequential);
     evaluator.eval(sequential.build(), resourcePool, network);
   }
 
+  /**
+   * Validates all broadcasts received since the last validation.
+   */
+  private void validateBroadcasts(SpdzResourcePool resourcePool, Network network) {
+    if (resourcePool.getBroadcastDigest().hasPendingValues()) {
+      evaluator.eval(new SingleProtocolProducer<>(new SpdzBroadcastValidationProtocol()),
+          resourcePool, network);
+    }
+  }
+
+  /**
+   * Folds the values opened since the last call into the accumulator.
+   */
+  private void accumulate(SpdzResourcePool resourcePool) {
+    if (accumulator == null) {
+      accumulator = new SpdzMacCheckAccumulator(resourcePool.getModulus());
+    }
+    OpenedValueStore<SpdzSInt, BigInteger> store = resourcePool.getOpenedValueStore();
+    if (store.hasPendingValues()) {
+      accumulator.add(store.popValues(), resourcePool.getRandomGenerator());
+    }
+  }
+
   @Override
   public void finishedBatch(int gatesEvaluated, SpdzResourcePool resourcePool, Network network) {
-    OpenedValueStore<SpdzSInt, BigInteger> store = resourcePool.getOpenedValueStore();
+    accumulate(resourcePool);
     if (isCheckRequired) {
       doMacCheck(resourcePool, network);
       isCheckRequired = false;
-    } else if (store.exceedsThreshold(openValueThreshold)) {
+    } else if (accumulator.getCount() > openValueThreshold) {
       doMacCheck(resourcePool, network);
       isCheckRequired = false;
     }
@@ -84,8 +142,9 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
 
   @Override
   public void finishedEval(SpdzResourcePool resourcePool, Network network) {
-    OpenedValueStore<SpdzSInt, BigInteger> store = resourcePool.getOpenedValueStore();
-    if (store.hasPendingValues()) {
+    validateBroadcasts(resourcePool, network);
+    accumulate(resourcePool);
+    if (!accumulator.isEmpty()) {
       doMacCheck(resourcePool, network);
     }
   }
@@ -96,12 +155,19 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
       Network network) {
     isCheckRequired = StreamSupport.stream(protocols.spliterator(), false)
         .anyMatch(p -> p instanceof SpdzOutputProtocol);
-    OpenedValueStore<SpdzSInt, BigInteger> store = resourcePool.getOpenedValueStore();
-    if (store.hasPendingValues() && isCheckRequired) {
+    if (isCheckRequired) {
+      validateBroadcasts(resourcePool, network);
+    }
+    accumulate(resourcePool);
+    if (!accumulator.isEmpty() && isCheckRequired) {
       doMacCheck(resourcePool, network);
     }
   }
 
+  /**
+   * Returns the batch size of the mac-check evaluator, or the default batch size if the evaluator
+   * adapts the batch size.
+   */
   public int getBatchSize() {
     return batchSize;
   }
@@ -7,5 +7,6 @@ public enum PreprocessingStrategy {
 
   DUMMY, // Use a dummy approach (e.g. always the same data)
   MASCOT, // Use the Mascot preprocessing
+  MASCOT_ASYNC, // Use the Mascot preprocessing, ahead of demand in a background thread
   STATIC; // Use data already present on the machine it's running on.
 }
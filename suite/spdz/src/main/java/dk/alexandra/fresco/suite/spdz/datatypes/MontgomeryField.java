@@ -0,0 +1,363 @@
+package dk.alexandra.fresco.suite.spdz.datatypes;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed width arithmetic modulo an odd modulus.
+ * <p>
+ * Elements are represented as little-endian arrays of 64 bit limbs holding a value in the range
+ * <i>[0, m)</i>, where <i>m</i> is the modulus. The number of limbs is fixed by the bit length of
+ * the modulus. Multiplication is done using Montgomery multiplication, i.e., computing <i>a * b *
+ * R<sup>-1</sup> mod m</i> where <i>R = 2<sup>64 n</sup></i> for <i>n</i> limbs, which avoids the
+ * divisions of a full modular reduction. Elements are kept in their normal (non-Montgomery) form,
+ * so in order to multiply with a value, the value must first be brought into Montgomery form using
+ * {@link #toMontgomery(long[])}. When multiplying many elements with the same value, e.g., a public
+ * constant, this conversion is only done once.
+ * </p>
+ * <p>
+ * Sums of products can be computed with a single reduction at the end using {@link
+ * #newAccumulator()}, {@link #multiplyAccumulate(long[], long[], long[])} and {@link
+ * #reduce(long[])}.
+ * </p>
+ * <p>
+ * Instances are shared between all users of the same modulus, see {@link #forModulus(BigInteger)}.
+ * Unless otherwise stated, operations return new arrays and leave their inputs unchanged.
+ * </p>
+ */
+public final class MontgomeryField implements Serializable {
+
+  private static final long serialVersionUID = -3616386424211987224L;
+  private static final long LOWER_MASK = 0xFFFFFFFFL;
+  private static final Map<BigInteger, MontgomeryField> FIELDS = new ConcurrentHashMap<>();
+
+  private final BigInteger modulus;
+  private final int limbs;
+  private final long[] modulusLimbs;
+  private final long inverse;
+  private final long[] rsquared;
+
+  private MontgomeryField(BigInteger modulus) {
+    this.modulus = modulus;
+    this.limbs = (modulus.bitLength() + Long.SIZE - 1) / Long.SIZE;
+    this.modulusLimbs = toLimbs(modulus, limbs);
+    this.inverse = -inverse(modulusLimbs[0]);
+    this.rsquared = toLimbs(BigInteger.ONE.shiftLeft(2 * Long.SIZE * limbs).mod(modulus), limbs);
+  }
+
+  /**
+   * Returns the field for a given modulus.
+   *
+   * @param modulus an odd modulus larger than one
+   * @return the field
+   */
+  public static MontgomeryField forModulus(BigInteger modulus) {
+    if (!isSupported(modulus)) {
+      throw new IllegalArgumentException("Modulus must be odd and larger than one, but was "
+          + modulus);
+    }
+    return FIELDS.computeIfAbsent(modulus, MontgomeryField::new);
+  }
+
+  /**
+   * Tests if a given modulus can be used with this class.
+   *
+   * @param modulus the modulus
+   * @return true if the modulus is odd and larger than one
+   */
+  public static boolean isSupported(BigInteger modulus) {
+    return modulus != null && modulus.testBit(0) && modulus.compareTo(BigInteger.ONE) > 0;
+  }
+
+  public BigInteger getModulus() {
+    return modulus;
+  }
+
+  /**
+   * Gets the number of 64 bit limbs used to represent an element.
+   *
+   * @return the number of limbs
+   */
+  public int getLimbs() {
+    return limbs;
+  }
+
+  /**
+   * Tests if a value can be represented without reduction, i.e., if it is in the range <i>[0,
+   * m)</i>.
+   *
+   * @param value the value
+   * @return true if the value is reduced
+   */
+  public boolean isReduced(BigInteger value) {
+    return value.signum() >= 0 && value.compareTo(modulus) < 0;
+  }
+
+  /**
+   * Converts a value to an element, reducing it modulo the modulus if needed.
+   *
+   * @param value the value
+   * @return the element
+   */
+  public long[] fromBigInteger(BigInteger value) {
+    if (!isReduced(value)) {
+      value = value.mod(modulus);
+    }
+    return toLimbs(value, limbs);
+  }
+
+  /**
+   * Converts an element to a non-negative {@link BigInteger}.
+   *
+   * @param element the element
+   * @return the value of the element
+   */
+  public BigInteger toBigInteger(long[] element) {
+    byte[] bytes = new byte[element.length * Long.BYTES];
+    for (int i = 0; i < element.length; i++) {
+      long limb = element[i];
+      int offset = bytes.length - (i + 1) * Long.BYTES;
+      for (int j = Long.BYTES - 1; j >= 0; j--) {
+        bytes[offset + j] = (byte) limb;
+        limb >>>= Byte.SIZE;
+      }
+    }
+    return new BigInteger(1, bytes);
+  }
+
+  /**
+   * Computes <i>a + b mod m</i>.
+   */
+  public long[] add(long[] a, long[] b) {
+    long[] result = new long[limbs];
+    long carry = 0;
+    for (int i = 0; i < limbs; i++) {
+      long sum = a[i] + b[i];
+      long nextCarry = Long.compareUnsigned(sum, a[i]) < 0 ? 1 : 0;
+      result[i] = sum + carry;
+      if (Long.compareUnsigned(result[i], sum) < 0) {
+        nextCarry = 1;
+      }
+      carry = nextCarry;
+    }
+    if (carry != 0 || compare(result, modulusLimbs) >= 0) {
+      subtractInPlace(result, modulusLimbs);
+    }
+    return result;
+  }
+
+  /**
+   * Computes <i>a - b mod m</i>.
+   */
+  public long[] subtract(long[] a, long[] b) {
+    long[] result = a.clone();
+    if (subtractInPlace(result, b) != 0) {
+      addInPlace(result, modulusLimbs);
+    }
+    return result;
+  }
+
+  /**
+   * Computes <i>a * b mod m</i>. When multiplying by the same value several times it is cheaper to
+   * convert it using {@link #toMontgomery(long[])} once and use {@link #montgomeryMultiply(long[],
+   * long[])}.
+   */
+  public long[] multiply(long[] a, long[] b) {
+    return montgomeryMultiply(montgomeryMultiply(a, b), rsquared);
+  }
+
+  /**
+   * Converts an element to Montgomery form, i.e., computes <i>a * R mod m</i>.
+   */
+  public long[] toMontgomery(long[] a) {
+    return montgomeryMultiply(a, rsquared);
+  }
+
+  /**
+   * Computes the Montgomery product <i>a * b * R<sup>-1</sup> mod m</i>. If <i>b</i> is in
+   * Montgomery form, the result is the normal product <i>a * b mod m</i>.
+   */
+  public long[] montgomeryMultiply(long[] a, long[] b) {
+    long[] t = new long[limbs + 2];
+    for (int i = 0; i < limbs; i++) {
+      // t = t + a * b[i]
+      long carry = 0;
+      long bi = b[i];
+      for (int j = 0; j < limbs; j++) {
+        long product = a[j] * bi;
+        long high = multiplyHigh(a[j], bi);
+        long sum = t[j] + product;
+        if (Long.compareUnsigned(sum, product) < 0) {
+          high++;
+        }
+        t[j] = sum + carry;
+        if (Long.compareUnsigned(t[j], sum) < 0) {
+          high++;
+        }
+        carry = high;
+      }
+      long sum = t[limbs] + carry;
+      t[limbs + 1] = Long.compareUnsigned(sum, carry) < 0 ? 1 : 0;
+      t[limbs] = sum;
+      // t = (t + q * m) / 2^64 where q is chosen such that the lowest limb vanishes
+      long q = t[0] * inverse;
+      long high = multiplyHigh(q, modulusLimbs[0]);
+      if (Long.compareUnsigned(t[0] + q * modulusLimbs[0], t[0]) < 0) {
+        high++;
+      }
+      carry = high;
+      for (int j = 1; j < limbs; j++) {
+        long product = q * modulusLimbs[j];
+        high = multiplyHigh(q, modulusLimbs[j]);
+        sum = t[j] + product;
+        if (Long.compareUnsigned(sum, product) < 0) {
+          high++;
+        }
+        t[j - 1] = sum + carry;
+        if (Long.compareUnsigned(t[j - 1], sum) < 0) {
+          high++;
+        }
+        carry = high;
+      }
+      sum = t[limbs] + carry;
+      t[limbs - 1] = sum;
+      t[limbs] = t[limbs + 1] + (Long.compareUnsigned(sum, carry) < 0 ? 1 : 0);
+    }
+    long[] result = new long[limbs];
+    System.arraycopy(t, 0, result, 0, limbs);
+    if (t[limbs] != 0 || compare(result, modulusLimbs) >= 0) {
+      subtractInPlace(result, modulusLimbs);
+    }
+    return result;
+  }
+
+  /**
+   * Creates a zero accumulator for unreduced sums of elements. An accumulator has one limb more
+   * than an element and can hold the sum of up to <i>2<sup>64</sup></i> elements.
+   *
+   * @return a new accumulator
+   */
+  public long[] newAccumulator() {
+    return new long[limbs + 1];
+  }
+
+  /**
+   * Adds <i>a * b * R<sup>-1</sup> mod m</i> to an accumulator, without reducing the sum. The
+   * accumulator is updated in place.
+   *
+   * @param accumulator the accumulator to update
+   * @param a an element
+   * @param b an element, typically in Montgomery form
+   */
+  public void multiplyAccumulate(long[] accumulator, long[] a, long[] b) {
+    addInPlace(accumulator, montgomeryMultiply(a, b));
+  }
+
+  /**
+   * Reduces an accumulator modulo the modulus.
+   *
+   * @param accumulator the accumulator
+   * @return the reduced sum held by the accumulator
+   */
+  public long[] reduce(long[] accumulator) {
+    if (accumulator[limbs] == 0 && compare(accumulator, modulusLimbs) < 0) {
+      long[] result = new long[limbs];
+      System.arraycopy(accumulator, 0, result, 0, limbs);
+      return result;
+    }
+    return fromBigInteger(toBigInteger(accumulator));
+  }
+
+  private Object readResolve() {
+    return forModulus(modulus);
+  }
+
+  /**
+   * Compares the lowest limbs of <i>a</i> with <i>b</i> as unsigned integers.
+   */
+  private static int compare(long[] a, long[] b) {
+    for (int i = b.length - 1; i >= 0; i--) {
+      int cmp = Long.compareUnsigned(a[i], b[i]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Adds <i>b</i> to <i>a</i> in place, propagating the carry through the remaining limbs of
+   * <i>a</i>.
+   */
+  private static void addInPlace(long[] a, long[] b) {
+    long carry = 0;
+    for (int i = 0; i < a.length; i++) {
+      long summand = i < b.length ? b[i] : 0;
+      long sum = a[i] + summand;
+      long nextCarry = Long.compareUnsigned(sum, summand) < 0 ? 1 : 0;
+      a[i] = sum + carry;
+      if (Long.compareUnsigned(a[i], sum) < 0) {
+        nextCarry = 1;
+      }
+      carry = nextCarry;
+    }
+  }
+
+  /**
+   * Subtracts <i>b</i> from the lowest limbs of <i>a</i> in place.
+   *
+   * @return the borrow out of the highest limb
+   */
+  private static long subtractInPlace(long[] a, long[] b) {
+    long borrow = 0;
+    for (int i = 0; i < b.length; i++) {
+      long diff = a[i] - b[i];
+      long nextBorrow = Long.compareUnsigned(a[i], b[i]) < 0 ? 1 : 0;
+      if (Long.compareUnsigned(diff, borrow) < 0) {
+        nextBorrow = 1;
+      }
+      a[i] = diff - borrow;
+      borrow = nextBorrow;
+    }
+    return borrow;
+  }
+
+  /**
+   * Computes the upper 64 bits of the unsigned 128 bit product of two longs.
+   */
+  static long multiplyHigh(long x, long y) {
+    long x0 = x & LOWER_MASK;
+    long x1 = x >>> 32;
+    long y0 = y & LOWER_MASK;
+    long y1 = y >>> 32;
+    long p00 = x0 * y0;
+    long p01 = x0 * y1;
+    long p10 = x1 * y0;
+    long middle = (p00 >>> 32) + (p01 & LOWER_MASK) + (p10 & LOWER_MASK);
+    return x1 * y1 + (p01 >>> 32) + (p10 >>> 32) + (middle >>> 32);
+  }
+
+  /**
+   * Computes the inverse of an odd number modulo 2<sup>64</sup> using Newton iteration.
+   */
+  private static long inverse(long odd) {
+    // odd * odd = 1 mod 8, and each iteration doubles the number of correct bits
+    long inverse = odd;
+    for (int i = 0; i < 5; i++) {
+      inverse *= 2 - odd * inverse;
+    }
+    return inverse;
+  }
+
+  private static long[] toLimbs(BigInteger value, int limbs) {
+    long[] result = new long[limbs];
+    byte[] bytes = value.toByteArray();
+    for (int i = 0; i < bytes.length && i < limbs * Long.BYTES; i++) {
+      long b = bytes[bytes.length - 1 - i] & 0xFF;
+      result[i / Long.BYTES] |= b << (Byte.SIZE * (i % Long.BYTES));
+    }
+    return result;
+  }
+}
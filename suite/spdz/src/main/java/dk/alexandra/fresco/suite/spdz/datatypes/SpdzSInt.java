@@ -1,18 +1,33 @@
 package dk.alexandra.fresco.suite.spdz.datatypes;
 
 import dk.alexandra.fresco.framework.value.SInt;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.math.BigInteger;
 
 /**
  * Spdz-specific representation of a secret integer.
+ * <p>
+ * When the modulus is odd, as is the case for the prime moduli used by SPDZ, the share and mac are
+ * held as fixed width limbs and the arithmetic is done using {@link MontgomeryField}. Otherwise the
+ * arithmetic falls back to {@link BigInteger}. For values held as limbs, the {@link BigInteger}
+ * share and mac are computed the first time they are requested and then kept.
+ * </p>
+ * <p>
+ * The serialized form is the {@link BigInteger} share, mac and modulus, so values written by
+ * earlier versions of this class can still be read. The limbs are restored when a value is read.
+ * </p>
  */
 public class SpdzSInt implements SInt, Serializable {
 
   private static final long serialVersionUID = 8828769687281856043L;
-  private final BigInteger share;
-  private final BigInteger mac;
+  private BigInteger share;
+  private BigInteger mac;
   private final BigInteger mod;
+  private final transient MontgomeryField field;
+  private final transient long[] shareLimbs;
+  private final transient long[] macLimbs;
 
   /**
    * Create a SpdzSInt containing a share, mac and modulus.
@@ -22,19 +37,82 @@ public class SpdzSInt implements SInt, Serializable {
    * @param modulus the modulus
    */
   public SpdzSInt(BigInteger share, BigInteger mac, BigInteger modulus) {
+    this.mod = modulus;
+    if (share != null && mac != null && MontgomeryField.isSupported(modulus)) {
+      MontgomeryField field = MontgomeryField.forModulus(modulus);
+      if (field.isReduced(share) && field.isReduced(mac)) {
+        this.field = field;
+        this.shareLimbs = field.fromBigInteger(share);
+        this.macLimbs = field.fromBigInteger(mac);
+        return;
+      }
+    }
     this.share = share;
     this.mac = mac;
-    this.mod = modulus;
+    this.field = null;
+    this.shareLimbs = null;
+    this.macLimbs = null;
+  }
+
+  /**
+   * Create a SpdzSInt from a share and mac given as elements of a field.
+   *
+   * @param share The share
+   * @param mac The mac
+   * @param field the field
+   */
+  public SpdzSInt(long[] share, long[] mac, MontgomeryField field) {
+    this.mod = field.getModulus();
+    this.field = field;
+    this.shareLimbs = share;
+    this.macLimbs = mac;
   }
 
   public BigInteger getShare() {
+    if (share == null && shareLimbs != null) {
+      share = field.toBigInteger(shareLimbs);
+    }
     return share;
   }
 
   public BigInteger getMac() {
+    if (mac == null && macLimbs != null) {
+      mac = field.toBigInteger(macLimbs);
+    }
     return mac;
   }
 
+  /**
+   * Gets the share as an element of the field of this value.
+   *
+   * @return the share, or null if this value is not represented using limbs
+   */
+  public long[] getShareLimbs() {
+    return shareLimbs;
+  }
+
+  /**
+   * Gets the mac as an element of the field of this value.
+   *
+   * @return the mac, or null if this value is not represented using limbs
+   */
+  public long[] getMacLimbs() {
+    return macLimbs;
+  }
+
+  /**
+   * Gets the field used for the arithmetic on this value.
+   *
+   * @return the field, or null if this value is not represented using limbs
+   */
+  public MontgomeryField getField() {
+    return field;
+  }
+
+  public BigInteger getModulus() {
+    return mod;
+  }
+
   /**
    * Adds two {@link SpdzSInt} instances.
    *
@@ -42,8 +120,12 @@ public class SpdzSInt implements SInt, Serializable {
    * @return The sum
    */
   public SpdzSInt add(SpdzSInt e) {
-    BigInteger share = this.share.add(e.getShare()).mod(mod);
-    BigInteger mac = this.mac.add(e.getMac()).mod(mod);
+    if (sameField(e)) {
+      return new SpdzSInt(field.add(shareLimbs, e.shareLimbs), field.add(macLimbs, e.macLimbs),
+          field);
+    }
+    BigInteger share = this.getShare().add(e.getShare()).mod(mod);
+    BigInteger mac = this.getMac().add(e.getMac()).mod(mod);
     return new SpdzSInt(share, mac, this.mod);
   }
 
@@ -55,8 +137,12 @@ public class SpdzSInt implements SInt, Serializable {
    * @return The sum
    */
   public SpdzSInt add(SpdzSInt e, int id) {
-    BigInteger share = this.share;
-    BigInteger mac = this.mac;
+    if (sameField(e)) {
+      long[] share = id == 1 ? field.add(shareLimbs, e.shareLimbs) : shareLimbs;
+      return new SpdzSInt(share, field.add(macLimbs, e.macLimbs), field);
+    }
+    BigInteger share = this.getShare();
+    BigInteger mac = this.getMac();
     mac = mac.add(e.getMac()).mod(mod);
     if (id == 1) {
       share = share.add(e.getShare()).mod(mod);
@@ -71,10 +157,14 @@ public class SpdzSInt implements SInt, Serializable {
    * @return The difference
    */
   public SpdzSInt subtract(SpdzSInt e) {
+    if (sameField(e)) {
+      return new SpdzSInt(field.subtract(shareLimbs, e.shareLimbs),
+          field.subtract(macLimbs, e.macLimbs), field);
+    }
     BigInteger share = e.getShare();
-    BigInteger diffShare = this.share.subtract(share).mod(mod);
+    BigInteger diffShare = this.getShare().subtract(share).mod(mod);
     BigInteger mac = e.getMac();
-    BigInteger diffMac = this.mac.subtract(mac).mod(mod);
+    BigInteger diffMac = this.getMac().subtract(mac).mod(mod);
     return new SpdzSInt(diffShare, diffMac, this.mod);
   }
 
@@ -85,20 +175,56 @@ public class SpdzSInt implements SInt, Serializable {
    * @return The product
    */
   public SpdzSInt multiply(BigInteger c) {
-    BigInteger share = this.share.multiply(c).mod(mod);
-    BigInteger mac = this.mac.multiply(c).mod(mod);
+    if (field != null) {
+      return multiplyMontgomery(field.toMontgomery(field.fromBigInteger(c)));
+    }
+    BigInteger share = this.getShare().multiply(c).mod(mod);
+    BigInteger mac = this.getMac().multiply(c).mod(mod);
     return new SpdzSInt(share, mac, this.mod);
   }
 
+  /**
+   * Multiply this {@link SpdzSInt} with a constant given in Montgomery form, see {@link
+   * MontgomeryField#toMontgomery(long[])}. This value must be represented using limbs.
+   *
+   * @param c The constant to multiply in Montgomery form
+   * @return The product
+   */
+  public SpdzSInt multiplyMontgomery(long[] c) {
+    return new SpdzSInt(field.montgomeryMultiply(shareLimbs, c),
+        field.montgomeryMultiply(macLimbs, c), field);
+  }
+
+  private boolean sameField(SpdzSInt e) {
+    return field != null && field == e.field;
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    // makes sure the BigInteger share and mac are written for values held as limbs
+    getShare();
+    getMac();
+    out.defaultWriteObject();
+  }
+
+  /**
+   * Replaces a value read from a stream with a value holding the limbs, since these are not part
+   * of the serialized form.
+   */
+  private Object readResolve() {
+    return new SpdzSInt(share, mac, mod);
+  }
+
   @Override
   public String toString() {
-    return "spdz(" + share + ", " + mac + ")";
+    return "spdz(" + getShare() + ", " + getMac() + ")";
   }
 
   @Override
   public int hashCode() {
     final int prime = 31;
     int result = 1;
+    BigInteger mac = getMac();
+    BigInteger share = getShare();
     result = prime * result + ((mac == null) ? 0 : mac.hashCode());
     result = prime * result + ((mod == null) ? 0 : mod.hashCode());
     result = prime * result + ((share == null) ? 0 : share.hashCode());
@@ -117,11 +243,13 @@ public class SpdzSInt implements SInt, Serializable {
       return false;
     }
     SpdzSInt other = (SpdzSInt) obj;
+    BigInteger mac = getMac();
+    BigInteger share = getShare();
     if (mac == null) {
-      if (other.mac != null) {
+      if (other.getMac() != null) {
         return false;
       }
-    } else if (!mac.equals(other.mac)) {
+    } else if (!mac.equals(other.getMac())) {
       return false;
     }
     if (mod == null) {
@@ -132,10 +260,10 @@ public class SpdzSInt implements SInt, Serializable {
       return false;
     }
     if (share == null) {
-      if (other.share != null) {
+      if (other.getShare() != null) {
         return false;
       }
-    } else if (!share.equals(other.share)) {
+    } else if (!share.equals(other.getShare())) {
       return false;
     }
     return true;
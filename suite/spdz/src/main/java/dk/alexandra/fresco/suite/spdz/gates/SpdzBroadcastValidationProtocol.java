@@ -0,0 +1,36 @@
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.suite.spdz.SpdzBroadcastDigest;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
+
+/**
+ * Validates all broadcasts added to the {@link SpdzBroadcastDigest} of the resource pool since the
+ * last validation, by sending the digest to all parties and checking that all digests are equal.
+ */
+public class SpdzBroadcastValidationProtocol extends SpdzNativeProtocol<Void> {
+
+  private byte[] digest;
+
+  @Override
+  public EvaluationStatus evaluate(int round, SpdzResourcePool spdzResourcePool,
+      Network network) {
+    if (round == 0) {
+      digest = spdzResourcePool.getBroadcastDigest().digestAndReset();
+      network.sendToAll(digest);
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      if (!receiveBroadcastValidation(network, digest)) {
+        throw new MaliciousException("Broadcast digests did not match");
+      }
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  @Override
+  public Void out() {
+    return null;
+  }
+
+}
@@ -1,6 +1,5 @@
 package dk.alexandra.fresco.suite.spdz.gates;
 
-import dk.alexandra.fresco.framework.MaliciousException;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.framework.value.SInt;
@@ -17,7 +16,6 @@ public class SpdzInputProtocol extends SpdzNativeProtocol<SInt> {
   private BigInteger valueMasked;
   protected SpdzSInt out;
   private int inputter;
-  private byte[] digest;
 
   public SpdzInputProtocol(BigInteger input, int inputter) {
     this.input = input;
@@ -39,23 +37,13 @@ public class SpdzInputProtocol extends SpdzNativeProtocol<SInt> {
         network.sendToAll(serializer.serialize(bcValue));
       }
       return EvaluationStatus.HAS_MORE_ROUNDS;
-    } else if (round == 1) {
-      this.valueMasked = serializer.deserialize(network.receive(inputter));
-      this.digest = sendBroadcastValidation(
-          spdzResourcePool.getMessageDigest(), network,
-          valueMasked);
-      return EvaluationStatus.HAS_MORE_ROUNDS;
     } else {
-      boolean validated = receiveBroadcastValidation(network, digest);
-      if (!validated) {
-        throw new MaliciousException("Broadcast digests did not match");
-      }
+      this.valueMasked = serializer.deserialize(network.receive(inputter));
+      // the broadcast is validated together with all other broadcasts before the next output
+      spdzResourcePool.getBroadcastDigest().update(valueMasked);
       SpdzSInt valueMaskedElement =
-          new SpdzSInt(
-              valueMasked,
-              dataSupplier.getSecretSharedKey().multiply(valueMasked).mod(modulus),
-              modulus);
-      this.out = this.inputMask.getMask().add(valueMaskedElement, myId);
+          SpdzKnownSIntProtocol.createKnownSpdzElement(spdzResourcePool, valueMasked);
+      this.out = this.inputMask.getMask().add(valueMaskedElement);
       return EvaluationStatus.IS_DONE;
     }
 
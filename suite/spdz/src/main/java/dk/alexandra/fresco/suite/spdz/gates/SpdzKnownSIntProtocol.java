@@ -3,6 +3,7 @@ package dk.alexandra.fresco.suite.spdz.gates;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
+import dk.alexandra.fresco.suite.spdz.datatypes.MontgomeryField;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import java.math.BigInteger;
 
@@ -38,9 +39,19 @@ public class SpdzKnownSIntProtocol extends SpdzNativeProtocol<SInt> {
       SpdzResourcePool spdzResourcePool,
       BigInteger input) {
     BigInteger modulus = spdzResourcePool.getModulus();
+    BigInteger globalKeyShare = spdzResourcePool.getDataSupplier().getSecretSharedKey();
+    if (MontgomeryField.isSupported(modulus)) {
+      MontgomeryField field = MontgomeryField.forModulus(modulus);
+      long[] value = field.fromBigInteger(input);
+      long[] mac = field.multiply(value, field.fromBigInteger(globalKeyShare));
+      if (spdzResourcePool.getMyId() == 1) {
+        return new SpdzSInt(value, mac, field);
+      } else {
+        return new SpdzSInt(new long[field.getLimbs()], mac, field);
+      }
+    }
     BigInteger value = input.mod(modulus);
     SpdzSInt elm;
-    BigInteger globalKeyShare = spdzResourcePool.getDataSupplier().getSecretSharedKey();
     if (spdzResourcePool.getMyId() == 1) {
       elm = new SpdzSInt(value,
           value.multiply(globalKeyShare).mod(modulus), modulus);
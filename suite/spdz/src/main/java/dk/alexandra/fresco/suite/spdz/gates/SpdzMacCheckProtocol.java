@@ -6,6 +6,7 @@ import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.suite.spdz.SpdzMacCheckAccumulator;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzCommitment;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import java.math.BigInteger;
@@ -16,6 +17,11 @@ import java.util.List;
 /**
  * Protocol which handles the MAC check internal to SPDZ. If this protocol reaches the end, no
  * malicious activity was detected and the storage is reset.
+ * <p>
+ * The opened values are checked through the random linear combinations held by a {@link
+ * SpdzMacCheckAccumulator}, so only a single element is committed to and opened regardless of the
+ * number of values checked.
+ * </p>
  */
 public class SpdzMacCheckProtocol implements Computation<Void, ProtocolBuilderNumeric> {
 
@@ -23,8 +29,8 @@ public class SpdzMacCheckProtocol implements Computation<Void, ProtocolBuilderNu
   private final MessageDigest digest;
   private final BigInteger modulus;
   private final Drbg jointDrbg;
-  private final List<SpdzSInt> closedValues;
-  private final List<BigInteger> openedValues;
+  private final Pair<List<SpdzSInt>, List<BigInteger>> toCheck;
+  private final SpdzMacCheckAccumulator accumulator;
   private final BigInteger alpha;
 
   /**
@@ -44,34 +50,50 @@ public class SpdzMacCheckProtocol implements Computation<Void, ProtocolBuilderNu
       final BigInteger alpha) {
     this.rand = rand;
     this.digest = digest;
-    this.closedValues = toCheck.getFirst();
-    this.openedValues = toCheck.getSecond();
+    this.toCheck = toCheck;
+    this.accumulator = new SpdzMacCheckAccumulator(modulus);
     this.modulus = modulus;
     this.jointDrbg = jointDrbg;
     this.alpha = alpha;
   }
 
+  /**
+   * Protocol checking the values already folded into an accumulator. The accumulator is emptied
+   * when the check value has been computed.
+   *
+   * @param rand A secure randomness source
+   * @param digest A secure hash used for the commitment scheme
+   * @param accumulator The opened values to check
+   * @param modulus The global modulus used.
+   * @param alpha This party's share of the mac key
+   */
+  public SpdzMacCheckProtocol(
+      final SecureRandom rand,
+      final MessageDigest digest,
+      final SpdzMacCheckAccumulator accumulator,
+      final BigInteger modulus,
+      final BigInteger alpha) {
+    this.rand = rand;
+    this.digest = digest;
+    this.toCheck = null;
+    this.accumulator = accumulator;
+    this.modulus = modulus;
+    this.jointDrbg = null;
+    this.alpha = alpha;
+  }
+
   @Override
   public DRes<Void> buildComputation(ProtocolBuilderNumeric builder) {
+    long[] checked = new long[1];
     return builder
         .seq(seq -> {
-          BigInteger[] rs = sampleRandomCoefficients(openedValues.size(), jointDrbg, modulus);
-          BigInteger a = BigInteger.ZERO;
-          int index = 0;
-          for (BigInteger openedValue : openedValues) {
-            a = a.add(openedValue.multiply(rs[index++])).mod(modulus);
+          if (toCheck != null) {
+            accumulator.add(toCheck, jointDrbg);
           }
-
-          // compute gamma_i as the sum of all MAC's on the opened values times
-          // r_j.
-          BigInteger gamma = BigInteger.ZERO;
-          index = 0;
-          for (SpdzSInt closedValue : closedValues) {
-            gamma = gamma.add(rs[index++].multiply(closedValue.getMac())).mod(modulus);
-          }
-
-          // compute delta_i as: gamma_i - alpha_i*a
-          BigInteger delta = gamma.subtract(alpha.multiply(a)).mod(modulus);
+          checked[0] = accumulator.getCount();
+          // compute delta_i as: gamma_i - alpha_i*a where a is the sum of the opened values times
+          // r_j and gamma_i is the sum of all MAC's on the opened values times r_j
+          BigInteger delta = accumulator.computeDelta(alpha);
           // Commit to delta and open it afterwards
           SpdzCommitment deltaCommitment = new SpdzCommitment(digest, delta, rand);
           return seq.seq((subSeq) -> subSeq.append(new SpdzCommitProtocol(deltaCommitment)))
@@ -87,26 +109,11 @@ public class SpdzMacCheckProtocol implements Computation<Void, ProtocolBuilderNu
           if (!deltaSum.equals(BigInteger.ZERO)) {
             throw new MaliciousException(
                 "The sum of delta's was not 0. Someone was corrupting something amongst "
-                    + openedValues.size()
+                    + checked[0]
                     + " macs. Sum was " + deltaSum.toString() + " Aborting!");
           }
-          // clean up store before returning to evaluating such that we only
-          // evaluate the next macs, not those we already checked.
-          openedValues.clear();
-          closedValues.clear();
           return null;
         });
   }
 
-  private BigInteger[] sampleRandomCoefficients(int numCoefficients, Drbg jointDrbg,
-      BigInteger modulus) {
-    BigInteger[] coefficients = new BigInteger[numCoefficients];
-    for (int i = 0; i < numCoefficients; i++) {
-      byte[] bytes = new byte[modulus.bitLength() / Byte.SIZE];
-      jointDrbg.nextBytes(bytes);
-      coefficients[i] = new BigInteger(bytes).mod(modulus);
-    }
-    return coefficients;
-  }
-
 }
@@ -57,15 +57,12 @@ public class SpdzMultProtocol extends SpdzNativeProtocol<SInt> {
       e = e.mod(modulus);
       d = d.mod(modulus);
 
-      BigInteger product = e.multiply(d).mod(modulus);
-      SpdzSInt ed = new SpdzSInt(
-          product,
-          dataSupplier.getSecretSharedKey().multiply(product).mod(modulus),
-          modulus);
+      SpdzSInt ed = SpdzKnownSIntProtocol.createKnownSpdzElement(spdzResourcePool,
+          e.multiply(d));
       SpdzSInt res = triple.getC();
       out = res.add(triple.getB().multiply(e))
           .add(triple.getA().multiply(d))
-          .add(ed, spdzResourcePool.getMyId());
+          .add(ed);
       // Set the opened and closed value.
       spdzResourcePool.getOpenedValueStore().pushOpenedValue(epsilon, e);
       spdzResourcePool.getOpenedValueStore().pushOpenedValue(delta, d);
@@ -0,0 +1,137 @@
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
+import dk.alexandra.fresco.suite.spdz.datatypes.MontgomeryField;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes the element-wise products of two lists of secret values using a single native protocol.
+ * <p>
+ * This is equivalent to a {@link SpdzMultProtocol} per pair of values, but the triples are fetched
+ * at once and the shares of all epsilons and deltas are sent to each party as a single message.
+ * </p>
+ */
+public class SpdzMultVectorProtocol extends SpdzNativeProtocol<List<DRes<SInt>>> {
+
+  private final List<DRes<SInt>> left;
+  private final List<DRes<SInt>> right;
+  private List<SpdzTriple> triples;
+  private List<SpdzSInt> epsilons;  // my shares of the differences [x]-[a]
+  private List<SpdzSInt> deltas;  // and [y]-[b].
+  private List<DRes<SInt>> out;
+
+  /**
+   * Creates a protocol multiplying the entries of two lists pairwise.
+   *
+   * @param left the left factors
+   * @param right the right factors, of the same length as the left factors
+   */
+  public SpdzMultVectorProtocol(List<DRes<SInt>> left, List<DRes<SInt>> right) {
+    if (left.size() != right.size()) {
+      throw new IllegalArgumentException("Vectors must have same size");
+    }
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  public EvaluationStatus evaluate(int round, SpdzResourcePool spdzResourcePool,
+      Network network) {
+    int size = left.size();
+    ByteSerializer<BigInteger> serializer = spdzResourcePool.getSerializer();
+    if (round == 0) {
+      if (size == 0) {
+        out = new ArrayList<>();
+        return EvaluationStatus.IS_DONE;
+      }
+      triples = spdzResourcePool.getDataSupplier().getNextTriples(size);
+      epsilons = new ArrayList<>(size);
+      deltas = new ArrayList<>(size);
+      List<BigInteger> shares = new ArrayList<>(2 * size);
+      for (int i = 0; i < size; i++) {
+        SpdzTriple triple = triples.get(i);
+        epsilons.add(((SpdzSInt) left.get(i).out()).subtract(triple.getA()));
+        deltas.add(((SpdzSInt) right.get(i).out()).subtract(triple.getB()));
+      }
+      for (SpdzSInt epsilon : epsilons) {
+        shares.add(epsilon.getShare());
+      }
+      for (SpdzSInt delta : deltas) {
+        shares.add(delta.getShare());
+      }
+      network.sendToAll(serializer.serialize(shares));
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      MontgomeryField field = MontgomeryField.forModulus(spdzResourcePool.getModulus());
+      // open epsilons followed by deltas
+      long[][] opened = new long[2 * size][];
+      for (ByteBuffer message : network.receiveBuffersFromAll()) {
+        List<BigInteger> shares = serializer.deserializeList(message);
+        if (shares.size() != opened.length) {
+          throw new MaliciousException(
+              "Expected " + opened.length + " shares but received " + shares.size());
+        }
+        for (int i = 0; i < opened.length; i++) {
+          long[] share = field.fromBigInteger(shares.get(i));
+          opened[i] = opened[i] == null ? share : field.add(opened[i], share);
+        }
+      }
+      long[] key = field.toMontgomery(
+          field.fromBigInteger(spdzResourcePool.getDataSupplier().getSecretSharedKey()));
+      boolean isFirstParty = spdzResourcePool.getMyId() == 1;
+      long[] zero = new long[field.getLimbs()];
+      out = new ArrayList<>(size);
+      List<SpdzSInt> closed = new ArrayList<>(2 * size);
+      List<BigInteger> openedValues = new ArrayList<>(2 * size);
+      for (int i = 0; i < size; i++) {
+        SpdzTriple triple = triples.get(i);
+        long[] e = opened[i];
+        long[] d = opened[size + i];
+        long[] eMontgomery = field.toMontgomery(e);
+        long[] ed = field.montgomeryMultiply(d, eMontgomery);
+        SpdzSInt known = new SpdzSInt(isFirstParty ? ed : zero,
+            field.montgomeryMultiply(ed, key), field);
+        SpdzSInt product = toField(field, triple.getC())
+            .add(toField(field, triple.getB()).multiplyMontgomery(eMontgomery))
+            .add(toField(field, triple.getA()).multiplyMontgomery(field.toMontgomery(d)))
+            .add(known);
+        out.add(product);
+        closed.add(epsilons.get(i));
+        openedValues.add(field.toBigInteger(e));
+      }
+      for (int i = 0; i < size; i++) {
+        closed.add(deltas.get(i));
+        openedValues.add(field.toBigInteger(opened[size + i]));
+      }
+      spdzResourcePool.getOpenedValueStore().pushOpenedValues(closed, openedValues);
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  /**
+   * Returns the value represented using limbs of the given field.
+   */
+  private static SpdzSInt toField(MontgomeryField field, SpdzSInt value) {
+    if (value.getField() == field) {
+      return value;
+    }
+    return new SpdzSInt(field.fromBigInteger(value.getShare()),
+        field.fromBigInteger(value.getMac()), field);
+  }
+
+  @Override
+  public List<DRes<SInt>> out() {
+    return out;
+  }
+
+}
@@ -0,0 +1,89 @@
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opens a list of secret values to all parties using a single native protocol.
+ * <p>
+ * This is equivalent to a {@link SpdzOutputToAllProtocol} per value, but the shares of all values
+ * are sent to each party as a single message and the opened values are added to the opened value
+ * store at once.
+ * </p>
+ */
+public class SpdzOutputToAllListProtocol extends SpdzNativeProtocol<List<DRes<BigInteger>>>
+    implements SpdzOutputProtocol {
+
+  private final DRes<? extends List<? extends DRes<SInt>>> in;
+  private List<SpdzSInt> closed;
+  private List<DRes<BigInteger>> out;
+
+  /**
+   * Creates a protocol opening all values of a list.
+   *
+   * @param in the values to open
+   */
+  public SpdzOutputToAllListProtocol(DRes<? extends List<? extends DRes<SInt>>> in) {
+    this.in = in;
+  }
+
+  @Override
+  public EvaluationStatus evaluate(int round, SpdzResourcePool spdzResourcePool,
+      Network network) {
+    ByteSerializer<BigInteger> serializer = spdzResourcePool.getSerializer();
+    if (round == 0) {
+      List<? extends DRes<SInt>> values = in.out();
+      closed = new ArrayList<>(values.size());
+      List<BigInteger> shares = new ArrayList<>(values.size());
+      for (DRes<SInt> value : values) {
+        SpdzSInt share = (SpdzSInt) value.out();
+        closed.add(share);
+        shares.add(share.getShare());
+      }
+      if (closed.isEmpty()) {
+        out = new ArrayList<>();
+        return EvaluationStatus.IS_DONE;
+      }
+      network.sendToAll(serializer.serialize(shares));
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      BigInteger modulus = spdzResourcePool.getModulus();
+      BigInteger[] sums = new BigInteger[closed.size()];
+      for (ByteBuffer message : network.receiveBuffersFromAll()) {
+        List<BigInteger> shares = serializer.deserializeList(message);
+        if (shares.size() != sums.length) {
+          throw new MaliciousException(
+              "Expected " + sums.length + " shares but received " + shares.size());
+        }
+        for (int i = 0; i < sums.length; i++) {
+          sums[i] = sums[i] == null ? shares.get(i) : sums[i].add(shares.get(i));
+        }
+      }
+      List<BigInteger> openedValues = new ArrayList<>(sums.length);
+      out = new ArrayList<>(sums.length);
+      for (BigInteger sum : sums) {
+        BigInteger openedValue = sum.mod(modulus);
+        openedValues.add(openedValue);
+        BigInteger converted = spdzResourcePool.convertRepresentation(openedValue);
+        out.add(() -> converted);
+      }
+      spdzResourcePool.getOpenedValueStore().pushOpenedValues(closed, openedValues);
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  @Override
+  public List<DRes<BigInteger>> out() {
+    return out;
+  }
+
+}
@@ -3,6 +3,7 @@ package dk.alexandra.fresco.suite.spdz.preprocessing;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.tools.mascot.field.MultiplicationTriple;
 import java.math.BigInteger;
+import java.util.List;
 
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
@@ -55,4 +56,19 @@ public class MascotFormatConverter {
     }
   }
 
+  /**
+   * Converts an exponentiation pipe of {@link AuthenticatedElement}s to an array of {@link
+   * SpdzSInt}.
+   *
+   * @param pipe pipe to convert
+   * @return converted pipe
+   */
+  public static SpdzSInt[] toSpdzExpPipe(List<AuthenticatedElement> pipe) {
+    SpdzSInt[] converted = new SpdzSInt[pipe.size()];
+    for (int i = 0; i < converted.length; i++) {
+      converted[i] = toSpdzSInt(pipe.get(i));
+    }
+    return converted;
+  }
+
 }
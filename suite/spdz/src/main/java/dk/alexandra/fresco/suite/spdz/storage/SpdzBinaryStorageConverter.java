@@ -0,0 +1,92 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.exceptions.NoMoreElementsException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts the pre-processed material used by a {@link SpdzStorageDataSupplier} from one streamed
+ * storage to another, e.g., from files written using {@link FilebasedStreamedStorageImpl} to the
+ * format of {@link SpdzBinaryStreamedStorage}.
+ */
+public class SpdzBinaryStorageConverter {
+
+  private static final Logger logger = LoggerFactory.getLogger(SpdzBinaryStorageConverter.class);
+
+  private SpdzBinaryStorageConverter() {
+  }
+
+  /**
+   * Copies all streams used by a {@link SpdzStorageDataSupplier} with the given storage name from
+   * the source to the target storage. Streams which are not present in the source are skipped.
+   *
+   * @param source the storage to read from
+   * @param target the storage to write to
+   * @param storageName the name of the storage as given to the {@link SpdzStorageDataSupplier}
+   * @param noOfParties the number of parties
+   * @return the number of elements copied
+   */
+  public static long convert(StreamedStorage source, StreamedStorage target, String storageName,
+      int noOfParties) {
+    List<String> names = new ArrayList<>();
+    names.add(SpdzStorageDataSupplier.MODULUS_KEY);
+    names.add(SpdzStorageDataSupplier.SSK_KEY);
+    names.add(SpdzStorageDataSupplier.TRIPLE_STORAGE);
+    names.add(SpdzStorageDataSupplier.BIT_STORAGE);
+    names.add(SpdzStorageDataSupplier.EXP_PIPE_STORAGE);
+    names.add(SpdzStorageDataSupplier.RANDOM_ELEMENT_STORAGE);
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      names.add(SpdzStorageDataSupplier.INPUT_STORAGE + partyId);
+    }
+    long copied = 0;
+    for (String name : names) {
+      copied += copy(source, target, storageName + name);
+    }
+    return copied;
+  }
+
+  private static long copy(StreamedStorage source, StreamedStorage target, String name) {
+    long copied = 0;
+    while (true) {
+      Serializable next;
+      try {
+        next = source.getNext(name);
+      } catch (NoMoreElementsException e) {
+        break;
+      }
+      target.putNext(name, next);
+      copied++;
+    }
+    logger.info("Converted {} elements of {}", copied, name);
+    return copied;
+  }
+
+  /**
+   * Converts files written using {@link FilebasedStreamedStorageImpl} to files in the format of
+   * {@link SpdzBinaryStreamedStorage}. The converted files are written next to the original files.
+   *
+   * @param args the storage name, e.g., <code>spdz/SPDZ_1_1_0_</code>, followed by the number of
+   *     parties
+   */
+  public static void main(String[] args) {
+    if (args.length != 2) {
+      throw new IllegalArgumentException(
+          "Usage: SpdzBinaryStorageConverter <storage name> <number of parties>");
+    }
+    StreamedStorage source = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+    StreamedStorage target = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    try {
+      long copied = convert(source, target, args[0], Integer.parseInt(args[1]));
+      logger.info("Converted {} elements in total", copied);
+    } finally {
+      source.shutdown();
+      target.shutdown();
+    }
+  }
+}
@@ -0,0 +1,484 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.exceptions.NoMoreElementsException;
+import dk.alexandra.fresco.suite.spdz.datatypes.MontgomeryField;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streamed storage of SPDZ pre-processed material in a compact binary format.
+ * <p>
+ * Each stream is stored in a file named by the stream name followed by {@link #FILE_EXTENSION}.
+ * The file starts with a header identifying the type of the elements of the stream and the
+ * modulus, followed by the elements written as fixed length records of field elements. Each field
+ * element is written as the little-endian 64 bit limbs used by {@link MontgomeryField}, so reading
+ * an element does not involve any {@link BigInteger} arithmetic. Files are read through memory
+ * mapped windows, and many elements can be read at once using {@link #getNext(String, int)}.
+ * </p>
+ * <p>
+ * The supported elements are {@link SpdzTriple}, {@link SpdzSInt}, {@link SpdzInputMask}, arrays
+ * of {@link SpdzSInt} (i.e., exponentiation pipes) of the same length and {@link BigInteger} (e.g.,
+ * the modulus and the mac key share). The elements of a stream must have the same type and
+ * modulus, and the modulus must be odd. Existing files written using {@link
+ * dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl} can be
+ * converted using {@link SpdzBinaryStorageConverter}.
+ * </p>
+ */
+public class SpdzBinaryStreamedStorage implements StreamedStorage {
+
+  public static final String FILE_EXTENSION = ".bin";
+  private static final int MAGIC = 0x53504442;
+  private static final byte VERSION = 1;
+  private static final int WRITE_BUFFER_BYTES = 1 << 16;
+  private static final long WINDOW_BYTES = 1 << 28;
+
+  private final Storage storage;
+  private final Map<String, Reader> readers;
+  private final Map<String, Writer> writers;
+
+  /**
+   * Creates a binary streamed storage. For non-streamable objects, the given internal storage is
+   * used.
+   *
+   * @param internalStorage The storage used for non-streamable objects
+   */
+  public SpdzBinaryStreamedStorage(Storage internalStorage) {
+    this.storage = internalStorage;
+    this.readers = new HashMap<>();
+    this.writers = new HashMap<>();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T extends Serializable> T getNext(String name) throws NoMoreElementsException {
+    Reader reader = getReader(name);
+    reader.checkRemaining(name, 1);
+    return (T) reader.next();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T extends Serializable> List<T> getNext(String name, int count)
+      throws NoMoreElementsException {
+    Reader reader = getReader(name);
+    reader.checkRemaining(name, count);
+    List<T> elements = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      elements.add((T) reader.next());
+    }
+    return elements;
+  }
+
+  private Reader getReader(String name) throws NoMoreElementsException {
+    Reader reader = readers.get(name);
+    if (reader == null) {
+      try {
+        reader = new Reader(FileChannel.open(Paths.get(name + FILE_EXTENSION),
+            StandardOpenOption.READ));
+      } catch (IOException e) {
+        throw new NoMoreElementsException(
+            "IOException accessing store name: " + name + ". Likely the file does not exist", e);
+      }
+      readers.put(name, reader);
+    }
+    return reader;
+  }
+
+  @Override
+  public boolean putNext(String name, Serializable o) {
+    Writer writer = writers.get(name);
+    try {
+      if (writer == null) {
+        writer = new Writer(FileChannel.open(Paths.get(name + FILE_EXTENSION),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING), o);
+        writers.put(name, writer);
+      }
+      writer.write(o);
+    } catch (IOException e) {
+      throw new RuntimeException("IOException writing to store name " + name, e);
+    }
+    return true;
+  }
+
+  @Override
+  public void shutdown() {
+    for (Writer writer : writers.values()) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        // Do nothing - nothing can be done
+      }
+    }
+    for (Reader reader : readers.values()) {
+      try {
+        reader.channel.close();
+      } catch (IOException e) {
+        // Do nothing - nothing can be done
+      }
+    }
+    writers.clear();
+    readers.clear();
+  }
+
+  @Override
+  public boolean putObject(String name, String key, Serializable o) {
+    return this.storage.putObject(name, key, o);
+  }
+
+  @Override
+  public <T extends Serializable> T getObject(String name, String key) {
+    return this.storage.getObject(name, key);
+  }
+
+  /**
+   * The types of elements that can be stored.
+   */
+  private enum Kind {
+    TRIPLE, SINT, INPUT_MASK, EXP_PIPE, VALUE
+  }
+
+  /**
+   * Writes a stream of elements to a file, starting with a header describing the elements.
+   */
+  private static class Writer {
+
+    private final FileChannel channel;
+    private final Kind kind;
+    private final MontgomeryField field;
+    private final int recordElements;
+    private ByteBuffer buffer;
+
+    private Writer(FileChannel channel, Serializable first) throws IOException {
+      this.channel = channel;
+      this.buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      BigInteger modulus;
+      if (first instanceof SpdzTriple) {
+        kind = Kind.TRIPLE;
+        recordElements = 6;
+        modulus = ((SpdzTriple) first).getA().getModulus();
+      } else if (first instanceof SpdzSInt) {
+        kind = Kind.SINT;
+        recordElements = 2;
+        modulus = ((SpdzSInt) first).getModulus();
+      } else if (first instanceof SpdzInputMask) {
+        kind = Kind.INPUT_MASK;
+        SpdzInputMask mask = (SpdzInputMask) first;
+        recordElements = mask.getRealValue() == null ? 2 : 3;
+        modulus = mask.getMask().getModulus();
+      } else if (first instanceof SpdzSInt[]) {
+        kind = Kind.EXP_PIPE;
+        SpdzSInt[] pipe = (SpdzSInt[]) first;
+        if (pipe.length == 0) {
+          throw new IllegalArgumentException("Cannot write empty exponentiation pipes");
+        }
+        recordElements = 2 * pipe.length;
+        modulus = pipe[0].getModulus();
+      } else if (first instanceof BigInteger) {
+        kind = Kind.VALUE;
+        recordElements = 1;
+        modulus = null;
+      } else {
+        throw new IllegalArgumentException("Unsupported element type " + first.getClass());
+      }
+      byte[] modulusBytes;
+      if (kind == Kind.VALUE) {
+        field = null;
+        modulusBytes = new byte[0];
+      } else {
+        field = MontgomeryField.forModulus(modulus);
+        modulusBytes = modulus.toByteArray();
+      }
+      ensureCapacity(Integer.BYTES * 3 + 2 + modulusBytes.length);
+      buffer.putInt(MAGIC).put(VERSION).put((byte) kind.ordinal()).putInt(recordElements)
+          .putInt(modulusBytes.length).put(modulusBytes);
+    }
+
+    private void write(Serializable o) throws IOException {
+      switch (kind) {
+        case TRIPLE:
+          SpdzTriple triple = cast(o, SpdzTriple.class);
+          putSInt(triple.getA());
+          putSInt(triple.getB());
+          putSInt(triple.getC());
+          break;
+        case SINT:
+          putSInt(cast(o, SpdzSInt.class));
+          break;
+        case INPUT_MASK:
+          SpdzInputMask mask = cast(o, SpdzInputMask.class);
+          if ((mask.getRealValue() == null) != (recordElements == 2)) {
+            throw new IllegalArgumentException(
+                "Input masks of a stream must all either have or not have a real value");
+          }
+          putSInt(mask.getMask());
+          if (mask.getRealValue() != null) {
+            putElement(field.fromBigInteger(mask.getRealValue()));
+          }
+          break;
+        case EXP_PIPE:
+          SpdzSInt[] pipe = cast(o, SpdzSInt[].class);
+          if (2 * pipe.length != recordElements) {
+            throw new IllegalArgumentException(
+                "Exponentiation pipes of a stream must have the same length");
+          }
+          for (SpdzSInt value : pipe) {
+            putSInt(value);
+          }
+          break;
+        default:
+          byte[] bytes = cast(o, BigInteger.class).toByteArray();
+          ensureCapacity(Integer.BYTES + bytes.length);
+          buffer.putInt(bytes.length).put(bytes);
+      }
+    }
+
+    private <T> T cast(Serializable o, Class<T> type) {
+      if (!type.isInstance(o)) {
+        throw new IllegalArgumentException(
+            "Cannot write " + o.getClass() + " to a stream of " + type);
+      }
+      return type.cast(o);
+    }
+
+    private void putSInt(SpdzSInt value) throws IOException {
+      if (value.getField() == field) {
+        putElement(value.getShareLimbs());
+        putElement(value.getMacLimbs());
+      } else {
+        if (!field.getModulus().equals(value.getModulus())) {
+          throw new IllegalArgumentException("Elements of a stream must have the same modulus");
+        }
+        putElement(field.fromBigInteger(value.getShare()));
+        putElement(field.fromBigInteger(value.getMac()));
+      }
+    }
+
+    private void putElement(long[] limbs) throws IOException {
+      ensureCapacity(limbs.length * Long.BYTES);
+      for (long limb : limbs) {
+        buffer.putLong(limb);
+      }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+        if (buffer.capacity() < bytes) {
+          buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+      }
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    private void close() throws IOException {
+      flush();
+      channel.close();
+    }
+  }
+
+  /**
+   * Reads a stream of elements from a file through memory mapped windows.
+   */
+  private static class Reader {
+
+    private final FileChannel channel;
+    private final long size;
+    private final Kind kind;
+    private final MontgomeryField field;
+    private final int recordElements;
+    private final int recordBytes;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    private Reader(FileChannel channel) throws IOException {
+      this.channel = channel;
+      this.size = channel.size();
+      ByteBuffer header = map(0, Math.min(size, WINDOW_BYTES));
+      if (header.remaining() < Integer.BYTES * 3 + 2 || header.getInt() != MAGIC) {
+        throw new IllegalStateException("Not a binary SPDZ storage file");
+      }
+      byte version = header.get();
+      if (version != VERSION) {
+        throw new IllegalStateException("Unsupported storage file version " + version);
+      }
+      byte kindOrdinal = header.get();
+      if (kindOrdinal < 0 || kindOrdinal >= Kind.values().length) {
+        throw new IllegalStateException("Unsupported element type " + kindOrdinal);
+      }
+      this.kind = Kind.values()[kindOrdinal];
+      this.recordElements = header.getInt();
+      if (!isValidRecord(kind, recordElements)) {
+        throw new IllegalStateException(
+            "Invalid number of field elements " + recordElements + " for " + kind);
+      }
+      int modulusLength = header.getInt();
+      if (modulusLength < 0 || modulusLength > header.remaining()) {
+        throw new IllegalStateException("Invalid modulus length " + modulusLength);
+      }
+      byte[] modulusBytes = new byte[modulusLength];
+      header.get(modulusBytes);
+      if (kind == Kind.VALUE) {
+        if (modulusLength != 0) {
+          throw new IllegalStateException("Streams of values do not have a modulus");
+        }
+        this.field = null;
+        this.recordBytes = 0;
+      } else {
+        BigInteger modulus = modulusLength == 0 ? BigInteger.ZERO : new BigInteger(modulusBytes);
+        if (!MontgomeryField.isSupported(modulus)) {
+          throw new IllegalStateException("Unsupported modulus " + modulus);
+        }
+        this.field = MontgomeryField.forModulus(modulus);
+        this.recordBytes = recordElements * field.getLimbs() * Long.BYTES;
+      }
+      this.position = header.position();
+    }
+
+    /**
+     * Tests if a record of the given kind can consist of the given number of field elements.
+     */
+    private static boolean isValidRecord(Kind kind, int recordElements) {
+      switch (kind) {
+        case TRIPLE:
+          return recordElements == 6;
+        case SINT:
+          return recordElements == 2;
+        case INPUT_MASK:
+          return recordElements == 2 || recordElements == 3;
+        case EXP_PIPE:
+          return recordElements > 0 && recordElements % 2 == 0;
+        default:
+          return recordElements == 1;
+      }
+    }
+
+    private MappedByteBuffer map(long start, long length) throws IOException {
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, start, length);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      return buffer;
+    }
+
+    private void checkRemaining(String name, int count) throws NoMoreElementsException {
+      boolean available = kind == Kind.VALUE
+          ? valuesRemaining(count)
+          : (size - position) / recordBytes >= count;
+      if (!available) {
+        throw new NoMoreElementsException(
+            "Not enough elements available in store name: " + name);
+      }
+    }
+
+    /**
+     * Tests if the given number of complete values remain. Values have different lengths, so this
+     * walks through their length prefixes without consuming them.
+     */
+    private boolean valuesRemaining(int count) {
+      long start = position;
+      try {
+        for (int i = 0; i < count; i++) {
+          if (size - position < Integer.BYTES) {
+            return false;
+          }
+          int length = window(Integer.BYTES).getInt();
+          if (length < 1) {
+            throw new IllegalStateException("Invalid value length " + length);
+          }
+          if (size - position < length) {
+            return false;
+          }
+          position += length;
+        }
+        return true;
+      } finally {
+        position = start;
+      }
+    }
+
+    /**
+     * Moves the window such that the next given number of bytes can be read from it.
+     */
+    private ByteBuffer window(int bytes) {
+      if (window == null || position + bytes > windowStart + window.limit()) {
+        long length = Math.min(size - position,
+            Math.max(bytes, recordBytes == 0 ? WINDOW_BYTES : WINDOW_BYTES / recordBytes
+                * recordBytes));
+        try {
+          window = map(position, length);
+        } catch (IOException e) {
+          throw new RuntimeException("IOException mapping storage file", e);
+        }
+        windowStart = position;
+      }
+      window.position((int) (position - windowStart));
+      position += bytes;
+      return window;
+    }
+
+    private Serializable next() {
+      if (kind == Kind.VALUE) {
+        int length = window(Integer.BYTES).getInt();
+        byte[] bytes = new byte[length];
+        window(length).get(bytes);
+        return new BigInteger(bytes);
+      }
+      ByteBuffer record = window(recordBytes);
+      switch (kind) {
+        case TRIPLE:
+          return new SpdzTriple(nextSInt(record), nextSInt(record), nextSInt(record));
+        case SINT:
+          return nextSInt(record);
+        case INPUT_MASK:
+          SpdzSInt mask = nextSInt(record);
+          if (recordElements == 2) {
+            return new SpdzInputMask(mask);
+          } else {
+            return new SpdzInputMask(mask, field.toBigInteger(nextElement(record)));
+          }
+        default:
+          SpdzSInt[] pipe = new SpdzSInt[recordElements / 2];
+          for (int i = 0; i < pipe.length; i++) {
+            pipe[i] = nextSInt(record);
+          }
+          return pipe;
+      }
+    }
+
+    private SpdzSInt nextSInt(ByteBuffer record) {
+      return new SpdzSInt(nextElement(record), nextElement(record), field);
+    }
+
+    private long[] nextElement(ByteBuffer record) {
+      long[] limbs = new long[field.getLimbs()];
+      for (int i = 0; i < limbs.length; i++) {
+        limbs[i] = record.getLong();
+      }
+      return limbs;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * A data supplier which counts the pre-processed material taken from another data supplier.
+ * <p>
+ * Evaluating an application with this supplier wrapped around e.g. a {@link SpdzDummyDataSupplier}
+ * measures the exact amount of material the application needs, see {@link #getDemand()}. The
+ * material can then be generated ahead of the computation using {@link
+ * SpdzPreprocessingGenerator}.
+ * </p>
+ */
+public class SpdzCountingDataSupplier implements SpdzDataSupplier {
+
+  private final SpdzDataSupplier delegate;
+  private final long[] inputMasks;
+  private long triples;
+  private long bits;
+  private long expPipes;
+  private long randomElements;
+
+  /**
+   * Creates a new counting supplier.
+   *
+   * @param delegate the supplier to take material from
+   * @param noOfParties the number of parties
+   */
+  public SpdzCountingDataSupplier(SpdzDataSupplier delegate, int noOfParties) {
+    this.delegate = delegate;
+    this.inputMasks = new long[noOfParties];
+  }
+
+  @Override
+  public SpdzTriple getNextTriple() {
+    triples++;
+    return delegate.getNextTriple();
+  }
+
+  @Override
+  public List<SpdzTriple> getNextTriples(int numTriples) {
+    triples += numTriples;
+    return delegate.getNextTriples(numTriples);
+  }
+
+  @Override
+  public SpdzSInt[] getNextExpPipe() {
+    expPipes++;
+    return delegate.getNextExpPipe();
+  }
+
+  @Override
+  public SpdzInputMask getNextInputMask(int towardPlayerId) {
+    inputMasks[towardPlayerId - 1]++;
+    return delegate.getNextInputMask(towardPlayerId);
+  }
+
+  @Override
+  public SpdzSInt getNextBit() {
+    bits++;
+    return delegate.getNextBit();
+  }
+
+  @Override
+  public BigInteger getModulus() {
+    return delegate.getModulus();
+  }
+
+  @Override
+  public BigInteger getSecretSharedKey() {
+    return delegate.getSecretSharedKey();
+  }
+
+  @Override
+  public SpdzSInt getNextRandomFieldElement() {
+    randomElements++;
+    return delegate.getNextRandomFieldElement();
+  }
+
+  @Override
+  public List<SpdzSInt> getNextRandomFieldElements(int numElements) {
+    randomElements += numElements;
+    return delegate.getNextRandomFieldElements(numElements);
+  }
+
+  /**
+   * Gets the material taken from this supplier so far.
+   *
+   * @return the demand
+   */
+  public SpdzPreprocessingDemand getDemand() {
+    return new SpdzPreprocessingDemand(triples, bits, expPipes, randomElements, inputMasks);
+  }
+}
@@ -5,6 +5,8 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 
 public interface SpdzDataSupplier {
 
@@ -15,6 +17,20 @@ public interface SpdzDataSupplier {
    */
   SpdzTriple getNextTriple();
 
+  /**
+   * Supplies a number of multiplication triples at once.
+   *
+   * @param numTriples the number of triples to supply
+   * @return the next new triples
+   */
+  default List<SpdzTriple> getNextTriples(int numTriples) {
+    List<SpdzTriple> triples = new ArrayList<>(numTriples);
+    for (int i = 0; i < numTriples; i++) {
+      triples.add(getNextTriple());
+    }
+    return triples;
+  }
+
   /**
    * Supplies the next exponentiation pipe. <p>An exponentiation pipe is a list of numbers in the
    * following format: r^{-1}, r, r^{2}, r^{3}, ..., r^{l}, where r is a random element, l is the
@@ -62,4 +78,20 @@ public interface SpdzDataSupplier {
    */
   SpdzSInt getNextRandomFieldElement();
 
+  /**
+   * Supplies a number of random field elements at once. This is meant for consumers reading
+   * material in bulk, such as the preprocessing tools; protocols take one element at a time using
+   * {@link #getNextRandomFieldElement()}.
+   *
+   * @param numElements the number of elements to supply
+   * @return the next random secret shared field elements
+   */
+  default List<SpdzSInt> getNextRandomFieldElements(int numElements) {
+    List<SpdzSInt> elements = new ArrayList<>(numElements);
+    for (int i = 0; i < numElements; i++) {
+      elements.add(getNextRandomFieldElement());
+    }
+    return elements;
+  }
+
 }
@@ -0,0 +1,188 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AsyncBatchProducer;
+import dk.alexandra.fresco.framework.util.AsyncBatchProducer.Buffer;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.logging.PerformanceLogger;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.preprocessing.MascotFormatConverter;
+import dk.alexandra.fresco.tools.mascot.Mascot;
+import dk.alexandra.fresco.tools.mascot.MascotResourcePoolImpl;
+import dk.alexandra.fresco.tools.mascot.MascotSecurityParameters;
+import dk.alexandra.fresco.tools.mascot.field.AuthenticatedElement;
+import dk.alexandra.fresco.tools.mascot.field.FieldElement;
+import dk.alexandra.fresco.tools.mascot.field.InputMask;
+import dk.alexandra.fresco.tools.mascot.field.MultiplicationTriple;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.io.Closeable;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A data supplier based on the Mascot protocol which generates pre-processed material ahead of
+ * demand in a background thread.
+ * <p>
+ * Unlike the {@link SpdzMascotDataSupplier}, which runs Mascot in the evaluation thread whenever a
+ * type of material runs out, this supplier keeps a buffer for each type of material (triples, bits,
+ * random elements, input masks towards each party and exponentiation pipes) and runs Mascot in a
+ * separate producer thread on its own network. Once the number of elements in a buffer drops below
+ * a low watermark, the producer refills it in batches until it holds at least a high watermark of
+ * elements. The evaluation thread only blocks if a buffer runs empty. Buffers that are not refilled
+ * do not grow, which bounds the memory used and the work done ahead of demand.
+ * </p>
+ * <p>
+ * Since an exponentiation pipe is far more expensive to produce than the other types of material,
+ * exponentiation pipes are only produced once the first pipe is requested, and at most a single
+ * batch of pipes is produced ahead of demand. The pipes have length equal to the bit length of the
+ * modulus.
+ * </p>
+ * <p>
+ * The buffers are managed by an {@link AsyncBatchProducer}, which agrees with the other parties on
+ * which buffers to refill in each round. Consequently, the network supplied to this class must not
+ * be used for anything else, and all parties must use the same batch size.
+ * </p>
+ * <p>
+ * The number of elements produced per type of material and the number and duration of stalls of
+ * the evaluation thread can be read through {@link #getLoggedValues()}, using the keys of
+ * {@link AsyncBatchProducer}.
+ * </p>
+ */
+public class SpdzMascotAsyncDataSupplier implements SpdzDataSupplier, PerformanceLogger,
+    Closeable {
+
+  private final BigInteger modulus;
+  private final FieldElement ssk;
+  private final int lowWatermark;
+  private final int highWatermark;
+  private final AsyncBatchProducer<Mascot> producer;
+  private final Buffer<Mascot, MultiplicationTriple> triples;
+  private final Buffer<Mascot, AuthenticatedElement> randomBits;
+  private final Buffer<Mascot, AuthenticatedElement> randomElements;
+  private final Map<Integer, Buffer<Mascot, InputMask>> masks;
+  private final Buffer<Mascot, List<AuthenticatedElement>> expPipes;
+
+  /**
+   * Creates {@link SpdzMascotAsyncDataSupplier}. The producer is started by {@link #start()} or
+   * when the first element is requested.
+   *
+   * @param myId this party's id
+   * @param numberOfPlayers number of players
+   * @param instanceId identifier used to distinguish parallel instances of Mascot
+   * @param tripleNetwork network supplier for network to be used by Mascot instance
+   * @param modulus field modulus
+   * @param modBitLength bit length of modulus
+   * @param prgSeedLength bit length of prg
+   * @param batchSize batch size in which Mascot will generate pre-processed material
+   * @param lowWatermark the number of elements below which a buffer is refilled
+   * @param highWatermark the number of elements at which the refilling of a buffer stops
+   * @param ssk mac key share
+   * @param seedOts pre-computed base OTs
+   * @param drbg source of randomness
+   */
+  public SpdzMascotAsyncDataSupplier(int myId, int numberOfPlayers, int instanceId,
+      Supplier<Network> tripleNetwork, BigInteger modulus, int modBitLength,
+      int prgSeedLength, int batchSize, int lowWatermark, int highWatermark, FieldElement ssk,
+      Map<Integer, RotList> seedOts, Drbg drbg) {
+    if (batchSize < 1 || lowWatermark < 0 || highWatermark <= lowWatermark) {
+      throw new IllegalArgumentException("Watermarks must satisfy 0 <= low < high and the batch "
+          + "size must be positive, but were " + lowWatermark + ", " + highWatermark + " and "
+          + batchSize);
+    }
+    this.modulus = modulus;
+    this.lowWatermark = lowWatermark;
+    this.highWatermark = highWatermark;
+    this.ssk = ssk;
+    int numCandidatesPerTriple = 3;
+    this.producer = new AsyncBatchProducer<>(myId, numberOfPlayers,
+        "MascotProducer-P" + myId + "-" + instanceId, tripleNetwork,
+        network -> new Mascot(
+            new MascotResourcePoolImpl(myId, numberOfPlayers, instanceId, drbg, seedOts,
+                new MascotSecurityParameters(modBitLength, modBitLength, prgSeedLength,
+                    numCandidatesPerTriple)), network, ssk));
+    this.triples = addBuffer("TRIPLES", mascot -> mascot.getTriples(batchSize));
+    this.randomBits = addBuffer("BITS", mascot -> mascot.getRandomBits(batchSize));
+    this.randomElements =
+        addBuffer("RANDOM_ELEMENTS", mascot -> mascot.getRandomElements(batchSize));
+    this.masks = new HashMap<>();
+    for (int partyId = 1; partyId <= numberOfPlayers; partyId++) {
+      final int towardPlayerId = partyId;
+      masks.put(partyId, addBuffer("INPUT_MASKS_P" + partyId,
+          mascot -> mascot.getInputMasks(towardPlayerId, batchSize)));
+    }
+    this.expPipes = producer.addBuffer("EXP_PIPES",
+        mascot -> mascot.getExpPipes(batchSize, modBitLength), 1, batchSize, false);
+  }
+
+  private <T> Buffer<Mascot, T> addBuffer(String name, Function<Mascot, List<T>> batchProducer) {
+    return producer.addBuffer(name, batchProducer, lowWatermark, highWatermark, true);
+  }
+
+  /**
+   * Starts producing pre-processed material, if not already started. All parties should start
+   * their suppliers at around the same time.
+   */
+  public void start() {
+    producer.start();
+  }
+
+  @Override
+  public SpdzTriple getNextTriple() {
+    return MascotFormatConverter.toSpdzTriple(producer.take(triples));
+  }
+
+  @Override
+  public SpdzSInt getNextRandomFieldElement() {
+    return MascotFormatConverter.toSpdzSInt(producer.take(randomElements));
+  }
+
+  @Override
+  public SpdzSInt[] getNextExpPipe() {
+    return MascotFormatConverter.toSpdzExpPipe(producer.take(expPipes));
+  }
+
+  @Override
+  public SpdzInputMask getNextInputMask(int towardPlayerId) {
+    return MascotFormatConverter.toSpdzInputMask(producer.take(masks.get(towardPlayerId)));
+  }
+
+  @Override
+  public SpdzSInt getNextBit() {
+    return MascotFormatConverter.toSpdzSInt(producer.take(randomBits));
+  }
+
+  @Override
+  public BigInteger getModulus() {
+    return modulus;
+  }
+
+  @Override
+  public BigInteger getSecretSharedKey() {
+    return this.ssk.toBigInteger();
+  }
+
+  /**
+   * Stops the producer. The producers of the other parties stop as well, after which they can no
+   * longer supply pre-processed material which is not already buffered.
+   */
+  @Override
+  public void close() {
+    producer.close();
+  }
+
+  @Override
+  public void reset() {
+    producer.reset();
+  }
+
+  @Override
+  public Map<String, Long> getLoggedValues() {
+    return producer.getLoggedValues();
+  }
+}
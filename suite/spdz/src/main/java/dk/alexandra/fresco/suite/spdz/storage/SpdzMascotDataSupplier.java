@@ -21,14 +21,18 @@ import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.ArrayDeque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * A data supplier based on the Mascot protocol. Uses concrete implementation {@link Mascot}.
+ * <p>
+ * All types of material, including exponentiation pipes, are generated by Mascot in batches and
+ * buffered until used. Exponentiation pipes have length equal to the bit length of the modulus.
+ * </p>
  */
 public class SpdzMascotDataSupplier implements SpdzDataSupplier {
 
@@ -38,13 +42,13 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
   private final int numberOfPlayers;
   private final Supplier<Network> tripleNetwork;
   private final BigInteger modulus;
-  private final Function<Integer, SpdzSInt[]> preprocessedValues;
   private final FieldElement ssk;
 
   private final ArrayDeque<MultiplicationTriple> triples;
   private final Map<Integer, ArrayDeque<InputMask>> masks;
   private final ArrayDeque<AuthenticatedElement> randomElements;
   private final ArrayDeque<AuthenticatedElement> randomBits;
+  private final ArrayDeque<List<AuthenticatedElement>> expPipes;
   private final int prgSeedLength;
   private final int modBitLength;
   private final int batchSize;
@@ -61,7 +65,6 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
    * @param tripleNetwork network supplier for network to be used by Mascot instance
    * @param modulus field modulus
    * @param modBitLength bit length of modulus
-   * @param preprocessedValues callback to generate exponentiation pipes
    * @param prgSeedLength bit length of prg
    * @param batchSize batch size in which Mascot will generate pre-processed material
    * @param ssk mac key share
@@ -70,14 +73,13 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
    */
   public SpdzMascotDataSupplier(int myId, int numberOfPlayers, int instanceId,
       Supplier<Network> tripleNetwork, BigInteger modulus, int modBitLength,
-      Function<Integer, SpdzSInt[]> preprocessedValues, int prgSeedLength, int batchSize,
-      FieldElement ssk, Map<Integer, RotList> seedOts, Drbg drbg) {
+      int prgSeedLength, int batchSize, FieldElement ssk, Map<Integer, RotList> seedOts,
+      Drbg drbg) {
     this.myId = myId;
     this.numberOfPlayers = numberOfPlayers;
     this.instanceId = instanceId;
     this.tripleNetwork = tripleNetwork;
     this.modulus = modulus;
-    this.preprocessedValues = preprocessedValues;
     this.triples = new ArrayDeque<>();
     this.masks = new HashMap<>();
     for (int partyId = 1; partyId <= numberOfPlayers; partyId++) {
@@ -85,6 +87,7 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
     }
     this.randomElements = new ArrayDeque<>();
     this.randomBits = new ArrayDeque<>();
+    this.expPipes = new ArrayDeque<>();
     this.prgSeedLength = prgSeedLength;
     this.modBitLength = modBitLength;
     this.batchSize = batchSize;
@@ -98,11 +101,10 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
    */
   public static SpdzMascotDataSupplier createSimpleSupplier(int myId, int numberOfPlayers,
       Supplier<Network> tripleNetwork, int modBitLength, BigInteger modulus,
-      Function<Integer, SpdzSInt[]> preprocessedValues,
       Map<Integer, RotList> seedOts, Drbg drbg, FieldElement ssk) {
     int prgSeedLength = 256;
     return new SpdzMascotDataSupplier(myId, numberOfPlayers, 1, tripleNetwork, modulus,
-        modBitLength, preprocessedValues, prgSeedLength, 16, ssk, seedOts, drbg);
+        modBitLength, prgSeedLength, 16, ssk, seedOts, drbg);
   }
 
   /**
@@ -141,10 +143,13 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
 
   @Override
   public SpdzSInt[] getNextExpPipe() {
-    logger.trace("Getting another exp pipe");
-    SpdzSInt[] pipe = preprocessedValues.apply(modBitLength);
-    logger.trace("Got another exp pipe");
-    return pipe;
+    ensureInitialized();
+    if (expPipes.isEmpty()) {
+      logger.trace("Getting another exp pipe batch");
+      expPipes.addAll(mascot.getExpPipes(batchSize, modBitLength));
+      logger.trace("Got another exp pipe batch");
+    }
+    return MascotFormatConverter.toSpdzExpPipe(expPipes.pop());
   }
 
   @Override
@@ -0,0 +1,150 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * The amount of pre-processed material needed by a party in a SPDZ computation.
+ * <p>
+ * A demand can be measured using a {@link SpdzCountingDataSupplier}, stored as {@link Properties}
+ * and used to generate exactly the needed material using {@link SpdzPreprocessingGenerator}.
+ * </p>
+ */
+public class SpdzPreprocessingDemand {
+
+  public static final String TRIPLES_KEY = "triples";
+  public static final String BITS_KEY = "bits";
+  public static final String EXP_PIPES_KEY = "expPipes";
+  public static final String RANDOM_ELEMENTS_KEY = "randomElements";
+  public static final String INPUT_MASKS_KEY_PREFIX = "inputMasks.";
+  public static final String NO_OF_PARTIES_KEY = "noOfParties";
+
+  private final long triples;
+  private final long bits;
+  private final long expPipes;
+  private final long randomElements;
+  private final long[] inputMasks;
+
+  /**
+   * Creates a new demand.
+   *
+   * @param triples the number of multiplication triples
+   * @param bits the number of random bits
+   * @param expPipes the number of exponentiation pipes
+   * @param randomElements the number of random elements
+   * @param inputMasks the number of input masks towards each party, indexed by party id minus one
+   */
+  public SpdzPreprocessingDemand(long triples, long bits, long expPipes, long randomElements,
+      long[] inputMasks) {
+    this.triples = triples;
+    this.bits = bits;
+    this.expPipes = expPipes;
+    this.randomElements = randomElements;
+    this.inputMasks = inputMasks.clone();
+  }
+
+  public long getTriples() {
+    return triples;
+  }
+
+  public long getBits() {
+    return bits;
+  }
+
+  public long getExpPipes() {
+    return expPipes;
+  }
+
+  public long getRandomElements() {
+    return randomElements;
+  }
+
+  public int getNoOfParties() {
+    return inputMasks.length;
+  }
+
+  /**
+   * Gets the number of input masks needed towards a given party.
+   *
+   * @param towardPlayerId the id of the party
+   * @return the number of input masks
+   */
+  public long getInputMasks(int towardPlayerId) {
+    return inputMasks[towardPlayerId - 1];
+  }
+
+  /**
+   * Converts this demand to properties, e.g., to be saved to a file.
+   *
+   * @return the properties
+   */
+  public Properties toProperties() {
+    Properties properties = new Properties();
+    properties.setProperty(NO_OF_PARTIES_KEY, Integer.toString(getNoOfParties()));
+    properties.setProperty(TRIPLES_KEY, Long.toString(triples));
+    properties.setProperty(BITS_KEY, Long.toString(bits));
+    properties.setProperty(EXP_PIPES_KEY, Long.toString(expPipes));
+    properties.setProperty(RANDOM_ELEMENTS_KEY, Long.toString(randomElements));
+    for (int partyId = 1; partyId <= getNoOfParties(); partyId++) {
+      properties.setProperty(INPUT_MASKS_KEY_PREFIX + partyId,
+          Long.toString(getInputMasks(partyId)));
+    }
+    return properties;
+  }
+
+  /**
+   * Reads a demand from properties as written by {@link #toProperties()}. Missing counts are taken
+   * to be zero.
+   *
+   * @param properties the properties
+   * @return the demand
+   */
+  public static SpdzPreprocessingDemand fromProperties(Properties properties) {
+    String noOfParties = properties.getProperty(NO_OF_PARTIES_KEY);
+    if (noOfParties == null) {
+      throw new IllegalArgumentException("The number of parties must be given as "
+          + NO_OF_PARTIES_KEY);
+    }
+    long[] inputMasks = new long[Integer.parseInt(noOfParties)];
+    for (int partyId = 1; partyId <= inputMasks.length; partyId++) {
+      inputMasks[partyId - 1] = getCount(properties, INPUT_MASKS_KEY_PREFIX + partyId);
+    }
+    return new SpdzPreprocessingDemand(getCount(properties, TRIPLES_KEY),
+        getCount(properties, BITS_KEY), getCount(properties, EXP_PIPES_KEY),
+        getCount(properties, RANDOM_ELEMENTS_KEY), inputMasks);
+  }
+
+  private static long getCount(Properties properties, String key) {
+    long count = Long.parseLong(properties.getProperty(key, "0"));
+    if (count < 0) {
+      throw new IllegalArgumentException(key + " must be non-negative, but was " + count);
+    }
+    return count;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    SpdzPreprocessingDemand other = (SpdzPreprocessingDemand) obj;
+    return triples == other.triples && bits == other.bits && expPipes == other.expPipes
+        && randomElements == other.randomElements && Arrays.equals(inputMasks, other.inputMasks);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(triples, bits, expPipes, randomElements, Arrays.hashCode(inputMasks));
+  }
+
+  @Override
+  public String toString() {
+    return "SpdzPreprocessingDemand [triples=" + triples + ", bits=" + bits + ", expPipes="
+        + expPipes + ", randomElements=" + randomElements + ", inputMasks="
+        + Arrays.toString(inputMasks) + "]";
+  }
+}
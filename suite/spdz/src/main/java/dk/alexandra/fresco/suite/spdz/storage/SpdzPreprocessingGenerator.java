@@ -0,0 +1,73 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates pre-processed material ahead of a computation and writes it to the streams read by a
+ * {@link SpdzStorageDataSupplier}.
+ * <p>
+ * The material is taken from a source supplier, e.g., a {@link SpdzMascotDataSupplier} or a
+ * {@link SpdzDummyDataSupplier}, in an order which does not depend on the party. When the source is
+ * interactive, all parties must thus generate material for the same demand at the same time.
+ * </p>
+ */
+public class SpdzPreprocessingGenerator {
+
+  private static final Logger logger = LoggerFactory.getLogger(SpdzPreprocessingGenerator.class);
+  private static final int BATCH_SIZE = 1024;
+
+  private SpdzPreprocessingGenerator() {
+  }
+
+  /**
+   * Generates exactly the material of a demand.
+   *
+   * @param source the supplier to take material from
+   * @param target the storage to write the material to
+   * @param storageName the name of the storage as given to the {@link SpdzStorageDataSupplier}
+   * @param demand the material to generate
+   */
+  public static void generate(SpdzDataSupplier source, StreamedStorage target, String storageName,
+      SpdzPreprocessingDemand demand) {
+    target.putNext(storageName + SpdzStorageDataSupplier.MODULUS_KEY, source.getModulus());
+    target.putNext(storageName + SpdzStorageDataSupplier.SSK_KEY, source.getSecretSharedKey());
+    long triples = demand.getTriples();
+    String tripleStorage = storageName + SpdzStorageDataSupplier.TRIPLE_STORAGE;
+    for (long generated = 0; generated < triples; generated += BATCH_SIZE) {
+      int batchSize = (int) Math.min(BATCH_SIZE, triples - generated);
+      for (SpdzTriple triple : source.getNextTriples(batchSize)) {
+        target.putNext(tripleStorage, triple);
+      }
+    }
+    logger.info("Generated {} triples", triples);
+    long randomElements = demand.getRandomElements();
+    String randomElementStorage = storageName + SpdzStorageDataSupplier.RANDOM_ELEMENT_STORAGE;
+    for (long generated = 0; generated < randomElements; generated += BATCH_SIZE) {
+      int batchSize = (int) Math.min(BATCH_SIZE, randomElements - generated);
+      for (SpdzSInt element : source.getNextRandomFieldElements(batchSize)) {
+        target.putNext(randomElementStorage, element);
+      }
+    }
+    logger.info("Generated {} random elements", randomElements);
+    for (long i = 0; i < demand.getBits(); i++) {
+      target.putNext(storageName + SpdzStorageDataSupplier.BIT_STORAGE, source.getNextBit());
+    }
+    logger.info("Generated {} bits", demand.getBits());
+    for (int partyId = 1; partyId <= demand.getNoOfParties(); partyId++) {
+      for (long i = 0; i < demand.getInputMasks(partyId); i++) {
+        target.putNext(storageName + SpdzStorageDataSupplier.INPUT_STORAGE + partyId,
+            source.getNextInputMask(partyId));
+      }
+      logger.info("Generated {} input masks towards P{}", demand.getInputMasks(partyId), partyId);
+    }
+    for (long i = 0; i < demand.getExpPipes(); i++) {
+      target.putNext(storageName + SpdzStorageDataSupplier.EXP_PIPE_STORAGE,
+          source.getNextExpPipe());
+    }
+    logger.info("Generated {} exponentiation pipes", demand.getExpPipes());
+  }
+}
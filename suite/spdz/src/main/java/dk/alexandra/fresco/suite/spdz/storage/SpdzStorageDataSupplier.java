@@ -6,6 +6,8 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,7 +15,14 @@ import org.slf4j.LoggerFactory;
  * Data supplier which supplies the SPDZ protocol suite with preprocessed data.
  * It fetches data from the native storage object within FRESCO and assumes that
  * something else put it there already. See e.g. @NewDataRetriever for a way to
- * do so.
+ * do so. For large amounts of pre-processed material, the storage should be a
+ * {@link SpdzBinaryStreamedStorage}, which supports reading many triples at once.
+ * <p>
+ * Random elements are read from their own storage stream. Storage generated before this stream
+ * was introduced has no such stream, in which case the first factor of the next triple is used as
+ * a random element, as was done previously. Regenerating the preprocessed material avoids using
+ * up triples this way.
+ * </p>
  *
  * @author Kasper Damgaard
  */
@@ -35,6 +44,7 @@ public class SpdzStorageDataSupplier implements SpdzDataSupplier {
   public static final String EXP_PIPE_STORAGE = "EXP";
   public static final String TRIPLE_STORAGE = "TRIPLE";
   public static final String BIT_STORAGE = "BIT";
+  public static final String RANDOM_ELEMENT_STORAGE = "RANDOM";
 
   private StreamedStorage storage;
   private String storageName;
@@ -43,6 +53,8 @@ public class SpdzStorageDataSupplier implements SpdzDataSupplier {
   private int expPipeCounter = 0;
   private int[] inputMaskCounters;
   private int bitCounter = 0;
+  private int randomElementCounter = 0;
+  private boolean randomElementsFromTriples = false;
 
   private BigInteger ssk;
   private BigInteger mod;
@@ -79,6 +91,22 @@ public class SpdzStorageDataSupplier implements SpdzDataSupplier {
     return trip;
   }
 
+  @Override
+  public List<SpdzTriple> getNextTriples(int numTriples) {
+    List<SpdzTriple> triples;
+    try {
+      triples = this.storage.getNext(storageName + TRIPLE_STORAGE, numTriples);
+    } catch (NoMoreElementsException e) {
+      logger.error("Triples no. " + tripleCounter + " to " + (tripleCounter + numTriples - 1)
+          + " were not present in the storage: " + storageName + TRIPLE_STORAGE);
+      throw new IllegalArgumentException(
+          "Triples no. " + tripleCounter + " to " + (tripleCounter + numTriples - 1)
+              + " were not present in the storage: " + storageName + TRIPLE_STORAGE, e);
+    }
+    tripleCounter += numTriples;
+    return triples;
+  }
+
   @Override
   public SpdzSInt[] getNextExpPipe() {
     SpdzSInt[] expPipe;
@@ -145,7 +173,7 @@ public class SpdzStorageDataSupplier implements SpdzDataSupplier {
   }
 
   @Override
-  public BigInteger getSecretSharedKey() {
+  public synchronized BigInteger getSecretSharedKey() {
     if (this.ssk != null) {
       return this.ssk;
     }
@@ -161,7 +189,71 @@ public class SpdzStorageDataSupplier implements SpdzDataSupplier {
 
   @Override
   public SpdzSInt getNextRandomFieldElement() {
-    // TODO: We should probably have a random element storage stream
-    return this.getNextTriple().getA();
+    if (randomElementsFromTriples) {
+      return getNextTriple().getA();
+    }
+    SpdzSInt element;
+    try {
+      element = this.storage.getNext(storageName + RANDOM_ELEMENT_STORAGE);
+    } catch (NoMoreElementsException e) {
+      if (useTriplesForRandomElements()) {
+        return getNextTriple().getA();
+      }
+      logger.error("Random element no. " + randomElementCounter
+          + " was not present in the storage: " + storageName + RANDOM_ELEMENT_STORAGE);
+      throw new IllegalArgumentException(
+          "Random element no. " + randomElementCounter + " was not present in the storage: "
+              + storageName + RANDOM_ELEMENT_STORAGE, e);
+    }
+    randomElementCounter++;
+    return element;
+  }
+
+  @Override
+  public List<SpdzSInt> getNextRandomFieldElements(int numElements) {
+    if (randomElementsFromTriples) {
+      return firstFactors(getNextTriples(numElements));
+    }
+    List<SpdzSInt> elements;
+    try {
+      elements = this.storage.getNext(storageName + RANDOM_ELEMENT_STORAGE, numElements);
+    } catch (NoMoreElementsException e) {
+      if (useTriplesForRandomElements()) {
+        return firstFactors(getNextTriples(numElements));
+      }
+      logger.error("Random elements no. " + randomElementCounter + " to "
+          + (randomElementCounter + numElements - 1) + " were not present in the storage: "
+          + storageName + RANDOM_ELEMENT_STORAGE);
+      throw new IllegalArgumentException(
+          "Random elements no. " + randomElementCounter + " to "
+              + (randomElementCounter + numElements - 1) + " were not present in the storage: "
+              + storageName + RANDOM_ELEMENT_STORAGE, e);
+    }
+    randomElementCounter += numElements;
+    return elements;
+  }
+
+  /**
+   * Switches to taking random elements from the triples if no random elements have been read from
+   * the storage, i.e., if the storage was generated without a random element stream.
+   *
+   * @return true if random elements should be taken from the triples
+   */
+  private boolean useTriplesForRandomElements() {
+    if (randomElementCounter > 0) {
+      return false;
+    }
+    logger.warn("No random elements present in the storage: " + storageName
+        + RANDOM_ELEMENT_STORAGE + ". Using triples instead.");
+    randomElementsFromTriples = true;
+    return true;
+  }
+
+  private static List<SpdzSInt> firstFactors(List<SpdzTriple> triples) {
+    List<SpdzSInt> elements = new ArrayList<>(triples.size());
+    for (SpdzTriple triple : triples) {
+      elements.add(triple.getA());
+    }
+    return elements;
   }
 }
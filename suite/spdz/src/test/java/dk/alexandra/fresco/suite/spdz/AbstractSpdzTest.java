@@ -2,22 +2,19 @@ package dk.alexandra.fresco.suite.spdz;
 
 import static dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy.DUMMY;
 import static dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy.MASCOT;
+import static dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy.MASCOT_ASYNC;
 
-import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
 import dk.alexandra.fresco.framework.TestThreadRunner;
-import dk.alexandra.fresco.framework.builder.numeric.DefaultPreprocessedValues;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.configuration.NetworkTestUtils;
 import dk.alexandra.fresco.framework.network.AsyncNetwork;
-import dk.alexandra.fresco.framework.network.CloseableNetwork;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
 import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
-import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
 import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
@@ -26,9 +23,6 @@ import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
 import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.ModulusFinder;
 import dk.alexandra.fresco.framework.util.OpenedValueStoreImpl;
-import dk.alexandra.fresco.framework.value.SInt;
-import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
-import dk.alexandra.fresco.lib.real.RealNumericContext;
 import dk.alexandra.fresco.logging.BatchEvaluationLoggingDecorator;
 import dk.alexandra.fresco.logging.DefaultPerformancePrinter;
 import dk.alexandra.fresco.logging.EvaluatorLoggingDecorator;
@@ -39,9 +33,9 @@ import dk.alexandra.fresco.logging.PerformanceLoggerCountingAggregate;
 import dk.alexandra.fresco.logging.PerformancePrinter;
 import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
 import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
-import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMascotAsyncDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzMascotDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageDataSupplier;
 import dk.alexandra.fresco.tools.mascot.field.FieldElement;
@@ -54,7 +48,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -65,6 +59,8 @@ import java.util.stream.IntStream;
 public abstract class AbstractSpdzTest {
 
   private Map<Integer, PerformanceLogger> performanceLoggers = new HashMap<>();
+  private final ConcurrentLinkedQueue<SpdzMascotAsyncDataSupplier> asyncSuppliers =
+      new ConcurrentLinkedQueue<>();
   // TODO hack hack hack
   private static final int DEFAULT_MOD_BIT_LENGTH = 128;
   private static final int DEFAULT_MAX_BIT_LENGTH = 64;
@@ -73,6 +69,7 @@ public abstract class AbstractSpdzTest {
   private int maxBitLength = DEFAULT_MAX_BIT_LENGTH;
   private int fixedPointPrecision = DEFAULT_FIXED_POINT_PRECISION;
   private static final int PRG_SEED_LENGTH = 256;
+  private static final int ASYNC_BATCH_SIZE = 16;
   private static EvaluationStrategy DEFAULT_EVAL_STRATEGY = EvaluationStrategy.SEQUENTIAL_BATCHED;
 
   protected void runTest(
@@ -105,7 +102,6 @@ public abstract class AbstractSpdzTest {
     }
     NetManager tripleManager = new NetManager(ports);
     NetManager otManager = new NetManager(ports);
-    NetManager expPipeManager = new NetManager(ports);
 
     Map<Integer, NetworkConfiguration> netConf =
         NetworkTestUtils.getNetworkConfigurations(noOfParties, ports);
@@ -136,7 +132,7 @@ public abstract class AbstractSpdzTest {
 
       TestThreadRunner.TestThreadConfiguration<SpdzResourcePool, ProtocolBuilderNumeric> ttc =
           new TestThreadRunner.TestThreadConfiguration<>(sce, () -> createResourcePool(playerId,
-              noOfParties, preProStrat, otManager, tripleManager, expPipeManager), () -> {
+              noOfParties, preProStrat, otManager, tripleManager), () -> {
             Network network = new AsyncNetwork(netConf.get(playerId));
             if (logPerformance) {
               network = new NetworkLoggingDecorator(network);
@@ -149,13 +145,17 @@ public abstract class AbstractSpdzTest {
       conf.put(playerId, ttc);
       performanceLoggers.putIfAbsent(playerId, aggregate);
     }
-    TestThreadRunner.run(f, conf);
+    try {
+      TestThreadRunner.run(f, conf);
+    } finally {
+      asyncSuppliers.forEach(SpdzMascotAsyncDataSupplier::close);
+      asyncSuppliers.clear();
+    }
     PerformancePrinter printer = new DefaultPerformancePrinter();
     for (PerformanceLogger pl : performanceLoggers.values()) {
       printer.printPerformanceLog(pl);
     }
     tripleManager.close();
-    expPipeManager.close();
   }
 
   protected SpdzProtocolSuite createProtocolSuite(int maxBitLength) {
@@ -183,22 +183,6 @@ public abstract class AbstractSpdzTest {
         true, DEFAULT_MOD_BIT_LENGTH, DEFAULT_MAX_BIT_LENGTH, DEFAULT_FIXED_POINT_PRECISION);
   }
 
-  private DRes<List<DRes<SInt>>> createPipe(int myId, int noOfPlayers, int pipeLength,
-      CloseableNetwork pipeNetwork, SpdzMascotDataSupplier tripleSupplier) {
-
-    ProtocolBuilderNumeric sequential = new SpdzBuilder(
-        new BasicNumericContext(maxBitLength, tripleSupplier.getModulus(), myId, noOfPlayers),
-        new RealNumericContext(fixedPointPrecision)).createSequential();
-    SpdzResourcePoolImpl tripleResourcePool =
-        new SpdzResourcePoolImpl(myId, noOfPlayers, new OpenedValueStoreImpl<>(), tripleSupplier,
-            new AesCtrDrbg(new byte[32]));
-
-    DRes<List<DRes<SInt>>> exponentiationPipe =
-        new DefaultPreprocessedValues(sequential).getExponentiationPipe(pipeLength);
-    evaluate(sequential, tripleResourcePool, pipeNetwork);
-    return exponentiationPipe;
-  }
-
   private Drbg getDrbg(int myId, int prgSeedLength) {
     byte[] seed = new byte[prgSeedLength / 8];
     new Random(myId).nextBytes(seed);
@@ -229,8 +213,7 @@ public abstract class AbstractSpdzTest {
       int numberOfParties,
       PreprocessingStrategy preProStrat,
       NetManager otGenerator,
-      NetManager tripleGenerator,
-      NetManager expPipeGenerator) {
+      NetManager tripleGenerator) {
     SpdzDataSupplier supplier;
     if (preProStrat == DUMMY) {
       supplier = new SpdzDummyDataSupplier(myId, numberOfParties,
@@ -244,24 +227,23 @@ public abstract class AbstractSpdzTest {
           getSeedOts(myId, partyIds, PRG_SEED_LENGTH, drbg, otGenerator.createExtraNetwork(myId));
       FieldElement ssk = SpdzMascotDataSupplier.createRandomSsk(modulus, PRG_SEED_LENGTH);
       supplier = SpdzMascotDataSupplier.createSimpleSupplier(myId, numberOfParties,
-          () -> tripleGenerator.createExtraNetwork(myId), modBitLength, modulus,
-          new Function<Integer, SpdzSInt[]>() {
-
-            private SpdzMascotDataSupplier tripleSupplier;
-            private CloseableNetwork pipeNetwork;
-
-            @Override
-            public SpdzSInt[] apply(Integer pipeLength) {
-              if (pipeNetwork == null) {
-                pipeNetwork = expPipeGenerator.createExtraNetwork(myId);
-                tripleSupplier = SpdzMascotDataSupplier.createSimpleSupplier(myId, numberOfParties,
-                    () -> pipeNetwork, modBitLength, modulus, null, seedOts, drbg, ssk);
-              }
-              DRes<List<DRes<SInt>>> pipe =
-                  createPipe(myId, numberOfParties, pipeLength, pipeNetwork, tripleSupplier);
-              return computeSInts(pipe);
-            }
-          }, seedOts, drbg, ssk);
+          () -> tripleGenerator.createExtraNetwork(myId), modBitLength, modulus, seedOts, drbg,
+          ssk);
+    } else if (preProStrat == MASCOT_ASYNC) {
+      List<Integer> partyIds =
+          IntStream.range(1, numberOfParties + 1).boxed().collect(Collectors.toList());
+      Drbg drbg = getDrbg(myId, PRG_SEED_LENGTH);
+      BigInteger modulus = ModulusFinder.findSuitableModulus(modBitLength);
+      Map<Integer, RotList> seedOts =
+          getSeedOts(myId, partyIds, PRG_SEED_LENGTH, drbg, otGenerator.createExtraNetwork(myId));
+      FieldElement ssk = SpdzMascotDataSupplier.createRandomSsk(modulus, PRG_SEED_LENGTH);
+      SpdzMascotAsyncDataSupplier asyncSupplier = new SpdzMascotAsyncDataSupplier(myId,
+          numberOfParties, 1, () -> tripleGenerator.createExtraNetwork(myId), modulus,
+          modBitLength, PRG_SEED_LENGTH, ASYNC_BATCH_SIZE, ASYNC_BATCH_SIZE,
+          2 * ASYNC_BATCH_SIZE, ssk, seedOts, drbg);
+      asyncSupplier.start();
+      asyncSuppliers.add(asyncSupplier);
+      supplier = asyncSupplier;
     } else {
       // case STATIC:
       int noOfThreadsUsed = 1;
@@ -275,23 +257,4 @@ public abstract class AbstractSpdzTest {
         new AesCtrDrbg(new byte[32]));
   }
 
-  private SpdzSInt[] computeSInts(DRes<List<DRes<SInt>>> pipe) {
-    List<DRes<SInt>> out = pipe.out();
-    SpdzSInt[] result = new SpdzSInt[out.size()];
-    for (int i = 0; i < out.size(); i++) {
-      DRes<SInt> sIntResult = out.get(i);
-      result[i] = (SpdzSInt) sIntResult.out();
-    }
-    return result;
-  }
-
-  private void evaluate(ProtocolBuilderNumeric spdzBuilder, SpdzResourcePool tripleResourcePool,
-      Network network) {
-    BatchedStrategy<SpdzResourcePool> batchedStrategy = new BatchedStrategy<>();
-    SpdzProtocolSuite spdzProtocolSuite = createProtocolSuite(maxBitLength);
-    BatchedProtocolEvaluator<SpdzResourcePool> batchedProtocolEvaluator =
-        new BatchedProtocolEvaluator<>(batchedStrategy, spdzProtocolSuite);
-    batchedProtocolEvaluator.eval(spdzBuilder.build(), tripleResourcePool, network);
-  }
-
 }
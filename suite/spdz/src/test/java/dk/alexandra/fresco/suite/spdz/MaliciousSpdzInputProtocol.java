@@ -1,6 +1,5 @@
 package dk.alexandra.fresco.suite.spdz;
 
-import dk.alexandra.fresco.framework.MaliciousException;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.framework.value.SInt;
@@ -9,9 +8,6 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzNativeProtocol;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
 import java.math.BigInteger;
-import java.security.MessageDigest;
-import java.util.Arrays;
-import java.util.List;
 
 public class MaliciousSpdzInputProtocol extends SpdzNativeProtocol<SInt> {
 
@@ -20,7 +16,6 @@ public class MaliciousSpdzInputProtocol extends SpdzNativeProtocol<SInt> {
   private BigInteger valueMasked;
   protected SpdzSInt out;
   private int inputter;
-  private byte[] digest;
 
   public MaliciousSpdzInputProtocol(BigInteger input, int inputter) {
     this.input = input;
@@ -41,16 +36,11 @@ public class MaliciousSpdzInputProtocol extends SpdzNativeProtocol<SInt> {
         network.sendToAll(serializer.serialize(bcValue));
       }
       return EvaluationStatus.HAS_MORE_ROUNDS;
-    } else if (round == 1) {
-      this.valueMasked = serializer.deserialize(network.receive(inputter));
-      this.digest = sendMaliciousBroadcastValidation(spdzResourcePool.getMessageDigest(), network,
-          valueMasked);
-      return EvaluationStatus.HAS_MORE_ROUNDS;
     } else {
-      boolean validated = receiveMaliciousBroadcastValidation(network, digest);
-      if (!validated) {
-        throw new MaliciousException("Broadcast digests did not match");
-      }
+      this.valueMasked = serializer.deserialize(network.receive(inputter));
+      // adds a different value than the one received to the digest, such that the broadcast
+      // validation fails
+      spdzResourcePool.getBroadcastDigest().update(valueMasked.add(BigInteger.ONE));
       SpdzSInt valueMaskedElm = new SpdzSInt(valueMasked,
           dataSupplier.getSecretSharedKey().multiply(valueMasked).mod(modulus), modulus);
       this.out = this.inputMask.getMask().add(valueMaskedElm, myId);
@@ -63,29 +53,4 @@ public class MaliciousSpdzInputProtocol extends SpdzNativeProtocol<SInt> {
   public SpdzSInt out() {
     return out;
   }
-
-  private byte[] sendMaliciousBroadcastValidation(MessageDigest dig, Network network,
-      BigInteger b) {
-    dig.update(b.toByteArray());
-    return sendAndReset(dig, network);
-  }
-
-  private byte[] sendAndReset(MessageDigest dig, Network network) {
-    byte[] digest = dig.digest();
-    dig.reset();
-    digest[0] = (byte) 0xFF;
-    network.sendToAll(digest);
-    return digest;
-  }
-
-  private boolean receiveMaliciousBroadcastValidation(Network network, byte[] digest) {
-    // TODO: should we check that we get messages from all players?
-    boolean validated = true;
-    List<byte[]> digests = network.receiveFromAll();
-    for (byte[] d : digests) {
-      boolean equals = Arrays.equals(d, digest);
-      validated = validated && equals;
-    }
-    return validated;
-  }
 }
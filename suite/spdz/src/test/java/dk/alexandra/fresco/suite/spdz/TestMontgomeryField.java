@@ -0,0 +1,169 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.suite.spdz.datatypes.MontgomeryField;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class TestMontgomeryField {
+
+  private static final List<BigInteger> MODULI = Arrays.asList(
+      BigInteger.valueOf(251),
+      BigInteger.ONE.shiftLeft(64).subtract(BigInteger.valueOf(59)),
+      ModulusFinder.findSuitableModulus(128),
+      BigInteger.ONE.shiftLeft(127).add(BigInteger.ONE),
+      BigInteger.ONE.shiftLeft(128).subtract(BigInteger.valueOf(159)),
+      ModulusFinder.findSuitableModulus(192));
+
+  @Test
+  public void testArithmetic() {
+    Random random = new Random(42);
+    for (BigInteger modulus : MODULI) {
+      MontgomeryField field = MontgomeryField.forModulus(modulus);
+      for (int i = 0; i < 200; i++) {
+        BigInteger a = sample(random, modulus, i);
+        BigInteger b = sample(random, modulus, i + 1);
+        long[] x = field.fromBigInteger(a);
+        long[] y = field.fromBigInteger(b);
+        assertEquals(a, field.toBigInteger(x));
+        assertEquals(a.add(b).mod(modulus), field.toBigInteger(field.add(x, y)));
+        assertEquals(a.subtract(b).mod(modulus), field.toBigInteger(field.subtract(x, y)));
+        assertEquals(a.multiply(b).mod(modulus), field.toBigInteger(field.multiply(x, y)));
+        assertEquals(a.multiply(b).mod(modulus),
+            field.toBigInteger(field.montgomeryMultiply(x, field.toMontgomery(y))));
+      }
+    }
+  }
+
+  @Test
+  public void testAccumulate() {
+    Random random = new Random(42);
+    for (BigInteger modulus : MODULI) {
+      MontgomeryField field = MontgomeryField.forModulus(modulus);
+      long[] accumulator = field.newAccumulator();
+      BigInteger expected = BigInteger.ZERO;
+      for (int i = 0; i < 100; i++) {
+        BigInteger a = sample(random, modulus, i);
+        BigInteger b = sample(random, modulus, i + 1);
+        field.multiplyAccumulate(accumulator, field.fromBigInteger(a),
+            field.toMontgomery(field.fromBigInteger(b)));
+        expected = expected.add(a.multiply(b));
+      }
+      assertEquals(expected.mod(modulus), field.toBigInteger(field.reduce(accumulator)));
+    }
+  }
+
+  @Test
+  public void testFromUnreduced() {
+    MontgomeryField field = MontgomeryField.forModulus(BigInteger.valueOf(251));
+    assertEquals(BigInteger.valueOf(250),
+        field.toBigInteger(field.fromBigInteger(BigInteger.valueOf(-1))));
+    assertEquals(BigInteger.valueOf(1),
+        field.toBigInteger(field.fromBigInteger(BigInteger.valueOf(252))));
+  }
+
+  @Test
+  public void testSupported() {
+    assertTrue(MontgomeryField.isSupported(BigInteger.valueOf(3)));
+    assertFalse(MontgomeryField.isSupported(BigInteger.TEN));
+    assertFalse(MontgomeryField.isSupported(BigInteger.ONE));
+    assertFalse(MontgomeryField.isSupported(null));
+    assertSame(MontgomeryField.forModulus(BigInteger.valueOf(251)),
+        MontgomeryField.forModulus(BigInteger.valueOf(251)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedModulus() {
+    MontgomeryField.forModulus(BigInteger.TEN);
+  }
+
+  @Test
+  public void testSpdzSIntMatchesBigInteger() {
+    Random random = new Random(42);
+    BigInteger modulus = ModulusFinder.findSuitableModulus(128);
+    MontgomeryField field = MontgomeryField.forModulus(modulus);
+    for (int i = 0; i < 100; i++) {
+      BigInteger s1 = sample(random, modulus, i);
+      BigInteger m1 = sample(random, modulus, i + 1);
+      BigInteger s2 = sample(random, modulus, i + 2);
+      BigInteger m2 = sample(random, modulus, i + 3);
+      BigInteger c = new BigInteger(160, random);
+      SpdzSInt x = new SpdzSInt(s1, m1, modulus);
+      SpdzSInt y = new SpdzSInt(s2, m2, modulus);
+      assertSame(field, x.getField());
+      assertEquals(new SpdzSInt(s1.add(s2).mod(modulus), m1.add(m2).mod(modulus), modulus),
+          x.add(y));
+      assertEquals(new SpdzSInt(s1, m1.add(m2).mod(modulus), modulus), x.add(y, 2));
+      assertEquals(new SpdzSInt(s1.subtract(s2).mod(modulus), m1.subtract(m2).mod(modulus),
+          modulus), x.subtract(y));
+      assertEquals(new SpdzSInt(s1.multiply(c).mod(modulus), m1.multiply(c).mod(modulus),
+          modulus), x.multiply(c));
+    }
+  }
+
+  @Test
+  public void testSpdzSIntWithoutLimbs() {
+    SpdzSInt unreduced = new SpdzSInt(BigInteger.valueOf(300), BigInteger.ONE,
+        BigInteger.valueOf(251));
+    assertNull(unreduced.getField());
+    SpdzSInt reduced = new SpdzSInt(BigInteger.valueOf(2), BigInteger.ONE,
+        BigInteger.valueOf(251));
+    assertEquals(new SpdzSInt(BigInteger.valueOf(51), BigInteger.valueOf(2),
+        BigInteger.valueOf(251)), unreduced.add(reduced));
+  }
+
+  @Test
+  public void testSpdzSIntSerialization() throws IOException, ClassNotFoundException {
+    BigInteger modulus = ModulusFinder.findSuitableModulus(128);
+    SpdzSInt value = new SpdzSInt(BigInteger.TEN, BigInteger.ONE, modulus);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    SpdzSInt copy;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = (SpdzSInt) in.readObject();
+    }
+    assertEquals(value, copy);
+    assertSame(value.getField(), copy.getField());
+    assertArrayEquals(value.getShareLimbs(), copy.getShareLimbs());
+  }
+
+  @Test
+  public void testSpdzSIntCachesBigIntegers() {
+    BigInteger modulus = ModulusFinder.findSuitableModulus(128);
+    SpdzSInt value = new SpdzSInt(BigInteger.TEN, BigInteger.ONE, modulus);
+    assertNotNull(value.getShareLimbs());
+    assertSame(value.getShare(), value.getShare());
+    assertSame(value.getMac(), value.getMac());
+  }
+
+  private static BigInteger sample(Random random, BigInteger modulus, int i) {
+    switch (i % 10) {
+      case 0:
+        return BigInteger.ZERO;
+      case 1:
+        return modulus.subtract(BigInteger.ONE);
+      default:
+        return new BigInteger(modulus.bitLength() + 8, random).mod(modulus);
+    }
+  }
+}
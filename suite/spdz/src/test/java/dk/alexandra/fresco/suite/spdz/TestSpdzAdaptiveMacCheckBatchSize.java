@@ -0,0 +1,76 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.sce.evaluator.AdaptiveBatchSize;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests evaluating the mac-checks of a {@link SpdzProtocolSuite} with an adaptive batch size.
+ */
+public class TestSpdzAdaptiveMacCheckBatchSize extends AbstractSpdzTest {
+
+  @Test
+  public void testMultiplyAndOpen() {
+    runTest(new TestMultiplyAndOpen<>(), PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullBatchSize() {
+    new SpdzProtocolSuite(128, 16, null);
+  }
+
+  @Override
+  protected SpdzProtocolSuite createProtocolSuite(int maxBitLength) {
+    // small batch sizes, adjusted after every batch, so the mac-check spans several batches
+    return new SpdzProtocolSuite(maxBitLength, maxBitLength / 8,
+        new AdaptiveBatchSize(1, 4, 2, 64, 1));
+  }
+
+  private static class TestMultiplyAndOpen<ResourcePoolT extends SpdzResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          int size = 20;
+          Application<List<BigInteger>, ProtocolBuilderNumeric> testApplication =
+              root -> root.par(par -> {
+                List<DRes<SInt>> products = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                  DRes<SInt> left = par.numeric().known(BigInteger.valueOf(i));
+                  DRes<SInt> right = par.numeric().known(BigInteger.valueOf(i + 1));
+                  products.add(par.numeric().mult(left, right));
+                }
+                return () -> products;
+              }).par((par, products) -> {
+                List<DRes<BigInteger>> opened = products.stream()
+                    .map(par.numeric()::open)
+                    .collect(Collectors.toList());
+                return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+              });
+          List<BigInteger> result = runApplication(testApplication);
+          for (int i = 0; i < size; i++) {
+            Assert.assertEquals(BigInteger.valueOf(i * (i + 1)), result.get(i));
+          }
+          Assert.assertFalse(
+              "There should be no unchecked opened values after the evaluation has finished",
+              conf.getResourcePool().getOpenedValueStore().hasPendingValues());
+        }
+      };
+    }
+  }
+
+}
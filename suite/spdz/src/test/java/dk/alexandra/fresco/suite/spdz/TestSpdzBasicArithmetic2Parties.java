@@ -5,6 +5,8 @@ import dk.alexandra.fresco.lib.arithmetic.AdvancedNumericTests.TestMinInfFrac;
 import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
 import dk.alexandra.fresco.lib.math.integer.division.DivisionTests.TestKnownDivisorDivision;
 import dk.alexandra.fresco.lib.math.integer.division.DivisionTests.TestDivision;
+import dk.alexandra.fresco.lib.math.integer.linalg.LinAlgTests.TestElementWiseProduct;
+import dk.alexandra.fresco.lib.math.integer.linalg.LinAlgTests.TestInnerProductClosed;
 import dk.alexandra.fresco.lib.math.integer.log.LogTests.TestLogarithm;
 import dk.alexandra.fresco.lib.math.integer.sqrt.SqrtTests.TestSquareRoot;
 import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
@@ -32,6 +34,18 @@ public class TestSpdzBasicArithmetic2Parties extends AbstractSpdzTest {
         PreprocessingStrategy.DUMMY, 2, 512, 150, 16);
   }
 
+  @Test
+  public void test_InnerProduct_Sequential_Batched() {
+    runTest(new TestInnerProductClosed<>(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void test_ElementWiseProduct_Sequential_Batched() {
+    runTest(new TestElementWiseProduct<>(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
   @Test
   public void test_Log_Sequential_Batched() {
     runTest(new TestLogarithm<>(),
@@ -123,4 +137,16 @@ public class TestSpdzBasicArithmetic2Parties extends AbstractSpdzTest {
         PreprocessingStrategy.MASCOT, 2, 16, 16, 16);
   }
 
+  @Test
+  public void testInputFromAllMascotAsync() {
+    runTest(new BasicArithmeticTests.TestInputFromAll<>(), EvaluationStrategy.SEQUENTIAL_BATCHED,
+        PreprocessingStrategy.MASCOT_ASYNC, 2, 16, 16, 16);
+  }
+
+  @Test
+  public void testSumAndMultMascotAsync() {
+    runTest(new BasicArithmeticTests.TestSumAndMult<>(), EvaluationStrategy.SEQUENTIAL_BATCHED,
+        PreprocessingStrategy.MASCOT_ASYNC, 2, 16, 16, 16);
+  }
+
 }
@@ -0,0 +1,57 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class TestSpdzBroadcastDigest {
+
+  @Test
+  public void testDigestOfSameValuesMatch() {
+    SpdzBroadcastDigest first = new SpdzBroadcastDigest();
+    SpdzBroadcastDigest second = new SpdzBroadcastDigest();
+    assertFalse(first.hasPendingValues());
+    for (int i = 0; i < 10; i++) {
+      first.update(BigInteger.valueOf(i));
+      second.update(BigInteger.valueOf(i));
+    }
+    assertTrue(first.hasPendingValues());
+    assertArrayEquals(first.digestAndReset(), second.digestAndReset());
+    assertFalse(first.hasPendingValues());
+  }
+
+  @Test
+  public void testDigestIsReset() {
+    SpdzBroadcastDigest first = new SpdzBroadcastDigest();
+    SpdzBroadcastDigest second = new SpdzBroadcastDigest();
+    first.update(BigInteger.ONE);
+    first.digestAndReset();
+    first.update(BigInteger.TEN);
+    second.update(BigInteger.TEN);
+    assertArrayEquals(first.digestAndReset(), second.digestAndReset());
+  }
+
+  @Test
+  public void testDigestOfDifferentValuesDiffer() {
+    SpdzBroadcastDigest first = new SpdzBroadcastDigest();
+    SpdzBroadcastDigest second = new SpdzBroadcastDigest();
+    first.update(BigInteger.ONE);
+    second.update(BigInteger.TEN);
+    assertFalse(Arrays.equals(first.digestAndReset(), second.digestAndReset()));
+  }
+
+  @Test
+  public void testDigestOfSameConcatenationDiffer() {
+    SpdzBroadcastDigest first = new SpdzBroadcastDigest();
+    SpdzBroadcastDigest second = new SpdzBroadcastDigest();
+    first.update(BigInteger.valueOf(0x0102));
+    first.update(BigInteger.valueOf(0x03));
+    second.update(BigInteger.valueOf(0x01));
+    second.update(BigInteger.valueOf(0x0203));
+    assertFalse(Arrays.equals(first.digestAndReset(), second.digestAndReset()));
+  }
+}
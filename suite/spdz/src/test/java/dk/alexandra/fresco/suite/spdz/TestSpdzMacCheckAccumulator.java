@@ -0,0 +1,87 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class TestSpdzMacCheckAccumulator {
+
+  private static final BigInteger MODULUS = ModulusFinder.findSuitableModulus(128);
+  private static final BigInteger KEY = BigInteger.valueOf(123456789);
+  private static final int VALUES = 100;
+
+  /**
+   * Computes the check values of two parties opening the same random elements, with the opened
+   * value at the given index offset by an error.
+   */
+  private BigInteger computeDeltaSum(int corruptIndex, BigInteger error) {
+    SpdzDummyDataSupplier supplierOne = new SpdzDummyDataSupplier(1, 2, MODULUS, KEY);
+    SpdzDummyDataSupplier supplierTwo = new SpdzDummyDataSupplier(2, 2, MODULUS, KEY);
+    BigInteger keyShareOne = supplierOne.getSecretSharedKey();
+    BigInteger keyShareTwo = supplierTwo.getSecretSharedKey();
+    SpdzMacCheckAccumulator accumulatorOne = new SpdzMacCheckAccumulator(MODULUS);
+    SpdzMacCheckAccumulator accumulatorTwo = new SpdzMacCheckAccumulator(MODULUS);
+    Drbg drbgOne = new AesCtrDrbg(new byte[32]);
+    Drbg drbgTwo = new AesCtrDrbg(new byte[32]);
+    for (int i = 0; i < VALUES; i++) {
+      SpdzSInt shareOne = supplierOne.getNextRandomFieldElement();
+      SpdzSInt shareTwo = supplierTwo.getNextRandomFieldElement();
+      BigInteger opened = shareOne.getShare().add(shareTwo.getShare()).mod(MODULUS);
+      if (i == corruptIndex) {
+        opened = opened.add(error).mod(MODULUS);
+      }
+      accumulatorOne.add(shareOne, opened, drbgOne);
+      accumulatorTwo.add(shareTwo, opened, drbgTwo);
+    }
+    assertEquals(VALUES, accumulatorOne.getCount());
+    BigInteger deltaSum = accumulatorOne.computeDelta(keyShareOne)
+        .add(accumulatorTwo.computeDelta(keyShareTwo)).mod(MODULUS);
+    assertTrue(accumulatorOne.isEmpty());
+    assertTrue(accumulatorTwo.isEmpty());
+    return deltaSum;
+  }
+
+  @Test
+  public void testHonestOpeningsSumToZero() {
+    assertEquals(BigInteger.ZERO, computeDeltaSum(-1, BigInteger.ZERO));
+  }
+
+  @Test
+  public void testCorruptOpeningIsDetected() {
+    assertNotEquals(BigInteger.ZERO, computeDeltaSum(VALUES / 2, BigInteger.ONE));
+  }
+
+  @Test
+  public void testAddListMatchesSingleValues() {
+    SpdzDummyDataSupplier supplier = new SpdzDummyDataSupplier(1, 2, MODULUS, KEY);
+    List<SpdzSInt> closed = new ArrayList<>();
+    List<BigInteger> opened = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      closed.add(supplier.getNextRandomFieldElement());
+      opened.add(BigInteger.valueOf(i));
+    }
+    SpdzMacCheckAccumulator single = new SpdzMacCheckAccumulator(MODULUS);
+    Drbg drbg = new AesCtrDrbg(new byte[32]);
+    for (int i = 0; i < closed.size(); i++) {
+      single.add(closed.get(i), opened.get(i), drbg);
+    }
+    SpdzMacCheckAccumulator batched = new SpdzMacCheckAccumulator(MODULUS);
+    batched.add(new Pair<>(closed, opened), new AesCtrDrbg(new byte[32]));
+    assertTrue(closed.isEmpty());
+    assertTrue(opened.isEmpty());
+    assertFalse(batched.isEmpty());
+    assertEquals(single.computeDelta(KEY), batched.computeDelta(KEY));
+  }
+}
@@ -0,0 +1,78 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzMultVectorProtocol;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStoreImpl;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class TestSpdzMultVectorProtocol {
+
+  private final SpdzResourcePool resourcePool = new SpdzResourcePoolImpl(1, 2,
+      new SpdzOpenedValueStoreImpl(), new SpdzDummyDataSupplier(1, 2), null);
+
+  @Test(expected = MaliciousException.class)
+  public void testTooFewShares() {
+    multiplyWithPeerShares(Arrays.asList(BigInteger.ONE, BigInteger.ONE, BigInteger.ONE));
+  }
+
+  @Test(expected = MaliciousException.class)
+  public void testTooManyShares() {
+    multiplyWithPeerShares(Collections.nCopies(5, BigInteger.ONE));
+  }
+
+  /**
+   * Multiplies two pairs of values, where the other party sends the given shares of the epsilons
+   * and deltas.
+   */
+  private void multiplyWithPeerShares(List<BigInteger> peerShares) {
+    BigInteger modulus = resourcePool.getModulus();
+    List<DRes<SInt>> values = Arrays.asList(
+        new SpdzSInt(BigInteger.ONE, BigInteger.TEN, modulus),
+        new SpdzSInt(BigInteger.ONE, BigInteger.TEN, modulus));
+    SpdzMultVectorProtocol protocol = new SpdzMultVectorProtocol(values, values);
+    EchoNetwork network = new EchoNetwork(resourcePool.getSerializer().serialize(peerShares));
+    protocol.evaluate(0, resourcePool, network);
+    protocol.evaluate(1, resourcePool, network);
+  }
+
+  /**
+   * Two party network returning the last message sent to party one as its own message, and a
+   * fixed message from party two.
+   */
+  private static class EchoNetwork implements Network {
+
+    private final byte[] peerMessage;
+    private byte[] ownMessage;
+
+    private EchoNetwork(byte[] peerMessage) {
+      this.peerMessage = peerMessage;
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      if (partyId == 1) {
+        ownMessage = data;
+      }
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      return partyId == 1 ? ownMessage : peerMessage;
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return 2;
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests evaluating Spdz with {@link EvaluationStrategy#PARALLEL_BATCHED}. The batches are large
+ * enough to be split into partitions, so the mac check and the broadcast validation at the end of
+ * each test fail unless all parties fetch pre-processed material and store opened and broadcast
+ * values in the same order.
+ */
+public class TestSpdzParallelBatchedStrategy extends AbstractSpdzTest {
+
+  @Test
+  public void testLotsMult() {
+    runTest(new BasicArithmeticTests.TestLotsMult<>(), EvaluationStrategy.PARALLEL_BATCHED,
+        PreprocessingStrategy.DUMMY, 2, 128, 64, 16);
+  }
+
+  @Test
+  public void testLotsInputsThreeParties() {
+    runTest(new TestLotsInputs(), EvaluationStrategy.PARALLEL_BATCHED,
+        PreprocessingStrategy.DUMMY, 3, 128, 64, 16);
+  }
+
+  private static class TestLotsInputs
+      extends TestThreadFactory<SpdzResourcePool, ProtocolBuilderNumeric> {
+
+    private static final int INPUTS_PER_PARTY = 2000;
+
+    @Override
+    public TestThread<SpdzResourcePool, ProtocolBuilderNumeric> next() {
+      return new TestThread<SpdzResourcePool, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app = producer ->
+              producer.par(par -> {
+                Numeric numeric = par.numeric();
+                int noOfParties = par.getBasicNumericContext().getNoOfParties();
+                List<DRes<SInt>> inputs = new ArrayList<>();
+                for (int i = 0; i < INPUTS_PER_PARTY; i++) {
+                  for (int partyId = 1; partyId <= noOfParties; partyId++) {
+                    inputs.add(numeric.input(BigInteger.valueOf(i * partyId), partyId));
+                  }
+                }
+                return () -> inputs;
+              }).par((par, inputs) -> {
+                Numeric numeric = par.numeric();
+                List<DRes<BigInteger>> opened = new ArrayList<>(inputs.size());
+                for (DRes<SInt> input : inputs) {
+                  opened.add(numeric.open(input));
+                }
+                return () -> opened;
+              }).seq((seq, opened) -> {
+                List<BigInteger> output = new ArrayList<>(opened.size());
+                for (DRes<BigInteger> value : opened) {
+                  output.add(value.out());
+                }
+                return () -> output;
+              });
+          List<BigInteger> output = runApplication(app);
+          int noOfParties = conf.getResourcePool().getNoOfParties();
+          Assert.assertEquals(INPUTS_PER_PARTY * noOfParties, output.size());
+          for (int i = 0; i < INPUTS_PER_PARTY; i++) {
+            for (int partyId = 1; partyId <= noOfParties; partyId++) {
+              Assert.assertEquals(BigInteger.valueOf(i * partyId),
+                  output.get(i * noOfParties + partyId - 1));
+            }
+          }
+        }
+      };
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package dk.alexandra.fresco.suite.spdz;
 
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStoreImpl;
 import org.junit.Test;
@@ -12,4 +13,13 @@ public class TestSpdzResourcePoolImpl {
         null).getRandomGenerator();
   }
 
+  @Test(expected = IllegalStateException.class)
+  public void getRandomGeneratorOfPartition() {
+    SpdzResourcePoolImpl resourcePool = new SpdzResourcePoolImpl(1, 2,
+        new SpdzOpenedValueStoreImpl(), new SpdzDummyDataSupplier(1, 2),
+        new AesCtrDrbg(new byte[32]));
+    resourcePool.getRandomGenerator();
+    resourcePool.createPartition().getRandomGenerator();
+  }
+
 }
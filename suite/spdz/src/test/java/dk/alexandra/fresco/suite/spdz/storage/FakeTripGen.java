@@ -375,6 +375,42 @@ public class FakeTripGen {
     }
   }
 
+  /**
+   * Writes secret shared random field elements directly to the given streams.
+   * 
+   * @param amount
+   * @param noOfParties
+   * @param modulus
+   * @param alpha
+   * @param rand
+   * @param streams the streams to write to. Innermost list should have size of parties, while
+   *        outermost is per thread used online.
+   * @throws IOException
+   */
+  public void generateRandomElementStream(int amount, int noOfParties, BigInteger modulus,
+      BigInteger alpha, Random rand, List<List<ObjectOutputStream>> streams) throws IOException {
+    FakeTripGen.rand = rand;
+    FakeTripGen.alpha = alpha;
+    FakeTripGen.mod = modulus;
+
+    for (List<ObjectOutputStream> ooss : streams) {
+      for (int i = 0; i < amount; i++) {
+        BigInteger element = sample();
+        BigInteger mac = getMac(element);
+        List<SpdzSInt> elements = toShares(element, mac, noOfParties);
+        for (int j = 0; j < noOfParties; j++) {
+          ooss.get(j).writeObject(elements.get(j));
+        }
+        if (i % 30000 == 0) {
+          for (ObjectOutputStream oos : ooss) {
+            oos.flush();
+            oos.reset();
+          }
+        }
+      }
+    }
+  }
+
   /**
    * Returns a list of double-arrays where the first array contains the expPipe for that player.
    * i.e. list.get(0)[0] contains the expPipe no. 1 for player 1.
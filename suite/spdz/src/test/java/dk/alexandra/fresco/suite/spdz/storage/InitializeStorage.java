@@ -180,11 +180,12 @@ public class InitializeStorage {
    * @param noOfInputMasks The number of masks for input to generate.
    * @param noOfBits The number of random bits to generate
    * @param noOfExpPipes The number of exponentiation pipes to generate.
+   * @param noOfRandomElements The number of random field elements to generate.
    * @param p The modulus to use.
    */
   public static void initStreamedStorage(StreamedStorage storage, int noOfPlayers,
       int noOfThreads, int noOfTriples, int noOfInputMasks, int noOfBits, int noOfExpPipes,
-      BigInteger p) {
+      int noOfRandomElements, BigInteger p) {
     try {
       // Try get the last thread file. If that fails, we need to
       // generate the files
@@ -337,7 +338,44 @@ public class InitializeStorage {
       throw new RuntimeException("Could not write the bit stream", e);
     }
 
-    System.out.println("Done generating bits, now generating exponentiation pipes");
+    System.out.println("Done generating bits, now generating random elements");
+
+    streams = new ArrayList<>();
+    // random elements
+    for (int threadId = 0; threadId < noOfThreads; threadId++) {
+      List<ObjectOutputStream> ooss = new ArrayList<>();
+      for (int i = 0; i < noOfPlayers; i++) {
+        String storageName = SpdzStorageDataSupplier.STORAGE_NAME_PREFIX + noOfThreads + "_" + (i + 1)
+            + "_" + threadId + "_" + SpdzStorageDataSupplier.RANDOM_ELEMENT_STORAGE;
+        try {
+          ObjectOutputStream oos =
+              new ObjectOutputStream(new FileOutputStream(new File(storageName)));
+          ooss.add(oos);
+        } catch (FileNotFoundException e) {
+          e.printStackTrace();
+          throw new RuntimeException("Could not open the file " + storageName, e);
+        } catch (IOException e) {
+          e.printStackTrace();
+          throw new RuntimeException("Could not write to the file " + storageName, e);
+        }
+      }
+      streams.add(ooss);
+    }
+    try {
+      generator.generateRandomElementStream(noOfRandomElements, noOfPlayers, p, alpha,
+          new Random(), streams);
+      for (List<ObjectOutputStream> s : streams) {
+        for (ObjectOutputStream o : s) {
+          o.flush();
+          o.close();
+        }
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      throw new RuntimeException("Could not write the random element stream", e);
+    }
+
+    System.out.println("Done generating random elements, now generating exponentiation pipes");
 
     streams = new ArrayList<>();
     // exp pipes
@@ -377,9 +415,9 @@ public class InitializeStorage {
 
   /**
    * Does the same as
-   * {@link #initStreamedStorage(StreamedStorage, int, int, int, int, int, int, BigInteger)} but
-   * where the chosen modulus is chosen for you, and is the same as the one found in:
-   * {@link SpdzDummyDataSupplier}
+   * {@link #initStreamedStorage(StreamedStorage, int, int, int, int, int, int, int, BigInteger)}
+   * but where the chosen modulus is chosen for you, and is the same as the one found in:
+   * {@link SpdzDummyDataSupplier}. As many random elements as triples are generated.
    */
   public static void initStreamedStorage(StreamedStorage streamedStorage,
       int noOfPlayers, int noOfThreads, int noOfTriples, int noOfInputMasks, int noOfBits,
@@ -387,6 +425,6 @@ public class InitializeStorage {
     BigInteger p = new BigInteger(
         "6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
     InitializeStorage.initStreamedStorage(streamedStorage, noOfPlayers, noOfThreads, noOfTriples,
-        noOfInputMasks, noOfBits, noOfExpPipes, p);
+        noOfInputMasks, noOfBits, noOfExpPipes, noOfTriples, p);
   }
 }
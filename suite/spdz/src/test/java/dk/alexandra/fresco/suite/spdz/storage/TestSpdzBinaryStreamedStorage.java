@@ -0,0 +1,247 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.exceptions.NoMoreElementsException;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestSpdzBinaryStreamedStorage {
+
+  private static final int NO_OF_PARTIES = 2;
+  private static final String STORAGE_NAME = SpdzStorageDataSupplier.STORAGE_NAME_PREFIX + "1_";
+  private static final String TEST_NAME = SpdzStorageDataSupplier.STORAGE_FOLDER + "binary-test";
+  private static final BigInteger MODULUS =
+      new BigInteger("340282366920938463463374607431768211297");
+
+  @After
+  public void teardown() {
+    try {
+      InitializeStorage.cleanup();
+    } catch (IOException e) {
+      fail();
+    }
+  }
+
+  @Test
+  public void testConvertedStorageSuppliesSameMaterial() {
+    InitializeStorage.initStreamedStorage(new FilebasedStreamedStorageImpl(new InMemoryStorage()),
+        NO_OF_PARTIES, 1, 20, 4, 6, 2);
+    for (int myId = 1; myId <= NO_OF_PARTIES; myId++) {
+      String storageName = STORAGE_NAME + myId + "_0_";
+      StreamedStorage legacy = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+      StreamedStorage binary = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+      long copied = SpdzBinaryStorageConverter.convert(legacy, binary, storageName, NO_OF_PARTIES);
+      assertEquals(2 + 20 + 6 + 2 + 20 + NO_OF_PARTIES * 4, copied);
+      legacy.shutdown();
+      binary.shutdown();
+
+      legacy = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+      binary = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+      SpdzDataSupplier expected = new SpdzStorageDataSupplier(legacy, storageName, NO_OF_PARTIES);
+      SpdzDataSupplier actual = new SpdzStorageDataSupplier(binary, storageName, NO_OF_PARTIES);
+      assertEquals(expected.getModulus(), actual.getModulus());
+      assertEquals(expected.getSecretSharedKey(), actual.getSecretSharedKey());
+      assertEquals(expected.getNextTriple(), actual.getNextTriple());
+      assertEquals(expected.getNextTriples(15), actual.getNextTriples(15));
+      for (int i = 0; i < 6; i++) {
+        assertEquals(expected.getNextBit(), actual.getNextBit());
+      }
+      for (int i = 0; i < 2; i++) {
+        assertArrayEquals(expected.getNextExpPipe(), actual.getNextExpPipe());
+      }
+      assertEquals(expected.getNextRandomFieldElement(), actual.getNextRandomFieldElement());
+      assertEquals(expected.getNextRandomFieldElements(19),
+          actual.getNextRandomFieldElements(19));
+      for (int towardPlayerId = 1; towardPlayerId <= NO_OF_PARTIES; towardPlayerId++) {
+        for (int i = 0; i < 4; i++) {
+          SpdzInputMask expectedMask = expected.getNextInputMask(towardPlayerId);
+          SpdzInputMask actualMask = actual.getNextInputMask(towardPlayerId);
+          assertEquals(expectedMask.getMask(), actualMask.getMask());
+          assertEquals(expectedMask.getRealValue(), actualMask.getRealValue());
+        }
+      }
+      assertEquals(expected.getNextTriples(3), actual.getNextTriples(3));
+      try {
+        actual.getNextTriples(2);
+        fail("Only one triple should be left");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      assertNotNull(actual.getNextTriple());
+      legacy.shutdown();
+      binary.shutdown();
+    }
+  }
+
+  @Test
+  public void testConvertLegacyFiles() throws IOException {
+    // the files in legacy-storage were written by FilebasedStreamedStorageImpl using the
+    // SpdzSInt class from before its values were held as limbs
+    new File(SpdzStorageDataSupplier.STORAGE_FOLDER).mkdirs();
+    String storageName = SpdzStorageDataSupplier.STORAGE_FOLDER + "legacy_";
+    for (String name : Arrays.asList("MOD_P", "SSK", "TRIPLE", "BIT", "EXP", "INPUT_1",
+        "INPUT_2")) {
+      try (InputStream in = getClass().getResourceAsStream("/legacy-storage/legacy_" + name)) {
+        Files.copy(in, Paths.get(storageName + name));
+      }
+    }
+    StreamedStorage legacy = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+    StreamedStorage binary = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    long copied = SpdzBinaryStorageConverter.convert(legacy, binary, storageName, NO_OF_PARTIES);
+    assertEquals(1 + 1 + 3 + 2 + 1 + 2 + 2, copied);
+    legacy.shutdown();
+    binary.shutdown();
+
+    binary = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    SpdzDataSupplier supplier = new SpdzStorageDataSupplier(binary, storageName, NO_OF_PARTIES);
+    assertEquals(MODULUS, supplier.getModulus());
+    assertEquals(BigInteger.valueOf(12345), supplier.getSecretSharedKey());
+    for (int i = 0; i < 3; i++) {
+      SpdzTriple triple = supplier.getNextTriple();
+      assertEquals(value(10 * i + 1, 10 * i + 2), triple.getA());
+      assertEquals(value(10 * i + 3, 10 * i + 4), triple.getB());
+      assertEquals(value(10 * i + 5, 10 * i + 6), triple.getC());
+      assertNotNull(triple.getC().getShareLimbs());
+    }
+    assertEquals(value(1, 7), supplier.getNextBit());
+    assertEquals(value(0, 8), supplier.getNextBit());
+    assertArrayEquals(new SpdzSInt[]{value(1, 2), value(3, 4), value(5, 6)},
+        supplier.getNextExpPipe());
+    for (int i = 0; i < 2; i++) {
+      SpdzInputMask mask = supplier.getNextInputMask(1);
+      assertEquals(value(20 + i, 30 + i), mask.getMask());
+      assertEquals(BigInteger.valueOf(40 + i), mask.getRealValue());
+    }
+    for (int i = 0; i < 2; i++) {
+      SpdzInputMask mask = supplier.getNextInputMask(2);
+      assertEquals(value(22 + i, 32 + i), mask.getMask());
+      assertNull(mask.getRealValue());
+    }
+    binary.shutdown();
+  }
+
+  private SpdzSInt value(long share, long mac) {
+    return new SpdzSInt(BigInteger.valueOf(share), BigInteger.valueOf(mac), MODULUS);
+  }
+
+  @Test
+  public void testPutAndGetNext() throws NoMoreElementsException {
+    new File(SpdzStorageDataSupplier.STORAGE_FOLDER).mkdirs();
+    StreamedStorage storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    SpdzSInt value = new SpdzSInt(BigInteger.valueOf(5), BigInteger.valueOf(7), MODULUS);
+    SpdzSInt unreduced = new SpdzSInt(MODULUS.add(BigInteger.ONE), BigInteger.valueOf(-1),
+        MODULUS);
+    storage.putNext(TEST_NAME, value);
+    storage.putNext(TEST_NAME, unreduced);
+    storage.putNext(TEST_NAME + "value", MODULUS.negate());
+    storage.putNext(TEST_NAME + "value", BigInteger.ZERO);
+    storage.shutdown();
+
+    storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    List<SpdzSInt> values = storage.getNext(TEST_NAME, 2);
+    assertEquals(value, values.get(0));
+    assertEquals(new SpdzSInt(BigInteger.ONE, MODULUS.subtract(BigInteger.ONE), MODULUS),
+        values.get(1));
+    assertEquals(MODULUS.negate(), storage.getNext(TEST_NAME + "value"));
+    assertEquals(BigInteger.ZERO, storage.getNext(TEST_NAME + "value"));
+    try {
+      storage.getNext(TEST_NAME);
+      fail("There should be no more elements");
+    } catch (NoMoreElementsException e) {
+      // expected
+    }
+    storage.shutdown();
+  }
+
+  @Test
+  public void testStreamsHaveOneType() {
+    new File(SpdzStorageDataSupplier.STORAGE_FOLDER).mkdirs();
+    StreamedStorage storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    SpdzSInt value = new SpdzSInt(BigInteger.valueOf(5), BigInteger.valueOf(7), MODULUS);
+    storage.putNext(TEST_NAME, new SpdzTriple(value, value, value));
+    try {
+      storage.putNext(TEST_NAME, value);
+      fail("A stream of triples should not accept other elements");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("SpdzTriple"));
+    } finally {
+      storage.shutdown();
+    }
+  }
+
+  @Test
+  public void testNotEnoughValues() throws NoMoreElementsException {
+    new File(SpdzStorageDataSupplier.STORAGE_FOLDER).mkdirs();
+    StreamedStorage storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    storage.putNext(TEST_NAME, MODULUS);
+    storage.shutdown();
+
+    storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    try {
+      storage.getNext(TEST_NAME, 2);
+      fail("There should only be one element");
+    } catch (NoMoreElementsException e) {
+      // expected
+    }
+    assertEquals(MODULUS, storage.getNext(TEST_NAME));
+    storage.shutdown();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyExponentiationPipe() {
+    new File(SpdzStorageDataSupplier.STORAGE_FOLDER).mkdirs();
+    StreamedStorage storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    try {
+      storage.putNext(TEST_NAME, new SpdzSInt[0]);
+    } finally {
+      storage.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testInvalidHeader() throws IOException, NoMoreElementsException {
+    new File(SpdzStorageDataSupplier.STORAGE_FOLDER).mkdirs();
+    StreamedStorage storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    SpdzSInt value = new SpdzSInt(BigInteger.valueOf(5), BigInteger.valueOf(7), MODULUS);
+    storage.putNext(TEST_NAME, new SpdzSInt[]{value, value});
+    storage.shutdown();
+    // overwrite the number of field elements in a record with zero
+    Path file = Paths.get(TEST_NAME + SpdzBinaryStreamedStorage.FILE_EXTENSION);
+    byte[] bytes = Files.readAllBytes(file);
+    Arrays.fill(bytes, 6, 10, (byte) 0);
+    Files.write(file, bytes);
+
+    storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    try {
+      storage.getNext(TEST_NAME);
+    } finally {
+      storage.shutdown();
+    }
+  }
+
+  @Test(expected = NoMoreElementsException.class)
+  public void testMissingFile() throws NoMoreElementsException {
+    new SpdzBinaryStreamedStorage(new InMemoryStorage()).getNext(TEST_NAME + "missing");
+  }
+}
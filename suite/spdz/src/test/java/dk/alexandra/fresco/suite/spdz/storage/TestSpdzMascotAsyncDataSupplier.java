@@ -0,0 +1,248 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.AsyncBatchProducer;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.suite.spdz.NetManager;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.tools.mascot.MascotSecurityParameters;
+import dk.alexandra.fresco.tools.mascot.field.FieldElement;
+import dk.alexandra.fresco.tools.ot.base.DummyOt;
+import dk.alexandra.fresco.tools.ot.base.Ot;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSpdzMascotAsyncDataSupplier {
+
+  private static final int NUM_TRIPLES = 10;
+  private static final int NUM_BITS = 6;
+  private static final int NUM_ELEMENTS = 5;
+  private static final int NUM_MASKS = 3;
+
+  private ExecutorService executorService;
+  private MascotSecurityParameters mascotSecurityParameters;
+  private List<Integer> ports;
+  private int noOfParties;
+  private BigInteger modulus;
+
+  @Before
+  public void setUp() {
+    noOfParties = 2;
+    ports = new ArrayList<>(noOfParties);
+    for (int i = 1; i <= noOfParties; i++) {
+      ports.add(11000 + i * (noOfParties - 1));
+    }
+    executorService = Executors.newCachedThreadPool();
+    mascotSecurityParameters = new MascotSecurityParameters();
+    modulus = ModulusFinder.findSuitableModulus(mascotSecurityParameters.getModBitLength());
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testProducesValidMaterial() {
+    Map<Integer, FieldElement> macKeyShares = new HashMap<>();
+    for (int myId = 1; myId <= noOfParties; myId++) {
+      macKeyShares.put(myId, SpdzMascotDataSupplier
+          .createRandomSsk(modulus, mascotSecurityParameters.getPrgSeedLength()));
+    }
+    List<Callable<Result>> tasks = new ArrayList<>();
+    try (NetManager otManager = new NetManager(ports);
+        NetManager tripleManager = new NetManager(ports)) {
+      for (int myId = 1; myId <= noOfParties; myId++) {
+        final int finalMyId = myId;
+        tasks.add(() -> {
+          Map<Integer, RotList> seedOts =
+              setupSeedOts(finalMyId, otManager.createExtraNetwork(finalMyId));
+          SpdzMascotAsyncDataSupplier supplier = new SpdzMascotAsyncDataSupplier(finalMyId,
+              noOfParties, 1, () -> tripleManager.createExtraNetwork(finalMyId), modulus,
+              mascotSecurityParameters.getModBitLength(),
+              mascotSecurityParameters.getPrgSeedLength(), 4, 4, 8, macKeyShares.get(finalMyId),
+              seedOts, getDrbg());
+          return consume(supplier);
+        });
+      }
+      List<Result> results = invoke(tasks);
+      BigInteger macKey = macKeyShares.values().stream().map(FieldElement::toBigInteger)
+          .reduce(BigInteger.ZERO, BigInteger::add).mod(modulus);
+      for (int i = 0; i < NUM_TRIPLES; i++) {
+        final int index = i;
+        BigInteger a = recombine(macKey, results.stream()
+            .map(r -> r.triples.get(index).getA()).collect(Collectors.toList()));
+        BigInteger b = recombine(macKey, results.stream()
+            .map(r -> r.triples.get(index).getB()).collect(Collectors.toList()));
+        BigInteger c = recombine(macKey, results.stream()
+            .map(r -> r.triples.get(index).getC()).collect(Collectors.toList()));
+        assertEquals(a.multiply(b).mod(modulus), c);
+      }
+      for (int i = 0; i < NUM_BITS; i++) {
+        final int index = i;
+        BigInteger bit = recombine(macKey, results.stream()
+            .map(r -> r.bits.get(index)).collect(Collectors.toList()));
+        assertTrue(bit.equals(BigInteger.ZERO) || bit.equals(BigInteger.ONE));
+      }
+      for (int i = 0; i < NUM_ELEMENTS; i++) {
+        final int index = i;
+        recombine(macKey, results.stream()
+            .map(r -> r.elements.get(index)).collect(Collectors.toList()));
+      }
+      for (int towardPlayerId = 1; towardPlayerId <= noOfParties; towardPlayerId++) {
+        final int finalTowardPlayerId = towardPlayerId;
+        for (int i = 0; i < NUM_MASKS; i++) {
+          final int index = i;
+          List<SpdzInputMask> masks = results.stream()
+              .map(r -> r.masks.get(finalTowardPlayerId).get(index))
+              .collect(Collectors.toList());
+          BigInteger value = recombine(macKey,
+              masks.stream().map(SpdzInputMask::getMask).collect(Collectors.toList()));
+          for (int partyId = 1; partyId <= noOfParties; partyId++) {
+            BigInteger realValue = masks.get(partyId - 1).getRealValue();
+            if (partyId == towardPlayerId) {
+              assertEquals(value, realValue);
+            } else {
+              assertNull(realValue);
+            }
+          }
+        }
+      }
+      int pipeLength = mascotSecurityParameters.getModBitLength() + 2;
+      assertEquals(pipeLength, results.get(0).expPipe.length);
+      List<BigInteger> pipe = new ArrayList<>(pipeLength);
+      for (int i = 0; i < pipeLength; i++) {
+        final int index = i;
+        pipe.add(recombine(macKey, results.stream()
+            .map(r -> r.expPipe[index]).collect(Collectors.toList())));
+      }
+      BigInteger random = pipe.get(1);
+      assertEquals(BigInteger.ONE, pipe.get(0).multiply(random).mod(modulus));
+      for (int i = 2; i < pipeLength; i++) {
+        assertEquals(pipe.get(i - 1).multiply(random).mod(modulus), pipe.get(i));
+      }
+      for (Result result : results) {
+        Map<String, Long> values = result.loggedValues;
+        assertTrue(values.get("EXP_PIPES" + AsyncBatchProducer.PRODUCED_SUFFIX) >= 1);
+        assertTrue(values.get("TRIPLES" + AsyncBatchProducer.PRODUCED_SUFFIX)
+            >= NUM_TRIPLES);
+        assertTrue(values.get("BITS" + AsyncBatchProducer.PRODUCED_SUFFIX)
+            >= NUM_BITS);
+        assertNotNull(values.get("INPUT_MASKS_P2" + AsyncBatchProducer.STALLS_SUFFIX));
+        assertTrue(values.get(AsyncBatchProducer.PRODUCER_ROUNDS) > 0);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalWatermarks() {
+    new SpdzMascotAsyncDataSupplier(1, 2, 1, null, modulus, 128, 256, 16, 8, 8, null, null, null);
+  }
+
+  private Result consume(SpdzMascotAsyncDataSupplier supplier) {
+    try {
+      supplier.start();
+      Result result = new Result();
+      for (int i = 0; i < NUM_TRIPLES; i++) {
+        result.triples.add(supplier.getNextTriple());
+      }
+      for (int i = 0; i < NUM_BITS; i++) {
+        result.bits.add(supplier.getNextBit());
+      }
+      for (int i = 0; i < NUM_ELEMENTS; i++) {
+        result.elements.add(supplier.getNextRandomFieldElement());
+      }
+      for (int towardPlayerId = 1; towardPlayerId <= noOfParties; towardPlayerId++) {
+        List<SpdzInputMask> masks = new ArrayList<>();
+        for (int i = 0; i < NUM_MASKS; i++) {
+          masks.add(supplier.getNextInputMask(towardPlayerId));
+        }
+        result.masks.put(towardPlayerId, masks);
+      }
+      result.expPipe = supplier.getNextExpPipe();
+      result.loggedValues = supplier.getLoggedValues();
+      return result;
+    } finally {
+      supplier.close();
+    }
+  }
+
+  private BigInteger recombine(BigInteger macKey, List<SpdzSInt> shares) {
+    BigInteger value = BigInteger.ZERO;
+    BigInteger mac = BigInteger.ZERO;
+    for (SpdzSInt share : shares) {
+      value = value.add(share.getShare());
+      mac = mac.add(share.getMac());
+    }
+    value = value.mod(modulus);
+    assertEquals(value.multiply(macKey).mod(modulus), mac.mod(modulus));
+    return value;
+  }
+
+  private Map<Integer, RotList> setupSeedOts(int myId, Network network) {
+    Map<Integer, RotList> seedOts = new HashMap<>();
+    Drbg drbg = getDrbg();
+    for (int otherId = 1; otherId <= noOfParties; otherId++) {
+      if (otherId != myId) {
+        Ot ot = new DummyOt(otherId, network);
+        RotList currentSeedOts = new RotList(drbg, mascotSecurityParameters.getPrgSeedLength());
+        if (myId < otherId) {
+          currentSeedOts.send(ot);
+          currentSeedOts.receive(ot);
+        } else {
+          currentSeedOts.receive(ot);
+          currentSeedOts.send(ot);
+        }
+        seedOts.put(otherId, currentSeedOts);
+      }
+    }
+    return seedOts;
+  }
+
+  private Drbg getDrbg() {
+    byte[] drbgSeed = new byte[mascotSecurityParameters.getPrgSeedLength() / 8];
+    new SecureRandom().nextBytes(drbgSeed);
+    return AesCtrDrbgFactory.fromDerivedSeed(drbgSeed);
+  }
+
+  private <T> List<T> invoke(List<Callable<T>> tasks) {
+    List<Future<T>> futures = ExceptionConverter
+        .safe(() -> executorService.invokeAll(tasks), "Error invoking tasks");
+    return futures.stream()
+        .map(future -> ExceptionConverter.safe(future::get, "Error getting future result"))
+        .collect(Collectors.toList());
+  }
+
+  private static class Result {
+
+    private final List<SpdzTriple> triples = new ArrayList<>();
+    private final List<SpdzSInt> bits = new ArrayList<>();
+    private final List<SpdzSInt> elements = new ArrayList<>();
+    private final Map<Integer, List<SpdzInputMask>> masks = new HashMap<>();
+    private SpdzSInt[] expPipe;
+    private Map<String, Long> loggedValues;
+  }
+}
@@ -0,0 +1,117 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Properties;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestSpdzPreprocessingGenerator {
+
+  private static final String STORAGE_NAME =
+      SpdzStorageDataSupplier.STORAGE_NAME_PREFIX + "1_1_0_";
+
+  @After
+  public void teardown() {
+    try {
+      InitializeStorage.cleanup();
+    } catch (IOException e) {
+      fail();
+    }
+  }
+
+  @Test
+  public void testCountingSupplier() {
+    SpdzCountingDataSupplier supplier =
+        new SpdzCountingDataSupplier(new SpdzDummyDataSupplier(1, 3, BigInteger.valueOf(251)), 3);
+    supplier.getNextTriple();
+    supplier.getNextTriples(4);
+    supplier.getNextBit();
+    supplier.getNextBit();
+    supplier.getNextRandomFieldElement();
+    supplier.getNextRandomFieldElements(3);
+    supplier.getNextExpPipe();
+    supplier.getNextInputMask(1);
+    supplier.getNextInputMask(3);
+    supplier.getNextInputMask(3);
+    supplier.getModulus();
+    supplier.getSecretSharedKey();
+    assertEquals(new SpdzPreprocessingDemand(5, 2, 1, 4, new long[]{1, 0, 2}),
+        supplier.getDemand());
+  }
+
+  @Test
+  public void testDemandProperties() {
+    SpdzPreprocessingDemand demand = new SpdzPreprocessingDemand(10, 20, 0, 3, new long[]{7, 8});
+    assertEquals(demand, SpdzPreprocessingDemand.fromProperties(demand.toProperties()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDemandWithoutParties() {
+    SpdzPreprocessingDemand demand = new SpdzPreprocessingDemand(10, 20, 0, 3, new long[]{7, 8});
+    Properties properties = demand.toProperties();
+    properties.remove(SpdzPreprocessingDemand.NO_OF_PARTIES_KEY);
+    SpdzPreprocessingDemand.fromProperties(properties);
+  }
+
+  @Test
+  public void testGeneratesExactDemand() {
+    new File(SpdzStorageDataSupplier.STORAGE_FOLDER).mkdirs();
+    SpdzPreprocessingDemand demand = new SpdzPreprocessingDemand(1030, 3, 2, 2, new long[]{4, 1});
+    BigInteger modulus = ModulusFinder.findSuitableModulus(128);
+    SpdzDataSupplier source = new SpdzDummyDataSupplier(1, 2, modulus, BigInteger.TEN, 8);
+    StreamedStorage storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    SpdzPreprocessingGenerator.generate(source, storage, STORAGE_NAME, demand);
+    storage.shutdown();
+
+    storage = new SpdzBinaryStreamedStorage(new InMemoryStorage());
+    SpdzCountingDataSupplier supplier = new SpdzCountingDataSupplier(
+        new SpdzStorageDataSupplier(storage, STORAGE_NAME, 2), 2);
+    assertEquals(modulus, supplier.getModulus());
+    assertEquals(BigInteger.TEN, supplier.getSecretSharedKey());
+    supplier.getNextTriples(1000);
+    for (int i = 0; i < 30; i++) {
+      supplier.getNextTriple();
+    }
+    for (int i = 0; i < 2; i++) {
+      supplier.getNextRandomFieldElement();
+      assertEquals(9, supplier.getNextExpPipe().length);
+    }
+    for (int i = 0; i < 3; i++) {
+      supplier.getNextBit();
+    }
+    for (int i = 0; i < 4; i++) {
+      assertNotNull(supplier.getNextInputMask(1).getRealValue());
+    }
+    supplier.getNextInputMask(2);
+    assertEquals(demand, supplier.getDemand());
+    try {
+      supplier.getNextInputMask(2);
+      fail("Only the demanded input masks should be generated");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      supplier.getNextRandomFieldElement();
+      fail("Only the demanded random elements should be generated");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      supplier.getNextTriple();
+      fail("Only the demanded triples should be generated");
+    } catch (IllegalArgumentException e) {
+      // expected
+    } finally {
+      storage.shutdown();
+    }
+  }
+}
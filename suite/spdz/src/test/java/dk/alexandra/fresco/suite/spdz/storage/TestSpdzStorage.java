@@ -1,7 +1,15 @@
 package dk.alexandra.fresco.suite.spdz.storage;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
 import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
 import org.junit.Test;
 
 public class TestSpdzStorage {
@@ -62,4 +70,26 @@ public class TestSpdzStorage {
     supplier.getNextRandomFieldElement();
   }
 
+  @Test
+  public void testRandomElementsFromTriplesWithoutRandomStream() throws IOException {
+    try {
+      InitializeStorage.initStreamedStorage(
+          new FilebasedStreamedStorageImpl(new InMemoryStorage()), 2, 1, 10, 1, 1, 1);
+      String storageName = SpdzStorageDataSupplier.STORAGE_NAME_PREFIX + "1_1_0_";
+      assertTrue(new File(storageName + SpdzStorageDataSupplier.RANDOM_ELEMENT_STORAGE).delete());
+      SpdzStorageDataSupplier triples = new SpdzStorageDataSupplier(
+          new FilebasedStreamedStorageImpl(new InMemoryStorage()), storageName, 2);
+      SpdzStorageDataSupplier elements = new SpdzStorageDataSupplier(
+          new FilebasedStreamedStorageImpl(new InMemoryStorage()), storageName, 2);
+      assertEquals(triples.getNextTriple().getA(), elements.getNextRandomFieldElement());
+      List<SpdzTriple> nextTriples = triples.getNextTriples(3);
+      List<SpdzSInt> nextElements = elements.getNextRandomFieldElements(3);
+      for (int i = 0; i < 3; i++) {
+        assertEquals(nextTriples.get(i).getA(), nextElements.get(i));
+      }
+    } finally {
+      InitializeStorage.cleanup();
+    }
+  }
+
 }
@@ -1,7 +1,15 @@
 package dk.alexandra.fresco.suite.spdz2k;
 
 import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RandomAdditiveMask;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RightShiftResult;
 import dk.alexandra.fresco.framework.builder.numeric.BuilderFactoryNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.Collections;
+import dk.alexandra.fresco.framework.builder.numeric.Comparison;
+import dk.alexandra.fresco.framework.builder.numeric.DefaultAdvancedNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.DefaultCollections;
+import dk.alexandra.fresco.framework.builder.numeric.DefaultComparison;
 import dk.alexandra.fresco.framework.builder.numeric.Numeric;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.value.SInt;
@@ -11,16 +19,27 @@ import dk.alexandra.fresco.lib.real.RealNumericContext;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kBitDecompositionComputation;
 import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kInputComputation;
+import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kInputListComputation;
+import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kMostSignificantBitComputation;
+import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kRandomMaskComputation;
+import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kRightShiftComputation;
+import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kTruncationComputation;
+import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kZeroTestComputation;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kAddKnownProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kKnownSIntProtocol;
+import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kMultiplyListProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kMultiplyProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kOutputSinglePartyProtocol;
+import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kOutputToAllListProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kOutputToAllProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kRandomBitProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kRandomElementProtocol;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kSubtractFromKnownProtocol;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -33,10 +52,13 @@ public class Spdz2kBuilder<PlainT extends CompUInt<?, ?, PlainT>> implements
 
   private final CompUIntFactory<PlainT> factory;
   private final BasicNumericContext numericContext;
+  private final RealNumericContext realNumericContext;
 
-  public Spdz2kBuilder(CompUIntFactory<PlainT> factory, BasicNumericContext numericContext) {
+  public Spdz2kBuilder(CompUIntFactory<PlainT> factory, BasicNumericContext numericContext,
+      RealNumericContext realNumericContext) {
     this.factory = factory;
     this.numericContext = numericContext;
+    this.realNumericContext = realNumericContext;
   }
 
   @Override
@@ -118,6 +140,109 @@ public class Spdz2kBuilder<PlainT extends CompUInt<?, ?, PlainT>> implements
     };
   }
 
+  @Override
+  public Comparison createComparison(ProtocolBuilderNumeric builder) {
+    return new DefaultComparison(this, builder) {
+      @Override
+      public DRes<SInt> compareLEQ(DRes<SInt> x1, DRes<SInt> x2) {
+        // x1 <= x2 if and only if x2 - x1 is non-negative in two's complement
+        DRes<SInt> msb = builder.seq(
+            new Spdz2kMostSignificantBitComputation(builder.numeric().sub(x2, x1)));
+        return builder.numeric().sub(BigInteger.ONE, msb);
+      }
+
+      @Override
+      public DRes<SInt> compareLEQLong(DRes<SInt> x1, DRes<SInt> x2) {
+        return compareLEQ(x1, x2);
+      }
+
+      @Override
+      public DRes<SInt> equals(int bitLength, DRes<SInt> x, DRes<SInt> y) {
+        return compareZero(builder.numeric().sub(x, y), bitLength);
+      }
+
+      @Override
+      public DRes<SInt> compareZero(DRes<SInt> x, int bitLength) {
+        return builder.seq(new Spdz2kZeroTestComputation(x, bitLength));
+      }
+    };
+  }
+
+  @Override
+  public AdvancedNumeric createAdvancedNumeric(ProtocolBuilderNumeric builder) {
+    return new DefaultAdvancedNumeric(this, builder) {
+      @Override
+      public DRes<List<DRes<SInt>>> mult(List<DRes<SInt>> vectorA, List<DRes<SInt>> vectorB) {
+        return builder.append(new Spdz2kMultiplyListProtocol<>(vectorA, vectorB));
+      }
+
+      @Override
+      public DRes<List<SInt>> toBits(DRes<SInt> in, int maxInputLength) {
+        return builder.seq(new Spdz2kBitDecompositionComputation(in, maxInputLength));
+      }
+
+      @Override
+      public DRes<RandomAdditiveMask> additiveMask(int noOfBits) {
+        return builder.seq(new Spdz2kRandomMaskComputation(noOfBits));
+      }
+
+      @Override
+      public DRes<SInt> rightShift(DRes<SInt> input) {
+        return rightShift(input, 1);
+      }
+
+      @Override
+      public DRes<SInt> rightShift(DRes<SInt> input, int shifts) {
+        DRes<RightShiftResult> result = rightShiftWithRemainder(input, shifts);
+        return () -> result.out().getResult();
+      }
+
+      @Override
+      public DRes<RightShiftResult> rightShiftWithRemainder(DRes<SInt> input) {
+        return rightShiftWithRemainder(input, 1);
+      }
+
+      @Override
+      public DRes<RightShiftResult> rightShiftWithRemainder(DRes<SInt> input, int shifts) {
+        return builder.seq(new Spdz2kRightShiftComputation(input, shifts));
+      }
+
+      @Override
+      public DRes<SInt> truncate(DRes<SInt> input, int shifts) {
+        return builder.seq(new Spdz2kTruncationComputation(input, shifts));
+      }
+    };
+  }
+
+  @Override
+  public Collections createCollections(ProtocolBuilderNumeric builder) {
+    return new DefaultCollections(builder) {
+      @Override
+      public DRes<List<DRes<SInt>>> closeList(List<BigInteger> openList, int inputParty) {
+        List<PlainT> inputs = new ArrayList<>(openList.size());
+        for (BigInteger value : openList) {
+          inputs.add(factory.createFromBigInteger(value));
+        }
+        return builder.seq(new Spdz2kInputListComputation<>(inputs, inputParty));
+      }
+
+      @Override
+      public DRes<List<DRes<SInt>>> closeList(int numberOfInputs, int inputParty) {
+        List<PlainT> inputs = new ArrayList<>(numberOfInputs);
+        for (int i = 0; i < numberOfInputs; i++) {
+          inputs.add(null);
+        }
+        return builder.seq(new Spdz2kInputListComputation<>(inputs, inputParty));
+      }
+
+      @Override
+      public <T extends DRes<SInt>> DRes<List<DRes<BigInteger>>> openList(
+          DRes<List<T>> closedList) {
+        return builder.append(new Spdz2kOutputToAllListProtocol<>(closedList));
+      }
+    };
+  }
+
   @Override
   public MiscBigIntegerGenerators getBigIntegerHelper() {
     throw new UnsupportedOperationException();
@@ -132,8 +257,7 @@ public class Spdz2kBuilder<PlainT extends CompUInt<?, ?, PlainT>> implements
 
   @Override
   public RealNumericContext getRealNumericContext() {
-    // TODO Auto-generated method stub
-    return null;
+    return realNumericContext;
   }
 
 }
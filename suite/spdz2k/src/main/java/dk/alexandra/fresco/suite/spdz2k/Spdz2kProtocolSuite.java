@@ -2,7 +2,9 @@ package dk.alexandra.fresco.suite.spdz2k;
 
 import dk.alexandra.fresco.framework.builder.numeric.BuilderFactoryNumeric;
 import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.AdaptiveBatchSize;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
+import dk.alexandra.fresco.lib.real.RealNumericContext;
 import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntConverter;
@@ -10,6 +12,7 @@ import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt;
 import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kMacCheckComputation;
 import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
 import dk.alexandra.fresco.suite.spdz2k.synchronization.Spdz2kRoundSynchronization;
+import java.util.Objects;
 
 /**
  * The SPDZ2k protocol suite. <p>This suite works with ring elements. Each ring element, represented
@@ -30,6 +33,7 @@ public abstract class Spdz2kProtocolSuite<
     implements ProtocolSuiteNumeric<Spdz2kResourcePool<PlainT>> {
 
   private final CompUIntConverter<HighT, LowT, PlainT> converter;
+  private final AdaptiveBatchSize macCheckBatchSize;
 
   /**
    * Constructs new {@link Spdz2kProtocolSuite}.
@@ -40,16 +44,37 @@ public abstract class Spdz2kProtocolSuite<
    */
   Spdz2kProtocolSuite(CompUIntConverter<HighT, LowT, PlainT> converter) {
     this.converter = converter;
+    this.macCheckBatchSize = null;
+  }
+
+  /**
+   * Constructs new {@link Spdz2kProtocolSuite} which evaluates the mac-checks with an adaptive
+   * batch size.
+   *
+   * @param converter see {@link #Spdz2kProtocolSuite(CompUIntConverter)}
+   * @param macCheckBatchSize the batch size configuration of the mac-check evaluator. Must be the
+   *     same for all parties
+   */
+  Spdz2kProtocolSuite(CompUIntConverter<HighT, LowT, PlainT> converter,
+      AdaptiveBatchSize macCheckBatchSize) {
+    this.converter = converter;
+    this.macCheckBatchSize = Objects.requireNonNull(macCheckBatchSize);
   }
 
   @Override
   public BuilderFactoryNumeric init(Spdz2kResourcePool<PlainT> resourcePool, Network network) {
-    return new Spdz2kBuilder<>(resourcePool.getFactory(), createBasicNumericContext(resourcePool));
+    return new Spdz2kBuilder<>(resourcePool.getFactory(), createBasicNumericContext(resourcePool),
+        createRealNumericContext(resourcePool));
   }
 
   @Override
   public RoundSynchronization<Spdz2kResourcePool<PlainT>> createRoundSynchronization() {
-    return new Spdz2kRoundSynchronization<>(this, converter);
+    if (macCheckBatchSize == null) {
+      return new Spdz2kRoundSynchronization<>(this, converter);
+    } else {
+      return new Spdz2kRoundSynchronization<>(this, converter,
+          Spdz2kRoundSynchronization.DEFAULT_OPEN_VALUE_THRESHOLD, macCheckBatchSize);
+    }
   }
 
   public BasicNumericContext createBasicNumericContext(Spdz2kResourcePool<PlainT> resourcePool) {
@@ -58,4 +83,12 @@ public abstract class Spdz2kProtocolSuite<
         resourcePool.getNoOfParties());
   }
 
+  /**
+   * Creates the context for fixed point numbers, using the largest precision supported by {@link
+   * dk.alexandra.fresco.lib.real.fixed.FixedNumeric} for the bit length of the ring.
+   */
+  public RealNumericContext createRealNumericContext(Spdz2kResourcePool<PlainT> resourcePool) {
+    return new RealNumericContext(resourcePool.getMaxBitLength() / 4);
+  }
+
 }
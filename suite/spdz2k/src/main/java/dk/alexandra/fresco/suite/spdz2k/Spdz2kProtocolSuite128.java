@@ -1,5 +1,6 @@
 package dk.alexandra.fresco.suite.spdz2k;
 
+import dk.alexandra.fresco.framework.sce.evaluator.AdaptiveBatchSize;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntConverter128;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt64;
@@ -13,4 +14,13 @@ public class Spdz2kProtocolSuite128 extends Spdz2kProtocolSuite<UInt64, UInt64,
     super(new CompUIntConverter128());
   }
 
+  /**
+   * Creates a protocol suite which evaluates the mac-checks with an adaptive batch size.
+   *
+   * @param macCheckBatchSize the batch size configuration of the mac-check evaluator
+   */
+  public Spdz2kProtocolSuite128(AdaptiveBatchSize macCheckBatchSize) {
+    super(new CompUIntConverter128(), macCheckBatchSize);
+  }
+
 }
@@ -162,6 +162,14 @@ public class CompUInt128 implements CompUInt<UInt64, UInt64, CompUInt128> {
     return (UInt.toUnLong(this.mid) << 32) + UInt.toUnLong(this.low);
   }
 
+  /**
+   * Returns the 64 most significant bits, i.e., the bits above the ones returned by {@link
+   * #toLong()}.
+   */
+  long getHigh() {
+    return high;
+  }
+
   @Override
   public int toInt() {
     return low;
@@ -1,6 +1,5 @@
 package dk.alexandra.fresco.suite.spdz2k.datatypes;
 
-import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
 import java.math.BigInteger;
 import java.security.SecureRandom;
@@ -23,8 +22,8 @@ public class CompUInt128Factory implements CompUIntFactory<CompUInt128> {
   }
 
   @Override
-  public ByteSerializer<CompUInt128> createSerializer() {
-    return new UIntSerializer<>(this);
+  public UIntSerializer<CompUInt128> createSerializer() {
+    return new CompUInt128Serializer(this);
   }
 
   @Override
@@ -39,7 +38,11 @@ public class CompUInt128Factory implements CompUIntFactory<CompUInt128> {
 
   @Override
   public CompUInt128 createFromBigInteger(BigInteger value) {
-    return value == null ? null : new CompUInt128(value.toByteArray(), true);
+    if (value == null) {
+      return null;
+    }
+    BigInteger unsigned = value.signum() < 0 ? value.mod(BigInteger.ONE.shiftLeft(128)) : value;
+    return new CompUInt128(unsigned.toByteArray(), true);
   }
 
   @Override
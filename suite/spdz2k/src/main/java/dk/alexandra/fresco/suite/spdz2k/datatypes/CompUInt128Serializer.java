@@ -0,0 +1,70 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import dk.alexandra.fresco.suite.spdz2k.util.BulkByteSerializer;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializer for {@link CompUInt128} instances, which reads and writes the words of each value
+ * directly to and from the buffer.
+ */
+public class CompUInt128Serializer extends UIntSerializer<CompUInt128> {
+
+  private static final int BYTE_LENGTH = 16;
+  private static final int LOW_BYTE_LENGTH = 8;
+
+  /**
+   * Creates new {@link CompUInt128Serializer}.
+   *
+   * @param factory factory for creating {@link CompUInt128} instances.
+   */
+  public CompUInt128Serializer(CompUInt128Factory factory) {
+    super(factory);
+  }
+
+  @Override
+  public void serialize(List<CompUInt128> objects, ByteBuffer buffer, int offset) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    for (int i = 0; i < objects.size(); i++) {
+      CompUInt128 value = objects.get(i);
+      int index = offset + i * BYTE_LENGTH;
+      buffer.putLong(index, value.getHigh());
+      buffer.putLong(index + LOW_BYTE_LENGTH, value.toLong());
+    }
+  }
+
+  @Override
+  public List<CompUInt128> deserializeList(ByteBuffer buffer, int offset, int numElements) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    List<CompUInt128> elements = new ArrayList<>(numElements);
+    for (int i = 0; i < numElements; i++) {
+      int index = offset + i * BYTE_LENGTH;
+      elements.add(new CompUInt128(buffer.getLong(index), buffer.getInt(index + 8),
+          buffer.getInt(index + 12)));
+    }
+    return elements;
+  }
+
+  @Override
+  public void serializeLeastSignificant(List<CompUInt128> objects, ByteBuffer buffer,
+      int offset) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    for (int i = 0; i < objects.size(); i++) {
+      buffer.putLong(offset + i * LOW_BYTE_LENGTH, objects.get(i).toLong());
+    }
+  }
+
+  @Override
+  public List<CompUInt128> deserializeLeastSignificantList(ByteBuffer buffer, int offset,
+      int numElements) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    List<CompUInt128> elements = new ArrayList<>(numElements);
+    for (int i = 0; i < numElements; i++) {
+      elements.add(new CompUInt128(buffer.getLong(offset + i * LOW_BYTE_LENGTH)));
+    }
+    return elements;
+  }
+
+}
@@ -151,6 +151,14 @@ public class CompUInt96 implements CompUInt<UInt64, UInt32, CompUInt96> {
     return (UInt.toUnLong(mid) << 32) + (UInt.toUnLong(this.low));
   }
 
+  /**
+   * Returns the 32 most significant bits, i.e., the bits above the ones returned by {@link
+   * #toLong()}.
+   */
+  int getHigh() {
+    return high;
+  }
+
   @Override
   public int toInt() {
     return low;
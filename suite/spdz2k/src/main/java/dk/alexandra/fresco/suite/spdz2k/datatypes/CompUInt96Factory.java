@@ -1,6 +1,5 @@
 package dk.alexandra.fresco.suite.spdz2k.datatypes;
 
-import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
 import java.security.SecureRandom;
 
@@ -21,8 +20,8 @@ public class CompUInt96Factory implements CompUIntFactory<CompUInt96> {
   }
 
   @Override
-  public ByteSerializer<CompUInt96> createSerializer() {
-    return new UIntSerializer<>(this);
+  public UIntSerializer<CompUInt96> createSerializer() {
+    return new CompUInt96Serializer(this);
   }
 
   @Override
@@ -0,0 +1,70 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import dk.alexandra.fresco.suite.spdz2k.util.BulkByteSerializer;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializer for {@link CompUInt96} instances, which reads and writes the words of each value
+ * directly to and from the buffer.
+ */
+public class CompUInt96Serializer extends UIntSerializer<CompUInt96> {
+
+  private static final int BYTE_LENGTH = 12;
+  private static final int LOW_BYTE_LENGTH = 4;
+
+  /**
+   * Creates new {@link CompUInt96Serializer}.
+   *
+   * @param factory factory for creating {@link CompUInt96} instances.
+   */
+  public CompUInt96Serializer(CompUInt96Factory factory) {
+    super(factory);
+  }
+
+  @Override
+  public void serialize(List<CompUInt96> objects, ByteBuffer buffer, int offset) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    for (int i = 0; i < objects.size(); i++) {
+      CompUInt96 value = objects.get(i);
+      int index = offset + i * BYTE_LENGTH;
+      buffer.putInt(index, value.getHigh());
+      buffer.putLong(index + 4, value.toLong());
+    }
+  }
+
+  @Override
+  public List<CompUInt96> deserializeList(ByteBuffer buffer, int offset, int numElements) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    List<CompUInt96> elements = new ArrayList<>(numElements);
+    for (int i = 0; i < numElements; i++) {
+      int index = offset + i * BYTE_LENGTH;
+      elements.add(new CompUInt96(buffer.getInt(index), buffer.getInt(index + 4),
+          buffer.getInt(index + 8)));
+    }
+    return elements;
+  }
+
+  @Override
+  public void serializeLeastSignificant(List<CompUInt96> objects, ByteBuffer buffer,
+      int offset) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    for (int i = 0; i < objects.size(); i++) {
+      buffer.putInt(offset + i * LOW_BYTE_LENGTH, objects.get(i).toInt());
+    }
+  }
+
+  @Override
+  public List<CompUInt96> deserializeLeastSignificantList(ByteBuffer buffer, int offset,
+      int numElements) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    List<CompUInt96> elements = new ArrayList<>(numElements);
+    for (int i = 0; i < numElements; i++) {
+      elements.add(new CompUInt96(buffer.getInt(offset + i * LOW_BYTE_LENGTH)));
+    }
+    return elements;
+  }
+
+}
@@ -1,6 +1,6 @@
 package dk.alexandra.fresco.suite.spdz2k.datatypes;
 
-import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
 import java.math.BigInteger;
 
 /**
@@ -21,7 +21,7 @@ public interface CompUIntFactory<CompT extends CompUInt<?, ?, CompT>> {
   /**
    * Creates serializer for {@link CompT} instances.
    */
-  ByteSerializer<CompT> createSerializer();
+  UIntSerializer<CompT> createSerializer();
 
   /**
    * Get length of most significant bits which represent the masking portion.
@@ -41,10 +41,17 @@ public interface CompUIntFactory<CompT extends CompUInt<?, ?, CompT>> {
   }
 
   /**
-   * Creates new {@link CompT} from a {@link BigInteger}.
+   * Creates new {@link CompT} from a {@link BigInteger}. <p>Negative values are represented by
+   * their two's complement.</p>
    */
   default CompT createFromBigInteger(BigInteger value) {
-    return (value == null) ? null : createFromBytes(value.toByteArray());
+    if (value == null) {
+      return null;
+    }
+    BigInteger unsigned = value.signum() < 0
+        ? value.mod(BigInteger.ONE.shiftLeft(getCompositeBitLength()))
+        : value;
+    return createFromBytes(unsigned.toByteArray());
   }
 
   /**
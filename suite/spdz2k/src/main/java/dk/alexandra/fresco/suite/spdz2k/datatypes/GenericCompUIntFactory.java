@@ -1,6 +1,5 @@
 package dk.alexandra.fresco.suite.spdz2k.datatypes;
 
-import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
 import java.security.SecureRandom;
 
@@ -29,7 +28,7 @@ public class GenericCompUIntFactory implements
   }
 
   @Override
-  public ByteSerializer<GenericCompUInt> createSerializer() {
+  public UIntSerializer<GenericCompUInt> createSerializer() {
     return new UIntSerializer<>(this);
   }
 
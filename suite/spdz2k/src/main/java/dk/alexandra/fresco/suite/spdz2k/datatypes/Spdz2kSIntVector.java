@@ -0,0 +1,364 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A vector of authenticated, secret-shared elements, stored as parallel arrays of primitive longs.
+ *
+ * <p>Each share and mac share is held as a high and a low 64 bit word, so any ring with a
+ * composite bit length between 64 and 128 is supported, i.e., {@link CompUInt128}, {@link
+ * CompUInt96} and {@link GenericCompUInt} instances of at most 128 bits. As opposed to the
+ * operations of {@link Spdz2kSInt}, the arithmetic operations of this class update the vector in
+ * place and do not allocate an object per element.</p>
+ *
+ * @param <PlainT> type of underlying plain value, i.e., the value type we use for arithmetic.
+ */
+public class Spdz2kSIntVector<PlainT extends CompUInt<?, ?, PlainT>> {
+
+  private static final long LOW_INT_MASK = 0xffffffffL;
+
+  private final CompUIntFactory<PlainT> factory;
+  private final int compositeBitLength;
+  private final long highMask;
+  private final long[] shareHigh;
+  private final long[] shareLow;
+  private final long[] macHigh;
+  private final long[] macLow;
+
+  /**
+   * Creates a {@link Spdz2kSIntVector} of the given size, with all shares and mac shares zero.
+   *
+   * @param factory factory for the plain values
+   * @param size number of elements
+   */
+  public Spdz2kSIntVector(CompUIntFactory<PlainT> factory, int size) {
+    this.factory = factory;
+    this.compositeBitLength = factory.getCompositeBitLength();
+    if (compositeBitLength < Long.SIZE || compositeBitLength > 2 * Long.SIZE) {
+      throw new IllegalArgumentException(
+          "Composite bit length must be between 64 and 128 but was " + compositeBitLength);
+    }
+    this.highMask = compositeBitLength == 2 * Long.SIZE
+        ? -1L
+        : (1L << (compositeBitLength - Long.SIZE)) - 1;
+    this.shareHigh = new long[size];
+    this.shareLow = new long[size];
+    this.macHigh = new long[size];
+    this.macLow = new long[size];
+  }
+
+  /**
+   * Creates a {@link Spdz2kSIntVector} holding the given elements.
+   *
+   * @param factory factory for the plain values
+   * @param elements the elements to store
+   * @return a new vector
+   */
+  public static <PlainT extends CompUInt<?, ?, PlainT>> Spdz2kSIntVector<PlainT> fromList(
+      CompUIntFactory<PlainT> factory, List<Spdz2kSInt<PlainT>> elements) {
+    Spdz2kSIntVector<PlainT> vector = new Spdz2kSIntVector<>(factory, elements.size());
+    for (int i = 0; i < elements.size(); i++) {
+      vector.set(i, elements.get(i));
+    }
+    return vector;
+  }
+
+  /**
+   * Returns the number of elements.
+   */
+  public int size() {
+    return shareLow.length;
+  }
+
+  /**
+   * Returns the element at the given index.
+   */
+  public Spdz2kSInt<PlainT> get(int index) {
+    return new Spdz2kSInt<>(getShare(index), getMacShare(index));
+  }
+
+  /**
+   * Returns the share of the element at the given index.
+   */
+  public PlainT getShare(int index) {
+    return fromWords(shareHigh[index], shareLow[index]);
+  }
+
+  /**
+   * Returns the mac share of the element at the given index.
+   */
+  public PlainT getMacShare(int index) {
+    return fromWords(macHigh[index], macLow[index]);
+  }
+
+  /**
+   * Returns the 64 most significant bits of the share at the given index. <p>Only the bits above
+   * the 64 least significant bits of the composite bit length can be non-zero.</p>
+   */
+  public long getShareHighWord(int index) {
+    return shareHigh[index];
+  }
+
+  /**
+   * Returns the 64 least significant bits of the share at the given index.
+   */
+  public long getShareLowWord(int index) {
+    return shareLow[index];
+  }
+
+  /**
+   * Replaces the element at the given index.
+   */
+  public void set(int index, Spdz2kSInt<PlainT> element) {
+    PlainT share = element.getShare();
+    shareHigh[index] = toHighWord(share);
+    shareLow[index] = share.toLong();
+    PlainT macShare = element.getMacShare();
+    macHigh[index] = toHighWord(macShare);
+    macLow[index] = macShare.toLong();
+  }
+
+  /**
+   * Returns all elements as a list.
+   */
+  public List<Spdz2kSInt<PlainT>> toList() {
+    List<Spdz2kSInt<PlainT>> elements = new ArrayList<>(size());
+    for (int i = 0; i < size(); i++) {
+      elements.add(get(i));
+    }
+    return elements;
+  }
+
+  /**
+   * Returns a copy of this vector.
+   */
+  public Spdz2kSIntVector<PlainT> copy() {
+    Spdz2kSIntVector<PlainT> copy = new Spdz2kSIntVector<>(factory, size());
+    System.arraycopy(shareHigh, 0, copy.shareHigh, 0, size());
+    System.arraycopy(shareLow, 0, copy.shareLow, 0, size());
+    System.arraycopy(macHigh, 0, copy.macHigh, 0, size());
+    System.arraycopy(macLow, 0, copy.macLow, 0, size());
+    return copy;
+  }
+
+  /**
+   * Adds other to this vector entry wise.
+   *
+   * @param other vector of the same size
+   * @return this vector
+   */
+  public Spdz2kSIntVector<PlainT> add(Spdz2kSIntVector<PlainT> other) {
+    checkSize(other);
+    add(shareHigh, shareLow, other.shareHigh, other.shareLow);
+    add(macHigh, macLow, other.macHigh, other.macLow);
+    return this;
+  }
+
+  /**
+   * Subtracts other from this vector entry wise.
+   *
+   * @param other vector of the same size
+   * @return this vector
+   */
+  public Spdz2kSIntVector<PlainT> subtract(Spdz2kSIntVector<PlainT> other) {
+    checkSize(other);
+    subtract(shareHigh, shareLow, other.shareHigh, other.shareLow);
+    subtract(macHigh, macLow, other.macHigh, other.macLow);
+    return this;
+  }
+
+  /**
+   * Multiplies each element of this vector by the constant (open) value at the same index.
+   *
+   * @param scalars constant, open values, one for each element
+   * @return this vector
+   */
+  public Spdz2kSIntVector<PlainT> multiply(List<PlainT> scalars) {
+    checkSize(scalars);
+    long[] scalarHigh = new long[size()];
+    long[] scalarLow = new long[size()];
+    toWords(scalars, scalarHigh, scalarLow);
+    affine(shareHigh, shareLow, scalarHigh, scalarLow, null, null);
+    affine(macHigh, macLow, scalarHigh, scalarLow, null, null);
+    return this;
+  }
+
+  /**
+   * Replaces each element <i>x<sub>i</sub></i> of this vector by <i>a<sub>i</sub> x<sub>i</sub> +
+   * b<sub>i</sub></i>, for constant (open) values <i>a<sub>i</sub></i> and <i>b<sub>i</sub></i>, in
+   * a single pass. <p>As for {@link Spdz2kSInt#addConstant}, all parties add their mac shares of
+   * the constants, but only party one adds the constants to its shares.</p>
+   *
+   * @param scalars constant factors <i>a<sub>i</sub></i>, one for each element
+   * @param constants constant summands <i>b<sub>i</sub></i>, one for each element
+   * @param macKeyShare mac key share for maccing the constant summands
+   * @param isPartyOne used to ensure that only one party adds the constants to its shares
+   * @return this vector
+   */
+  public Spdz2kSIntVector<PlainT> affine(List<PlainT> scalars, List<PlainT> constants,
+      PlainT macKeyShare, boolean isPartyOne) {
+    checkSize(scalars);
+    checkSize(constants);
+    long[] scalarHigh = new long[size()];
+    long[] scalarLow = new long[size()];
+    toWords(scalars, scalarHigh, scalarLow);
+    long[] constantHigh = new long[size()];
+    long[] constantLow = new long[size()];
+    toWords(constants, constantHigh, constantLow);
+    if (isPartyOne) {
+      affine(shareHigh, shareLow, scalarHigh, scalarLow, constantHigh, constantLow);
+    } else {
+      affine(shareHigh, shareLow, scalarHigh, scalarLow, null, null);
+    }
+    // the mac shares of the constants, computed in place
+    affine(constantHigh, constantLow, toHighWord(macKeyShare), macKeyShare.toLong());
+    affine(macHigh, macLow, scalarHigh, scalarLow, constantHigh, constantLow);
+    return this;
+  }
+
+  private void add(long[] high, long[] low, long[] otherHigh, long[] otherLow) {
+    for (int i = 0; i < low.length; i++) {
+      long left = low[i];
+      long right = otherLow[i];
+      long sum = left + right;
+      high[i] = (high[i] + otherHigh[i] + carry(left, right, sum)) & highMask;
+      low[i] = sum;
+    }
+  }
+
+  private void subtract(long[] high, long[] low, long[] otherHigh, long[] otherLow) {
+    for (int i = 0; i < low.length; i++) {
+      long left = low[i];
+      long right = otherLow[i];
+      long difference = left - right;
+      high[i] = (high[i] - otherHigh[i] - borrow(left, right, difference)) & highMask;
+      low[i] = difference;
+    }
+  }
+
+  /**
+   * Multiplies each value given by a high and a low word by the same scalar.
+   */
+  private void affine(long[] high, long[] low, long scalarHigh, long scalarLow) {
+    for (int i = 0; i < low.length; i++) {
+      long value = low[i];
+      high[i] = (multiplyHigh(value, scalarLow) + value * scalarHigh + high[i] * scalarLow)
+          & highMask;
+      low[i] = value * scalarLow;
+    }
+  }
+
+  /**
+   * Multiplies each value given by a high and a low word by the scalar at the same index and adds
+   * the constant at the same index. The constants are zero if not given.
+   */
+  private void affine(long[] high, long[] low, long[] scalarHigh, long[] scalarLow,
+      long[] constantHigh, long[] constantLow) {
+    for (int i = 0; i < low.length; i++) {
+      long value = low[i];
+      long productLow = value * scalarLow[i];
+      long productHigh =
+          multiplyHigh(value, scalarLow[i]) + value * scalarHigh[i] + high[i] * scalarLow[i];
+      if (constantLow == null) {
+        high[i] = productHigh & highMask;
+        low[i] = productLow;
+      } else {
+        long sum = productLow + constantLow[i];
+        high[i] = (productHigh + constantHigh[i] + carry(productLow, constantLow[i], sum))
+            & highMask;
+        low[i] = sum;
+      }
+    }
+  }
+
+  /**
+   * Returns the carry bit of the unsigned addition of left and right.
+   */
+  private static long carry(long left, long right, long sum) {
+    return ((left & right) | ((left | right) & ~sum)) >>> 63;
+  }
+
+  /**
+   * Returns the borrow bit of the unsigned subtraction of right from left.
+   */
+  private static long borrow(long left, long right, long difference) {
+    return ((~left & right) | (~(left ^ right) & difference)) >>> 63;
+  }
+
+  /**
+   * Returns the 64 most significant bits of the unsigned 128 bit product of left and right.
+   */
+  private static long multiplyHigh(long left, long right) {
+    long leftLow = left & LOW_INT_MASK;
+    long leftHigh = left >>> 32;
+    long rightLow = right & LOW_INT_MASK;
+    long rightHigh = right >>> 32;
+    long lowLow = leftLow * rightLow;
+    long lowHigh = leftLow * rightHigh;
+    long highLow = leftHigh * rightLow;
+    long middle = (lowLow >>> 32) + (lowHigh & LOW_INT_MASK) + (highLow & LOW_INT_MASK);
+    return leftHigh * rightHigh + (lowHigh >>> 32) + (highLow >>> 32) + (middle >>> 32);
+  }
+
+  private void checkSize(Spdz2kSIntVector<PlainT> other) {
+    if (other.size() != size()) {
+      throw new IllegalArgumentException(
+          "Vectors must have same size but were " + size() + " and " + other.size());
+    }
+  }
+
+  private void checkSize(List<PlainT> values) {
+    if (values.size() != size()) {
+      throw new IllegalArgumentException(
+          "Expected " + size() + " values but got " + values.size());
+    }
+  }
+
+  /**
+   * Stores the high and low words of each value.
+   */
+  private void toWords(List<PlainT> values, long[] high, long[] low) {
+    for (int i = 0; i < values.size(); i++) {
+      PlainT value = values.get(i);
+      high[i] = toHighWord(value);
+      low[i] = value.toLong();
+    }
+  }
+
+  /**
+   * Returns the bits of the value above the 64 least significant bits.
+   */
+  private long toHighWord(PlainT value) {
+    if (value instanceof CompUInt128) {
+      return value.getMostSignificant().toLong();
+    } else if (value instanceof CompUInt96) {
+      return value.getMostSignificant().toLong() >>> Integer.SIZE;
+    } else {
+      long high = 0;
+      long low = 0;
+      for (byte b : value.toByteArray()) {
+        high = (high << Byte.SIZE) | (low >>> (Long.SIZE - Byte.SIZE));
+        low = (low << Byte.SIZE) | (b & 0xff);
+      }
+      return high & highMask;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private PlainT fromWords(long high, long low) {
+    if (factory instanceof CompUInt128Factory) {
+      return (PlainT) new CompUInt128(high, (int) (low >>> Integer.SIZE), (int) low);
+    } else if (factory instanceof CompUInt96Factory) {
+      return (PlainT) new CompUInt96((int) high, (int) (low >>> Integer.SIZE), (int) low);
+    } else {
+      byte[] bytes = new byte[compositeBitLength / Byte.SIZE];
+      for (int i = 0; i < bytes.length; i++) {
+        int shift = (bytes.length - 1 - i) * Byte.SIZE;
+        bytes[i] = (byte) (shift < Long.SIZE ? low >>> shift : high >>> (shift - Long.SIZE));
+      }
+      return factory.createFromBytes(bytes);
+    }
+  }
+
+}
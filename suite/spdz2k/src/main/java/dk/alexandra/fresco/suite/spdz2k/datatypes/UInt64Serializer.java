@@ -0,0 +1,67 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import dk.alexandra.fresco.suite.spdz2k.util.BulkByteSerializer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializer for {@link UInt64} instances, e.g., the <i>s</i> bit values used in the mac check, or
+ * the <i>k</i> bit parts of {@link CompUInt128} values.
+ */
+public class UInt64Serializer implements BulkByteSerializer<UInt64> {
+
+  @Override
+  public byte[] serialize(UInt64 object) {
+    return object.toByteArray();
+  }
+
+  @Override
+  public byte[] serialize(List<UInt64> objects) {
+    byte[] all = new byte[objects.size() * Long.BYTES];
+    serialize(objects, ByteBuffer.wrap(all), 0);
+    return all;
+  }
+
+  @Override
+  public UInt64 deserialize(byte[] bytes) {
+    if (bytes.length != Long.BYTES) {
+      throw new IllegalArgumentException(
+          "Expected " + Long.BYTES + " bytes but got " + bytes.length);
+    }
+    return new UInt64(ByteBuffer.wrap(bytes).getLong());
+  }
+
+  @Override
+  public List<UInt64> deserializeList(byte[] bytes) {
+    if (bytes.length % Long.BYTES != 0) {
+      throw new IllegalArgumentException(
+          "Total number of bytes must be a multiple of length of single element");
+    }
+    return deserializeList(ByteBuffer.wrap(bytes), 0, bytes.length / Long.BYTES);
+  }
+
+  @Override
+  public int getByteLength() {
+    return Long.BYTES;
+  }
+
+  @Override
+  public void serialize(List<UInt64> objects, ByteBuffer buffer, int offset) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    for (int i = 0; i < objects.size(); i++) {
+      buffer.putLong(offset + i * Long.BYTES, objects.get(i).toLong());
+    }
+  }
+
+  @Override
+  public List<UInt64> deserializeList(ByteBuffer buffer, int offset, int numElements) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    List<UInt64> elements = new ArrayList<>(numElements);
+    for (int i = 0; i < numElements; i++) {
+      elements.add(new UInt64(buffer.getLong(offset + i * Long.BYTES)));
+    }
+    return elements;
+  }
+
+}
@@ -0,0 +1,78 @@
+package dk.alexandra.fresco.suite.spdz2k.preprocessing;
+
+import dk.alexandra.fresco.commitment.HashBasedCommitment;
+import dk.alexandra.fresco.commitment.HashBasedCommitmentSerializer;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
+import dk.alexandra.fresco.framework.util.Drbg;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sub-protocol which lets all parties commit to a value and then open their commitments, so that
+ * no party can choose its value depending on the values of the other parties.
+ */
+class CommitAndOpen {
+
+  private final int myId;
+  private final int noOfParties;
+  private final Network network;
+  private final Drbg drbg;
+  private final ByteSerializer<HashBasedCommitment> commitmentSerializer;
+
+  /**
+   * Creates new {@link CommitAndOpen}.
+   *
+   * @param myId this party's id
+   * @param noOfParties number of parties
+   * @param network the network
+   * @param drbg source of randomness for the commitments
+   */
+  CommitAndOpen(int myId, int noOfParties, Network network, Drbg drbg) {
+    this.myId = myId;
+    this.noOfParties = noOfParties;
+    this.network = network;
+    this.drbg = drbg;
+    this.commitmentSerializer = new HashBasedCommitmentSerializer();
+  }
+
+  /**
+   * Commits to a value, and opens the commitment once the commitments of all other parties have
+   * been received.
+   *
+   * @param value this party's value
+   * @return the values of all parties, ordered by party id
+   */
+  List<byte[]> commitAndOpen(byte[] value) {
+    HashBasedCommitment ownCommitment = new HashBasedCommitment();
+    byte[] opening = ownCommitment.commit(drbg, value);
+    sendToOthers(commitmentSerializer.serialize(ownCommitment));
+    List<HashBasedCommitment> commitments = new ArrayList<>(noOfParties);
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      if (partyId != myId) {
+        commitments.add(commitmentSerializer.deserialize(network.receive(partyId)));
+      } else {
+        commitments.add(ownCommitment);
+      }
+    }
+    sendToOthers(opening);
+    List<byte[]> values = new ArrayList<>(noOfParties);
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      if (partyId != myId) {
+        values.add(commitments.get(partyId - 1).open(network.receive(partyId)));
+      } else {
+        values.add(value);
+      }
+    }
+    return values;
+  }
+
+  private void sendToOthers(byte[] data) {
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      if (partyId != myId) {
+        network.send(partyId, data);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,73 @@
+package dk.alexandra.fresco.suite.spdz2k.preprocessing;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.tools.ot.base.RotBatch;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inputter side of the correlated oblivious product evaluation (COPE) protocol of MASCOT, adapted
+ * to the ring of integers modulo <i>2<sup>k + s</sup></i>.
+ *
+ * <p>For a description of the protocol, see {@link Spdz2kCopeSigner}.</p>
+ */
+class Spdz2kCopeInputter<PlainT extends CompUInt<?, ?, PlainT>> {
+
+  private final Spdz2kPreprocessingResourcePool<PlainT> resourcePool;
+  private final Network network;
+  private final int otherId;
+  private final List<Pair<Drbg, Drbg>> prgs;
+
+  /**
+   * Creates new {@link Spdz2kCopeInputter}, running the initialization with the signer.
+   *
+   * @param resourcePool the resource pool
+   * @param network the network
+   * @param otherId the id of the signer
+   */
+  Spdz2kCopeInputter(Spdz2kPreprocessingResourcePool<PlainT> resourcePool, Network network,
+      int otherId) {
+    this.resourcePool = resourcePool;
+    this.network = network;
+    this.otherId = otherId;
+    int keyLength = resourcePool.getLambdaSecurityParam();
+    RotBatch rot = resourcePool.createRot(otherId, network);
+    List<Pair<StrictBitVector, StrictBitVector>> seeds =
+        rot.send(keyLength, resourcePool.getPrgSeedLength());
+    this.prgs = new ArrayList<>(keyLength);
+    for (Pair<StrictBitVector, StrictBitVector> seedPair : seeds) {
+      prgs.add(new Pair<>(AesCtrDrbgFactory.fromDerivedSeed(seedPair.getFirst().toByteArray()),
+          AesCtrDrbgFactory.fromDerivedSeed(seedPair.getSecond().toByteArray())));
+    }
+  }
+
+  /**
+   * Computes shares of the products of the inputs and the signer's mac key share.
+   *
+   * @param inputs the inputs
+   * @return this party's shares of the products
+   */
+  List<PlainT> extend(List<PlainT> inputs) {
+    int keyLength = prgs.size();
+    List<PlainT> diffs = new ArrayList<>(inputs.size() * keyLength);
+    List<PlainT> productShares = new ArrayList<>(inputs.size());
+    for (PlainT input : inputs) {
+      List<PlainT> zeroMasks = new ArrayList<>(keyLength);
+      for (Pair<Drbg, Drbg> prgPair : prgs) {
+        PlainT zeroMask = resourcePool.sample(prgPair.getFirst());
+        PlainT oneMask = resourcePool.sample(prgPair.getSecond());
+        diffs.add(zeroMask.subtract(oneMask).add(input));
+        zeroMasks.add(zeroMask);
+      }
+      productShares.add(Spdz2kPreprocessingResourcePool.recombine(zeroMasks).negate());
+    }
+    network.send(otherId, resourcePool.getSerializer().serialize(diffs));
+    return productShares;
+  }
+
+}
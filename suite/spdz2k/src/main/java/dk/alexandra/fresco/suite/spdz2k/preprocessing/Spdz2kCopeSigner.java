@@ -0,0 +1,84 @@
+package dk.alexandra.fresco.suite.spdz2k.preprocessing;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.tools.ot.base.RotBatch;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Signer side of the correlated oblivious product evaluation (COPE) protocol of MASCOT, adapted to
+ * the ring of integers modulo <i>2<sup>k + s</sup></i>.
+ *
+ * <p>During initialization the signer uses the s bits of its mac key share as choice bits in s
+ * random OTs, and uses the resulting seeds to seed a prg per bit. The inputter learns both seeds
+ * of each OT. In each extension, the inputter sends the difference of the prg outputs plus its
+ * input, which lets the parties compute shares of the product of the input and the signer's mac
+ * key share, without any further OTs.</p>
+ *
+ * <p>For the other side, see {@link Spdz2kCopeInputter}.</p>
+ */
+class Spdz2kCopeSigner<PlainT extends CompUInt<?, ?, PlainT>> {
+
+  private final Spdz2kPreprocessingResourcePool<PlainT> resourcePool;
+  private final Network network;
+  private final int otherId;
+  private final byte[] macKeyShareBytes;
+  private final List<Drbg> prgs;
+
+  /**
+   * Creates new {@link Spdz2kCopeSigner}, running the initialization with the inputter.
+   *
+   * @param resourcePool the resource pool
+   * @param network the network
+   * @param otherId the id of the inputter
+   * @param macKeyShare this party's mac key share
+   */
+  Spdz2kCopeSigner(Spdz2kPreprocessingResourcePool<PlainT> resourcePool, Network network,
+      int otherId, PlainT macKeyShare) {
+    this.resourcePool = resourcePool;
+    this.network = network;
+    this.otherId = otherId;
+    this.macKeyShareBytes = macKeyShare.toByteArray();
+    int keyLength = resourcePool.getLambdaSecurityParam();
+    StrictBitVector choices = new StrictBitVector(keyLength);
+    for (int b = 0; b < keyLength; b++) {
+      choices.setBit(b, Spdz2kPreprocessingResourcePool.getBit(macKeyShareBytes, b), false);
+    }
+    RotBatch rot = resourcePool.createRot(otherId, network);
+    List<StrictBitVector> seeds = rot.receive(choices, resourcePool.getPrgSeedLength());
+    this.prgs = new ArrayList<>(keyLength);
+    for (StrictBitVector seed : seeds) {
+      prgs.add(AesCtrDrbgFactory.fromDerivedSeed(seed.toByteArray()));
+    }
+  }
+
+  /**
+   * Computes shares of the products of the inputter's next inputs and the mac key share.
+   *
+   * @param numInputs the number of inputs
+   * @return this party's shares of the products
+   */
+  List<PlainT> extend(int numInputs) {
+    int keyLength = prgs.size();
+    List<PlainT> diffs = resourcePool.getSerializer().deserializeList(network.receive(otherId));
+    List<PlainT> productShares = new ArrayList<>(numInputs);
+    for (int i = 0; i < numInputs; i++) {
+      List<PlainT> summands = new ArrayList<>(keyLength);
+      for (int b = 0; b < keyLength; b++) {
+        PlainT mask = resourcePool.sample(prgs.get(b));
+        if (Spdz2kPreprocessingResourcePool.getBit(macKeyShareBytes, b)) {
+          summands.add(mask.add(diffs.get(i * keyLength + b)));
+        } else {
+          summands.add(mask);
+        }
+      }
+      productShares.add(Spdz2kPreprocessingResourcePool.recombine(summands));
+    }
+    return productShares;
+  }
+
+}
@@ -0,0 +1,297 @@
+package dk.alexandra.fresco.suite.spdz2k.preprocessing;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.ByteArrayHelper;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protocol for generating authenticated, secret-shared elements over the ring of integers modulo
+ * <i>2<sup>k + s</sup></i>, based on the <i>&Pi;<sub>[[&middot;]]</sub></i> protocol of MASCOT.
+ *
+ * <p>Allows a single party to secret-share ring elements among all parties such that the elements
+ * are authenticated via a mac, as well as opening and mac-checking authenticated elements.</p>
+ *
+ * <p>The coefficients of the random linear combinations used for checking are sampled from a fresh
+ * coin toss for each check, run only once the values to check are fixed, so that no party can
+ * predict the coefficients when choosing its values.</p>
+ */
+class Spdz2kElementGeneration<PlainT extends CompUInt<?, ?, PlainT>> {
+
+  private final Spdz2kPreprocessingResourcePool<PlainT> resourcePool;
+  private final Network network;
+  private final PlainT macKeyShare;
+  private final ByteSerializer<PlainT> serializer;
+  private final CommitAndOpen commitAndOpen;
+  private final Map<Integer, Spdz2kCopeSigner<PlainT>> copeSigners;
+  private final Map<Integer, Spdz2kCopeInputter<PlainT>> copeInputters;
+
+  /**
+   * Creates new {@link Spdz2kElementGeneration}, initializing the COPE protocols with all other
+   * parties.
+   *
+   * @param resourcePool the resource pool
+   * @param network the network
+   * @param macKeyShare this party's mac key share
+   */
+  Spdz2kElementGeneration(Spdz2kPreprocessingResourcePool<PlainT> resourcePool, Network network,
+      PlainT macKeyShare) {
+    this.resourcePool = resourcePool;
+    this.network = network;
+    this.macKeyShare = macKeyShare;
+    this.serializer = resourcePool.getSerializer();
+    this.commitAndOpen = new CommitAndOpen(resourcePool.getMyId(), resourcePool.getNoOfParties(),
+        network, resourcePool.getRandomGenerator());
+    this.copeSigners = new HashMap<>();
+    this.copeInputters = new HashMap<>();
+    initializeCope();
+  }
+
+  /**
+   * Computes this party's authenticated shares of its own inputs. To be called by the input party.
+   *
+   * <p>The inputter adds an extra random element and opens a random linear combination of the
+   * inputs plus the extra element, on which all parties run a mac-check. This ensures that the
+   * inputter used the same inputs in all COPE extensions. The coefficients are tossed after the
+   * COPE extensions.</p>
+   *
+   * @param values values to input
+   * @return authenticated shares of inputs
+   */
+  List<Spdz2kSInt<PlainT>> input(List<PlainT> values) {
+    List<PlainT> padded = new ArrayList<>(values);
+    padded.add(resourcePool.sample(resourcePool.getRandomGenerator()));
+    List<PlainT> shares = secretShare(padded);
+    List<PlainT> macs = macValues(padded);
+    List<PlainT> coefficients = sampleCoefficients(values.size());
+    PlainT maskedValue = combine(padded, coefficients);
+    sendToOthers(serializer.serialize(maskedValue));
+    runMacCheck(maskedValue, combine(macs, coefficients));
+    return toAuthenticated(shares.subList(0, values.size()), macs.subList(0, values.size()));
+  }
+
+  /**
+   * Computes this party's authenticated shares of the inputs of another party.
+   *
+   * @param inputterId id of inputter
+   * @param numInputs number of inputs
+   * @return authenticated shares of inputs
+   */
+  List<Spdz2kSInt<PlainT>> input(int inputterId, int numInputs) {
+    List<PlainT> shares = serializer.deserializeList(network.receive(inputterId));
+    List<PlainT> macs = copeSigners.get(inputterId).extend(numInputs + 1);
+    List<PlainT> coefficients = sampleCoefficients(numInputs);
+    PlainT maskedValue = serializer.deserialize(network.receive(inputterId));
+    runMacCheck(maskedValue, combine(macs, coefficients));
+    return toAuthenticated(shares.subList(0, numInputs), macs.subList(0, numInputs));
+  }
+
+  /**
+   * Opens authenticated elements without checking their macs.
+   *
+   * @param closed authenticated elements to open
+   * @return opened values
+   */
+  List<PlainT> open(List<Spdz2kSInt<PlainT>> closed) {
+    List<PlainT> opened = new ArrayList<>(closed.size());
+    for (Spdz2kSInt<PlainT> element : closed) {
+      opened.add(element.getShare());
+    }
+    sendToOthers(serializer.serialize(opened));
+    for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
+      if (partyId != resourcePool.getMyId()) {
+        List<PlainT> shares = serializer.deserializeList(network.receive(partyId));
+        for (int i = 0; i < opened.size(); i++) {
+          opened.set(i, opened.get(i).add(shares.get(i)));
+        }
+      }
+    }
+    return opened;
+  }
+
+  /**
+   * Runs a batched mac-check on opened values.
+   *
+   * @param closed authenticated elements
+   * @param openValues the values the elements are claimed to open to
+   */
+  void check(List<Spdz2kSInt<PlainT>> closed, List<PlainT> openValues) {
+    if (closed.isEmpty()) {
+      return;
+    }
+    List<PlainT> coefficients = sampleCoefficients(closed.size());
+    List<PlainT> macs = new ArrayList<>(closed.size());
+    for (Spdz2kSInt<PlainT> element : closed) {
+      macs.add(element.getMacShare());
+    }
+    runMacCheck(UInt.innerProduct(openValues, coefficients),
+        UInt.innerProduct(macs, coefficients));
+  }
+
+  PlainT getMacKeyShare() {
+    return macKeyShare;
+  }
+
+  /**
+   * Computes additive shares of values and sends the shares of the other parties to them.
+   */
+  private List<PlainT> secretShare(List<PlainT> values) {
+    List<PlainT> ownShares = new ArrayList<>(values);
+    for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
+      if (partyId != resourcePool.getMyId()) {
+        List<PlainT> shares = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+          PlainT share = resourcePool.sample(resourcePool.getRandomGenerator());
+          shares.add(share);
+          ownShares.set(i, ownShares.get(i).subtract(share));
+        }
+        network.send(partyId, serializer.serialize(shares));
+      }
+    }
+    return ownShares;
+  }
+
+  /**
+   * Computes shares of the macs of values held by this party, i.e., shares of <i>v (&alpha;
+   * <sub>1</sub> + ... + &alpha;<sub>n</sub>)</i> for each value <i>v</i>, using COPE for the mac
+   * key shares of the other parties. Package-private for testing a party which uses other values
+   * for the macs than for the shares.
+   */
+  List<PlainT> macValues(List<PlainT> values) {
+    List<PlainT> macs = new ArrayList<>(values.size());
+    for (PlainT value : values) {
+      macs.add(value.multiply(macKeyShare));
+    }
+    for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
+      if (partyId != resourcePool.getMyId()) {
+        List<PlainT> productShares = copeInputters.get(partyId).extend(values);
+        for (int i = 0; i < macs.size(); i++) {
+          macs.set(i, macs.get(i).add(productShares.get(i)));
+        }
+      }
+    }
+    return macs;
+  }
+
+  /**
+   * Combines values with random coefficients, where the last value is the extra random element
+   * used for masking the combination.
+   */
+  private PlainT combine(List<PlainT> values, List<PlainT> coefficients) {
+    PlainT combined = values.get(values.size() - 1);
+    for (int i = 0; i < coefficients.size(); i++) {
+      combined = combined.add(values.get(i).multiply(coefficients.get(i)));
+    }
+    return combined;
+  }
+
+  /**
+   * Samples coefficients of s bits for random linear combinations, using a fresh joint source of
+   * randomness. Must be called by all parties, once the values to combine are fixed.
+   *
+   * @param numCoefficients number of coefficients
+   * @return the coefficients
+   */
+  List<PlainT> sampleCoefficients(int numCoefficients) {
+    Drbg jointDrbg = tossCoins();
+    List<PlainT> coefficients = new ArrayList<>(numCoefficients);
+    for (int i = 0; i < numCoefficients; i++) {
+      coefficients.add(resourcePool.sampleHigh(jointDrbg));
+    }
+    return coefficients;
+  }
+
+  /**
+   * Samples uniformly random ring elements, using a fresh joint source of randomness. Must be
+   * called by all parties, once the values to combine are fixed.
+   *
+   * @param numMasks number of ring elements
+   * @return the ring elements
+   */
+  List<PlainT> sampleMasks(int numMasks) {
+    Drbg jointDrbg = tossCoins();
+    List<PlainT> masks = new ArrayList<>(numMasks);
+    for (int i = 0; i < numMasks; i++) {
+      masks.add(resourcePool.sample(jointDrbg));
+    }
+    return masks;
+  }
+
+  /**
+   * Agrees on a joint source of randomness by letting all parties commit to a random seed, and
+   * using the XOR of the opened seeds.
+   */
+  private Drbg tossCoins() {
+    byte[] seed = new byte[AesCtrDrbg.SEED_LENGTH];
+    resourcePool.getRandomGenerator().nextBytes(seed);
+    List<byte[]> seeds = commitAndOpen.commitAndOpen(seed);
+    byte[] jointSeed = new byte[AesCtrDrbg.SEED_LENGTH];
+    for (byte[] partySeed : seeds) {
+      if (partySeed.length != jointSeed.length) {
+        throw new MaliciousException("Received seed of wrong length");
+      }
+      ByteArrayHelper.xor(jointSeed, partySeed);
+    }
+    return new AesCtrDrbg(jointSeed);
+  }
+
+  /**
+   * Checks that a single opened value matches the mac shares of all parties. Each party commits
+   * to the difference between its share of the mac of the value and its actual mac share, and
+   * the differences must sum to zero.
+   */
+  private void runMacCheck(PlainT value, PlainT macShare) {
+    PlainT difference = macKeyShare.multiply(value).subtract(macShare);
+    List<PlainT> differences =
+        serializer.deserializeList(commitAndOpen.commitAndOpen(serializer.serialize(difference)));
+    if (!UInt.sum(differences).isZero()) {
+      throw new MaliciousException("Mac check failed");
+    }
+  }
+
+  private List<Spdz2kSInt<PlainT>> toAuthenticated(List<PlainT> shares, List<PlainT> macs) {
+    List<Spdz2kSInt<PlainT>> authenticated = new ArrayList<>(shares.size());
+    for (int i = 0; i < shares.size(); i++) {
+      authenticated.add(new Spdz2kSInt<>(shares.get(i), macs.get(i)));
+    }
+    return authenticated;
+  }
+
+  private void sendToOthers(byte[] data) {
+    for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
+      if (partyId != resourcePool.getMyId()) {
+        network.send(partyId, data);
+      }
+    }
+  }
+
+  /**
+   * Initializes COPE protocols with all other parties. The order of construction matters, since
+   * the initialization blocks on the other party.
+   */
+  private void initializeCope() {
+    for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
+      if (partyId != resourcePool.getMyId()) {
+        if (resourcePool.getMyId() < partyId) {
+          copeSigners.put(partyId,
+              new Spdz2kCopeSigner<>(resourcePool, network, partyId, macKeyShare));
+          copeInputters.put(partyId, new Spdz2kCopeInputter<>(resourcePool, network, partyId));
+        } else {
+          copeInputters.put(partyId, new Spdz2kCopeInputter<>(resourcePool, network, partyId));
+          copeSigners.put(partyId,
+              new Spdz2kCopeSigner<>(resourcePool, network, partyId, macKeyShare));
+        }
+      }
+    }
+  }
+
+}
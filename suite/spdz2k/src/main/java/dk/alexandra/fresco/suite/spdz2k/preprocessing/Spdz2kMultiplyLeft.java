@@ -0,0 +1,85 @@
+package dk.alexandra.fresco.suite.spdz2k.preprocessing;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.tools.ot.base.RotBatch;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Left hand side of a two-party protocol for computing a secret sharing of the entry wise product
+ * of vectors <i><b>a</b></i> held by the <i>left</i> party and <i><b>b</b></i> held by the
+ * <i>right</i> party, over the ring of integers modulo <i>2<sup>k + s</sup></i>.
+ *
+ * <p>This is the OT-based multiplication of Gilboa, which the MASCOT triple generation also uses.
+ * For each bit of each left factor, the left party uses the bit as choice bit in a random OT in
+ * which the right party learns two random ring elements <i>q<sub>0</sub></i>,
+ * <i>q<sub>1</sub></i>. The right party then sends <i>q<sub>0</sub> - q<sub>1</sub> + b</i>, which
+ * lets the left party compute <i>q<sub>0</sub> + a<sub>i</sub> b</i> for bit <i>a<sub>i</sub></i>.
+ * Recombining over the bits gives shares of <i>a b</i>. Since the ring is a power of two, no
+ * modular reduction of the OT outputs is needed.</p>
+ *
+ * <p>For the other side, see {@link Spdz2kMultiplyRight}.</p>
+ */
+class Spdz2kMultiplyLeft<PlainT extends CompUInt<?, ?, PlainT>> {
+
+  private final Spdz2kPreprocessingResourcePool<PlainT> resourcePool;
+  private final Network network;
+  private final int otherId;
+  private final RotBatch rot;
+
+  /**
+   * Constructs one side of the two-party multiplication protocol.
+   *
+   * @param resourcePool the resource pool
+   * @param network the network
+   * @param otherId the other party's id
+   */
+  Spdz2kMultiplyLeft(Spdz2kPreprocessingResourcePool<PlainT> resourcePool, Network network,
+      int otherId) {
+    this.resourcePool = resourcePool;
+    this.network = network;
+    this.otherId = otherId;
+    this.rot = resourcePool.createRot(otherId, network);
+  }
+
+  /**
+   * Runs a batch of the entry wise product protocol with a given left hand vector.
+   *
+   * @param leftFactors this party's vector <i>a<sub>0</sub>, a<sub>1</sub> ...</i>
+   * @return shares of the products <i>a<sub>0</sub>b<sub>0</sub>, a<sub>1</sub>b<sub>1</sub>
+   *     ...</i>
+   */
+  List<PlainT> multiply(List<PlainT> leftFactors) {
+    int bitLength = resourcePool.getFactory().getCompositeBitLength();
+    List<byte[]> factorBytes = new ArrayList<>(leftFactors.size());
+    StrictBitVector choices = new StrictBitVector(leftFactors.size() * bitLength);
+    for (int i = 0; i < leftFactors.size(); i++) {
+      byte[] bytes = leftFactors.get(i).toByteArray();
+      factorBytes.add(bytes);
+      for (int b = 0; b < bitLength; b++) {
+        choices.setBit(i * bitLength + b, Spdz2kPreprocessingResourcePool.getBit(bytes, b),
+            false);
+      }
+    }
+    List<StrictBitVector> seeds = rot.receive(choices, bitLength);
+    List<PlainT> diffs = resourcePool.getSerializer().deserializeList(network.receive(otherId));
+    List<PlainT> productShares = new ArrayList<>(leftFactors.size());
+    for (int i = 0; i < leftFactors.size(); i++) {
+      List<PlainT> summands = new ArrayList<>(bitLength);
+      for (int b = 0; b < bitLength; b++) {
+        int index = i * bitLength + b;
+        PlainT seed = resourcePool.fromBits(seeds.get(index));
+        if (Spdz2kPreprocessingResourcePool.getBit(factorBytes.get(i), b)) {
+          summands.add(seed.add(diffs.get(index)));
+        } else {
+          summands.add(seed);
+        }
+      }
+      productShares.add(Spdz2kPreprocessingResourcePool.recombine(summands));
+    }
+    return productShares;
+  }
+
+}
@@ -0,0 +1,69 @@
+package dk.alexandra.fresco.suite.spdz2k.preprocessing;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.tools.ot.base.RotBatch;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Right hand side of a two-party protocol for computing a secret sharing of the entry wise product
+ * of vectors <i><b>a</b></i> held by the <i>left</i> party and <i><b>b</b></i> held by the
+ * <i>right</i> party, over the ring of integers modulo <i>2<sup>k + s</sup></i>.
+ *
+ * <p>For a description of the protocol, see {@link Spdz2kMultiplyLeft}.</p>
+ */
+class Spdz2kMultiplyRight<PlainT extends CompUInt<?, ?, PlainT>> {
+
+  private final Spdz2kPreprocessingResourcePool<PlainT> resourcePool;
+  private final Network network;
+  private final int otherId;
+  private final RotBatch rot;
+
+  /**
+   * Constructs one side of the two-party multiplication protocol.
+   *
+   * @param resourcePool the resource pool
+   * @param network the network
+   * @param otherId the other party's id
+   */
+  Spdz2kMultiplyRight(Spdz2kPreprocessingResourcePool<PlainT> resourcePool, Network network,
+      int otherId) {
+    this.resourcePool = resourcePool;
+    this.network = network;
+    this.otherId = otherId;
+    this.rot = resourcePool.createRot(otherId, network);
+  }
+
+  /**
+   * Runs a batch of the entry wise product protocol with a given right hand vector.
+   *
+   * @param rightFactors this party's vector <i>b<sub>0</sub>, b<sub>1</sub> ...</i>
+   * @return shares of the products <i>a<sub>0</sub>b<sub>0</sub>, a<sub>1</sub>b<sub>1</sub>
+   *     ...</i>
+   */
+  List<PlainT> multiply(List<PlainT> rightFactors) {
+    int bitLength = resourcePool.getFactory().getCompositeBitLength();
+    List<Pair<StrictBitVector, StrictBitVector>> seeds =
+        rot.send(rightFactors.size() * bitLength, bitLength);
+    List<PlainT> diffs = new ArrayList<>(seeds.size());
+    List<PlainT> productShares = new ArrayList<>(rightFactors.size());
+    for (int i = 0; i < rightFactors.size(); i++) {
+      PlainT rightFactor = rightFactors.get(i);
+      List<PlainT> zeroSeeds = new ArrayList<>(bitLength);
+      for (int b = 0; b < bitLength; b++) {
+        Pair<StrictBitVector, StrictBitVector> seedPair = seeds.get(i * bitLength + b);
+        PlainT zeroSeed = resourcePool.fromBits(seedPair.getFirst());
+        PlainT oneSeed = resourcePool.fromBits(seedPair.getSecond());
+        diffs.add(zeroSeed.subtract(oneSeed).add(rightFactor));
+        zeroSeeds.add(zeroSeed);
+      }
+      productShares.add(Spdz2kPreprocessingResourcePool.recombine(zeroSeeds).negate());
+    }
+    network.send(otherId, resourcePool.getSerializer().serialize(diffs));
+    return productShares;
+  }
+
+}
@@ -0,0 +1,204 @@
+package dk.alexandra.fresco.suite.spdz2k.preprocessing;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.ByteArrayHelper;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kInputMask;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Top-level class for the OT-based Spdz2k pre-processing.
+ *
+ * <p>Generates authenticated, secret-shared multiplication triples, input masks, random elements
+ * and random bits over the ring of integers modulo <i>2<sup>k + s</sup></i>, using the
+ * <i>tools/ot</i> OT extension for the pairwise multiplications and the MASCOT-style COPE
+ * protocol for authentication. All parties must request the same types and amounts of material in
+ * the same order.</p>
+ *
+ * @param <PlainT> the type of the ring elements
+ */
+public class Spdz2kPreprocessing<PlainT extends CompUInt<?, ?, PlainT>> {
+
+  private final Spdz2kPreprocessingResourcePool<PlainT> resourcePool;
+  private final Spdz2kElementGeneration<PlainT> elementGeneration;
+  private final Spdz2kTripleGeneration<PlainT> tripleGeneration;
+
+  /**
+   * Creates new {@link Spdz2kPreprocessing}, initializing the OT extensions with all other
+   * parties.
+   *
+   * @param resourcePool the resource pool
+   * @param network the network, which must not be used for anything else
+   * @param macKeyShare this party's share of the mac key, which should be an s bit value
+   */
+  public Spdz2kPreprocessing(Spdz2kPreprocessingResourcePool<PlainT> resourcePool,
+      Network network, PlainT macKeyShare) {
+    this.resourcePool = resourcePool;
+    this.elementGeneration = new Spdz2kElementGeneration<>(resourcePool, network, macKeyShare);
+    this.tripleGeneration =
+        new Spdz2kTripleGeneration<>(resourcePool, network, elementGeneration);
+  }
+
+  /**
+   * Generates a batch of multiplication triples.
+   *
+   * @param numTriples number of triples
+   * @return this party's shares of the triples
+   */
+  public List<Spdz2kTriple<PlainT>> getTriples(int numTriples) {
+    return tripleGeneration.triple(numTriples);
+  }
+
+  /**
+   * Generates a batch of random elements, by letting each party input random elements and summing
+   * the inputs.
+   *
+   * @param numElements number of elements
+   * @return this party's shares of the random elements
+   */
+  public List<Spdz2kSInt<PlainT>> getRandomElements(int numElements) {
+    List<Spdz2kSInt<PlainT>> elements = null;
+    for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
+      List<Spdz2kSInt<PlainT>> inputs;
+      if (partyId == resourcePool.getMyId()) {
+        inputs = elementGeneration.input(sample(numElements));
+      } else {
+        inputs = elementGeneration.input(partyId, numElements);
+      }
+      elements = (elements == null) ? inputs : add(elements, inputs);
+    }
+    return elements;
+  }
+
+  /**
+   * Generates a batch of input masks towards a party.
+   *
+   * @param towardPartyId the party which will know the values of the masks
+   * @param numMasks number of masks
+   * @return this party's shares of the masks, including the values if this is the input party
+   */
+  public List<Spdz2kInputMask<PlainT>> getInputMasks(int towardPartyId, int numMasks) {
+    List<Spdz2kInputMask<PlainT>> masks = new ArrayList<>(numMasks);
+    if (towardPartyId == resourcePool.getMyId()) {
+      List<PlainT> values = sample(numMasks);
+      List<Spdz2kSInt<PlainT>> shares = elementGeneration.input(values);
+      for (int i = 0; i < numMasks; i++) {
+        masks.add(new Spdz2kInputMask<>(shares.get(i), values.get(i)));
+      }
+    } else {
+      for (Spdz2kSInt<PlainT> share : elementGeneration.input(towardPartyId, numMasks)) {
+        masks.add(new Spdz2kInputMask<>(share));
+      }
+    }
+    return masks;
+  }
+
+  /**
+   * Generates a batch of random bits.
+   *
+   * <p>Each party inputs random bits, which are checked to be bits by checking that <i>b<sup>2</sup>
+   * - b</i> opens to zero. The bits of all parties are then combined by computing <i>x &oplus; y =
+   * x + y - 2 x y</i>. Both use multiplication triples, and all opened values are mac-checked at
+   * once at the end.</p>
+   *
+   * @param numBits number of bits
+   * @return this party's shares of the random bits
+   */
+  public List<Spdz2kSInt<PlainT>> getRandomBits(int numBits) {
+    int noOfParties = resourcePool.getNoOfParties();
+    List<Spdz2kTriple<PlainT>> triples = getTriples((2 * noOfParties - 1) * numBits);
+    PlainT zero = resourcePool.getFactory().zero();
+    PlainT one = resourcePool.getFactory().createFromBigInteger(BigInteger.ONE);
+    List<Spdz2kSInt<PlainT>> inputs = new ArrayList<>(noOfParties * numBits);
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      if (partyId == resourcePool.getMyId()) {
+        List<PlainT> bits = new ArrayList<>(numBits);
+        byte[] randomBytes = new byte[(numBits + Byte.SIZE - 1) / Byte.SIZE];
+        resourcePool.getRandomGenerator().nextBytes(randomBytes);
+        for (int i = 0; i < numBits; i++) {
+          bits.add(ByteArrayHelper.getBit(randomBytes, i) ? one : zero);
+        }
+        inputs.addAll(elementGeneration.input(bits));
+      } else {
+        inputs.addAll(elementGeneration.input(partyId, numBits));
+      }
+    }
+    List<Spdz2kSInt<PlainT>> toCheck = new ArrayList<>();
+    List<PlainT> openValues = new ArrayList<>();
+    List<Spdz2kSInt<PlainT>> squares = multiply(inputs, inputs,
+        triples.subList(0, inputs.size()), toCheck, openValues);
+    for (int i = 0; i < inputs.size(); i++) {
+      toCheck.add(squares.get(i).subtract(inputs.get(i)));
+      openValues.add(zero);
+    }
+    List<Spdz2kSInt<PlainT>> bits = new ArrayList<>(inputs.subList(0, numBits));
+    for (int partyId = 2; partyId <= noOfParties; partyId++) {
+      List<Spdz2kSInt<PlainT>> others = inputs.subList((partyId - 1) * numBits, partyId * numBits);
+      int from = inputs.size() + (partyId - 2) * numBits;
+      List<Spdz2kSInt<PlainT>> products = multiply(bits, others,
+          triples.subList(from, from + numBits), toCheck, openValues);
+      for (int i = 0; i < numBits; i++) {
+        Spdz2kSInt<PlainT> product = products.get(i);
+        bits.set(i, bits.get(i).add(others.get(i)).subtract(product.add(product)));
+      }
+    }
+    elementGeneration.check(toCheck, openValues);
+    return bits;
+  }
+
+  /**
+   * Multiplies authenticated elements using multiplication triples. The opened values are added to
+   * the given lists, and must be mac-checked before the products are used.
+   */
+  private List<Spdz2kSInt<PlainT>> multiply(List<Spdz2kSInt<PlainT>> left,
+      List<Spdz2kSInt<PlainT>> right, List<Spdz2kTriple<PlainT>> triples,
+      List<Spdz2kSInt<PlainT>> toCheck, List<PlainT> openValues) {
+    int size = left.size();
+    List<Spdz2kSInt<PlainT>> masked = new ArrayList<>(2 * size);
+    for (int i = 0; i < size; i++) {
+      masked.add(left.get(i).subtract(triples.get(i).getLeft()));
+    }
+    for (int i = 0; i < size; i++) {
+      masked.add(right.get(i).subtract(triples.get(i).getRight()));
+    }
+    List<PlainT> opened = elementGeneration.open(masked);
+    toCheck.addAll(masked);
+    openValues.addAll(opened);
+    PlainT zero = resourcePool.getFactory().zero();
+    boolean isPartyOne = resourcePool.getMyId() == 1;
+    List<Spdz2kSInt<PlainT>> products = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Spdz2kTriple<PlainT> triple = triples.get(i);
+      PlainT epsilon = opened.get(i);
+      PlainT delta = opened.get(size + i);
+      products.add(triple.getProduct()
+          .add(triple.getRight().multiply(epsilon))
+          .add(triple.getLeft().multiply(delta))
+          .addConstant(epsilon.multiply(delta), elementGeneration.getMacKeyShare(), zero,
+              isPartyOne));
+    }
+    return products;
+  }
+
+  private List<PlainT> sample(int numElements) {
+    List<PlainT> values = new ArrayList<>(numElements);
+    for (int i = 0; i < numElements; i++) {
+      values.add(resourcePool.sample(resourcePool.getRandomGenerator()));
+    }
+    return values;
+  }
+
+  private List<Spdz2kSInt<PlainT>> add(List<Spdz2kSInt<PlainT>> left,
+      List<Spdz2kSInt<PlainT>> right) {
+    List<Spdz2kSInt<PlainT>> sums = new ArrayList<>(left.size());
+    for (int i = 0; i < left.size(); i++) {
+      sums.add(left.get(i).add(right.get(i)));
+    }
+    return sums;
+  }
+
+}
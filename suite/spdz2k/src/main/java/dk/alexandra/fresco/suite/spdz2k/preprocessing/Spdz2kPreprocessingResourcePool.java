@@ -0,0 +1,200 @@
+package dk.alexandra.fresco.suite.spdz2k.preprocessing;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.tools.cointossing.CoinTossing;
+import dk.alexandra.fresco.tools.ot.base.RotBatch;
+import dk.alexandra.fresco.tools.ot.otextension.BristolRotBatch;
+import dk.alexandra.fresco.tools.ot.otextension.OtExtensionResourcePool;
+import dk.alexandra.fresco.tools.ot.otextension.OtExtensionResourcePoolImpl;
+import dk.alexandra.fresco.tools.ot.otextension.RotFactory;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resources needed by the OT-based Spdz2k pre-processing protocols of this package.
+ *
+ * <p>Besides the parameters of the computation, this holds the base OTs used to seed the OT
+ * extension between each pair of parties, and a source of local randomness.</p>
+ *
+ * @param <PlainT> the type of the ring elements
+ */
+public class Spdz2kPreprocessingResourcePool<PlainT extends CompUInt<?, ?, PlainT>> {
+
+  /**
+   * Number of left factor candidates combined into each triple, as recommended for MASCOT.
+   */
+  public static final int DEFAULT_NUM_CANDIDATES_PER_TRIPLE = 3;
+
+  private final int myId;
+  private final int noOfParties;
+  private final int instanceId;
+  private final int prgSeedLength;
+  private final int lambdaSecurityParam;
+  private final int numCandidatesPerTriple;
+  private final CompUIntFactory<PlainT> factory;
+  private final ByteSerializer<PlainT> serializer;
+  private final Drbg drbg;
+  private final Map<Integer, RotList> seedOts;
+
+  /**
+   * Creates new {@link Spdz2kPreprocessingResourcePool}.
+   *
+   * @param myId this party's id
+   * @param noOfParties number of parties
+   * @param instanceId identifier used to distinguish parallel instances of the pre-processing
+   * @param factory factory for ring elements
+   * @param prgSeedLength bit length of prg seeds, i.e., the computational security parameter
+   * @param numCandidatesPerTriple number of left factor candidates combined into each triple
+   *     (tau in the MASCOT paper)
+   * @param drbg source of local randomness
+   * @param seedOts pre-computed base OTs towards each other party
+   */
+  public Spdz2kPreprocessingResourcePool(int myId, int noOfParties, int instanceId,
+      CompUIntFactory<PlainT> factory, int prgSeedLength, int numCandidatesPerTriple, Drbg drbg,
+      Map<Integer, RotList> seedOts) {
+    if (numCandidatesPerTriple < 1) {
+      throw new IllegalArgumentException(
+          "Number of candidates per triple must be positive, but was " + numCandidatesPerTriple);
+    }
+    this.myId = myId;
+    this.noOfParties = noOfParties;
+    this.instanceId = instanceId;
+    this.factory = factory;
+    this.serializer = factory.createSerializer();
+    this.prgSeedLength = prgSeedLength;
+    this.lambdaSecurityParam = factory.getHighBitLength();
+    this.numCandidatesPerTriple = numCandidatesPerTriple;
+    this.drbg = drbg;
+    this.seedOts = seedOts;
+  }
+
+  /**
+   * Creates new {@link Spdz2kPreprocessingResourcePool} using {@link
+   * #DEFAULT_NUM_CANDIDATES_PER_TRIPLE} candidates per triple.
+   */
+  public Spdz2kPreprocessingResourcePool(int myId, int noOfParties, int instanceId,
+      CompUIntFactory<PlainT> factory, int prgSeedLength, Drbg drbg,
+      Map<Integer, RotList> seedOts) {
+    this(myId, noOfParties, instanceId, factory, prgSeedLength,
+        DEFAULT_NUM_CANDIDATES_PER_TRIPLE, drbg, seedOts);
+  }
+
+  public int getMyId() {
+    return myId;
+  }
+
+  public int getNoOfParties() {
+    return noOfParties;
+  }
+
+  public int getInstanceId() {
+    return instanceId;
+  }
+
+  /**
+   * Returns the bit length of prg seeds, i.e., the computational security parameter.
+   */
+  public int getPrgSeedLength() {
+    return prgSeedLength;
+  }
+
+  /**
+   * Returns the statistical security parameter, which is the bit length s of the mac key.
+   */
+  public int getLambdaSecurityParam() {
+    return lambdaSecurityParam;
+  }
+
+  /**
+   * Returns the number of left factor candidates combined into each triple (tau in the MASCOT
+   * paper).
+   */
+  public int getNumCandidatesPerTriple() {
+    return numCandidatesPerTriple;
+  }
+
+  public CompUIntFactory<PlainT> getFactory() {
+    return factory;
+  }
+
+  public ByteSerializer<PlainT> getSerializer() {
+    return serializer;
+  }
+
+  public Drbg getRandomGenerator() {
+    return drbg;
+  }
+
+  /**
+   * Creates a new instance of random OT extension with the other party. Both parties must call
+   * this at the same point of their protocols.
+   *
+   * @param otherId the id of the other party
+   * @param network the network to run the OT extension on
+   * @return the random OT batch protocol
+   */
+  public RotBatch createRot(int otherId, Network network) {
+    if (myId == otherId) {
+      throw new IllegalArgumentException("Cannot initialize with self");
+    }
+    CoinTossing ct = new CoinTossing(myId, otherId, drbg);
+    ct.initialize(network);
+    OtExtensionResourcePool otResources = new OtExtensionResourcePoolImpl(myId, otherId,
+        prgSeedLength, lambdaSecurityParam, instanceId, drbg, ct, seedOts.get(otherId));
+    return new BristolRotBatch(new RotFactory(otResources, network), prgSeedLength,
+        lambdaSecurityParam);
+  }
+
+  /**
+   * Samples a uniformly random ring element.
+   */
+  public PlainT sample(Drbg drbg) {
+    byte[] bytes = new byte[factory.getCompositeBitLength() / Byte.SIZE];
+    drbg.nextBytes(bytes);
+    return factory.createFromBytes(bytes);
+  }
+
+  /**
+   * Samples a uniformly random element of the s least significant bits, as used for mac keys and
+   * for the coefficients of random linear combinations.
+   */
+  public PlainT sampleHigh(Drbg drbg) {
+    byte[] bytes = new byte[factory.getHighBitLength() / Byte.SIZE];
+    drbg.nextBytes(bytes);
+    return factory.createFromBytes(bytes);
+  }
+
+  /**
+   * Converts a bit vector of the composite bit length to a ring element.
+   */
+  PlainT fromBits(StrictBitVector bits) {
+    return factory.createFromBytes(bits.toByteArray());
+  }
+
+  /**
+   * Returns the bit at the given index of the big-endian byte representation of a ring element,
+   * where index 0 is the least significant bit.
+   */
+  static boolean getBit(byte[] bytes, int index) {
+    return ((bytes[bytes.length - 1 - index / Byte.SIZE] >>> (index % Byte.SIZE)) & 1) == 1;
+  }
+
+  /**
+   * Recombines the summands <i>x<sub>0</sub>, x<sub>1</sub>, ...</i> into <i>&Sigma;
+   * 2<sup>i</sup> x<sub>i</sub></i>.
+   */
+  static <PlainT extends CompUInt<?, ?, PlainT>> PlainT recombine(List<PlainT> summands) {
+    PlainT result = summands.get(summands.size() - 1);
+    for (int i = summands.size() - 2; i >= 0; i--) {
+      result = result.add(result).add(summands.get(i));
+    }
+    return result;
+  }
+
+}
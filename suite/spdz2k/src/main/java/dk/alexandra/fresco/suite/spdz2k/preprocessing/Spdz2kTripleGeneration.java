@@ -0,0 +1,207 @@
+package dk.alexandra.fresco.suite.spdz2k.preprocessing;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protocol for computing authenticated, secret-shared multiplication triples over the ring of
+ * integers modulo <i>2<sup>k + s</sup></i>.
+ *
+ * <p>Follows the structure of the triple generation of MASCOT: for each triple, the parties sample
+ * random shares of a right factor <i>b</i> and of several left factor candidates
+ * <i>a<sub>1</sub>, ..., a<sub>&tau;</sub></i>, and compute unauthenticated shares of the products
+ * <i>c<sub>j</sub> = a<sub>j</sub> b</i> using pairwise OT-based multiplication. The candidates are
+ * then combined with coin-tossed coefficients into <i>a = &Sigma; r<sub>j</sub>
+ * a<sub>j</sub></i>, <i>c = &Sigma; r<sub>j</sub> c<sub>j</sub></i>, and into <i>&acirc;</i>,
+ * <i>&ccirc;</i> using another set of coefficients. The combination removes the information a
+ * corrupt party can learn about the left factors by deviating in the OT-based multiplication,
+ * since whether the sacrifice succeeds then depends on bits of the candidates rather than on bits
+ * of <i>a</i>. The five values are authenticated using COPE, and each triple is checked by
+ * sacrificing the triple <i>(&acirc;, b, &ccirc;)</i>, i.e., by opening <i>&rho; = r a -
+ * &acirc;</i> for a random <i>r</i> and checking that <i>r c - &ccirc; - &rho; b</i> opens to
+ * zero. All coefficients are tossed once the values they are applied to are fixed.</p>
+ */
+class Spdz2kTripleGeneration<PlainT extends CompUInt<?, ?, PlainT>> {
+
+  private final Spdz2kPreprocessingResourcePool<PlainT> resourcePool;
+  private final Spdz2kElementGeneration<PlainT> elementGeneration;
+  private final Map<Integer, Spdz2kMultiplyLeft<PlainT>> leftMultipliers;
+  private final Map<Integer, Spdz2kMultiplyRight<PlainT>> rightMultipliers;
+
+  /**
+   * Creates new triple generation protocol.
+   */
+  Spdz2kTripleGeneration(Spdz2kPreprocessingResourcePool<PlainT> resourcePool, Network network,
+      Spdz2kElementGeneration<PlainT> elementGeneration) {
+    this.resourcePool = resourcePool;
+    this.elementGeneration = elementGeneration;
+    this.leftMultipliers = new HashMap<>();
+    this.rightMultipliers = new HashMap<>();
+    initializeMultipliers(network);
+  }
+
+  private void initializeMultipliers(Network network) {
+    for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
+      if (partyId != resourcePool.getMyId()) {
+        if (resourcePool.getMyId() < partyId) {
+          rightMultipliers.put(partyId, new Spdz2kMultiplyRight<>(resourcePool, network,
+              partyId));
+          leftMultipliers.put(partyId, new Spdz2kMultiplyLeft<>(resourcePool, network,
+              partyId));
+        } else {
+          leftMultipliers.put(partyId, new Spdz2kMultiplyLeft<>(resourcePool, network,
+              partyId));
+          rightMultipliers.put(partyId, new Spdz2kMultiplyRight<>(resourcePool, network,
+              partyId));
+        }
+      }
+    }
+  }
+
+  /**
+   * Generates a batch of multiplication triples.
+   *
+   * @param numTriples number of triples to generate
+   * @return valid multiplication triples
+   */
+  List<Spdz2kTriple<PlainT>> triple(int numTriples) {
+    int numCandidates = resourcePool.getNumCandidatesPerTriple();
+    // groups of left factor candidates, and a right factor for each group
+    List<PlainT> leftFactorGroups = new ArrayList<>(numTriples * numCandidates);
+    for (int i = 0; i < numTriples * numCandidates; i++) {
+      leftFactorGroups.add(resourcePool.sample(resourcePool.getRandomGenerator()));
+    }
+    List<PlainT> rightFactors = new ArrayList<>(numTriples);
+    for (int i = 0; i < numTriples; i++) {
+      rightFactors.add(resourcePool.sample(resourcePool.getRandomGenerator()));
+    }
+    List<PlainT> stretched = new ArrayList<>(numTriples * numCandidates);
+    for (PlainT rightFactor : rightFactors) {
+      for (int j = 0; j < numCandidates; j++) {
+        stretched.add(rightFactor);
+      }
+    }
+    List<PlainT> productGroups = multiply(leftFactorGroups, stretched);
+    List<PlainT> unauthenticated =
+        combine(leftFactorGroups, rightFactors, productGroups, numTriples);
+    return sacrifice(authenticate(unauthenticated), numTriples);
+  }
+
+  /**
+   * Combines each group of candidates into the five values <i>a, b, c, &acirc;, &ccirc;</i> of a
+   * candidate triple, in that order, using two sets of coin-tossed coefficients.
+   */
+  private List<PlainT> combine(List<PlainT> leftFactorGroups, List<PlainT> rightFactors,
+      List<PlainT> productGroups, int numTriples) {
+    int numCandidates = resourcePool.getNumCandidatesPerTriple();
+    List<PlainT> masks = elementGeneration.sampleMasks(2 * numTriples * numCandidates);
+    List<PlainT> combined = new ArrayList<>(5 * numTriples);
+    for (int i = 0; i < numTriples; i++) {
+      int from = i * numCandidates;
+      int to = from + numCandidates;
+      List<PlainT> leftFactors = leftFactorGroups.subList(from, to);
+      List<PlainT> products = productGroups.subList(from, to);
+      List<PlainT> leftMasks = masks.subList(from, to);
+      List<PlainT> hatMasks =
+          masks.subList(numTriples * numCandidates + from, numTriples * numCandidates + to);
+      combined.add(UInt.innerProduct(leftFactors, leftMasks));
+      combined.add(rightFactors.get(i));
+      combined.add(UInt.innerProduct(products, leftMasks));
+      combined.add(UInt.innerProduct(leftFactors, hatMasks));
+      combined.add(UInt.innerProduct(products, hatMasks));
+    }
+    return combined;
+  }
+
+  /**
+   * Computes unauthenticated shares of the entry wise products of the left and right factors of
+   * all parties, i.e., this party's share of <i>(&Sigma; a<sub>i</sub>)(&Sigma;
+   * b<sub>j</sub>)</i> for each pair of factors.
+   */
+  private List<PlainT> multiply(List<PlainT> leftFactors, List<PlainT> rightFactors) {
+    List<PlainT> products = new ArrayList<>(leftFactors.size());
+    for (int i = 0; i < leftFactors.size(); i++) {
+      products.add(leftFactors.get(i).multiply(rightFactors.get(i)));
+    }
+    for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
+      if (partyId != resourcePool.getMyId()) {
+        List<PlainT> first;
+        List<PlainT> second;
+        if (resourcePool.getMyId() < partyId) {
+          first = rightMultipliers.get(partyId).multiply(rightFactors);
+          second = leftMultipliers.get(partyId).multiply(leftFactors);
+        } else {
+          first = leftMultipliers.get(partyId).multiply(leftFactors);
+          second = rightMultipliers.get(partyId).multiply(rightFactors);
+        }
+        for (int i = 0; i < products.size(); i++) {
+          products.set(i, products.get(i).add(first.get(i)).add(second.get(i)));
+        }
+      }
+    }
+    return products;
+  }
+
+  /**
+   * Lets each party input its unauthenticated shares, and sums the authenticated inputs of all
+   * parties.
+   */
+  private List<Spdz2kSInt<PlainT>> authenticate(List<PlainT> shares) {
+    List<Spdz2kSInt<PlainT>> authenticated = null;
+    for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
+      List<Spdz2kSInt<PlainT>> inputs;
+      if (partyId == resourcePool.getMyId()) {
+        inputs = elementGeneration.input(shares);
+      } else {
+        inputs = elementGeneration.input(partyId, shares.size());
+      }
+      if (authenticated == null) {
+        authenticated = inputs;
+      } else {
+        for (int i = 0; i < authenticated.size(); i++) {
+          authenticated.set(i, authenticated.get(i).add(inputs.get(i)));
+        }
+      }
+    }
+    return authenticated;
+  }
+
+  /**
+   * Checks the candidate triples by sacrificing the second triple of each candidate. Each candidate
+   * consists of the five authenticated values <i>a, b, c, &acirc;, &ccirc;</i>, in that order.
+   */
+  List<Spdz2kTriple<PlainT>> sacrifice(List<Spdz2kSInt<PlainT>> candidates,
+      int numTriples) {
+    List<Spdz2kSInt<PlainT>> rhos = new ArrayList<>(numTriples);
+    List<PlainT> coefficients = elementGeneration.sampleCoefficients(numTriples);
+    for (int i = 0; i < numTriples; i++) {
+      Spdz2kSInt<PlainT> left = candidates.get(5 * i);
+      Spdz2kSInt<PlainT> leftHat = candidates.get(5 * i + 3);
+      rhos.add(left.multiply(coefficients.get(i)).subtract(leftHat));
+    }
+    List<PlainT> openRhos = elementGeneration.open(rhos);
+    List<Spdz2kSInt<PlainT>> toCheck = new ArrayList<>(rhos);
+    List<PlainT> openValues = new ArrayList<>(openRhos);
+    PlainT zero = resourcePool.getFactory().zero();
+    List<Spdz2kTriple<PlainT>> triples = new ArrayList<>(numTriples);
+    for (int i = 0; i < numTriples; i++) {
+      Spdz2kSInt<PlainT> right = candidates.get(5 * i + 1);
+      Spdz2kSInt<PlainT> product = candidates.get(5 * i + 2);
+      Spdz2kSInt<PlainT> productHat = candidates.get(5 * i + 4);
+      toCheck.add(product.multiply(coefficients.get(i)).subtract(productHat)
+          .subtract(right.multiply(openRhos.get(i))));
+      openValues.add(zero);
+      triples.add(new Spdz2kTriple<>(candidates.get(5 * i), right, product));
+    }
+    elementGeneration.check(toCheck, openValues);
+    return triples;
+  }
+
+}
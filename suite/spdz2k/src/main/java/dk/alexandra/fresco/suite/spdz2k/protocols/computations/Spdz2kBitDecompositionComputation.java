@@ -0,0 +1,187 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.computations;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RandomAdditiveMask;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Native computation for decomposing a secret value into its least significant bits. <p>The value
+ * is masked with a random value whose least significant bits are random bits from the data
+ * supplier, and then opened. The bits of the secret value are the bits of the open value minus the
+ * mask, where all borrows of the subtraction are computed in parallel as prefixes of the borrow
+ * generate and propagate values of each position. This takes a logarithmic number of rounds, each
+ * with a single list multiplication.</p>
+ */
+public class Spdz2kBitDecompositionComputation implements
+    Computation<List<SInt>, ProtocolBuilderNumeric> {
+
+  private final DRes<SInt> input;
+  private final int bitLength;
+
+  /**
+   * Creates new {@link Spdz2kBitDecompositionComputation}.
+   *
+   * @param input the secret value
+   * @param bitLength the number of least significant bits to compute, at most <i>k</i>
+   */
+  public Spdz2kBitDecompositionComputation(DRes<SInt> input, int bitLength) {
+    this.input = input;
+    this.bitLength = bitLength;
+  }
+
+  @Override
+  public DRes<List<SInt>> buildComputation(ProtocolBuilderNumeric builder) {
+    int maxBitLength = builder.getBasicNumericContext().getMaxBitLength();
+    if (bitLength > maxBitLength) {
+      throw new IllegalArgumentException(
+          "Bit length " + bitLength + " exceeds the bit length " + maxBitLength + " of the ring");
+    }
+    if (bitLength <= 0) {
+      return ArrayList::new;
+    }
+    return builder.seq(new Spdz2kRandomMaskComputation(bitLength))
+        .seq((seq, mask) -> {
+          Numeric numeric = seq.numeric();
+          DRes<SInt> masked = numeric.add(input, () -> mask.random);
+          if (bitLength < maxBitLength) {
+            // mask the remaining bits, which are not needed in the result, with a random element
+            masked = numeric.add(masked,
+                numeric.mult(BigInteger.ONE.shiftLeft(bitLength), numeric.randomElement()));
+          }
+          DRes<BigInteger> open = numeric.open(masked);
+          return () -> new Pair<>(open.out(), mask);
+        })
+        .seq((seq, openAndMask) -> {
+          BigInteger open = openAndMask.getFirst();
+          RandomAdditiveMask mask = openAndMask.getSecond();
+          DRes<List<DRes<SInt>>> borrows = seq.seq(new Borrows(open, mask.bits));
+          return () -> new Pair<>(open, new Pair<>(mask, borrows.out()));
+        })
+        .seq((seq, state) -> {
+          BigInteger open = state.getFirst();
+          List<DRes<SInt>> maskBits = state.getSecond().getFirst().bits;
+          List<DRes<SInt>> borrows = state.getSecond().getSecond();
+          Numeric numeric = seq.numeric();
+          List<DRes<SInt>> differences = new ArrayList<>(bitLength);
+          for (int i = 0; i < bitLength; i++) {
+            differences.add(xorOpen(numeric, open.testBit(i), maskBits.get(i)));
+          }
+          // bit i is the xor of the open bit, the mask bit and the borrow into position i
+          DRes<List<DRes<SInt>>> products = seq.advancedNumeric()
+              .mult(differences.subList(1, bitLength), borrows.subList(0, bitLength - 1));
+          List<DRes<SInt>> bits = new ArrayList<>(bitLength);
+          bits.add(differences.get(0));
+          for (int i = 1; i < bitLength; i++) {
+            int index = i - 1;
+            bits.add(numeric.sub(
+                numeric.add(differences.get(i), borrows.get(index)),
+                numeric.mult(BigInteger.valueOf(2), () -> products.out().get(index).out())));
+          }
+          return () -> bits.stream().map(DRes::out).collect(Collectors.toList());
+        });
+  }
+
+  /**
+   * Computes the xor of an open bit and a secret bit.
+   */
+  static DRes<SInt> xorOpen(Numeric numeric, boolean openBit, DRes<SInt> secretBit) {
+    return openBit ? numeric.sub(BigInteger.ONE, secretBit) : secretBit;
+  }
+
+  /**
+   * Computes the borrow out of each position of the subtraction of a secret value given by its bits
+   * from an open value, i.e., the list whose <i>i</i>th element is <i>[c mod 2<sup>i + 1</sup> &lt;
+   * r mod 2<sup>i + 1</sup>]</i>.
+   */
+  private static class Borrows implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+    private final BigInteger openValue;
+    private final List<DRes<SInt>> secretBits;
+
+    Borrows(BigInteger openValue, List<DRes<SInt>> secretBits) {
+      this.openValue = openValue;
+      this.secretBits = secretBits;
+    }
+
+    @Override
+    public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+      Numeric numeric = builder.numeric();
+      DRes<SInt> zero = numeric.known(BigInteger.ZERO);
+      List<DRes<SInt>> generate = new ArrayList<>(secretBits.size());
+      List<DRes<SInt>> propagate = new ArrayList<>(secretBits.size());
+      for (int i = 0; i < secretBits.size(); i++) {
+        DRes<SInt> bit = secretBits.get(i);
+        if (openValue.testBit(i)) {
+          generate.add(zero);
+          propagate.add(bit);
+        } else {
+          generate.add(bit);
+          propagate.add(numeric.sub(BigInteger.ONE, bit));
+        }
+      }
+      return builder.seq(seq -> () -> new State(generate, propagate, 1))
+          .whileLoop(
+              state -> state.distance < state.generate.size(),
+              (seq, state) -> state.next(seq))
+          .seq((seq, state) -> () -> state.generate);
+    }
+
+    /**
+     * After the step with distance <i>d</i>, position <i>i</i> holds the combined generate and
+     * propagate values of the positions <i>max(0, i - 2d + 1)</i> to <i>i</i>.
+     */
+    private static class State {
+
+      private final List<DRes<SInt>> generate;
+      private final List<DRes<SInt>> propagate;
+      private final int distance;
+
+      State(List<DRes<SInt>> generate, List<DRes<SInt>> propagate, int distance) {
+        this.generate = generate;
+        this.propagate = propagate;
+        this.distance = distance;
+      }
+
+      DRes<State> next(ProtocolBuilderNumeric builder) {
+        int size = generate.size();
+        List<DRes<SInt>> left = new ArrayList<>();
+        List<DRes<SInt>> right = new ArrayList<>();
+        for (int i = distance; i < size; i++) {
+          left.add(propagate.get(i));
+          right.add(generate.get(i - distance));
+        }
+        // positions reaching the least significant one are only used for their generate value
+        for (int i = 2 * distance; i < size; i++) {
+          left.add(propagate.get(i));
+          right.add(propagate.get(i - distance));
+        }
+        DRes<List<DRes<SInt>>> products = builder.advancedNumeric().mult(left, right);
+        Numeric numeric = builder.numeric();
+        List<DRes<SInt>> nextGenerate = new ArrayList<>(generate.subList(0, distance));
+        List<DRes<SInt>> nextPropagate = new ArrayList<>(size);
+        for (int i = 0; i < Math.min(2 * distance, size); i++) {
+          nextPropagate.add(null);
+        }
+        for (int i = distance; i < size; i++) {
+          int index = i - distance;
+          nextGenerate.add(numeric.add(generate.get(i), () -> products.out().get(index).out()));
+        }
+        int offset = size - distance - 2 * distance;
+        for (int i = 2 * distance; i < size; i++) {
+          int index = offset + i;
+          nextPropagate.add(() -> products.out().get(index).out());
+        }
+        return () -> new State(nextGenerate, nextPropagate, 2 * distance);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,97 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.computations;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Native computation for comparing an open value <i>c</i> to a secret value <i>r</i> given by its
+ * bits, computing <i>[c &lt; r]</i>. <p>This is the borrow out of the subtraction <i>c - r</i>.
+ * For each bit position the borrow is either generated, propagated or killed, and the positions
+ * are combined pairwise in a tree, so the computation takes a logarithmic number of rounds, each
+ * with a single list multiplication.</p>
+ */
+public class Spdz2kBitLessThanOpenComputation implements
+    Computation<SInt, ProtocolBuilderNumeric> {
+
+  private final BigInteger openValue;
+  private final List<DRes<SInt>> secretBits;
+
+  /**
+   * Creates new {@link Spdz2kBitLessThanOpenComputation}.
+   *
+   * @param openValue the open value <i>c</i>; only the bits below the number of secret bits are
+   *     used
+   * @param secretBits the bits of the secret value <i>r</i>, least significant bit first
+   */
+  public Spdz2kBitLessThanOpenComputation(BigInteger openValue, List<DRes<SInt>> secretBits) {
+    this.openValue = openValue;
+    this.secretBits = secretBits;
+  }
+
+  @Override
+  public DRes<SInt> buildComputation(ProtocolBuilderNumeric builder) {
+    Numeric numeric = builder.numeric();
+    DRes<SInt> zero = numeric.known(BigInteger.ZERO);
+    if (secretBits.isEmpty()) {
+      return zero;
+    }
+    // a position with open bit 0 generates a borrow if the secret bit is 1 and propagates one
+    // otherwise, and a position with open bit 1 propagates a borrow if the secret bit is 1
+    List<DRes<SInt>> generate = new ArrayList<>(secretBits.size());
+    List<DRes<SInt>> propagate = new ArrayList<>(secretBits.size());
+    for (int i = 0; i < secretBits.size(); i++) {
+      DRes<SInt> bit = secretBits.get(i);
+      if (openValue.testBit(i)) {
+        generate.add(zero);
+        propagate.add(bit);
+      } else {
+        generate.add(bit);
+        propagate.add(numeric.sub(BigInteger.ONE, bit));
+      }
+    }
+    return builder.seq(seq -> () -> new Pair<>(generate, propagate))
+        .whileLoop(
+            state -> state.getFirst().size() > 1,
+            (seq, state) -> combinePairs(seq, state.getFirst(), state.getSecond()))
+        .seq((seq, state) -> state.getFirst().get(0));
+  }
+
+  /**
+   * Combines each pair of neighbouring positions into one, where the lower position is the even
+   * one. If there is an odd number of positions, the most significant is passed on as is.
+   */
+  private DRes<Pair<List<DRes<SInt>>, List<DRes<SInt>>>> combinePairs(
+      ProtocolBuilderNumeric builder, List<DRes<SInt>> generate, List<DRes<SInt>> propagate) {
+    int pairs = generate.size() / 2;
+    List<DRes<SInt>> left = new ArrayList<>(2 * pairs);
+    List<DRes<SInt>> right = new ArrayList<>(2 * pairs);
+    for (int j = 0; j < pairs; j++) {
+      left.add(propagate.get(2 * j + 1));
+      right.add(generate.get(2 * j));
+      left.add(propagate.get(2 * j + 1));
+      right.add(propagate.get(2 * j));
+    }
+    DRes<List<DRes<SInt>>> products = builder.advancedNumeric().mult(left, right);
+    Numeric numeric = builder.numeric();
+    List<DRes<SInt>> nextGenerate = new ArrayList<>(pairs + 1);
+    List<DRes<SInt>> nextPropagate = new ArrayList<>(pairs + 1);
+    for (int j = 0; j < pairs; j++) {
+      int index = 2 * j;
+      nextGenerate.add(numeric.add(generate.get(index + 1), () -> products.out().get(index).out()));
+      nextPropagate.add(() -> products.out().get(index + 1).out());
+    }
+    if (generate.size() % 2 == 1) {
+      nextGenerate.add(generate.get(generate.size() - 1));
+      nextPropagate.add(propagate.get(propagate.size() - 1));
+    }
+    return () -> new Pair<>(nextGenerate, nextPropagate);
+  }
+
+}
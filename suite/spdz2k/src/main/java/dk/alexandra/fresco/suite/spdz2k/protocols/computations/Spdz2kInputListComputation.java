@@ -0,0 +1,45 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.computations;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.protocols.natives.BroadcastValidationProtocol;
+import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kInputOnlyListProtocol;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Native computation for inputting a list of private values. <p>Consists of native protocols
+ * {@link Spdz2kInputOnlyListProtocol} and {@link BroadcastValidationProtocol}, so that all masked
+ * inputs are sent and validated together, rather than one value at a time as by {@link
+ * Spdz2kInputComputation}.</p>
+ */
+public class Spdz2kInputListComputation<PlainT extends CompUInt<?, ?, PlainT>> implements
+    Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final List<PlainT> inputs;
+  private final int inputPartyId;
+
+  public Spdz2kInputListComputation(List<PlainT> inputs, int inputPartyId) {
+    this.inputPartyId = inputPartyId;
+    this.inputs = inputs;
+  }
+
+  @Override
+  public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    if (inputs.isEmpty()) {
+      return ArrayList::new;
+    }
+    DRes<Pair<List<DRes<SInt>>, byte[]>> sharesAndMaskBytes = builder
+        .append(new Spdz2kInputOnlyListProtocol<>(inputs, inputPartyId));
+    return builder.seq(seq -> {
+      Pair<List<DRes<SInt>>, byte[]> unwrapped = sharesAndMaskBytes.out();
+      seq.append(new BroadcastValidationProtocol<>(unwrapped.getSecond()));
+      return unwrapped::getFirst;
+    });
+  }
+
+}
@@ -0,0 +1,58 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.computations;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RandomAdditiveMask;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+
+/**
+ * Native computation for the most significant bit of a secret value in <i>Z<sub>2<sup>k</sup></sub>
+ * </i>, i.e., the sign bit of the value in two's complement. <p>The value is masked with a random
+ * value of <i>k</i> random bits and opened. The most significant bit is then the xor of the most
+ * significant bits of the open value and the mask, and the borrow from the remaining bits of the
+ * subtraction of the mask from the open value, which is computed by {@link
+ * Spdz2kBitLessThanOpenComputation}.</p>
+ */
+public class Spdz2kMostSignificantBitComputation implements
+    Computation<SInt, ProtocolBuilderNumeric> {
+
+  private final DRes<SInt> input;
+
+  /**
+   * Creates new {@link Spdz2kMostSignificantBitComputation}.
+   *
+   * @param input the secret value
+   */
+  public Spdz2kMostSignificantBitComputation(DRes<SInt> input) {
+    this.input = input;
+  }
+
+  @Override
+  public DRes<SInt> buildComputation(ProtocolBuilderNumeric builder) {
+    int maxBitLength = builder.getBasicNumericContext().getMaxBitLength();
+    return builder.seq(new Spdz2kRandomMaskComputation(maxBitLength))
+        .seq((seq, mask) -> {
+          DRes<BigInteger> open = seq.numeric().open(seq.numeric().add(input, () -> mask.random));
+          return () -> new Pair<>(open.out(), mask);
+        })
+        .seq((seq, openAndMask) -> {
+          BigInteger open = openAndMask.getFirst();
+          RandomAdditiveMask mask = openAndMask.getSecond();
+          int top = maxBitLength - 1;
+          DRes<SInt> borrow = seq.seq(new Spdz2kBitLessThanOpenComputation(
+              open.mod(BigInteger.ONE.shiftLeft(top)), mask.bits.subList(0, top)));
+          Numeric numeric = seq.numeric();
+          DRes<SInt> topBit =
+              Spdz2kBitDecompositionComputation.xorOpen(numeric, open.testBit(top),
+                  mask.bits.get(top));
+          DRes<SInt> product = numeric.mult(topBit, borrow);
+          return numeric.sub(numeric.add(topBit, borrow),
+              numeric.mult(BigInteger.valueOf(2), product));
+        });
+  }
+
+}
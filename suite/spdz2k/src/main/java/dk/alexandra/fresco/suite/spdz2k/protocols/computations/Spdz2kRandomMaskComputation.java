@@ -0,0 +1,61 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.computations;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RandomAdditiveMask;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Native computation for generating a random value along with its bits. <p>The bits are random
+ * bits from the data supplier, and the value is computed from them locally, so unlike the generic
+ * {@link dk.alexandra.fresco.lib.compare.RandomAdditiveMask} this requires no communication.</p>
+ */
+public class Spdz2kRandomMaskComputation implements
+    Computation<RandomAdditiveMask, ProtocolBuilderNumeric> {
+
+  private final int noOfBits;
+
+  /**
+   * Creates new {@link Spdz2kRandomMaskComputation}.
+   *
+   * @param noOfBits number of random bits of the mask
+   */
+  public Spdz2kRandomMaskComputation(int noOfBits) {
+    this.noOfBits = noOfBits;
+  }
+
+  @Override
+  public DRes<RandomAdditiveMask> buildComputation(ProtocolBuilderNumeric builder) {
+    return builder.seq(seq -> {
+      List<DRes<SInt>> bits = new ArrayList<>(noOfBits);
+      for (int i = 0; i < noOfBits; i++) {
+        bits.add(seq.numeric().randomBit());
+      }
+      return () -> bits;
+    }).seq((seq, bits) -> {
+      DRes<SInt> random = sumOfBits(seq.numeric(), bits, 0, bits.size());
+      return () -> new RandomAdditiveMask(bits, random.out());
+    });
+  }
+
+  /**
+   * Computes the sum of <i>2<sup>i - from</sup> b<sub>i</sub></i> for the bits <i>b<sub>i</sub></i>
+   * with index <i>from &le; i &lt; to</i>, i.e., the value represented by this range of bits.
+   */
+  static DRes<SInt> sumOfBits(Numeric numeric, List<DRes<SInt>> bits, int from, int to) {
+    if (from >= to) {
+      return numeric.known(BigInteger.ZERO);
+    }
+    DRes<SInt> sum = bits.get(from);
+    for (int i = from + 1; i < to; i++) {
+      sum = numeric.add(sum, numeric.mult(BigInteger.ONE.shiftLeft(i - from), bits.get(i)));
+    }
+    return sum;
+  }
+
+}
@@ -0,0 +1,87 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.computations;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RandomAdditiveMask;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RightShiftResult;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+
+/**
+ * Native computation for shifting a secret value in <i>Z<sub>2<sup>k</sup></sub></i> a number of
+ * positions to the right, i.e., for computing the quotient and remainder of the value, seen as an
+ * unsigned <i>k</i>-bit integer, divided by <i>2<sup>m</sup></i>. The result is exact; see {@link
+ * Spdz2kTruncationComputation} for a cheaper probabilistic variant.
+ *
+ * <p>The value <i>x</i> is masked with a random value <i>r</i> of <i>k</i> random bits, and
+ * <i>c = x + r mod 2<sup>k</sup></i> is opened. Then <i>x = c - r + 2<sup>k</sup> w</i> where
+ * <i>w = [c &lt; r]</i>, and with <i>u = [c mod 2<sup>m</sup> &lt; r mod 2<sup>m</sup>]</i> the
+ * quotient is <i>(c &gt;&gt; m) - (r &gt;&gt; m) - u + 2<sup>k - m</sup> w</i> and the remainder
+ * is <i>(c mod 2<sup>m</sup>) - (r mod 2<sup>m</sup>) + 2<sup>m</sup> u</i>. Both comparisons are
+ * computed in parallel by {@link Spdz2kBitLessThanOpenComputation}.</p>
+ */
+public class Spdz2kRightShiftComputation implements
+    Computation<RightShiftResult, ProtocolBuilderNumeric> {
+
+  private final DRes<SInt> input;
+  private final int shifts;
+
+  /**
+   * Creates new {@link Spdz2kRightShiftComputation}.
+   *
+   * @param input the secret value
+   * @param shifts the number of positions to shift, at most <i>k</i>
+   */
+  public Spdz2kRightShiftComputation(DRes<SInt> input, int shifts) {
+    this.input = input;
+    this.shifts = shifts;
+  }
+
+  @Override
+  public DRes<RightShiftResult> buildComputation(ProtocolBuilderNumeric builder) {
+    int maxBitLength = builder.getBasicNumericContext().getMaxBitLength();
+    if (shifts < 0 || shifts > maxBitLength) {
+      throw new IllegalArgumentException(
+          "Number of shifts must be between 0 and " + maxBitLength + " but was " + shifts);
+    }
+    return builder.seq(new Spdz2kRandomMaskComputation(maxBitLength))
+        .seq((seq, mask) -> {
+          DRes<BigInteger> open = seq.numeric().open(seq.numeric().add(input, () -> mask.random));
+          return () -> new Pair<>(open.out(), mask);
+        })
+        .seq((seq, openAndMask) -> {
+          BigInteger open = openAndMask.getFirst();
+          RandomAdditiveMask mask = openAndMask.getSecond();
+          BigInteger openLow = open.mod(BigInteger.ONE.shiftLeft(shifts));
+          DRes<Pair<DRes<SInt>, DRes<SInt>>> wraps = seq.par(par -> {
+            DRes<SInt> wrap =
+                par.seq(new Spdz2kBitLessThanOpenComputation(open, mask.bits));
+            DRes<SInt> lowWrap = par.seq(
+                new Spdz2kBitLessThanOpenComputation(openLow, mask.bits.subList(0, shifts)));
+            return () -> new Pair<>(wrap, lowWrap);
+          });
+          return seq.seq(inner -> {
+            Numeric numeric = inner.numeric();
+            DRes<SInt> wrap = wraps.out().getFirst();
+            DRes<SInt> lowWrap = wraps.out().getSecond();
+            DRes<SInt> maskHigh =
+                Spdz2kRandomMaskComputation.sumOfBits(numeric, mask.bits, shifts, maxBitLength);
+            DRes<SInt> maskLow =
+                Spdz2kRandomMaskComputation.sumOfBits(numeric, mask.bits, 0, shifts);
+            DRes<SInt> quotient = numeric.add(
+                numeric.sub(
+                    numeric.sub(open.shiftRight(shifts), maskHigh),
+                    lowWrap),
+                numeric.mult(BigInteger.ONE.shiftLeft(maxBitLength - shifts), wrap));
+            DRes<SInt> remainder = numeric.add(
+                numeric.sub(openLow, maskLow),
+                numeric.mult(BigInteger.ONE.shiftLeft(shifts), lowWrap));
+            return () -> new RightShiftResult(quotient.out(), remainder.out());
+          });
+        });
+  }
+
+}
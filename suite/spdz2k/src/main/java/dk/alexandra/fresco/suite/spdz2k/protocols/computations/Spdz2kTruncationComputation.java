@@ -0,0 +1,76 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.computations;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RandomAdditiveMask;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+
+/**
+ * Native computation for probabilistic truncation of a signed secret value in <i>Z<sub>2<sup>k
+ * </sup></sub></i>. The result is the input shifted a number of positions to the right, rounded
+ * down, but will be one larger than this with some non-negligible probability, as for the field
+ * based {@link dk.alexandra.fresco.lib.real.fixed.utils.Truncate}. If the exact result is needed,
+ * use {@link Spdz2kRightShiftComputation} instead.
+ *
+ * <p>The input <i>x</i> must satisfy <i>|x| &lt; 2<sup>k - 2</sup></i>. The value <i>x' = x +
+ * 2<sup>k - 2</sup></i> is masked with a random value <i>r</i> of <i>k</i> random bits, and <i>c =
+ * x' + r mod 2<sup>k</sup></i> is opened. Since <i>x' &lt; 2<sup>k - 1</sup></i>, the addition wraps
+ * around exactly when the most significant bit of <i>r</i> is set and that of <i>c</i> is not, so
+ * the wrap is a linear function of the mask bits and no further communication is needed, unlike
+ * for the exact right shift.</p>
+ */
+public class Spdz2kTruncationComputation implements Computation<SInt, ProtocolBuilderNumeric> {
+
+  private final DRes<SInt> input;
+  private final int shifts;
+
+  /**
+   * Creates new {@link Spdz2kTruncationComputation}.
+   *
+   * @param input the secret value
+   * @param shifts the number of positions to shift, at most <i>k - 2</i>
+   */
+  public Spdz2kTruncationComputation(DRes<SInt> input, int shifts) {
+    this.input = input;
+    this.shifts = shifts;
+  }
+
+  @Override
+  public DRes<SInt> buildComputation(ProtocolBuilderNumeric builder) {
+    int maxBitLength = builder.getBasicNumericContext().getMaxBitLength();
+    int offsetBitLength = maxBitLength - 2;
+    if (shifts < 0 || shifts > offsetBitLength) {
+      throw new IllegalArgumentException(
+          "Number of shifts must be between 0 and " + offsetBitLength + " but was " + shifts);
+    }
+    return builder.seq(new Spdz2kRandomMaskComputation(maxBitLength))
+        .seq((seq, mask) -> {
+          Numeric numeric = seq.numeric();
+          DRes<SInt> masked = numeric.add(
+              numeric.add(BigInteger.ONE.shiftLeft(offsetBitLength), input),
+              () -> mask.random);
+          DRes<BigInteger> open = numeric.open(masked);
+          return () -> new Pair<>(open.out(), mask);
+        })
+        .seq((seq, openAndMask) -> {
+          BigInteger open = openAndMask.getFirst();
+          RandomAdditiveMask mask = openAndMask.getSecond();
+          Numeric numeric = seq.numeric();
+          int top = maxBitLength - 1;
+          DRes<SInt> maskHigh =
+              Spdz2kRandomMaskComputation.sumOfBits(numeric, mask.bits, shifts, maxBitLength);
+          DRes<SInt> shifted = numeric.sub(open.shiftRight(shifts), maskHigh);
+          if (!open.testBit(top)) {
+            // the addition wrapped around if and only if the top bit of the mask is set
+            shifted = numeric.add(shifted,
+                numeric.mult(BigInteger.ONE.shiftLeft(maxBitLength - shifts), mask.bits.get(top)));
+          }
+          return numeric.sub(shifted, BigInteger.ONE.shiftLeft(offsetBitLength - shifts));
+        });
+  }
+
+}
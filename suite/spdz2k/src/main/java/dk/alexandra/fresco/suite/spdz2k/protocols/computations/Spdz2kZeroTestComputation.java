@@ -0,0 +1,102 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.computations;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RandomAdditiveMask;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Native computation for testing if a secret value is zero modulo <i>2<sup>m</sup></i>, for a
+ * given bit length <i>m</i>. <p>The value is masked with a random value whose <i>m</i> least
+ * significant bits are random bits from the data supplier, and opened. The value is zero if and
+ * only if the least significant bits of the open value and the mask are equal, which is computed
+ * as the product of the equality of each bit, multiplied pairwise in a tree.</p>
+ */
+public class Spdz2kZeroTestComputation implements Computation<SInt, ProtocolBuilderNumeric> {
+
+  private final DRes<SInt> input;
+  private final int bitLength;
+
+  /**
+   * Creates new {@link Spdz2kZeroTestComputation}.
+   *
+   * @param input the secret value
+   * @param bitLength the number of least significant bits to test; values greater than <i>k</i>
+   *     are treated as <i>k</i>
+   */
+  public Spdz2kZeroTestComputation(DRes<SInt> input, int bitLength) {
+    this.input = input;
+    this.bitLength = bitLength;
+  }
+
+  @Override
+  public DRes<SInt> buildComputation(ProtocolBuilderNumeric builder) {
+    int maxBitLength = builder.getBasicNumericContext().getMaxBitLength();
+    int noOfBits = Math.min(bitLength, maxBitLength);
+    return builder.seq(new Spdz2kRandomMaskComputation(noOfBits))
+        .seq((seq, mask) -> {
+          Numeric numeric = seq.numeric();
+          DRes<SInt> masked = numeric.add(input, () -> mask.random);
+          if (noOfBits < maxBitLength) {
+            masked = numeric.add(masked,
+                numeric.mult(BigInteger.ONE.shiftLeft(noOfBits), numeric.randomElement()));
+          }
+          DRes<BigInteger> open = numeric.open(masked);
+          return () -> new Pair<>(open.out(), mask);
+        })
+        .seq((seq, openAndMask) -> {
+          List<DRes<SInt>> equal =
+              equalBits(seq.numeric(), openAndMask.getFirst(), openAndMask.getSecond());
+          return () -> equal;
+        })
+        .whileLoop(
+            factors -> factors.size() > 1,
+            Spdz2kZeroTestComputation::multiplyPairs)
+        .seq((seq, factors) -> factors.get(0));
+  }
+
+  /**
+   * Returns for each of the mask bits whether it equals the corresponding open bit.
+   */
+  private List<DRes<SInt>> equalBits(Numeric numeric, BigInteger open, RandomAdditiveMask mask) {
+    List<DRes<SInt>> equal = new ArrayList<>(mask.bits.size());
+    for (int i = 0; i < mask.bits.size(); i++) {
+      equal.add(Spdz2kBitDecompositionComputation.xorOpen(numeric, !open.testBit(i),
+          mask.bits.get(i)));
+    }
+    if (equal.isEmpty()) {
+      equal.add(numeric.known(BigInteger.ONE));
+    }
+    return equal;
+  }
+
+  /**
+   * Multiplies each pair of neighbouring factors. If there is an odd number of factors, the last
+   * one is passed on as is.
+   */
+  private static DRes<List<DRes<SInt>>> multiplyPairs(ProtocolBuilderNumeric builder,
+      List<DRes<SInt>> factors) {
+    int pairs = factors.size() / 2;
+    List<DRes<SInt>> left = new ArrayList<>(pairs);
+    List<DRes<SInt>> right = new ArrayList<>(pairs);
+    for (int j = 0; j < pairs; j++) {
+      left.add(factors.get(2 * j));
+      right.add(factors.get(2 * j + 1));
+    }
+    DRes<List<DRes<SInt>>> products = builder.advancedNumeric().mult(left, right);
+    return () -> {
+      List<DRes<SInt>> next = new ArrayList<>(products.out());
+      if (factors.size() % 2 == 1) {
+        next.add(factors.get(factors.size() - 1));
+      }
+      return next;
+    };
+  }
+
+}
@@ -0,0 +1,94 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.natives;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kInputMask;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDataSupplier;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Native protocol for inputting a list of values. <p>This is equivalent to a {@link
+ * Spdz2kInputOnlyProtocol} per value, but the input party sends all masked inputs as a single
+ * message. The result of this protocol is this party's shares of the inputs, as well as the bytes
+ * of all masked inputs which are later used in a single broadcast validation.</p>
+ *
+ * <p>The protocol throws a {@link MaliciousException} if the input party sends a message of the
+ * wrong length.</p>
+ */
+public class Spdz2kInputOnlyListProtocol<PlainT extends CompUInt<?, ?, PlainT>>
+    extends Spdz2kNativeProtocol<Pair<List<DRes<SInt>>, byte[]>, PlainT> {
+
+  private final List<PlainT> inputs;
+  private final int inputPartyId;
+  private List<Spdz2kInputMask<PlainT>> inputMasks;
+  private Pair<List<DRes<SInt>>, byte[]> sharesAndMaskBytes;
+
+  /**
+   * Creates new {@link Spdz2kInputOnlyListProtocol}.
+   *
+   * @param inputs values to secret-share; only the size is used if this is not the input party
+   * @param inputPartyId id of input party
+   */
+  public Spdz2kInputOnlyListProtocol(List<PlainT> inputs, int inputPartyId) {
+    this.inputs = inputs;
+    this.inputPartyId = inputPartyId;
+  }
+
+  @Override
+  public EvaluationStatus evaluate(int round, Spdz2kResourcePool<PlainT> resourcePool,
+      Network network) {
+    CompUIntFactory<PlainT> factory = resourcePool.getFactory();
+    int myId = resourcePool.getMyId();
+    UIntSerializer<PlainT> serializer = resourcePool.getPlainSerializer();
+    Spdz2kDataSupplier<PlainT> dataSupplier = resourcePool.getDataSupplier();
+    if (round == 0) {
+      inputMasks = new ArrayList<>(inputs.size());
+      for (int i = 0; i < inputs.size(); i++) {
+        inputMasks.add(dataSupplier.getNextInputMask(inputPartyId));
+      }
+      if (myId == inputPartyId) {
+        List<PlainT> bcValues = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+          bcValues.add(inputs.get(i).subtract(inputMasks.get(i).getOpenValue()));
+        }
+        network.sendToAll(serializer.serialize(bcValues));
+      }
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      byte[] inputMaskBytes = network.receive(inputPartyId);
+      int expectedBytes = inputMasks.size() * serializer.getByteLength();
+      if (inputMaskBytes.length != expectedBytes) {
+        throw new MaliciousException("Expected " + expectedBytes
+            + " bytes of masked inputs but received " + inputMaskBytes.length);
+      }
+      List<PlainT> bcValues =
+          serializer.deserializeList(ByteBuffer.wrap(inputMaskBytes), 0, inputMasks.size());
+      PlainT macKeyShare = dataSupplier.getSecretSharedKey();
+      List<DRes<SInt>> out = new ArrayList<>(inputMasks.size());
+      for (int i = 0; i < inputMasks.size(); i++) {
+        out.add(inputMasks.get(i).getMaskShare().addConstant(
+            bcValues.get(i),
+            macKeyShare,
+            factory.zero(),
+            myId == 1));
+      }
+      this.sharesAndMaskBytes = new Pair<>(out, inputMaskBytes);
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  @Override
+  public Pair<List<DRes<SInt>>, byte[]> out() {
+    return sharesAndMaskBytes;
+  }
+
+}
@@ -0,0 +1,107 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.natives;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSIntVector;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Native protocol for computing the element-wise products of two lists of secret numbers. <p>This
+ * is equivalent to a {@link Spdz2kMultiplyProtocol} per pair of factors, but the factors and
+ * triples are held in {@link Spdz2kSIntVector} instances and combined in bulk, the shares of all
+ * epsilons and deltas are sent to each party as a single message, and the opened values are added
+ * to the opened value store at once.</p>
+ */
+public class Spdz2kMultiplyListProtocol<PlainT extends CompUInt<?, ?, PlainT>> extends
+    Spdz2kNativeProtocol<List<DRes<SInt>>, PlainT> {
+
+  private final List<? extends DRes<SInt>> left;
+  private final List<? extends DRes<SInt>> right;
+  private Spdz2kSIntVector<PlainT> tripleLeft;
+  private Spdz2kSIntVector<PlainT> tripleRight;
+  private Spdz2kSIntVector<PlainT> tripleProduct;
+  private Spdz2kSIntVector<PlainT> epsilons;
+  private Spdz2kSIntVector<PlainT> deltas;
+  private List<DRes<SInt>> products;
+
+  /**
+   * Creates new {@link Spdz2kMultiplyListProtocol}.
+   *
+   * @param left left factors
+   * @param right right factors, one for each left factor
+   */
+  public Spdz2kMultiplyListProtocol(List<? extends DRes<SInt>> left,
+      List<? extends DRes<SInt>> right) {
+    if (left.size() != right.size()) {
+      throw new IllegalArgumentException(
+          "Lists must have same size but were " + left.size() + " and " + right.size());
+    }
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  public EvaluationStatus evaluate(int round, Spdz2kResourcePool<PlainT> resourcePool,
+      Network network) {
+    final PlainT macKeyShare = resourcePool.getDataSupplier().getSecretSharedKey();
+    CompUIntFactory<PlainT> factory = resourcePool.getFactory();
+    int size = left.size();
+    if (round == 0) {
+      if (size == 0) {
+        products = new ArrayList<>();
+        return EvaluationStatus.IS_DONE;
+      }
+      tripleLeft = new Spdz2kSIntVector<>(factory, size);
+      tripleRight = new Spdz2kSIntVector<>(factory, size);
+      tripleProduct = new Spdz2kSIntVector<>(factory, size);
+      for (int i = 0; i < size; i++) {
+        Spdz2kTriple<PlainT> triple = resourcePool.getDataSupplier().getNextTripleShares();
+        tripleLeft.set(i, triple.getLeft());
+        tripleRight.set(i, triple.getRight());
+        tripleProduct.set(i, triple.getProduct());
+      }
+      epsilons = toSpdz2kSIntVector(left, factory).subtract(tripleLeft);
+      deltas = toSpdz2kSIntVector(right, factory).subtract(tripleRight);
+      UIntSerializer<PlainT> serializer = resourcePool.getPlainSerializer();
+      // all epsilons followed by all deltas
+      ByteBuffer shares = ByteBuffer.allocate(2 * size * serializer.getLowByteLength());
+      serializer.serializeLeastSignificant(epsilons, shares, 0);
+      serializer.serializeLeastSignificant(deltas, shares, size * serializer.getLowByteLength());
+      network.sendToAll(shares.array());
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      List<PlainT> opened = receiveAndReconstruct(network, resourcePool, 2 * size);
+      List<PlainT> openedEpsilons = opened.subList(0, size);
+      List<PlainT> openedDeltas = opened.subList(size, 2 * size);
+      List<PlainT> epsilonTimesDelta = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        epsilonTimesDelta.add(openedEpsilons.get(i).multiply(openedDeltas.get(i)));
+      }
+      // compute [prod] = [c] + epsilon * [b] + (delta * [a] + epsilon * delta)
+      Spdz2kSIntVector<PlainT> productVector = tripleProduct
+          .add(tripleRight.multiply(openedEpsilons))
+          .add(tripleLeft.affine(openedDeltas, epsilonTimesDelta, macKeyShare,
+              resourcePool.getMyId() == 1));
+      products = new ArrayList<>(productVector.toList());
+      List<Spdz2kSInt<PlainT>> epsilonsAndDeltas = epsilons.toList();
+      epsilonsAndDeltas.addAll(deltas.toList());
+      resourcePool.getOpenedValueStore().pushOpenedValues(epsilonsAndDeltas, opened);
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  @Override
+  public List<DRes<SInt>> out() {
+    return products;
+  }
+
+}
@@ -1,8 +1,8 @@
 package dk.alexandra.fresco.suite.spdz2k.protocols.natives;
 
 import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.MaliciousException;
 import dk.alexandra.fresco.framework.network.Network;
-import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
@@ -10,7 +10,10 @@ import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
 import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Native protocol for computing product of two secret numbers.
@@ -40,18 +43,19 @@ public class Spdz2kMultiplyProtocol<PlainT extends CompUInt<?, ?, PlainT>> exten
   public EvaluationStatus evaluate(int round, Spdz2kResourcePool<PlainT> resourcePool,
       Network network) {
     final PlainT macKeyShare = resourcePool.getDataSupplier().getSecretSharedKey();
-    ByteSerializer<PlainT> serializer = resourcePool.getPlainSerializer();
+    UIntSerializer<PlainT> serializer = resourcePool.getPlainSerializer();
     if (round == 0) {
       triple = resourcePool.getDataSupplier().getNextTripleShares();
       epsilon = toSpdz2kSInt(left).subtract(triple.getLeft());
       delta = toSpdz2kSInt(right).subtract(triple.getRight());
-      network.sendToAll(epsilon.getShare().getLeastSignificant().toByteArray());
-      network.sendToAll(delta.getShare().getLeastSignificant().toByteArray());
+      byte[] shares = new byte[2 * serializer.getLowByteLength()];
+      serializer.serializeLeastSignificant(
+          Arrays.asList(epsilon.getShare(), delta.getShare()), ByteBuffer.wrap(shares), 0);
+      network.sendToAll(shares);
       return EvaluationStatus.HAS_MORE_ROUNDS;
     } else {
       Pair<PlainT, PlainT> epsilonAndDelta = receiveAndReconstruct(network,
           resourcePool.getFactory(),
-          resourcePool.getNoOfParties(),
           serializer);
       // compute [prod] = [c] + epsilon * [b] + delta * [a] + epsilon * delta
       PlainT e = epsilonAndDelta.getFirst();
@@ -78,15 +82,23 @@ public class Spdz2kMultiplyProtocol<PlainT extends CompUInt<?, ?, PlainT>> exten
 
   /**
    * Retrieves shares for epsilon and delta and reconstructs each.
+   *
+   * @throws MaliciousException if a party sent a message of the wrong length
    */
   private Pair<PlainT, PlainT> receiveAndReconstruct(Network network,
-      CompUIntFactory<PlainT> factory, int noOfParties,
-      ByteSerializer<PlainT> serializer) {
+      CompUIntFactory<PlainT> factory, UIntSerializer<PlainT> serializer) {
     PlainT e = factory.zero();
     PlainT d = factory.zero();
-    for (int i = 1; i <= noOfParties; i++) {
-      e = e.add(serializer.deserialize(network.receive(i)));
-      d = d.add(serializer.deserialize(network.receive(i)));
+    int expectedBytes = 2 * serializer.getLowByteLength();
+    for (ByteBuffer buffer : network.receiveBuffersFromAll()) {
+      if (buffer.remaining() != expectedBytes) {
+        throw new MaliciousException(
+            "Expected " + expectedBytes + " bytes of shares but received " + buffer.remaining());
+      }
+      List<PlainT> shares =
+          serializer.deserializeLeastSignificantList(buffer, buffer.position(), 2);
+      e = e.add(shares.get(0));
+      d = d.add(shares.get(1));
     }
     return new Pair<>(e, d);
   }
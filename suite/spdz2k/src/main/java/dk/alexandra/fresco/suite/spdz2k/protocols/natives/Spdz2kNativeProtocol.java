@@ -1,11 +1,19 @@
 package dk.alexandra.fresco.suite.spdz2k.protocols.natives;
 
 import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.MaliciousException;
 import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSIntVector;
 import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -23,4 +31,64 @@ public abstract class Spdz2kNativeProtocol<
     return Objects.requireNonNull((Spdz2kSInt<PlainT>) value.out());
   }
 
+  /**
+   * Get results from list of deferred values and store them in a {@link Spdz2kSIntVector}.
+   */
+  Spdz2kSIntVector<PlainT> toSpdz2kSIntVector(List<? extends DRes<SInt>> values,
+      CompUIntFactory<PlainT> factory) {
+    Spdz2kSIntVector<PlainT> vector = new Spdz2kSIntVector<>(factory, values.size());
+    for (int i = 0; i < values.size(); i++) {
+      vector.set(i, toSpdz2kSInt(values.get(i)));
+    }
+    return vector;
+  }
+
+  /**
+   * Receives the <i>k</i> least significant bits of a number of shares from all parties, as sent
+   * in a single message per party, and reconstructs each value. <p>As when opening single values,
+   * the sums of the shares are not reduced modulo 2<sup>k</sup>.</p>
+   *
+   * @throws MaliciousException if a party sent a different number of shares than expected
+   */
+  List<PlainT> receiveAndReconstruct(Network network, Spdz2kResourcePool<PlainT> resourcePool,
+      int numValues) {
+    CompUIntFactory<PlainT> factory = resourcePool.getFactory();
+    UIntSerializer<PlainT> serializer = resourcePool.getPlainSerializer();
+    long[] sumHigh = new long[numValues];
+    long[] sumLow = new long[numValues];
+    long[] high = new long[numValues];
+    long[] low = new long[numValues];
+    int expectedBytes = numValues * serializer.getLowByteLength();
+    for (ByteBuffer shares : network.receiveBuffersFromAll()) {
+      if (shares.remaining() != expectedBytes) {
+        throw new MaliciousException(
+            "Expected " + expectedBytes + " bytes of shares but received " + shares.remaining());
+      }
+      serializer.deserializeLeastSignificant(shares, shares.position(), high, low);
+      for (int i = 0; i < numValues; i++) {
+        long newLow = sumLow[i] + low[i];
+        sumHigh[i] += high[i] + (Long.compareUnsigned(newLow, low[i]) < 0 ? 1 : 0);
+        sumLow[i] = newLow;
+      }
+    }
+    List<PlainT> recombined = new ArrayList<>(numValues);
+    byte[] bytes = new byte[factory.getCompositeBitLength() / Byte.SIZE];
+    for (int i = 0; i < numValues; i++) {
+      putWords(bytes, sumHigh[i], sumLow[i]);
+      recombined.add(factory.createFromBytes(bytes));
+    }
+    return recombined;
+  }
+
+  /**
+   * Writes the least significant bytes of the 128 bit value given by a high and a low word in
+   * big-endian order.
+   */
+  private static void putWords(byte[] bytes, long high, long low) {
+    for (int j = 0; j < bytes.length; j++) {
+      int shift = (bytes.length - 1 - j) * Byte.SIZE;
+      bytes[j] = (byte) (shift < Long.SIZE ? low >>> shift : high >>> (shift - Long.SIZE));
+    }
+  }
+
 }
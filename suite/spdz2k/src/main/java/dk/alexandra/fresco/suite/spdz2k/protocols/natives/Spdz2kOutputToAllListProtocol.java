@@ -0,0 +1,79 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.natives;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSIntVector;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Native protocol for opening a list of secret values to all parties. <p>This is equivalent to a
+ * {@link Spdz2kOutputToAllProtocol} per value, but the shares are read from a {@link
+ * Spdz2kSIntVector} and the <i>k</i> least significant bits of all shares are sent to each party
+ * as a single message. The opened values are added to the opened value store at once.</p>
+ */
+public class Spdz2kOutputToAllListProtocol<PlainT extends CompUInt<?, ?, PlainT>>
+    extends Spdz2kNativeProtocol<List<DRes<BigInteger>>, PlainT>
+    implements RequiresMacCheck {
+
+  private final DRes<? extends List<? extends DRes<SInt>>> values;
+  private List<Spdz2kSInt<PlainT>> authenticatedElements;
+  private List<DRes<BigInteger>> opened;
+
+  /**
+   * Creates new {@link Spdz2kOutputToAllListProtocol}.
+   *
+   * @param values values to open
+   */
+  public Spdz2kOutputToAllListProtocol(DRes<? extends List<? extends DRes<SInt>>> values) {
+    this.values = values;
+  }
+
+  @Override
+  public EvaluationStatus evaluate(int round, Spdz2kResourcePool<PlainT> resourcePool,
+      Network network) {
+    CompUIntFactory<PlainT> factory = resourcePool.getFactory();
+    UIntSerializer<PlainT> serializer = resourcePool.getPlainSerializer();
+    if (round == 0) {
+      List<? extends DRes<SInt>> closed = values.out();
+      authenticatedElements = new ArrayList<>(closed.size());
+      for (DRes<SInt> value : closed) {
+        authenticatedElements.add(toSpdz2kSInt(value));
+      }
+      if (authenticatedElements.isEmpty()) {
+        opened = new ArrayList<>();
+        return EvaluationStatus.IS_DONE;
+      }
+      Spdz2kSIntVector<PlainT> vector =
+          Spdz2kSIntVector.fromList(factory, authenticatedElements);
+      byte[] shares = new byte[vector.size() * serializer.getLowByteLength()];
+      serializer.serializeLeastSignificant(vector, ByteBuffer.wrap(shares), 0);
+      network.sendToAll(shares);
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      List<PlainT> recombined =
+          receiveAndReconstruct(network, resourcePool, authenticatedElements.size());
+      opened = new ArrayList<>(recombined.size());
+      for (PlainT value : recombined) {
+        BigInteger converted = resourcePool.convertRepresentation(value);
+        opened.add(() -> converted);
+      }
+      resourcePool.getOpenedValueStore().pushOpenedValues(authenticatedElements, recombined);
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  @Override
+  public List<DRes<BigInteger>> out() {
+    return opened;
+  }
+
+}
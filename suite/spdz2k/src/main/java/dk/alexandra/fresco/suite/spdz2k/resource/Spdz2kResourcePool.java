@@ -12,6 +12,7 @@ import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
 import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDataSupplier;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
 import java.math.BigInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -45,7 +46,7 @@ public interface Spdz2kResourcePool<PlainT extends CompUInt<?, ?, PlainT>>
   /**
    * Returns serializer for instances of {@link PlainT}.
    */
-  ByteSerializer<PlainT> getPlainSerializer();
+  UIntSerializer<PlainT> getPlainSerializer();
 
   /**
    * Initializes deterministic joint randomness source. <p>Must be called before any protocols
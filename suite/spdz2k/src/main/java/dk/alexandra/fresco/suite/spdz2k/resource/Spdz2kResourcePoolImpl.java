@@ -11,20 +11,26 @@ import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
 import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
 import dk.alexandra.fresco.framework.sce.evaluator.ProtocolCollectionList;
+import dk.alexandra.fresco.framework.sce.resources.PartitionableResourcePool;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
 import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.ExceptionConverter;
 import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
+import dk.alexandra.fresco.lib.real.RealNumericContext;
 import dk.alexandra.fresco.suite.spdz2k.Spdz2kBuilder;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
 import dk.alexandra.fresco.suite.spdz2k.protocols.computations.CoinTossingComputation;
 import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDataSupplier;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kOpenedValueStoreImpl;
+import dk.alexandra.fresco.suite.spdz2k.util.UIntSerializer;
 import java.io.Closeable;
 import java.math.BigInteger;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -36,15 +42,17 @@ import java.util.function.Supplier;
  */
 public class Spdz2kResourcePoolImpl<PlainT extends CompUInt<?, ?, PlainT>>
     extends ResourcePoolImpl
-    implements Spdz2kResourcePool<PlainT> {
+    implements Spdz2kResourcePool<PlainT>,
+    PartitionableResourcePool<Spdz2kResourcePool<PlainT>> {
 
   private final int effectiveBitLength;
   private final BigInteger modulus;
   private final OpenedValueStore<Spdz2kSInt<PlainT>, PlainT> storage;
   private final Spdz2kDataSupplier<PlainT> supplier;
   private final CompUIntFactory<PlainT> factory;
-  private final ByteSerializer<PlainT> rawSerializer;
+  private final UIntSerializer<PlainT> rawSerializer;
   private final Drbg localDrbg;
+  private final boolean isPartition;
   private Drbg drbg;
 
   /**
@@ -53,6 +61,12 @@ public class Spdz2kResourcePoolImpl<PlainT extends CompUInt<?, ?, PlainT>>
   public Spdz2kResourcePoolImpl(int myId, int noOfPlayers, Drbg drbg,
       OpenedValueStore<Spdz2kSInt<PlainT>, PlainT> storage,
       Spdz2kDataSupplier<PlainT> supplier, CompUIntFactory<PlainT> factory) {
+    this(myId, noOfPlayers, drbg, storage, supplier, factory, false);
+  }
+
+  private Spdz2kResourcePoolImpl(int myId, int noOfPlayers, Drbg drbg,
+      OpenedValueStore<Spdz2kSInt<PlainT>, PlainT> storage,
+      Spdz2kDataSupplier<PlainT> supplier, CompUIntFactory<PlainT> factory, boolean isPartition) {
     super(myId, noOfPlayers);
     Objects.requireNonNull(storage);
     Objects.requireNonNull(supplier);
@@ -65,6 +79,7 @@ public class Spdz2kResourcePoolImpl<PlainT extends CompUInt<?, ?, PlainT>>
     this.rawSerializer = factory.createSerializer();
     this.drbg = drbg;
     this.localDrbg = new AesCtrDrbg();
+    this.isPartition = isPartition;
   }
 
   @Override
@@ -88,7 +103,7 @@ public class Spdz2kResourcePoolImpl<PlainT extends CompUInt<?, ?, PlainT>>
   }
 
   @Override
-  public ByteSerializer<PlainT> getPlainSerializer() {
+  public UIntSerializer<PlainT> getPlainSerializer() {
     return rawSerializer;
   }
 
@@ -107,6 +122,25 @@ public class Spdz2kResourcePoolImpl<PlainT extends CompUInt<?, ?, PlainT>>
     }, "Failed to close network");
   }
 
+  /**
+   * Creates a partition sharing the data supplier of this resource pool, with its own opened value
+   * store and local random generator. The joint random generator is not shared, since partitions
+   * are evaluated concurrently and the parties must draw from it in the same order, so {@link
+   * #getRandomGenerator()} throws an {@link IllegalStateException} on the partition.
+   */
+  @Override
+  public Spdz2kResourcePool<PlainT> createPartition() {
+    return new Spdz2kResourcePoolImpl<>(getMyId(), getNoOfParties(), null,
+        new Spdz2kOpenedValueStoreImpl<>(), supplier, factory, true);
+  }
+
+  @Override
+  public void mergePartition(Spdz2kResourcePool<PlainT> partition) {
+    Pair<List<Spdz2kSInt<PlainT>>, List<PlainT>> opened =
+        partition.getOpenedValueStore().popValues();
+    storage.pushOpenedValues(opened.getFirst(), opened.getSecond());
+  }
+
   @Override
   public BigInteger getModulus() {
     return modulus;
@@ -119,6 +153,9 @@ public class Spdz2kResourcePoolImpl<PlainT extends CompUInt<?, ?, PlainT>>
 
   @Override
   public Drbg getRandomGenerator() {
+    if (isPartition) {
+      throw new IllegalStateException("Joint drbg cannot be used in a partition");
+    }
     if (drbg == null) {
       throw new IllegalStateException("Joint drbg must be initialized before use");
     }
@@ -141,7 +178,8 @@ public class Spdz2kResourcePoolImpl<PlainT extends CompUInt<?, ?, PlainT>>
             network);
     BuilderFactoryNumeric builderFactory = new Spdz2kBuilder<>(factory,
         new BasicNumericContext(effectiveBitLength, modulus,
-            getMyId(), getNoOfParties()));
+            getMyId(), getNoOfParties()),
+        new RealNumericContext(effectiveBitLength / 4));
     ProtocolBuilderNumeric root = builderFactory.createSequential();
     DRes<byte[]> jointSeed = coinTossing
         .buildComputation(root);
@@ -0,0 +1,172 @@
+package dk.alexandra.fresco.suite.spdz2k.resource.storage;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AsyncBatchProducer;
+import dk.alexandra.fresco.framework.util.AsyncBatchProducer.Buffer;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.logging.PerformanceLogger;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kInputMask;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
+import dk.alexandra.fresco.suite.spdz2k.preprocessing.Spdz2kPreprocessing;
+import dk.alexandra.fresco.suite.spdz2k.preprocessing.Spdz2kPreprocessingResourcePool;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A data supplier based on the OT-based Spdz2k pre-processing of {@link Spdz2kPreprocessing},
+ * which generates pre-processed material ahead of demand in a background thread.
+ * <p>
+ * The supplier keeps a buffer for each type of material (triples, bits, random elements and input
+ * masks towards each party) and runs the pre-processing in a separate producer thread on its own
+ * network. Once the number of elements in a buffer drops below a low watermark, the producer
+ * refills it in batches until it holds at least a high watermark of elements. The evaluation
+ * thread only blocks if a buffer runs empty.
+ * </p>
+ * <p>
+ * The buffers are managed by an {@link AsyncBatchProducer}, which agrees with the other parties on
+ * which buffers to refill in each round. Consequently, the network supplied to this class must not
+ * be used for anything else, and all parties must use the same batch size.
+ * </p>
+ * <p>
+ * The number of elements produced per type of material and the number and duration of stalls of
+ * the evaluation thread can be read through {@link #getLoggedValues()}, using the keys of
+ * {@link AsyncBatchProducer}.
+ * </p>
+ */
+public class Spdz2kAsyncDataSupplier<PlainT extends CompUInt<?, ?, PlainT>> implements
+    Spdz2kDataSupplier<PlainT>, PerformanceLogger, Closeable {
+
+  private final PlainT macKeyShare;
+  private final int lowWatermark;
+  private final int highWatermark;
+  private final AsyncBatchProducer<Spdz2kPreprocessing<PlainT>> producer;
+  private final Buffer<Spdz2kPreprocessing<PlainT>, Spdz2kTriple<PlainT>> triples;
+  private final Buffer<Spdz2kPreprocessing<PlainT>, Spdz2kSInt<PlainT>> randomBits;
+  private final Buffer<Spdz2kPreprocessing<PlainT>, Spdz2kSInt<PlainT>> randomElements;
+  private final Map<Integer, Buffer<Spdz2kPreprocessing<PlainT>, Spdz2kInputMask<PlainT>>> masks;
+
+  /**
+   * Creates {@link Spdz2kAsyncDataSupplier}. The producer is started by {@link #start()} or when
+   * the first element is requested.
+   *
+   * @param myId this party's id
+   * @param noOfParties number of parties
+   * @param instanceId identifier used to distinguish parallel instances of the pre-processing
+   * @param preprocessingNetwork network supplier for network to be used by the pre-processing
+   * @param factory factory for ring elements
+   * @param prgSeedLength bit length of prg seeds
+   * @param batchSize batch size in which pre-processed material is generated
+   * @param lowWatermark the number of elements below which a buffer is refilled
+   * @param highWatermark the number of elements at which the refilling of a buffer stops
+   * @param macKeyShare mac key share, see {@link #createRandomKeyShare(CompUIntFactory, Drbg)}
+   * @param seedOts pre-computed base OTs
+   * @param drbg source of randomness
+   */
+  public Spdz2kAsyncDataSupplier(int myId, int noOfParties, int instanceId,
+      Supplier<Network> preprocessingNetwork, CompUIntFactory<PlainT> factory, int prgSeedLength,
+      int batchSize, int lowWatermark, int highWatermark, PlainT macKeyShare,
+      Map<Integer, RotList> seedOts, Drbg drbg) {
+    if (batchSize < 1 || lowWatermark < 0 || highWatermark <= lowWatermark) {
+      throw new IllegalArgumentException("Watermarks must satisfy 0 <= low < high and the batch "
+          + "size must be positive, but were " + lowWatermark + ", " + highWatermark + " and "
+          + batchSize);
+    }
+    this.lowWatermark = lowWatermark;
+    this.highWatermark = highWatermark;
+    this.macKeyShare = macKeyShare;
+    this.producer = new AsyncBatchProducer<>(myId, noOfParties,
+        "Spdz2kProducer-P" + myId + "-" + instanceId, preprocessingNetwork,
+        network -> new Spdz2kPreprocessing<>(
+            new Spdz2kPreprocessingResourcePool<>(myId, noOfParties, instanceId, factory,
+                prgSeedLength, drbg, seedOts), network, macKeyShare));
+    this.triples = addBuffer("TRIPLES", preprocessing -> preprocessing.getTriples(batchSize));
+    this.randomBits = addBuffer("BITS", preprocessing -> preprocessing.getRandomBits(batchSize));
+    this.randomElements = addBuffer("RANDOM_ELEMENTS",
+        preprocessing -> preprocessing.getRandomElements(batchSize));
+    this.masks = new HashMap<>();
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      final int towardPlayerId = partyId;
+      masks.put(partyId, addBuffer("INPUT_MASKS_P" + partyId,
+          preprocessing -> preprocessing.getInputMasks(towardPlayerId, batchSize)));
+    }
+  }
+
+  private <T> Buffer<Spdz2kPreprocessing<PlainT>, T> addBuffer(String name,
+      Function<Spdz2kPreprocessing<PlainT>, List<T>> batchProducer) {
+    return producer.addBuffer(name, batchProducer, lowWatermark, highWatermark, true);
+  }
+
+  /**
+   * Samples a random mac key share of s bits.
+   *
+   * @param factory factory for ring elements
+   * @param drbg source of randomness
+   * @return the mac key share
+   */
+  public static <PlainT extends CompUInt<?, ?, PlainT>> PlainT createRandomKeyShare(
+      CompUIntFactory<PlainT> factory, Drbg drbg) {
+    byte[] bytes = new byte[factory.getHighBitLength() / Byte.SIZE];
+    drbg.nextBytes(bytes);
+    return factory.createFromBytes(bytes);
+  }
+
+  /**
+   * Starts producing pre-processed material, if not already started. All parties should start
+   * their suppliers at around the same time.
+   */
+  public void start() {
+    producer.start();
+  }
+
+  @Override
+  public Spdz2kTriple<PlainT> getNextTripleShares() {
+    return producer.take(triples);
+  }
+
+  @Override
+  public Spdz2kInputMask<PlainT> getNextInputMask(int towardPlayerId) {
+    return producer.take(masks.get(towardPlayerId));
+  }
+
+  @Override
+  public Spdz2kSInt<PlainT> getNextBitShare() {
+    return producer.take(randomBits);
+  }
+
+  @Override
+  public PlainT getSecretSharedKey() {
+    return macKeyShare;
+  }
+
+  @Override
+  public Spdz2kSInt<PlainT> getNextRandomElementShare() {
+    return producer.take(randomElements);
+  }
+
+  /**
+   * Stops the producer. The producers of the other parties stop as well, after which they can no
+   * longer supply pre-processed material which is not already buffered.
+   */
+  @Override
+  public void close() {
+    producer.close();
+  }
+
+  @Override
+  public void reset() {
+    producer.reset();
+  }
+
+  @Override
+  public Map<String, Long> getLoggedValues() {
+    return producer.getLoggedValues();
+  }
+}
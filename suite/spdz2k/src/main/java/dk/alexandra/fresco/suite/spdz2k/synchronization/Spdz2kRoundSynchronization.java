@@ -3,6 +3,7 @@ package dk.alexandra.fresco.suite.spdz2k.synchronization;
 import dk.alexandra.fresco.framework.ProtocolCollection;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.AdaptiveBatchSize;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
@@ -17,6 +18,7 @@ import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt;
 import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kMacCheckComputation;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.RequiresMacCheck;
 import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import java.util.Objects;
 import java.util.stream.StreamSupport;
 
 /**
@@ -29,36 +31,63 @@ public class Spdz2kRoundSynchronization<
     PlainT extends CompUInt<HighT, LowT, PlainT>>
     implements RoundSynchronization<Spdz2kResourcePool<PlainT>> {
 
+  public static final int DEFAULT_OPEN_VALUE_THRESHOLD = 1000000;
+  public static final int DEFAULT_BATCH_SIZE = 128;
+
   private final int openValueThreshold;
   private final int batchSize;
+  private final AdaptiveBatchSize adaptiveBatchSize;
   private boolean isCheckRequired;
   private final Spdz2kProtocolSuite<HighT, LowT, PlainT> protocolSuite;
   private final CompUIntConverter<HighT, LowT, PlainT> converter;
 
   public Spdz2kRoundSynchronization(Spdz2kProtocolSuite<HighT, LowT, PlainT> protocolSuite,
       CompUIntConverter<HighT, LowT, PlainT> converter) {
-    this(protocolSuite, converter, 1000000, 128);
+    this(protocolSuite, converter, DEFAULT_OPEN_VALUE_THRESHOLD, DEFAULT_BATCH_SIZE);
   }
 
   public Spdz2kRoundSynchronization(Spdz2kProtocolSuite<HighT, LowT, PlainT> protocolSuite,
       CompUIntConverter<HighT, LowT, PlainT> converter,
       int openValueThreshold,
       int batchSize) {
+    this(protocolSuite, converter, openValueThreshold, batchSize, null);
+  }
+
+  /**
+   * Creates a round synchronization which evaluates the mac-check with an adaptive batch size.
+   *
+   * @param protocolSuite the protocol suite used for the mac-check computation
+   * @param converter converter used by the mac-check computation
+   * @param openValueThreshold number of opened values to accumulate before forcing a mac-check
+   * @param adaptiveBatchSize the batch size configuration of the mac-check evaluator
+   */
+  public Spdz2kRoundSynchronization(Spdz2kProtocolSuite<HighT, LowT, PlainT> protocolSuite,
+      CompUIntConverter<HighT, LowT, PlainT> converter,
+      int openValueThreshold,
+      AdaptiveBatchSize adaptiveBatchSize) {
+    this(protocolSuite, converter, openValueThreshold, DEFAULT_BATCH_SIZE,
+        Objects.requireNonNull(adaptiveBatchSize));
+  }
+
+  private Spdz2kRoundSynchronization(Spdz2kProtocolSuite<HighT, LowT, PlainT> protocolSuite,
+      CompUIntConverter<HighT, LowT, PlainT> converter, int openValueThreshold, int batchSize,
+      AdaptiveBatchSize adaptiveBatchSize) {
     this.protocolSuite = protocolSuite;
     this.converter = converter;
     this.openValueThreshold = openValueThreshold;
     this.batchSize = batchSize;
+    this.adaptiveBatchSize = adaptiveBatchSize;
     this.isCheckRequired = false;
   }
 
   private void doMacCheck(Spdz2kResourcePool<PlainT> resourcePool, Network network) {
     Spdz2kBuilder<PlainT> builder = new Spdz2kBuilder<>(resourcePool.getFactory(),
-        protocolSuite.createBasicNumericContext(resourcePool));
+        protocolSuite.createBasicNumericContext(resourcePool),
+        protocolSuite.createRealNumericContext(resourcePool));
     BatchEvaluationStrategy<Spdz2kResourcePool<PlainT>> batchStrategy = new BatchedStrategy<>();
-    BatchedProtocolEvaluator<Spdz2kResourcePool<PlainT>> evaluator = new BatchedProtocolEvaluator<>(
-        batchStrategy,
-        protocolSuite,
-        batchSize);
+    BatchedProtocolEvaluator<Spdz2kResourcePool<PlainT>> evaluator = adaptiveBatchSize == null
+        ? new BatchedProtocolEvaluator<>(batchStrategy, protocolSuite, batchSize)
+        : new BatchedProtocolEvaluator<>(batchStrategy, protocolSuite, adaptiveBatchSize, false);
     OpenedValueStore<Spdz2kSInt<PlainT>, PlainT> store = resourcePool.getOpenedValueStore();
     Spdz2kMacCheckComputation<HighT, LowT, PlainT> macCheck = new Spdz2kMacCheckComputation<>(
         store.popValues(),
@@ -72,7 +101,9 @@ public class Spdz2kRoundSynchronization<
   public void finishedBatch(int gatesEvaluated, Spdz2kResourcePool<PlainT> resourcePool,
       Network network) {
     OpenedValueStore<Spdz2kSInt<PlainT>, PlainT> store = resourcePool.getOpenedValueStore();
-    if (isCheckRequired || store.exceedsThreshold(openValueThreshold)) {
+    // an output protocol may open nothing, e.g., when opening an empty list
+    if ((isCheckRequired && store.hasPendingValues())
+        || store.exceedsThreshold(openValueThreshold)) {
       doMacCheck(resourcePool, network);
       isCheckRequired = false;
     }
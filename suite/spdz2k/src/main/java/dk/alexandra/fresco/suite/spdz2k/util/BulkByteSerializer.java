@@ -0,0 +1,53 @@
+package dk.alexandra.fresco.suite.spdz2k.util;
+
+import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * A {@link ByteSerializer} for fixed length elements, which can also write and read whole lists of
+ * elements directly to and from a buffer provided by the caller.
+ *
+ * <p>The buffer methods use absolute offsets, so the position of the buffer is not changed, and
+ * elements are stored back to back in big-endian order, exactly as by {@link
+ * #serialize(List)}.</p>
+ *
+ * @param <T> the type to serialize.
+ */
+public interface BulkByteSerializer<T> extends ByteSerializer<T> {
+
+  /**
+   * Returns the number of bytes of a single serialized element.
+   */
+  int getByteLength();
+
+  /**
+   * Writes a list of elements to a buffer.
+   *
+   * @param objects the objects to write
+   * @param buffer a big-endian buffer with room for all elements after the offset
+   * @param offset the index of the buffer at which the first element is written
+   */
+  void serialize(List<T> objects, ByteBuffer buffer, int offset);
+
+  /**
+   * Reads a list of elements from a buffer.
+   *
+   * @param buffer a big-endian buffer holding the elements
+   * @param offset the index of the buffer at which the first element starts
+   * @param numElements the number of elements to read
+   * @return the elements
+   */
+  List<T> deserializeList(ByteBuffer buffer, int offset, int numElements);
+
+  /**
+   * Checks that a buffer uses big-endian byte order.
+   */
+  static void requireBigEndian(ByteBuffer buffer) {
+    if (buffer.order() != ByteOrder.BIG_ENDIAN) {
+      throw new IllegalArgumentException("Buffer must use big-endian byte order");
+    }
+  }
+
+}
@@ -1,20 +1,26 @@
 package dk.alexandra.fresco.suite.spdz2k.util;
 
-import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSIntVector;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
  * Serializer for {@link CompUInt} instances.
+ *
+ * <p>Besides the full values, this can write and read the <i>k</i> least significant bits of
+ * values, which is what parties send each other when opening shares. The buffer methods of this
+ * class work for any {@link CompUInt}, but go through the byte array representation of each
+ * element; subclasses for specific types override them to read and write the buffer directly.</p>
  */
 public class UIntSerializer<PlainT extends CompUInt<?, ?, PlainT>> implements
-    ByteSerializer<PlainT> {
+    BulkByteSerializer<PlainT> {
 
   private final CompUIntFactory<PlainT> factory;
   private final int byteLength;
+  private final int lowByteLength;
 
   /**
    * Creates new {@link UIntSerializer}.
@@ -24,6 +30,7 @@ public class UIntSerializer<PlainT extends CompUInt<?, ?, PlainT>> implements
   public UIntSerializer(CompUIntFactory<PlainT> factory) {
     this.factory = factory;
     this.byteLength = factory.getCompositeBitLength() / 8;
+    this.lowByteLength = factory.getLowBitLength() / 8;
   }
 
   @Override
@@ -34,10 +41,7 @@ public class UIntSerializer<PlainT extends CompUInt<?, ?, PlainT>> implements
   @Override
   public byte[] serialize(List<PlainT> objects) {
     byte[] all = new byte[byteLength * objects.size()];
-    for (int i = 0; i < objects.size(); i++) {
-      byte[] serialized = serialize(objects.get(i));
-      System.arraycopy(serialized, 0, all, i * byteLength, byteLength);
-    }
+    serialize(objects, ByteBuffer.wrap(all), 0);
     return all;
   }
 
@@ -48,16 +52,163 @@ public class UIntSerializer<PlainT extends CompUInt<?, ?, PlainT>> implements
 
   @Override
   public List<PlainT> deserializeList(byte[] bytes) {
-    if (bytes.length % byteLength != 0) {
+    return deserializeList(ByteBuffer.wrap(bytes));
+  }
+
+  @Override
+  public List<PlainT> deserializeList(ByteBuffer buffer) {
+    if (buffer.remaining() % byteLength != 0) {
       throw new IllegalArgumentException(
           "Total number of bytes must be a multiple of length of single element");
     }
-    int numElements = bytes.length / byteLength;
+    List<PlainT> elements =
+        deserializeList(buffer, buffer.position(), buffer.remaining() / byteLength);
+    buffer.position(buffer.limit());
+    return elements;
+  }
+
+  @Override
+  public int getByteLength() {
+    return byteLength;
+  }
+
+  /**
+   * Returns the number of bytes of the <i>k</i> least significant bits of a single element.
+   */
+  public int getLowByteLength() {
+    return lowByteLength;
+  }
+
+  @Override
+  public void serialize(List<PlainT> objects, ByteBuffer buffer, int offset) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    for (int i = 0; i < objects.size(); i++) {
+      putBytes(buffer, offset + i * byteLength, objects.get(i).toByteArray());
+    }
+  }
+
+  @Override
+  public List<PlainT> deserializeList(ByteBuffer buffer, int offset, int numElements) {
+    BulkByteSerializer.requireBigEndian(buffer);
     List<PlainT> elements = new ArrayList<>(numElements);
     for (int i = 0; i < numElements; i++) {
-      elements.add(deserialize(Arrays.copyOfRange(bytes, i * byteLength, (i + 1) * byteLength)));
+      elements.add(factory.createFromBytes(getBytes(buffer, offset + i * byteLength, byteLength)));
     }
     return elements;
   }
 
+  /**
+   * Writes the <i>k</i> least significant bits of each element of a list to a buffer.
+   *
+   * @param objects the objects to write
+   * @param buffer a big-endian buffer with room for all elements after the offset
+   * @param offset the index of the buffer at which the first element is written
+   */
+  public void serializeLeastSignificant(List<PlainT> objects, ByteBuffer buffer, int offset) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    for (int i = 0; i < objects.size(); i++) {
+      byte[] bytes = objects.get(i).toByteArray();
+      int index = offset + i * lowByteLength;
+      for (int j = 0; j < lowByteLength; j++) {
+        buffer.put(index + j, bytes[byteLength - lowByteLength + j]);
+      }
+    }
+  }
+
+  /**
+   * Reads a list of values written by {@link #serializeLeastSignificant(List, ByteBuffer, int)}.
+   *
+   * @param buffer a big-endian buffer holding the elements
+   * @param offset the index of the buffer at which the first element starts
+   * @param numElements the number of elements to read
+   * @return the elements, each of which has only the <i>k</i> least significant bits set
+   */
+  public List<PlainT> deserializeLeastSignificantList(ByteBuffer buffer, int offset,
+      int numElements) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    List<PlainT> elements = new ArrayList<>(numElements);
+    for (int i = 0; i < numElements; i++) {
+      elements.add(
+          factory.createFromBytes(getBytes(buffer, offset + i * lowByteLength, lowByteLength)));
+    }
+    return elements;
+  }
+
+  /**
+   * Writes the <i>k</i> least significant bits of each share of a vector to a buffer, in the same
+   * format as {@link #serializeLeastSignificant(List, ByteBuffer, int)}.
+   *
+   * @param shares the vector holding the shares to write
+   * @param buffer a big-endian buffer with room for all shares after the offset
+   * @param offset the index of the buffer at which the first share is written
+   */
+  public void serializeLeastSignificant(Spdz2kSIntVector<PlainT> shares, ByteBuffer buffer,
+      int offset) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    for (int i = 0; i < shares.size(); i++) {
+      int index = offset + i * lowByteLength;
+      long low = shares.getShareLowWord(i);
+      if (lowByteLength == Long.BYTES) {
+        buffer.putLong(index, low);
+      } else if (lowByteLength == Integer.BYTES) {
+        buffer.putInt(index, (int) low);
+      } else {
+        long high = shares.getShareHighWord(i);
+        for (int j = 0; j < lowByteLength; j++) {
+          int shift = (lowByteLength - 1 - j) * Byte.SIZE;
+          buffer.put(index + j,
+              (byte) (shift < Long.SIZE ? low >>> shift : high >>> (shift - Long.SIZE)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads values written by {@link #serializeLeastSignificant(List, ByteBuffer, int)} into the
+   * given arrays, as the high and low 64 bit words of each value, in the same layout as {@link
+   * Spdz2kSIntVector}.
+   *
+   * @param buffer a big-endian buffer holding the values
+   * @param offset the index of the buffer at which the first value starts
+   * @param high array receiving the high words, of length equal to the number of values
+   * @param low array receiving the low words, of length equal to the number of values
+   */
+  public void deserializeLeastSignificant(ByteBuffer buffer, int offset, long[] high,
+      long[] low) {
+    BulkByteSerializer.requireBigEndian(buffer);
+    for (int i = 0; i < low.length; i++) {
+      int index = offset + i * lowByteLength;
+      if (lowByteLength == Long.BYTES) {
+        high[i] = 0;
+        low[i] = buffer.getLong(index);
+      } else if (lowByteLength == Integer.BYTES) {
+        high[i] = 0;
+        low[i] = Integer.toUnsignedLong(buffer.getInt(index));
+      } else {
+        long highWord = 0;
+        long lowWord = 0;
+        for (int j = 0; j < lowByteLength; j++) {
+          highWord = (highWord << Byte.SIZE) | (lowWord >>> (Long.SIZE - Byte.SIZE));
+          lowWord = (lowWord << Byte.SIZE) | (buffer.get(index + j) & 0xff);
+        }
+        high[i] = highWord;
+        low[i] = lowWord;
+      }
+    }
+  }
+
+  private static void putBytes(ByteBuffer buffer, int index, byte[] bytes) {
+    for (int j = 0; j < bytes.length; j++) {
+      buffer.put(index + j, bytes[j]);
+    }
+  }
+
+  private static byte[] getBytes(ByteBuffer buffer, int index, int length) {
+    byte[] bytes = new byte[length];
+    for (int j = 0; j < length; j++) {
+      bytes[j] = buffer.get(index + j);
+    }
+    return bytes;
+  }
+
 }
@@ -3,6 +3,8 @@ package dk.alexandra.fresco.suite.spdz2k;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
 import dk.alexandra.fresco.lib.collections.io.CloseListTests.TestCloseAndOpenList;
+import dk.alexandra.fresco.lib.compare.CompareTests;
+import dk.alexandra.fresco.lib.math.integer.binary.BinaryOperationsTests;
 import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
 import org.junit.Test;
 
@@ -61,6 +63,11 @@ public abstract class Spdz2kTestSuite<Spdz2kResourcePoolT extends Spdz2kResource
     runTest(new BasicArithmeticTests.TestLotsMult<>(), EvaluationStrategy.SEQUENTIAL_BATCHED);
   }
 
+  @Test
+  public void testMultiplyManyParallel() {
+    runTest(new BasicArithmeticTests.TestLotsMult<>(), EvaluationStrategy.PARALLEL_BATCHED);
+  }
+
   @Test
   public void testSumAndMult() {
     runTest(new BasicArithmeticTests.TestSumAndMult<>(), EvaluationStrategy.SEQUENTIAL_BATCHED);
@@ -126,4 +133,29 @@ public abstract class Spdz2kTestSuite<Spdz2kResourcePoolT extends Spdz2kResource
         EvaluationStrategy.SEQUENTIAL_BATCHED);
   }
 
+  @Test
+  public void testCompareLT() {
+    runTest(new CompareTests.TestCompareLT<>(), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testCompareEQ() {
+    runTest(new CompareTests.TestCompareEQ<>(), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testCompareEQEdgeCases() {
+    runTest(new CompareTests.TestCompareEQEdgeCases<>(), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testRightShift() {
+    runTest(new BinaryOperationsTests.TestRightShift<>(), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testBits() {
+    runTest(new BinaryOperationsTests.TestBits<>(), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
 }
@@ -0,0 +1,137 @@
+package dk.alexandra.fresco.suite.spdz2k;
+
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkTestUtils;
+import dk.alexandra.fresco.framework.network.AsyncNetwork;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePoolImpl;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kAsyncDataSupplier;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kOpenedValueStoreImpl;
+import dk.alexandra.fresco.tools.ot.base.DummyOt;
+import dk.alexandra.fresco.tools.ot.base.Ot;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import org.junit.Test;
+
+/**
+ * Runs the Spdz2k suite with pre-processed material from the {@link Spdz2kAsyncDataSupplier}.
+ */
+public class TestSpdz2kBasicArithmeticAsync extends
+    AbstractSpdz2kTest<Spdz2kResourcePool<CompUInt128>> {
+
+  private static final int PRG_SEED_LENGTH = 256;
+  private static final int BATCH_SIZE = 16;
+
+  private final Queue<Closeable> preprocessing = new ConcurrentLinkedQueue<>();
+  private Map<Integer, NetworkConfiguration> preprocessingNetConf;
+
+  @Test
+  public void testInputFromAll() {
+    runTest(new BasicArithmeticTests.TestInputFromAll<>(), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testSumAndMult() {
+    runTest(new BasicArithmeticTests.TestSumAndMult<>(), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testRandomBit() {
+    runTest(new BasicArithmeticTests.TestRandomBit<>(), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Override
+  protected void runTest(
+      TestThreadFactory<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric> f,
+      EvaluationStrategy evalStrategy, int noOfParties) {
+    preprocessingNetConf = NetworkTestUtils
+        .getNetworkConfigurations(noOfParties, NetworkTestUtils.getFreePorts(noOfParties));
+    try {
+      super.runTest(f, evalStrategy, noOfParties);
+    } finally {
+      // the first supplier closed stops the producers of all parties
+      while (!preprocessing.isEmpty()) {
+        Closeable closeable = preprocessing.poll();
+        ExceptionConverter.safe(() -> {
+          closeable.close();
+          return null;
+        }, "Failed to close pre-processing");
+      }
+    }
+  }
+
+  @Override
+  protected Spdz2kResourcePool<CompUInt128> createResourcePool(int playerId, int noOfParties,
+      Supplier<Network> networkSupplier) {
+    CompUIntFactory<CompUInt128> factory = new CompUInt128Factory();
+    CloseableNetwork network = new AsyncNetwork(preprocessingNetConf.get(playerId));
+    Drbg drbg = getDrbg(playerId);
+    Spdz2kAsyncDataSupplier<CompUInt128> supplier = new Spdz2kAsyncDataSupplier<>(playerId,
+        noOfParties, 1, () -> network, factory, PRG_SEED_LENGTH, BATCH_SIZE, BATCH_SIZE,
+        2 * BATCH_SIZE, Spdz2kAsyncDataSupplier.createRandomKeyShare(factory, drbg),
+        setupSeedOts(playerId, noOfParties, network, drbg), drbg);
+    supplier.start();
+    preprocessing.add(supplier);
+    preprocessing.add(network);
+    Spdz2kResourcePool<CompUInt128> resourcePool =
+        new Spdz2kResourcePoolImpl<>(
+            playerId,
+            noOfParties, null,
+            new Spdz2kOpenedValueStoreImpl<>(),
+            supplier,
+            factory);
+    resourcePool.initializeJointRandomness(networkSupplier, AesCtrDrbg::new, 32);
+    return resourcePool;
+  }
+
+  @Override
+  protected ProtocolSuiteNumeric<Spdz2kResourcePool<CompUInt128>> createProtocolSuite() {
+    return new Spdz2kProtocolSuite128();
+  }
+
+  private Map<Integer, RotList> setupSeedOts(int myId, int noOfParties, Network network,
+      Drbg drbg) {
+    Map<Integer, RotList> seedOts = new HashMap<>();
+    for (int otherId = 1; otherId <= noOfParties; otherId++) {
+      if (otherId != myId) {
+        Ot ot = new DummyOt(otherId, network);
+        RotList currentSeedOts = new RotList(drbg, PRG_SEED_LENGTH);
+        if (myId < otherId) {
+          currentSeedOts.send(ot);
+          currentSeedOts.receive(ot);
+        } else {
+          currentSeedOts.receive(ot);
+          currentSeedOts.send(ot);
+        }
+        seedOts.put(otherId, currentSeedOts);
+      }
+    }
+    return seedOts;
+  }
+
+  private Drbg getDrbg(int myId) {
+    byte[] seed = new byte[PRG_SEED_LENGTH / 8];
+    new Random(myId).nextBytes(seed);
+    return AesCtrDrbgFactory.fromDerivedSeed(seed);
+  }
+}
@@ -0,0 +1,197 @@
+package dk.alexandra.fresco.suite.spdz2k;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric.RightShiftResult;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kTruncationComputation;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePoolImpl;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kOpenedValueStoreImpl;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class TestSpdz2kBinaryProtocols extends
+    AbstractSpdz2kTest<Spdz2kResourcePool<CompUInt128>> {
+
+  private static final CompUIntFactory<CompUInt128> FACTORY = new CompUInt128Factory();
+  private static final int K = FACTORY.getLowBitLength();
+  private static final BigInteger MODULUS = BigInteger.ONE.shiftLeft(K);
+  private static final List<BigInteger> VALUES = Arrays.asList(
+      BigInteger.ZERO,
+      BigInteger.ONE,
+      BigInteger.valueOf(-1),
+      BigInteger.valueOf(12345),
+      BigInteger.valueOf(-12345),
+      BigInteger.ONE.shiftLeft(K - 3).subtract(BigInteger.ONE),
+      BigInteger.ONE.shiftLeft(K - 3).negate());
+
+  @Test
+  public void testCompareLEQ() {
+    runTest(new TestOpenedValues(
+        root -> {
+          List<DRes<SInt>> results = new ArrayList<>();
+          for (BigInteger left : VALUES) {
+            for (BigInteger right : VALUES) {
+              results.add(root.comparison().compareLEQ(root.numeric().known(left),
+                  root.numeric().known(right)));
+            }
+          }
+          return results;
+        },
+        output -> {
+          int index = 0;
+          for (BigInteger left : VALUES) {
+            for (BigInteger right : VALUES) {
+              assertEquals(left + " <= " + right,
+                  left.compareTo(right) <= 0 ? BigInteger.ONE : BigInteger.ZERO,
+                  output.get(index++));
+            }
+          }
+        }), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testCompareZero() {
+    BigInteger value = BigInteger.ONE.shiftLeft(40);
+    runTest(new TestOpenedValues(
+        root -> Arrays.asList(
+            root.comparison().compareZero(root.numeric().known(value), 40),
+            root.comparison().compareZero(root.numeric().known(value), 41),
+            root.comparison().compareZero(root.numeric().known(BigInteger.ZERO), K),
+            root.comparison().compareZero(root.numeric().known(BigInteger.valueOf(-1)), 1)),
+        output -> assertEquals(Arrays.asList(BigInteger.ONE, BigInteger.ZERO, BigInteger.ONE,
+            BigInteger.ZERO), output)), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testToBits() {
+    BigInteger value = new BigInteger("f0e1d2c3b4a59687", 16);
+    runTest(new TestOpenedValues(
+        root -> {
+          DRes<List<SInt>> bits = root.advancedNumeric().toBits(root.numeric().known(value), K);
+          return IntStream.range(0, K)
+              .mapToObj(i -> (DRes<SInt>) () -> bits.out().get(i))
+              .collect(Collectors.toList());
+        },
+        output -> {
+          assertEquals(K, output.size());
+          for (int i = 0; i < K; i++) {
+            assertEquals(value.testBit(i) ? BigInteger.ONE : BigInteger.ZERO, output.get(i));
+          }
+        }), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testRightShiftWithRemainder() {
+    BigInteger value = MODULUS.subtract(BigInteger.valueOf(12345));
+    int shifts = 7;
+    runTest(new TestOpenedValues(
+        root -> {
+          DRes<RightShiftResult> result =
+              root.advancedNumeric().rightShiftWithRemainder(root.numeric().known(value), shifts);
+          return Arrays.asList(() -> result.out().getResult(), () -> result.out().getRemainder());
+        },
+        output -> assertEquals(Arrays.asList(value.shiftRight(shifts),
+            value.mod(BigInteger.ONE.shiftLeft(shifts))), output)),
+        EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testTruncation() {
+    int shifts = 8;
+    runTest(new TestOpenedValues(
+        root -> VALUES.stream()
+            .map(value -> root.seq(
+                new Spdz2kTruncationComputation(root.numeric().known(value), shifts)))
+            .collect(Collectors.toList()),
+        output -> {
+          for (int i = 0; i < VALUES.size(); i++) {
+            BigInteger expected = VALUES.get(i).shiftRight(shifts);
+            BigInteger actual = output.get(i);
+            assertTrue(VALUES.get(i) + " >> " + shifts + " was " + actual,
+                actual.equals(expected.mod(MODULUS))
+                    || actual.equals(expected.add(BigInteger.ONE).mod(MODULUS)));
+          }
+        }), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Override
+  protected Spdz2kResourcePool<CompUInt128> createResourcePool(int playerId, int noOfParties,
+      Supplier<Network> networkSupplier) {
+    Spdz2kResourcePool<CompUInt128> resourcePool =
+        new Spdz2kResourcePoolImpl<>(
+            playerId,
+            noOfParties, null,
+            new Spdz2kOpenedValueStoreImpl<>(),
+            new Spdz2kDummyDataSupplier<>(playerId, noOfParties, FACTORY.createRandom(), FACTORY),
+            FACTORY);
+    resourcePool.initializeJointRandomness(networkSupplier, AesCtrDrbg::new, 32);
+    return resourcePool;
+  }
+
+  @Override
+  protected ProtocolSuiteNumeric<Spdz2kResourcePool<CompUInt128>> createProtocolSuite() {
+    return new Spdz2kProtocolSuite128();
+  }
+
+  /**
+   * Runs a computation producing a list of secret values, opens them and checks the result.
+   */
+  private static class TestOpenedValues extends
+      TestThreadFactory<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric> {
+
+    private final Function<ProtocolBuilderNumeric, List<DRes<SInt>>> function;
+    private final Consumer<List<BigInteger>> check;
+
+    TestOpenedValues(
+        Function<ProtocolBuilderNumeric, List<DRes<SInt>>> function,
+        Consumer<List<BigInteger>> check) {
+      this.function = function;
+      this.check = check;
+    }
+
+    @Override
+    public TestThread<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric> next() {
+      return new TestThread<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric>() {
+
+        @Override
+        public void test() {
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app = root -> root
+              .seq(seq -> {
+                List<DRes<SInt>> closed = function.apply(seq);
+                return () -> closed;
+              })
+              .seq((seq, closed) -> {
+                DRes<List<DRes<BigInteger>>> opened = seq.collections().openList(() -> closed);
+                return () -> opened.out().stream().map(DRes::out).collect(Collectors.toList());
+              });
+          check.accept(runApplication(app));
+        }
+      };
+    }
+  }
+
+}
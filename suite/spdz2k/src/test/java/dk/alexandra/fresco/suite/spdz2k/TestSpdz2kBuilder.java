@@ -7,7 +7,7 @@ public class TestSpdz2kBuilder {
 
   @Test(expected = UnsupportedOperationException.class)
   public void getBigIntegerHelper() {
-    new Spdz2kBuilder<CompUInt128>(null, null).getBigIntegerHelper();
+    new Spdz2kBuilder<CompUInt128>(null, null, null).getBigIntegerHelper();
   }
 
 }
@@ -0,0 +1,194 @@
+package dk.alexandra.fresco.suite.spdz2k;
+
+import static org.junit.Assert.assertEquals;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.protocols.natives.Spdz2kOutputToAllListProtocol;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePoolImpl;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kOpenedValueStoreImpl;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class TestSpdz2kListProtocols extends AbstractSpdz2kTest<Spdz2kResourcePool<CompUInt128>> {
+
+  private static final CompUIntFactory<CompUInt128> FACTORY = new CompUInt128Factory();
+
+  @Test
+  public void testOpenList() {
+    runTest(new TestOpenList(100), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testOpenEmptyList() {
+    runTest(new TestOpenList(0), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testMultiplyList() {
+    runTest(new TestMultiplyList(50), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testMultiplyEmptyList() {
+    runTest(new TestMultiplyList(0), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testCloseAndOpenList() {
+    runTest(new TestCloseAndOpenList(20), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testCloseAndOpenEmptyList() {
+    runTest(new TestCloseAndOpenList(0), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Override
+  protected Spdz2kResourcePool<CompUInt128> createResourcePool(int playerId, int noOfParties,
+      Supplier<Network> networkSupplier) {
+    Spdz2kResourcePool<CompUInt128> resourcePool =
+        new Spdz2kResourcePoolImpl<>(
+            playerId,
+            noOfParties, null,
+            new Spdz2kOpenedValueStoreImpl<>(),
+            new Spdz2kDummyDataSupplier<>(playerId, noOfParties, FACTORY.createRandom(), FACTORY),
+            FACTORY);
+    resourcePool.initializeJointRandomness(networkSupplier, AesCtrDrbg::new, 32);
+    return resourcePool;
+  }
+
+  @Override
+  protected ProtocolSuiteNumeric<Spdz2kResourcePool<CompUInt128>> createProtocolSuite() {
+    return new Spdz2kProtocolSuite128();
+  }
+
+  private static class TestOpenList extends
+      TestThreadFactory<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric> {
+
+    private final int size;
+
+    TestOpenList(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public TestThread<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric> next() {
+      return new TestThread<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric>() {
+
+        @Override
+        public void test() {
+          List<BigInteger> input = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            input.add(BigInteger.valueOf(i * 1000L + 500));
+          }
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app = root -> {
+            List<DRes<SInt>> closed = new ArrayList<>(size);
+            for (BigInteger value : input) {
+              closed.add(root.numeric().input(value, 1));
+            }
+            DRes<List<DRes<BigInteger>>> opened =
+                root.append(new Spdz2kOutputToAllListProtocol<>(() -> closed));
+            return () -> opened.out().stream().map(DRes::out).collect(Collectors.toList());
+          };
+          assertEquals(input, runApplication(app));
+        }
+      };
+    }
+  }
+
+  private static class TestMultiplyList extends
+      TestThreadFactory<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric> {
+
+    private final int size;
+
+    TestMultiplyList(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public TestThread<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric> next() {
+      return new TestThread<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric>() {
+
+        @Override
+        public void test() {
+          List<BigInteger> left = new ArrayList<>(size);
+          List<BigInteger> right = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            left.add(BigInteger.ONE.shiftLeft(40).add(BigInteger.valueOf(i)));
+            right.add(BigInteger.valueOf(i * 31L + 7));
+          }
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app = root -> {
+            List<DRes<SInt>> closedLeft = new ArrayList<>(size);
+            List<DRes<SInt>> closedRight = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+              closedLeft.add(root.numeric().input(left.get(i), 1));
+              closedRight.add(root.numeric().input(right.get(i), 2));
+            }
+            DRes<List<DRes<SInt>>> products =
+                root.advancedNumeric().mult(closedLeft, closedRight);
+            DRes<List<DRes<BigInteger>>> opened = root.collections().openList(products);
+            return () -> opened.out().stream().map(DRes::out).collect(Collectors.toList());
+          };
+          List<BigInteger> output = runApplication(app);
+          BigInteger modulus = BigInteger.ONE.shiftLeft(FACTORY.getLowBitLength());
+          List<BigInteger> expected = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            expected.add(left.get(i).multiply(right.get(i)).mod(modulus));
+          }
+          assertEquals(expected, output);
+        }
+      };
+    }
+  }
+
+  private static class TestCloseAndOpenList extends
+      TestThreadFactory<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric> {
+
+    private final int size;
+
+    TestCloseAndOpenList(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public TestThread<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric> next() {
+      return new TestThread<Spdz2kResourcePool<CompUInt128>, ProtocolBuilderNumeric>() {
+
+        @Override
+        public void test() {
+          List<BigInteger> input = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            input.add(BigInteger.ONE.shiftLeft(63).add(BigInteger.valueOf(i)));
+          }
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app = root -> {
+            DRes<List<DRes<SInt>>> closed = conf.getMyId() == 1
+                ? root.collections().closeList(input, 1)
+                : root.collections().closeList(size, 1);
+            DRes<List<DRes<BigInteger>>> opened = root.collections().openList(closed);
+            return () -> opened.out().stream().map(DRes::out).collect(Collectors.toList());
+          };
+          assertEquals(input, runApplication(app));
+        }
+      };
+    }
+  }
+
+}
@@ -0,0 +1,127 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class TestSpdz2kSIntVector {
+
+  private static final int SIZE = 100;
+
+  @Test
+  public void testArithmetic128() {
+    testArithmetic(new CompUInt128Factory());
+  }
+
+  @Test
+  public void testArithmetic96() {
+    testArithmetic(new CompUInt96Factory());
+  }
+
+  @Test
+  public void testArithmeticGeneric() {
+    testArithmetic(new GenericCompUIntFactory(32, 32));
+    testArithmetic(new GenericCompUIntFactory(64, 32));
+    testArithmetic(new GenericCompUIntFactory(32, 96));
+  }
+
+  @Test
+  public void testFromListAndToList() {
+    CompUIntFactory<CompUInt128> factory = new CompUInt128Factory();
+    List<Spdz2kSInt<CompUInt128>> elements = randomElements(factory);
+    Spdz2kSIntVector<CompUInt128> vector = Spdz2kSIntVector.fromList(factory, elements);
+    assertEquals(SIZE, vector.size());
+    assertElementsEqual(elements, vector);
+    assertElementsEqual(elements, Spdz2kSIntVector.fromList(factory, vector.toList()));
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    CompUIntFactory<CompUInt128> factory = new CompUInt128Factory();
+    List<Spdz2kSInt<CompUInt128>> elements = randomElements(factory);
+    Spdz2kSIntVector<CompUInt128> vector = Spdz2kSIntVector.fromList(factory, elements);
+    Spdz2kSIntVector<CompUInt128> copy = vector.copy();
+    copy.add(vector);
+    assertElementsEqual(elements, vector);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDifferentSizes() {
+    CompUIntFactory<CompUInt128> factory = new CompUInt128Factory();
+    new Spdz2kSIntVector<>(factory, 2).add(new Spdz2kSIntVector<>(factory, 3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongNumberOfScalars() {
+    CompUIntFactory<CompUInt128> factory = new CompUInt128Factory();
+    new Spdz2kSIntVector<>(factory, 2).multiply(Collections.singletonList(factory.zero()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompositeBitLengthTooLarge() {
+    new Spdz2kSIntVector<>(new GenericCompUIntFactory(64, 96), 1);
+  }
+
+  private <PlainT extends CompUInt<?, ?, PlainT>> void testArithmetic(
+      CompUIntFactory<PlainT> factory) {
+    List<Spdz2kSInt<PlainT>> left = randomElements(factory);
+    List<Spdz2kSInt<PlainT>> right = randomElements(factory);
+    List<PlainT> scalars = new ArrayList<>();
+    List<PlainT> constants = new ArrayList<>();
+    PlainT macKeyShare = factory.createRandom();
+    PlainT zero = factory.zero();
+    List<Spdz2kSInt<PlainT>> sums = new ArrayList<>();
+    List<Spdz2kSInt<PlainT>> differences = new ArrayList<>();
+    List<Spdz2kSInt<PlainT>> products = new ArrayList<>();
+    List<Spdz2kSInt<PlainT>> partyOneAffine = new ArrayList<>();
+    List<Spdz2kSInt<PlainT>> otherPartyAffine = new ArrayList<>();
+    for (int i = 0; i < SIZE; i++) {
+      PlainT scalar = factory.createRandom();
+      PlainT constant = factory.createRandom();
+      scalars.add(scalar);
+      constants.add(constant);
+      sums.add(left.get(i).add(right.get(i)));
+      differences.add(left.get(i).subtract(right.get(i)));
+      products.add(left.get(i).multiply(scalar));
+      partyOneAffine.add(left.get(i).multiply(scalar)
+          .addConstant(constant, macKeyShare, zero, true));
+      otherPartyAffine.add(left.get(i).multiply(scalar)
+          .addConstant(constant, macKeyShare, zero, false));
+    }
+    Spdz2kSIntVector<PlainT> leftVector = Spdz2kSIntVector.fromList(factory, left);
+    Spdz2kSIntVector<PlainT> rightVector = Spdz2kSIntVector.fromList(factory, right);
+    assertElementsEqual(sums, leftVector.copy().add(rightVector));
+    assertElementsEqual(differences, leftVector.copy().subtract(rightVector));
+    assertElementsEqual(products, leftVector.copy().multiply(scalars));
+    assertElementsEqual(partyOneAffine,
+        leftVector.copy().affine(scalars, constants, macKeyShare, true));
+    assertElementsEqual(otherPartyAffine,
+        leftVector.copy().affine(scalars, constants, macKeyShare, false));
+  }
+
+  private <PlainT extends CompUInt<?, ?, PlainT>> List<Spdz2kSInt<PlainT>> randomElements(
+      CompUIntFactory<PlainT> factory) {
+    List<Spdz2kSInt<PlainT>> elements = new ArrayList<>(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      elements.add(new Spdz2kSInt<>(factory.createRandom(), factory.createRandom()));
+    }
+    return elements;
+  }
+
+  private <PlainT extends CompUInt<?, ?, PlainT>> void assertElementsEqual(
+      List<Spdz2kSInt<PlainT>> expected, Spdz2kSIntVector<PlainT> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getShare().toBigInteger(),
+          actual.getShare(i).toBigInteger());
+      assertEquals(expected.get(i).getMacShare().toBigInteger(),
+          actual.getMacShare(i).toBigInteger());
+      assertEquals(expected.get(i).getShare().toBigInteger(),
+          actual.get(i).getShare().toBigInteger());
+    }
+  }
+
+}
@@ -0,0 +1,267 @@
+package dk.alexandra.fresco.suite.spdz2k.preprocessing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkTestUtils;
+import dk.alexandra.fresco.framework.network.AsyncNetwork;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kAsyncDataSupplier;
+import dk.alexandra.fresco.tools.ot.base.DummyOt;
+import dk.alexandra.fresco.tools.ot.base.Ot;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.io.Closeable;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the checks of the Spdz2k pre-processing detect a cheating party one, by running the
+ * sub-protocols between two parties and asserting that both parties abort.
+ */
+public class TestSpdz2kMaliciousPreprocessing {
+
+  private static final int NO_OF_PARTIES = 2;
+  private static final int CHEATER_ID = 1;
+  private static final int PRG_SEED_LENGTH = 256;
+  private static final CompUIntFactory<CompUInt128> FACTORY = new CompUInt128Factory();
+  private static final CompUInt128 ONE = FACTORY.createFromBigInteger(BigInteger.ONE);
+
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testHonestTripleIsAccepted() throws Exception {
+    List<Object> results = runParties((id, elementGeneration, tripleGeneration) -> {
+      List<Spdz2kTriple<CompUInt128>> triples =
+          tripleGeneration.sacrifice(inputCandidate(id, elementGeneration, false), 1);
+      return elementGeneration.open(Arrays.asList(triples.get(0).getLeft(),
+          triples.get(0).getRight(), triples.get(0).getProduct()));
+    }, false);
+    for (Object result : results) {
+      @SuppressWarnings("unchecked")
+      List<CompUInt128> opened = (List<CompUInt128>) result;
+      assertEquals(opened.get(0).multiply(opened.get(1)).toBigInteger(),
+          opened.get(2).toBigInteger());
+    }
+  }
+
+  @Test
+  public void testCombinedTriplesAreValid() throws Exception {
+    int numTriples = 4;
+    List<Object> results = runParties((id, elementGeneration, tripleGeneration) -> {
+      List<Spdz2kSInt<CompUInt128>> closed = new ArrayList<>();
+      for (Spdz2kTriple<CompUInt128> triple : tripleGeneration.triple(numTriples)) {
+        closed.add(triple.getLeft());
+        closed.add(triple.getRight());
+        closed.add(triple.getProduct());
+      }
+      List<CompUInt128> opened = elementGeneration.open(closed);
+      elementGeneration.check(closed, opened);
+      return opened;
+    }, false);
+    for (Object result : results) {
+      @SuppressWarnings("unchecked")
+      List<CompUInt128> opened = (List<CompUInt128>) result;
+      assertEquals(3 * numTriples, opened.size());
+      for (int i = 0; i < numTriples; i++) {
+        assertEquals(opened.get(3 * i).multiply(opened.get(3 * i + 1)).toBigInteger(),
+            opened.get(3 * i + 2).toBigInteger());
+      }
+    }
+  }
+
+  @Test
+  public void testCorruptTripleIsDetected() {
+    assertAllAbort((id, elementGeneration, tripleGeneration) ->
+        tripleGeneration.sacrifice(inputCandidate(id, elementGeneration, true), 1), false);
+  }
+
+  @Test
+  public void testCorruptCopeInputIsDetected() {
+    assertAllAbort((id, elementGeneration, tripleGeneration) -> {
+      if (id == CHEATER_ID) {
+        return elementGeneration.input(Arrays.asList(FACTORY.createRandom(),
+            FACTORY.createRandom()));
+      } else {
+        return elementGeneration.input(CHEATER_ID, 2);
+      }
+    }, true);
+  }
+
+  @Test
+  public void testCorruptOpenedValueIsDetected() {
+    assertAllAbort((id, elementGeneration, tripleGeneration) -> {
+      List<Spdz2kSInt<CompUInt128>> closed;
+      if (id == CHEATER_ID) {
+        closed = elementGeneration.input(Arrays.asList(FACTORY.createRandom()));
+      } else {
+        closed = elementGeneration.input(CHEATER_ID, 1);
+      }
+      List<Spdz2kSInt<CompUInt128>> sent = closed;
+      if (id == CHEATER_ID) {
+        Spdz2kSInt<CompUInt128> element = closed.get(0);
+        sent = Arrays.asList(
+            new Spdz2kSInt<>(element.getShare().add(ONE), element.getMacShare()));
+      }
+      List<CompUInt128> opened = elementGeneration.open(sent);
+      elementGeneration.check(closed, opened);
+      return opened;
+    }, false);
+  }
+
+  /**
+   * Lets the cheater input a candidate triple <i>(a, b, c, &acirc;, &ccirc;)</i>, where <i>c</i>
+   * is off by one if the triple should be corrupt.
+   */
+  private List<Spdz2kSInt<CompUInt128>> inputCandidate(int myId,
+      Spdz2kElementGeneration<CompUInt128> elementGeneration, boolean corrupt) {
+    if (myId == CHEATER_ID) {
+      CompUInt128 left = FACTORY.createRandom();
+      CompUInt128 right = FACTORY.createRandom();
+      CompUInt128 leftHat = FACTORY.createRandom();
+      CompUInt128 product = left.multiply(right);
+      if (corrupt) {
+        product = product.add(ONE);
+      }
+      return elementGeneration.input(
+          Arrays.asList(left, right, product, leftHat, leftHat.multiply(right)));
+    } else {
+      return elementGeneration.input(CHEATER_ID, 5);
+    }
+  }
+
+  private void assertAllAbort(PartyTask task, boolean corruptCope) {
+    try {
+      runParties(task, corruptCope);
+      fail("Expected cheating to be detected");
+    } catch (ExecutionException e) {
+      assertTrue("Unexpected failure " + e.getCause(),
+          e.getCause() instanceof MaliciousException);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Runs a task for each party and returns the results, or throws the failure of the first party
+   * which failed. If the COPE inputs should be corrupted, the cheater macs other values than the
+   * ones it secret-shares when inputting.
+   */
+  private List<Object> runParties(PartyTask task, boolean corruptCope)
+      throws InterruptedException, ExecutionException {
+    Map<Integer, NetworkConfiguration> netConf = NetworkTestUtils
+        .getNetworkConfigurations(NO_OF_PARTIES, NetworkTestUtils.getFreePorts(NO_OF_PARTIES));
+    List<Callable<Object>> tasks = new ArrayList<>();
+    for (int myId = 1; myId <= NO_OF_PARTIES; myId++) {
+      final int finalMyId = myId;
+      tasks.add(() -> {
+        Network network = new AsyncNetwork(netConf.get(finalMyId));
+        try {
+          Drbg drbg = getDrbg();
+          Spdz2kPreprocessingResourcePool<CompUInt128> resourcePool =
+              new Spdz2kPreprocessingResourcePool<>(finalMyId, NO_OF_PARTIES, 1, FACTORY,
+                  PRG_SEED_LENGTH, drbg, setupSeedOts(finalMyId, network));
+          CompUInt128 macKeyShare = Spdz2kAsyncDataSupplier.createRandomKeyShare(FACTORY, drbg);
+          Spdz2kElementGeneration<CompUInt128> elementGeneration =
+              finalMyId == CHEATER_ID && corruptCope
+                  ? new CorruptCopeElementGeneration(resourcePool, network, macKeyShare)
+                  : new Spdz2kElementGeneration<>(resourcePool, network, macKeyShare);
+          Spdz2kTripleGeneration<CompUInt128> tripleGeneration =
+              new Spdz2kTripleGeneration<>(resourcePool, network, elementGeneration);
+          return task.run(finalMyId, elementGeneration, tripleGeneration);
+        } finally {
+          ((Closeable) network).close();
+        }
+      });
+    }
+    List<Object> results = new ArrayList<>();
+    for (Future<Object> future : executorService.invokeAll(tasks)) {
+      results.add(future.get());
+    }
+    return results;
+  }
+
+  private Map<Integer, RotList> setupSeedOts(int myId, Network network) {
+    Map<Integer, RotList> seedOts = new HashMap<>();
+    Drbg drbg = getDrbg();
+    for (int otherId = 1; otherId <= NO_OF_PARTIES; otherId++) {
+      if (otherId != myId) {
+        Ot ot = new DummyOt(otherId, network);
+        RotList currentSeedOts = new RotList(drbg, PRG_SEED_LENGTH);
+        if (myId < otherId) {
+          currentSeedOts.send(ot);
+          currentSeedOts.receive(ot);
+        } else {
+          currentSeedOts.receive(ot);
+          currentSeedOts.send(ot);
+        }
+        seedOts.put(otherId, currentSeedOts);
+      }
+    }
+    return seedOts;
+  }
+
+  private Drbg getDrbg() {
+    byte[] drbgSeed = new byte[PRG_SEED_LENGTH / 8];
+    new SecureRandom().nextBytes(drbgSeed);
+    return AesCtrDrbgFactory.fromDerivedSeed(drbgSeed);
+  }
+
+  /**
+   * Element generation of a party which macs the first value it inputs plus one, i.e., uses another
+   * value in the COPE extensions than the one it secret-shares.
+   */
+  private static class CorruptCopeElementGeneration extends Spdz2kElementGeneration<CompUInt128> {
+
+    CorruptCopeElementGeneration(Spdz2kPreprocessingResourcePool<CompUInt128> resourcePool,
+        Network network, CompUInt128 macKeyShare) {
+      super(resourcePool, network, macKeyShare);
+    }
+
+    @Override
+    List<CompUInt128> macValues(List<CompUInt128> values) {
+      List<CompUInt128> corrupted = new ArrayList<>(values);
+      corrupted.set(0, corrupted.get(0).add(ONE));
+      return super.macValues(corrupted);
+    }
+  }
+
+  private interface PartyTask {
+
+    Object run(int myId, Spdz2kElementGeneration<CompUInt128> elementGeneration,
+        Spdz2kTripleGeneration<CompUInt128> tripleGeneration);
+  }
+
+}
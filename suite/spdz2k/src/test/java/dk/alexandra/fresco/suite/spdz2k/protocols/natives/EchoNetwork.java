@@ -0,0 +1,34 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.natives;
+
+import dk.alexandra.fresco.framework.network.Network;
+
+/**
+ * Two party network returning the last message sent to party one as its own message, and a
+ * fixed message from party two.
+ */
+class EchoNetwork implements Network {
+
+  private final byte[] peerMessage;
+  private byte[] ownMessage;
+
+  EchoNetwork(byte[] peerMessage) {
+    this.peerMessage = peerMessage;
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    if (partyId == 1) {
+      ownMessage = data;
+    }
+  }
+
+  @Override
+  public byte[] receive(int partyId) {
+    return partyId == 1 ? ownMessage : peerMessage;
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return 2;
+  }
+}
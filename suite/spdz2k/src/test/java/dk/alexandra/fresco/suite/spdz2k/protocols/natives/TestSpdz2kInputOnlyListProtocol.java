@@ -0,0 +1,44 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.natives;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePoolImpl;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kOpenedValueStoreImpl;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class TestSpdz2kInputOnlyListProtocol {
+
+  private final CompUIntFactory<CompUInt128> factory = new CompUInt128Factory();
+  private final Spdz2kResourcePool<CompUInt128> resourcePool = new Spdz2kResourcePoolImpl<>(1, 2,
+      null, new Spdz2kOpenedValueStoreImpl<>(),
+      new Spdz2kDummyDataSupplier<>(1, 2, factory.createRandom(), factory), factory);
+
+  @Test(expected = MaliciousException.class)
+  public void testTooFewMaskedInputs() {
+    inputWithPeerMessageLength(resourcePool.getPlainSerializer().getByteLength());
+  }
+
+  @Test(expected = MaliciousException.class)
+  public void testTooManyMaskedInputs() {
+    inputWithPeerMessageLength(3 * resourcePool.getPlainSerializer().getByteLength());
+  }
+
+  /**
+   * Receives two inputs from the other party, which sends a message of the given length.
+   */
+  private void inputWithPeerMessageLength(int length) {
+    List<CompUInt128> inputs = Arrays.asList(factory.zero(), factory.zero());
+    Spdz2kInputOnlyListProtocol<CompUInt128> protocol =
+        new Spdz2kInputOnlyListProtocol<>(inputs, 2);
+    EchoNetwork network = new EchoNetwork(new byte[length]);
+    protocol.evaluate(0, resourcePool, network);
+    protocol.evaluate(1, resourcePool, network);
+  }
+
+}
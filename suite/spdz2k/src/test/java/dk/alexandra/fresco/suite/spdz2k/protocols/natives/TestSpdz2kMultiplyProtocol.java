@@ -0,0 +1,48 @@
+package dk.alexandra.fresco.suite.spdz2k.protocols.natives;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePoolImpl;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kOpenedValueStoreImpl;
+import java.math.BigInteger;
+import org.junit.Test;
+
+public class TestSpdz2kMultiplyProtocol {
+
+  private final CompUIntFactory<CompUInt128> factory = new CompUInt128Factory();
+  private final Spdz2kResourcePool<CompUInt128> resourcePool = new Spdz2kResourcePoolImpl<>(1, 2,
+      null, new Spdz2kOpenedValueStoreImpl<>(),
+      new Spdz2kDummyDataSupplier<>(1, 2, factory.createRandom(), factory), factory);
+
+  @Test(expected = MaliciousException.class)
+  public void testTooFewShares() {
+    multiplyWithPeerMessageLength(resourcePool.getPlainSerializer().getLowByteLength());
+  }
+
+  @Test(expected = MaliciousException.class)
+  public void testTooManyShares() {
+    multiplyWithPeerMessageLength(3 * resourcePool.getPlainSerializer().getLowByteLength());
+  }
+
+  /**
+   * Multiplies two values, where the other party sends a message of the given length.
+   */
+  private void multiplyWithPeerMessageLength(int length) {
+    Spdz2kMultiplyProtocol<CompUInt128> protocol =
+        new Spdz2kMultiplyProtocol<>(share(1, 2), share(3, 4));
+    EchoNetwork network = new EchoNetwork(new byte[length]);
+    protocol.evaluate(0, resourcePool, network);
+    protocol.evaluate(1, resourcePool, network);
+  }
+
+  private Spdz2kSInt<CompUInt128> share(long share, long macShare) {
+    return new Spdz2kSInt<>(factory.createFromBigInteger(BigInteger.valueOf(share)),
+        factory.createFromBigInteger(BigInteger.valueOf(macShare)));
+  }
+
+}
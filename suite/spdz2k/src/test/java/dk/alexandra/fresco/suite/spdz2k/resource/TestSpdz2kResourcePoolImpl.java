@@ -1,5 +1,6 @@
 package dk.alexandra.fresco.suite.spdz2k.resource;
 
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
 import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDummyDataSupplier;
@@ -23,4 +24,14 @@ public class TestSpdz2kResourcePoolImpl {
     resourcePool.getRandomGenerator();
   }
 
+  @Test(expected = IllegalStateException.class)
+  public void testGetDrbgOfPartition() {
+    Spdz2kResourcePoolImpl<CompUInt128> pool = new Spdz2kResourcePoolImpl<>(1, 2,
+        new AesCtrDrbg(new byte[32]), new Spdz2kOpenedValueStoreImpl<>(),
+        new Spdz2kDummyDataSupplier<>(1, 2, null, new CompUInt128Factory()),
+        new CompUInt128Factory());
+    pool.getRandomGenerator();
+    pool.createPartition().getRandomGenerator();
+  }
+
 }
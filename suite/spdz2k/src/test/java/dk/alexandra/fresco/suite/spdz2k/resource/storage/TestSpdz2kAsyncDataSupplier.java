@@ -0,0 +1,243 @@
+package dk.alexandra.fresco.suite.spdz2k.resource.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkTestUtils;
+import dk.alexandra.fresco.framework.network.AsyncNetwork;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.AsyncBatchProducer;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt96;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt96Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kInputMask;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
+import dk.alexandra.fresco.tools.ot.base.DummyOt;
+import dk.alexandra.fresco.tools.ot.base.Ot;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.io.Closeable;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSpdz2kAsyncDataSupplier {
+
+  private static final int PRG_SEED_LENGTH = 256;
+  private static final int NUM_TRIPLES = 10;
+  private static final int NUM_BITS = 6;
+  private static final int NUM_ELEMENTS = 5;
+  private static final int NUM_MASKS = 3;
+
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testProducesValidMaterialTwoParties() {
+    testProducesValidMaterial(new CompUInt128Factory(), 2);
+  }
+
+  @Test
+  public void testProducesValidMaterialThreeParties() {
+    testProducesValidMaterial(new CompUInt128Factory(), 3);
+  }
+
+  @Test
+  public void testProducesValidMaterial96() {
+    testProducesValidMaterial(new CompUInt96Factory(), 2);
+  }
+
+  @Test
+  public void testKeyShareHasHighBitLength() {
+    CompUIntFactory<CompUInt96> factory = new CompUInt96Factory();
+    CompUInt96 keyShare = Spdz2kAsyncDataSupplier.createRandomKeyShare(factory, getDrbg());
+    assertTrue(keyShare.toBigInteger().bitLength() <= factory.getHighBitLength());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalWatermarks() {
+    new Spdz2kAsyncDataSupplier<>(1, 2, 1, null, new CompUInt128Factory(), PRG_SEED_LENGTH, 16, 8,
+        8, null, null, null);
+  }
+
+  private <PlainT extends CompUInt<?, ?, PlainT>> void testProducesValidMaterial(
+      CompUIntFactory<PlainT> factory, int noOfParties) {
+    Map<Integer, NetworkConfiguration> netConf = NetworkTestUtils
+        .getNetworkConfigurations(noOfParties, NetworkTestUtils.getFreePorts(noOfParties));
+    Map<Integer, PlainT> macKeyShares = new HashMap<>();
+    for (int myId = 1; myId <= noOfParties; myId++) {
+      macKeyShares.put(myId, Spdz2kAsyncDataSupplier.createRandomKeyShare(factory, getDrbg()));
+    }
+    List<Callable<Result<PlainT>>> tasks = new ArrayList<>();
+    for (int myId = 1; myId <= noOfParties; myId++) {
+      final int finalMyId = myId;
+      tasks.add(() -> {
+        Network network = new AsyncNetwork(netConf.get(finalMyId));
+        try {
+          Map<Integer, RotList> seedOts = setupSeedOts(finalMyId, noOfParties, network);
+          Spdz2kAsyncDataSupplier<PlainT> supplier = new Spdz2kAsyncDataSupplier<>(finalMyId,
+              noOfParties, 1, () -> network, factory, PRG_SEED_LENGTH, 4, 4, 8,
+              macKeyShares.get(finalMyId), seedOts, getDrbg());
+          return consume(supplier, noOfParties);
+        } finally {
+          ((Closeable) network).close();
+        }
+      });
+    }
+    List<Result<PlainT>> results = invoke(tasks);
+    PlainT macKey = macKeyShares.values().stream().reduce(CompUInt::add).get();
+    assertTrue(macKey.toBigInteger().bitLength() <= factory.getHighBitLength() + 2);
+    BigInteger modulus = BigInteger.ONE.shiftLeft(factory.getCompositeBitLength());
+    for (int i = 0; i < NUM_TRIPLES; i++) {
+      final int index = i;
+      BigInteger a = recombine(macKey, results, r -> r.triples.get(index).getLeft());
+      BigInteger b = recombine(macKey, results, r -> r.triples.get(index).getRight());
+      BigInteger c = recombine(macKey, results, r -> r.triples.get(index).getProduct());
+      assertEquals(a.multiply(b).mod(modulus), c);
+    }
+    for (int i = 0; i < NUM_BITS; i++) {
+      final int index = i;
+      BigInteger bit = recombine(macKey, results, r -> r.bits.get(index));
+      assertTrue(bit.equals(BigInteger.ZERO) || bit.equals(BigInteger.ONE));
+    }
+    for (int i = 0; i < NUM_ELEMENTS; i++) {
+      final int index = i;
+      recombine(macKey, results, r -> r.elements.get(index));
+    }
+    for (int towardPlayerId = 1; towardPlayerId <= noOfParties; towardPlayerId++) {
+      final int finalTowardPlayerId = towardPlayerId;
+      for (int i = 0; i < NUM_MASKS; i++) {
+        final int index = i;
+        BigInteger value = recombine(macKey, results,
+            r -> r.masks.get(finalTowardPlayerId).get(index).getMaskShare());
+        for (int partyId = 1; partyId <= noOfParties; partyId++) {
+          PlainT realValue =
+              results.get(partyId - 1).masks.get(towardPlayerId).get(index).getOpenValue();
+          if (partyId == towardPlayerId) {
+            assertEquals(value, realValue.toBigInteger());
+          } else {
+            assertNull(realValue);
+          }
+        }
+      }
+    }
+    for (Result<PlainT> result : results) {
+      Map<String, Long> values = result.loggedValues;
+      assertTrue(values.get("TRIPLES" + AsyncBatchProducer.PRODUCED_SUFFIX)
+          >= NUM_TRIPLES);
+      assertTrue(values.get("BITS" + AsyncBatchProducer.PRODUCED_SUFFIX) >= NUM_BITS);
+      assertNotNull(values.get("INPUT_MASKS_P2" + AsyncBatchProducer.STALLS_SUFFIX));
+      assertTrue(values.get(AsyncBatchProducer.PRODUCER_ROUNDS) > 0);
+    }
+  }
+
+  private <PlainT extends CompUInt<?, ?, PlainT>> Result<PlainT> consume(
+      Spdz2kAsyncDataSupplier<PlainT> supplier, int noOfParties) {
+    try {
+      supplier.start();
+      Result<PlainT> result = new Result<>();
+      for (int i = 0; i < NUM_TRIPLES; i++) {
+        result.triples.add(supplier.getNextTripleShares());
+      }
+      for (int i = 0; i < NUM_BITS; i++) {
+        result.bits.add(supplier.getNextBitShare());
+      }
+      for (int i = 0; i < NUM_ELEMENTS; i++) {
+        result.elements.add(supplier.getNextRandomElementShare());
+      }
+      for (int towardPlayerId = 1; towardPlayerId <= noOfParties; towardPlayerId++) {
+        List<Spdz2kInputMask<PlainT>> masks = new ArrayList<>();
+        for (int i = 0; i < NUM_MASKS; i++) {
+          masks.add(supplier.getNextInputMask(towardPlayerId));
+        }
+        result.masks.put(towardPlayerId, masks);
+      }
+      result.loggedValues = supplier.getLoggedValues();
+      return result;
+    } finally {
+      supplier.close();
+    }
+  }
+
+  private <PlainT extends CompUInt<?, ?, PlainT>> BigInteger recombine(PlainT macKey,
+      List<Result<PlainT>> results, Function<Result<PlainT>, Spdz2kSInt<PlainT>> getShare) {
+    Spdz2kSInt<PlainT> recombined = results.stream().map(getShare).reduce(Spdz2kSInt::add).get();
+    assertArrayEquals(macKey.multiply(recombined.getShare()).toByteArray(),
+        recombined.getMacShare().toByteArray());
+    return recombined.getShare().toBigInteger();
+  }
+
+  private Map<Integer, RotList> setupSeedOts(int myId, int noOfParties, Network network) {
+    Map<Integer, RotList> seedOts = new HashMap<>();
+    Drbg drbg = getDrbg();
+    for (int otherId = 1; otherId <= noOfParties; otherId++) {
+      if (otherId != myId) {
+        Ot ot = new DummyOt(otherId, network);
+        RotList currentSeedOts = new RotList(drbg, PRG_SEED_LENGTH);
+        if (myId < otherId) {
+          currentSeedOts.send(ot);
+          currentSeedOts.receive(ot);
+        } else {
+          currentSeedOts.receive(ot);
+          currentSeedOts.send(ot);
+        }
+        seedOts.put(otherId, currentSeedOts);
+      }
+    }
+    return seedOts;
+  }
+
+  private Drbg getDrbg() {
+    byte[] drbgSeed = new byte[PRG_SEED_LENGTH / 8];
+    new SecureRandom().nextBytes(drbgSeed);
+    return AesCtrDrbgFactory.fromDerivedSeed(drbgSeed);
+  }
+
+  private <T> List<T> invoke(List<Callable<T>> tasks) {
+    List<Future<T>> futures = ExceptionConverter
+        .safe(() -> executorService.invokeAll(tasks), "Error invoking tasks");
+    return futures.stream()
+        .map(future -> ExceptionConverter.safe(future::get, "Error getting future result"))
+        .collect(Collectors.toList());
+  }
+
+  private static class Result<PlainT extends CompUInt<?, ?, PlainT>> {
+
+    private final List<Spdz2kTriple<PlainT>> triples = new ArrayList<>();
+    private final List<Spdz2kSInt<PlainT>> bits = new ArrayList<>();
+    private final List<Spdz2kSInt<PlainT>> elements = new ArrayList<>();
+    private final Map<Integer, List<Spdz2kInputMask<PlainT>>> masks = new HashMap<>();
+    private Map<String, Long> loggedValues;
+  }
+}
@@ -0,0 +1,104 @@
+package dk.alexandra.fresco.suite.spdz2k.synchronization;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.AdaptiveBatchSize;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+import dk.alexandra.fresco.suite.spdz2k.AbstractSpdz2kTest;
+import dk.alexandra.fresco.suite.spdz2k.Spdz2kProtocolSuite128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePoolImpl;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kOpenedValueStoreImpl;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests evaluating the mac-checks of a {@link Spdz2kProtocolSuite128} with an adaptive batch size.
+ */
+public class TestSpdz2kAdaptiveMacCheckBatchSize extends
+    AbstractSpdz2kTest<Spdz2kResourcePool<CompUInt128>> {
+
+  @Test
+  public void testMultiplyAndOpen() {
+    runTest(new TestMultiplyAndOpen<>(), EvaluationStrategy.SEQUENTIAL_BATCHED, 2);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullBatchSize() {
+    new Spdz2kProtocolSuite128(null);
+  }
+
+  @Override
+  protected Spdz2kResourcePool<CompUInt128> createResourcePool(int playerId, int noOfParties,
+      Supplier<Network> networkSupplier) {
+    CompUIntFactory<CompUInt128> factory = new CompUInt128Factory();
+    Spdz2kResourcePool<CompUInt128> resourcePool =
+        new Spdz2kResourcePoolImpl<>(
+            playerId,
+            noOfParties, null,
+            new Spdz2kOpenedValueStoreImpl<>(),
+            new Spdz2kDummyDataSupplier<>(playerId, noOfParties, factory.createRandom(), factory),
+            factory);
+    resourcePool.initializeJointRandomness(networkSupplier, AesCtrDrbg::new, 32);
+    return resourcePool;
+  }
+
+  @Override
+  protected ProtocolSuiteNumeric<Spdz2kResourcePool<CompUInt128>> createProtocolSuite() {
+    // small batch sizes, adjusted after every batch, so the mac-check spans several batches
+    return new Spdz2kProtocolSuite128(new AdaptiveBatchSize(1, 4, 2, 64, 1));
+  }
+
+  private static class TestMultiplyAndOpen<ResourcePoolT extends Spdz2kResourcePool<CompUInt128>>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          int size = 20;
+          Application<List<BigInteger>, ProtocolBuilderNumeric> testApplication =
+              root -> root.par(par -> {
+                List<DRes<SInt>> products = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                  DRes<SInt> left = par.numeric().known(BigInteger.valueOf(i));
+                  DRes<SInt> right = par.numeric().known(BigInteger.valueOf(i + 1));
+                  products.add(par.numeric().mult(left, right));
+                }
+                return () -> products;
+              }).par((par, products) -> {
+                List<DRes<BigInteger>> opened = products.stream()
+                    .map(par.numeric()::open)
+                    .collect(Collectors.toList());
+                return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+              });
+          List<BigInteger> result = runApplication(testApplication);
+          for (int i = 0; i < size; i++) {
+            Assert.assertEquals(BigInteger.valueOf(i * (i + 1)), result.get(i));
+          }
+          Assert.assertFalse(
+              "There should be no unchecked opened values after the evaluation has finished",
+              conf.getResourcePool().getOpenedValueStore().hasPendingValues());
+        }
+      };
+    }
+  }
+
+}
@@ -3,10 +3,20 @@ package dk.alexandra.fresco.suite.spdz2k.util;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
-import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt96Factory;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.GenericCompUInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.GenericCompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSIntVector;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt64;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt64Serializer;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
@@ -15,7 +25,7 @@ import org.junit.Test;
 public class TestUIntSerializer {
 
   private final CompUIntFactory<GenericCompUInt> factory = new GenericCompUIntFactory(64, 64);
-  private final ByteSerializer<GenericCompUInt> serializer = new UIntSerializer<>(factory);
+  private final UIntSerializer<GenericCompUInt> serializer = new UIntSerializer<>(factory);
 
   @Test
   public void testSerialize() {
@@ -73,4 +83,108 @@ public class TestUIntSerializer {
     serializer.deserializeList(rawBytes);
   }
 
+  @Test
+  public void testBufferRoundTrip() {
+    testBufferRoundTrip(new CompUInt128Factory());
+    testBufferRoundTrip(new CompUInt96Factory());
+    testBufferRoundTrip(factory);
+    testBufferRoundTrip(new GenericCompUIntFactory(32, 96));
+  }
+
+  @Test
+  public void testDeserializeListFromBuffer() {
+    CompUInt128Factory factory = new CompUInt128Factory();
+    UIntSerializer<?> serializer = factory.createSerializer();
+    Random random = new Random(42);
+    byte[] rawBytes = new byte[34];
+    random.nextBytes(rawBytes);
+    ByteBuffer buffer = ByteBuffer.wrap(rawBytes);
+    buffer.position(2);
+    List<? extends CompUInt<?, ?, ?>> actual = serializer.deserializeList(buffer);
+    assertEquals(2, actual.size());
+    assertArrayEquals(Arrays.copyOfRange(rawBytes, 2, 18), actual.get(0).toByteArray());
+    assertArrayEquals(Arrays.copyOfRange(rawBytes, 18, 34), actual.get(1).toByteArray());
+    assertEquals(34, buffer.position());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLittleEndianBuffer() {
+    ByteBuffer buffer = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+    serializer.serialize(Arrays.asList(factory.createRandom()), buffer, 0);
+  }
+
+  @Test
+  public void testUInt64Serializer() {
+    UInt64Serializer uint64Serializer = new UInt64Serializer();
+    List<UInt64> values = Arrays.asList(new UInt64(-1L), new UInt64(42L), new UInt64(1L << 63));
+    byte[] bytes = uint64Serializer.serialize(values);
+    assertEquals(3 * uint64Serializer.getByteLength(), bytes.length);
+    assertArrayEquals(values.get(1).toByteArray(), Arrays.copyOfRange(bytes, 8, 16));
+    ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.length);
+    uint64Serializer.serialize(values, buffer, 4);
+    List<UInt64> actual = uint64Serializer.deserializeList(buffer, 4, 3);
+    for (int i = 0; i < values.size(); i++) {
+      assertEquals(values.get(i).toLong(), actual.get(i).toLong());
+      assertEquals(values.get(i).toLong(), uint64Serializer.deserializeList(bytes).get(i).toLong());
+    }
+    assertEquals(42L, uint64Serializer.deserialize(uint64Serializer.serialize(values.get(1)))
+        .toLong());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUInt64SerializerWrongLength() {
+    new UInt64Serializer().deserialize(new byte[7]);
+  }
+
+  private <PlainT extends CompUInt<?, ?, PlainT>> void testBufferRoundTrip(
+      CompUIntFactory<PlainT> factory) {
+    UIntSerializer<PlainT> serializer = factory.createSerializer();
+    UIntSerializer<PlainT> generic = new UIntSerializer<>(factory);
+    List<PlainT> values = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      values.add(factory.createRandom());
+    }
+    int offset = 3;
+    int byteLength = serializer.getByteLength();
+    int lowByteLength = serializer.getLowByteLength();
+    // full values
+    ByteBuffer buffer = ByteBuffer.allocate(offset + values.size() * byteLength);
+    serializer.serialize(values, buffer, offset);
+    assertEquals(0, buffer.position());
+    assertArrayEquals(generic.serialize(values),
+        Arrays.copyOfRange(buffer.array(), offset, buffer.capacity()));
+    List<PlainT> actual = serializer.deserializeList(buffer, offset, values.size());
+    List<PlainT> actualGeneric = generic.deserializeList(buffer, offset, values.size());
+    for (int i = 0; i < values.size(); i++) {
+      assertArrayEquals(values.get(i).toByteArray(), actual.get(i).toByteArray());
+      assertArrayEquals(values.get(i).toByteArray(), actualGeneric.get(i).toByteArray());
+    }
+    // least significant bits of values and of vector shares
+    ByteBuffer lowBuffer = ByteBuffer.allocate(offset + values.size() * lowByteLength);
+    serializer.serializeLeastSignificant(values, lowBuffer, offset);
+    ByteBuffer genericLowBuffer = ByteBuffer.allocate(lowBuffer.capacity());
+    generic.serializeLeastSignificant(values, genericLowBuffer, offset);
+    assertArrayEquals(genericLowBuffer.array(), lowBuffer.array());
+    List<Spdz2kSInt<PlainT>> elements = new ArrayList<>();
+    for (PlainT value : values) {
+      elements.add(new Spdz2kSInt<>(value, factory.createRandom()));
+    }
+    ByteBuffer vectorBuffer = ByteBuffer.allocate(lowBuffer.capacity());
+    serializer.serializeLeastSignificant(Spdz2kSIntVector.fromList(factory, elements),
+        vectorBuffer, offset);
+    assertArrayEquals(lowBuffer.array(), vectorBuffer.array());
+    List<PlainT> lows = serializer.deserializeLeastSignificantList(lowBuffer, offset,
+        values.size());
+    long[] high = new long[values.size()];
+    long[] low = new long[values.size()];
+    serializer.deserializeLeastSignificant(lowBuffer, offset, high, low);
+    BigInteger lowModulus = BigInteger.ONE.shiftLeft(factory.getLowBitLength());
+    for (int i = 0; i < values.size(); i++) {
+      BigInteger expected = values.get(i).toBigInteger().mod(lowModulus);
+      assertEquals(expected, lows.get(i).toBigInteger());
+      assertEquals(expected, new BigInteger(1, ByteBuffer.allocate(16).putLong(high[i])
+          .putLong(low[i]).array()));
+    }
+  }
+
 }
@@ -6,6 +6,7 @@ import dk.alexandra.fresco.tools.mascot.arithm.Addable;
 import dk.alexandra.fresco.tools.mascot.bit.BitConverter;
 import dk.alexandra.fresco.tools.mascot.cointossing.CoinTossingMpc;
 import dk.alexandra.fresco.tools.mascot.elgen.ElementGeneration;
+import dk.alexandra.fresco.tools.mascot.exp.ExpPipeGeneration;
 import dk.alexandra.fresco.tools.mascot.field.AuthenticatedElement;
 import dk.alexandra.fresco.tools.mascot.field.FieldElement;
 import dk.alexandra.fresco.tools.mascot.field.InputMask;
@@ -22,13 +23,14 @@ import java.util.stream.IntStream;
 /**
  * Implementation of the main MASCOT protocol (<a href="https://eprint.iacr.org/2016/505.pdf">https://eprint.iacr.org/2016/505.pdf</a>)
  * which can be used for the SPDZ pre-processing phase. <br> Supports generation of multiplication
- * triples, random authenticated elements, and random authenticated bits.
+ * triples, random authenticated elements, random authenticated bits, and exponentiation pipes.
  */
 public class Mascot {
 
   private final TripleGeneration tripleGeneration;
   private final ElementGeneration elementGeneration;
   private final BitConverter bitConverter;
+  private final ExpPipeGeneration expPipeGeneration;
   private final MascotResourcePool resourcePool;
 
   /**
@@ -44,9 +46,10 @@ public class Mascot {
         new ElementGeneration(resourcePool, network, macKeyShare, jointSampler);
     this.tripleGeneration =
         new TripleGeneration(resourcePool, network, elementGeneration, jointSampler);
-    this.bitConverter = new BitConverter(resourcePool,
-        new OnlinePhase(resourcePool, tripleGeneration, elementGeneration,
-            macKeyShare), macKeyShare);
+    OnlinePhase onlinePhase = new OnlinePhase(resourcePool, tripleGeneration, elementGeneration,
+        macKeyShare);
+    this.bitConverter = new BitConverter(resourcePool, onlinePhase, macKeyShare);
+    this.expPipeGeneration = new ExpPipeGeneration(onlinePhase);
   }
 
   /**
@@ -134,4 +137,19 @@ public class Mascot {
     return bitConverter.convertToBits(getRandomElements(numBits));
   }
 
+  /**
+   * Generates exponentiation pipes, i.e., lists <i>[r<sup>-1</sup>], [r], [r<sup>2</sup>], ...,
+   * [r<sup>pipeLength + 1</sup>]</i> for random elements <i>r</i>.
+   *
+   * @param numPipes number of pipes to generate
+   * @param pipeLength length of each pipe. Note that each pipe holds <i>pipeLength + 2</i>
+   *     elements
+   * @return exponentiation pipes
+   */
+  public List<List<AuthenticatedElement>> getExpPipes(int numPipes, int pipeLength) {
+    List<AuthenticatedElement> randomElements = getRandomElements(2 * numPipes);
+    return expPipeGeneration.generate(randomElements.subList(0, numPipes),
+        randomElements.subList(numPipes, 2 * numPipes), pipeLength);
+  }
+
 }
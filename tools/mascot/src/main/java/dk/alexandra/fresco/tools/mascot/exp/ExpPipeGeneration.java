@@ -0,0 +1,90 @@
+package dk.alexandra.fresco.tools.mascot.exp;
+
+import dk.alexandra.fresco.tools.mascot.field.AuthenticatedElement;
+import dk.alexandra.fresco.tools.mascot.field.FieldElement;
+import dk.alexandra.fresco.tools.mascot.online.OnlinePhase;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocol for getting exponentiation pipes from random authenticated field elements.
+ * <p>
+ * An exponentiation pipe of length <i>l</i> is a list <i>[r<sup>-1</sup>], [r],
+ * [r<sup>2</sup>], ..., [r<sup>l + 1</sup>]</i> of authenticated powers of a random element
+ * <i>r</i>. All pipes of a batch are computed in parallel, so the number of rounds only depends on
+ * the length of the pipes.
+ * </p>
+ */
+public class ExpPipeGeneration {
+
+  private final OnlinePhase onlinePhase;
+
+  /**
+   * Creates new {@link ExpPipeGeneration}.
+   */
+  public ExpPipeGeneration(OnlinePhase onlinePhase) {
+    this.onlinePhase = onlinePhase;
+  }
+
+  /**
+   * Converts random authenticated elements to exponentiation pipes. <p> Given random elements
+   * <i>[r]</i> and <i>[s]</i>, applies the following protocol: <ol> <li>Compute and open <i>u = r
+   * s</i>. <li>Compute <i>[r<sup>-1</sup>] = [s] u<sup>-1</sup></i>. <li>Compute the powers of
+   * <i>[r]</i> by repeatedly multiplying the highest power computed so far with all lower powers,
+   * which doubles the number of powers in each round. </ol> </p>
+   *
+   * @param randomElements random elements to compute the powers of, one for each pipe
+   * @param blindingElements random elements used to compute the inverses, one for each pipe
+   * @param pipeLength the length of the pipes
+   * @return exponentiation pipes of <i>pipeLength + 2</i> elements each
+   */
+  public List<List<AuthenticatedElement>> generate(List<AuthenticatedElement> randomElements,
+      List<AuthenticatedElement> blindingElements, int pipeLength) {
+    if (pipeLength < 0) {
+      throw new IllegalArgumentException(
+          "Can not create an exponentiation pipe of length less than 0");
+    }
+    int numPipes = randomElements.size();
+    List<AuthenticatedElement> blinded = onlinePhase.multiply(randomElements, blindingElements);
+    List<FieldElement> openBlinded = onlinePhase.open(blinded);
+    List<List<AuthenticatedElement>> powers = new ArrayList<>(numPipes);
+    for (AuthenticatedElement randomElement : randomElements) {
+      List<AuthenticatedElement> pipePowers = new ArrayList<>(pipeLength + 1);
+      pipePowers.add(randomElement);
+      powers.add(pipePowers);
+    }
+    // powers.get(p).get(i) holds r^(i + 1) for pipe p
+    int computed = 1;
+    while (computed < pipeLength + 1) {
+      int newPowers = Math.min(computed, pipeLength + 1 - computed);
+      List<AuthenticatedElement> leftFactors = new ArrayList<>(numPipes * newPowers);
+      List<AuthenticatedElement> rightFactors = new ArrayList<>(numPipes * newPowers);
+      for (List<AuthenticatedElement> pipePowers : powers) {
+        AuthenticatedElement highest = pipePowers.get(computed - 1);
+        for (int i = 0; i < newPowers; i++) {
+          leftFactors.add(highest);
+          rightFactors.add(pipePowers.get(i));
+        }
+      }
+      List<AuthenticatedElement> products = onlinePhase.multiply(leftFactors, rightFactors);
+      for (int p = 0; p < numPipes; p++) {
+        powers.get(p).addAll(products.subList(p * newPowers, (p + 1) * newPowers));
+      }
+      computed += newPowers;
+    }
+    onlinePhase.triggerMacCheck();
+    List<List<AuthenticatedElement>> pipes = new ArrayList<>(numPipes);
+    for (int p = 0; p < numPipes; p++) {
+      FieldElement blindedValue = openBlinded.get(p);
+      if (blindedValue.isZero()) {
+        throw new IllegalStateException("Random element used for exponentiation pipe was zero");
+      }
+      List<AuthenticatedElement> pipe = new ArrayList<>(pipeLength + 2);
+      pipe.add(blindingElements.get(p).multiply(blindedValue.modInverse()));
+      pipe.addAll(powers.get(p));
+      pipes.add(pipe);
+    }
+    return pipes;
+  }
+
+}
@@ -10,6 +10,7 @@ import dk.alexandra.fresco.tools.mascot.field.FieldElement;
 import dk.alexandra.fresco.tools.mascot.field.InputMask;
 import dk.alexandra.fresco.tools.mascot.field.MultiplicationTriple;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -38,6 +39,12 @@ public class TestMascot extends NetworkedTest {
     return mascot.getRandomBits(numBits);
   }
 
+  private List<List<AuthenticatedElement>> runExpPipeGeneration(MascotTestContext ctx,
+      FieldElement macKeyShare, int numPipes, int pipeLength) {
+    Mascot mascot = new Mascot(ctx.getResourcePool(), ctx.getNetwork(), macKeyShare);
+    return mascot.getExpPipes(numPipes, pipeLength);
+  }
+
   private List<AuthenticatedElement> runInputter(MascotTestContext ctx, FieldElement macKeyShare,
       List<FieldElement> inputs) {
     Mascot mascot = new Mascot(ctx.getResourcePool(), ctx.getNetwork(), macKeyShare);
@@ -112,6 +119,38 @@ public class TestMascot extends NetworkedTest {
     CustomAsserts.assertFieldElementIsBit(actualBit);
   }
 
+  @Test
+  public void testExpPipeGen() {
+    // set up runtime environment and get contexts
+    initContexts(2);
+
+    // define per party task with params
+    int pipeLength = 6;
+    List<Callable<List<List<AuthenticatedElement>>>> tasks = new ArrayList<>();
+    tasks.add(() -> runExpPipeGeneration(contexts.get(1), macKeyShareOne, 3, pipeLength));
+    tasks.add(() -> runExpPipeGeneration(contexts.get(2), macKeyShareTwo, 3, pipeLength));
+
+    List<List<List<AuthenticatedElement>>> results = testRuntime.runPerPartyTasks(tasks);
+    assertEquals(3, results.get(0).size());
+    assertEquals(3, results.get(1).size());
+    FieldElement macKey = macKeyShareOne.add(macKeyShareTwo);
+    for (int p = 0; p < 3; p++) {
+      List<AuthenticatedElement> pipe =
+          Addable.sumRows(Arrays.asList(results.get(0).get(p), results.get(1).get(p)));
+      assertEquals(pipeLength + 2, pipe.size());
+      for (AuthenticatedElement element : pipe) {
+        CustomAsserts.assertEquals(element.getShare().multiply(macKey), element.getMac());
+      }
+      FieldElement random = pipe.get(1).getShare();
+      CustomAsserts.assertEquals(new FieldElement(1, getModulus()),
+          pipe.get(0).getShare().multiply(random));
+      for (int i = 2; i < pipe.size(); i++) {
+        CustomAsserts.assertEquals(pipe.get(i - 1).getShare().multiply(random),
+            pipe.get(i).getShare());
+      }
+    }
+  }
+
   @Test
   public void testInputMask() {
     // set up runtime environment and get contexts